@@ -1041,6 +1041,91 @@ public class DataInfo extends Keyed<DataInfo> {
       row.offset = chunks[offsetChunkId()].atd(rid);
     return row;
   }
+
+  /**
+   * Extract dense rows {@code [from,to)} into {@code rows[0,to-from)}, as
+   * {@link #extractDenseRow} does for each row, but decoding one column at a
+   * time with the Chunk bulk interface.  As with extractDenseRow, rows with
+   * zero weight or bad predictors are left partially filled.
+   */
+  public final void extractDenseRows(Chunk[] chunks, int from, int to, Row[] rows) {
+    if (_interactionVecs != null) { // Interactions are expanded row by row
+      for (int r = from; r < to; ++r)
+        extractDenseRow(chunks, r, rows[r - from]);
+      return;
+    }
+    final int n = to - from;
+    final long start = chunks[0].start();
+    double[] vals = MemoryManager.malloc8d(n);
+    long[] nas = Chunk.naBitmap(n);
+    boolean[] skip = new boolean[n];
+    for (int k = 0; k < n; ++k) {
+      Row row = rows[k];
+      row.predictors_bad = false;
+      row.response_bad = false;
+      row.rid = from + k + start;
+      row.cid = from + k;
+      row.nBins = 0;
+    }
+    if (_weights) {
+      chunks[weightChunkId()].getDoubles(vals, from, to);
+      for (int k = 0; k < n; ++k)
+        rows[k].weight = vals[k];
+    }
+    for (int k = 0; k < n; ++k)
+      skip[k] = rows[k].weight == 0;
+    if (_skipMissing) {
+      for (int i = 0; i < _cats + _nums; ++i)
+        if (chunks[i].getDoubles(vals, nas, from, to) > 0)
+          for (int k = 0; k < n; ++k)
+            if (!skip[k] && Chunk.isNA(nas, k)) {
+              rows[k].predictors_bad = true;
+              skip[k] = true;
+            }
+    }
+    for (int i = 0; i < _cats; ++i) {
+      int nNAs = chunks[i].getDoubles(vals, nas, from, to);
+      for (int k = 0; k < n; ++k) {
+        if (skip[k]) continue;
+        Row row = rows[k];
+        int cid = getCategoricalId(i, nNAs > 0 && Chunk.isNA(nas, k) ? _catNAFill[i] : (int) vals[k]);
+        if (cid >= 0)
+          row.binIds[row.nBins++] = cid;
+      }
+    }
+    final boolean normalize = _normMul != null && _normSub != null;
+    for (int i = 0; i < _nums; ++i) {
+      chunks[_cats + i].getDoubles(vals, from, to); // NAs as NaN
+      for (int k = 0; k < n; ++k) {
+        if (skip[k]) continue;
+        double d = vals[k];
+        if (Double.isNaN(d))
+          d = _numMeans[i];
+        if (normalize)
+          d = (d - _normSub[i]) * _normMul[i];
+        rows[k].numVals[i] = d;
+      }
+    }
+    for (int i = 0; i < _responses; ++i) {
+      chunks[responseChunkId(i)].getDoubles(vals, from, to);
+      for (int k = 0; k < n; ++k) {
+        Row row = rows[k];
+        if (skip[k] || row.response_bad) continue;
+        row.response[i] = vals[k];
+        if (Double.isNaN(vals[k]))
+          row.response_bad = true;
+        else if (_normRespMul != null)
+          row.response[i] = (row.response[i] - _normRespSub[i]) * _normRespMul[i];
+      }
+    }
+    if (_offset) {
+      chunks[offsetChunkId()].getDoubles(vals, from, to);
+      for (int k = 0; k < n; ++k)
+        if (!skip[k])
+          rows[k].offset = vals[k];
+    }
+  }
+
   public int getInteractionOffset(Chunk[] chunks, int cid, int rid) {
     boolean useAllFactors = ((InteractionWrappedVec)chunks[cid].vec())._useAllFactorLevels;
     InteractionWrappedVec.InteractionWrappedChunk c = (InteractionWrappedVec.InteractionWrappedChunk)chunks[cid];
@@ -39,6 +39,9 @@ public abstract class FrameTask<T extends FrameTask<T>> extends MRTask<T>{
     _seed = seed;
     _iteration = iteration;
     _sparse = sparse;
+    // Every node reads the DataInfo in setupLocal; push it to all of them once
+    // here, rather than have each fetch it from home as the task fans out
+    if( dinfoKey != null && H2O.CLOUD.size() > 1 ) DKV.broadcast(dinfoKey);
   }
   @Override protected void setupLocal(){
     DataInfo dinfo = DKV.get(_dinfoKey).get();
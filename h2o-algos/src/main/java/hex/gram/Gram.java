@@ -14,8 +14,8 @@ import java.util.Arrays;
 
 public final class Gram extends Iced<Gram> {
   boolean _hasIntercept;
-  public double[][] _xx;
-  public double[] _diag;
+  @Packed(Packed.SPARSE) public double[][] _xx; // Zero wherever categoricals never co-occur
+  @Packed(Packed.SPARSE) public double[] _diag;
   public double[][] _frame2DProduce;  // store result of transpose(Aframe)*eigenvector2Darray
   public int _diagN;
   final int _denseN;
@@ -57,8 +57,14 @@ public class GBMV3 extends SharedTreeV3<GBM,GBMV3,GBMV3.GBMParametersV3> {
       "col_sample_rate_per_tree",
       "min_split_improvement",
       "histogram_type",
+      "prebinned",
+      "histogram_subtraction",
+      "row_partitions",
       "max_abs_leafnode_pred",
       "pred_noise_bandwidth",
+      "max_leaves",
+      "goss_top_rate",
+      "goss_other_rate",
       "categorical_encoding"
 //      "use_new_histo_tsk",
 //      "col_block_sz",
@@ -83,6 +89,15 @@ public class GBMV3 extends SharedTreeV3<GBM,GBMV3,GBMV3.GBMParametersV3> {
     @API(help="Bandwidth (sigma) of Gaussian multiplicative noise ~N(1,sigma) for tree node predictions", level = API.Level.expert, gridable = true)
     public double pred_noise_bandwidth;
 
+    @API(help="Grow trees best-first, splitting the leaves of highest squared error improvement first, up to this many leaves per tree (max_depth still applies); 0 grows trees level by level", level = API.Level.expert, gridable = true)
+    public int max_leaves;
+
+    @API(help="GOSS row sampling: fraction of rows of the largest gradients every tree is grown on (from 0.0 to 1.0); 0 for no GOSS sampling", level = API.Level.expert, gridable = true)
+    public double goss_top_rate;
+
+    @API(help="GOSS row sampling: fraction of all rows sampled out of the rest, with their weights scaled up to match", level = API.Level.expert, gridable = true)
+    public double goss_other_rate;
+
 //    // TODO debug only, remove!
 //    @API(help="Internal flag, use new version of histo tsk if set", level = API.Level.expert, gridable = false)
 //    public boolean use_new_histo_tsk;
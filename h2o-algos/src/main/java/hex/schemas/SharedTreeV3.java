@@ -90,5 +90,14 @@ public class SharedTreeV3<B extends SharedTree, S extends SharedTreeV3<B,S,P>, P
 
     @API(help="What type of histogram to use for finding optimal split points", values = { "AUTO", "UniformAdaptive", "Random", "QuantilesGlobal", "RoundRobin"}, level = API.Level.secondary, gridable = true)
     public SharedTreeParameters.HistogramType histogram_type;
+
+    @API(help="Quantize numerical columns to their global bins (QuantilesGlobal split points) once per model and build all histograms from the bin codes; splits are then only made at the global split points. Requires histogram_type QuantilesGlobal or RoundRobin.", level = API.Level.expert, gridable = true)
+    public boolean prebinned;
+
+    @API(help="Build only the smaller child's histograms of each split by scanning its rows, and derive the larger child's as the parent's histograms minus the smaller's. Applies to columns whose bins line up between levels: pre-binned columns, and integer and categorical columns with one bin per value.", level = API.Level.expert, gridable = true)
+    public boolean histogram_subtraction;
+
+    @API(help="Keep, per node and across the levels of a tree, the rows still in undecided leaves, and score and sort only those at each level instead of every row. Costs an int per live row per node while the model is built; not used for best-first trees.", level = API.Level.expert, gridable = true)
+    public boolean row_partitions;
   }
 }
@@ -2,7 +2,9 @@ package hex.tree;
 
 import sun.misc.Unsafe;
 import water.*;
+import water.fvec.Chunk;
 import water.fvec.Frame;
+import water.fvec.NewChunk;
 import water.fvec.Vec;
 import water.nbhm.UtilUnsafe;
 import water.util.ArrayUtils;
@@ -50,6 +52,7 @@ public final class DHistogram extends Iced {
   public double _step;     // Linear interpolation step per bin
   public final double _min, _maxEx; // Conservative Min/Max over whole collection.  _maxEx is Exclusive.
 
+  @Packed(Packed.SPARSE) // Deep trees leave most bins empty
   protected double [] _vals;
   public double w(int i){  return _vals[3*i+0];}
   public double wY(int i){ return _vals[3*i+1];}
@@ -95,6 +98,10 @@ public final class DHistogram extends Iced {
   public final long _seed;
   public transient boolean _hasQuantiles;
   public Key _globalQuantilesKey; //key under which original top-level quantiles are stored;
+  // Bins are a slice of the global split points, from _codeOffset on: a bin code
+  // from binCodes() maps to bin (code - _codeOffset), see updateHistoCodes()
+  public transient boolean _hasCodes;
+  transient int _codeOffset;
 
 
 
@@ -124,10 +131,67 @@ public final class DHistogram extends Iced {
 
   static class HistoQuantiles extends Keyed<HistoQuantiles> {
     public HistoQuantiles(Key<HistoQuantiles> key, double[] splitPts) {
+      this(key, splitPts, false);
+    }
+    public HistoQuantiles(Key<HistoQuantiles> key, double[] splitPts, boolean binned) {
       super(key);
       this.splitPts = splitPts;
+      this.binned = binned;
     }
     double[/*nbins*/] splitPts;
+    boolean binned; // Column quantized to bin codes: split only at these points, never pad
+  }
+
+  // Index of the global bin holding d: the last split point <= d
+  static int code(double[] splitPts, double d) {
+    int idx = Arrays.binarySearch(splitPts, d);
+    if (idx < 0) idx = -idx - 2;
+    return Math.max(0, Math.min(idx, splitPts.length - 1));
+  }
+
+  /**
+   * Quantize the columns which have global split points (under {@code keys},
+   * one per column) to their global bin codes, once per model.  Histograms
+   * over these columns then read the codes (uint8 or uint16 chunks, NA for
+   * NA) instead of binning the raw values on every level of every tree.
+   * @return a Vec of bin codes per column, null for the columns without split
+   *         points; or null if no column has any
+   */
+  static Vec[] binCodes(Frame fr, Key[] keys) {
+    int[] cols = new int[keys.length];
+    double[][] splitPts = new double[keys.length][];
+    int n = 0;
+    for (int c = 0; c < keys.length; c++) {
+      if (keys[c] == null) continue;
+      HistoQuantiles hq = DKV.getGet(keys[c]);
+      if (hq == null || hq.splitPts == null) continue;
+      splitPts[n] = hq.splitPts;
+      cols[n++] = c;
+    }
+    if (n == 0) return null;
+    Vec[] vecs = new Vec[n];
+    for (int i = 0; i < n; i++) vecs[i] = fr.vec(cols[i]);
+    Vec[] codes = new BinCodesTask(Arrays.copyOf(splitPts, n)).doAll(n, Vec.T_NUM, new Frame(vecs)).outputFrame().vecs();
+    Vec[] res = new Vec[keys.length];
+    for (int i = 0; i < n; i++) res[cols[i]] = codes[i];
+    return res;
+  }
+
+  private static class BinCodesTask extends MRTask<BinCodesTask> {
+    final double[][] _splitPts;
+    BinCodesTask(double[][] splitPts) { _splitPts = splitPts; }
+    @Override public void map(Chunk[] cs, NewChunk[] ncs) {
+      for (int i = 0; i < cs.length; i++) {
+        Chunk c = cs[i];
+        NewChunk nc = ncs[i];
+        double[] splitPts = _splitPts[i];
+        for (int r = 0; r < c._len; r++) {
+          double d = c.atd(r);
+          if (Double.isNaN(d)) nc.addNA();
+          else nc.addNum(code(splitPts, d), 0);
+        }
+      }
+    }
   }
 
 
@@ -259,8 +323,13 @@ public final class DHistogram extends Iced {
           _splitPts = ((HistoQuantiles) DKV.getGet(_globalQuantilesKey)).splitPts;
           if (_splitPts!=null) {
 //            Log.info("Obtaining global splitPoints: " + Arrays.toString(_splitPts));
+            double[] globalPts = _splitPts;
             _splitPts = ArrayUtils.limitToRange(_splitPts, _min, _maxEx);
-            if (_splitPts.length > 1 && _splitPts.length < _nbin)
+            if (hq.binned) {
+              // No padding: every bin stays one global bin, so the bin codes apply
+              _hasCodes = _splitPts.length > 1;
+              _codeOffset = Arrays.binarySearch(globalPts, _splitPts[0]);
+            } else if (_splitPts.length > 1 && _splitPts.length < _nbin)
               _splitPts = ArrayUtils.padUniformly(_splitPts, _nbin);
             if (_splitPts.length <= 1) {
               _splitPts = null; //abort, fall back to uniform binning
@@ -425,6 +494,126 @@ public final class DHistogram extends Iced {
     }
   }
 
+  /**
+   * Same as {@link #updateHisto}, but from the global bin codes of the column
+   * (see {@link #binCodes}) instead of the raw values, so no binning is done.
+   * Only for histograms with {@link #_hasCodes}.  The observed min/max are
+   * tracked to the bounds of the bins hit, which are the global split points.
+   * @param codes bin codes, -1 for NA
+   */
+  public void updateHistoCodes(double[] ws, int[] codes, double[] ys, int [] rows, int hi, int lo){
+    assert _hasCodes;
+    final int off = _codeOffset, last = _nbin - 1;
+    int bmin = _nbin, bmax = -1;
+    for(int r = lo; r< hi; ++r) {
+      int k = rows[r];
+      double weight = ws[k];
+      if (weight == 0) continue;
+      int b = codes[k];
+      if (b < 0) b = _nbin;     // NA bucket
+      else {
+        b -= off;
+        if (b < 0) b = 0; else if (b > last) b = last;
+        if (b < bmin) bmin = b;
+        if (b > bmax) bmax = b;
+      }
+      double y = ys[k];
+      assert (!Double.isNaN(y));
+      double wy = weight * y;
+      double wyy = wy * y;
+      _vals[3*b + 0] += weight;
+      _vals[3*b + 1] += wy;
+      _vals[3*b + 2] += wyy;
+    }
+    if (bmax >= 0) trackCodeBounds(bmin, bmax);
+  }
+
+  // Min/max of values in global bins bmin..bmax: the bounds of the bins
+  private void trackCodeBounds(int bmin, int bmax) {
+    double min = Math.max(_min, _splitPts[bmin]);
+    double maxIn = Math.nextAfter(bmax < _nbin - 1 ? _splitPts[bmax+1] : _maxEx, Double.NEGATIVE_INFINITY);
+    if (_isInt > 0) { min = Math.ceil(min); maxIn = Math.floor(maxIn); }
+    if (min < _min2) _min2 = min;
+    if (maxIn > _maxIn) _maxIn = Math.max(maxIn, min);
+  }
+
+  // Histograms of one column can be subtracted bin by bin when their bins sit
+  // on one absolute grid: all global bins of a pre-binned column, or all unit
+  // bins of an integer or categorical column.  Worked out from the serialized
+  // fields, so the same before init(), after it, and on any node.
+  static final int NO_GRID = 0, CODE_GRID = 1, UNIT_GRID = 2;
+  private HistoQuantiles globalQuantiles() {
+    if (_histoType != SharedTreeModel.SharedTreeParameters.HistogramType.QuantilesGlobal || _globalQuantilesKey == null) return null;
+    HistoQuantiles hq = DKV.getGet(_globalQuantilesKey);
+    return hq == null || hq.splitPts == null ? null : hq;
+  }
+  int gridType() {
+    HistoQuantiles hq = globalQuantiles();
+    if (hq != null) {
+      if (ArrayUtils.limitToRange(hq.splitPts, _min, _maxEx).length > 1) // Else init() falls back to uniform bins
+        return hq.binned ? CODE_GRID : NO_GRID;
+    } else if (_histoType == SharedTreeModel.SharedTreeParameters.HistogramType.Random)
+      return NO_GRID;
+    return _isInt > 0 && _step == 1 ? UNIT_GRID : NO_GRID;
+  }
+  // Grid index of bin 0
+  long gridOrigin() {
+    HistoQuantiles hq = globalQuantiles();
+    if (gridType() == CODE_GRID)
+      return Arrays.binarySearch(hq.splitPts, ArrayUtils.limitToRange(hq.splitPts, _min, _maxEx)[0]);
+    return (long) _min;
+  }
+  static boolean sameGrid(DHistogram... hs) {
+    int type = hs[0].gridType();
+    if (type == NO_GRID) return false;
+    for (DHistogram h : hs)
+      if (h.gridType() != type) return false;
+    return true;
+  }
+
+  /**
+   * Histogram subtraction: fill this histogram, of one child of a binary
+   * split, as the histogram of the parent node minus the one of the other
+   * child, instead of scanning its rows.  All three must be on the same grid
+   * (see {@link #sameGrid}).  The observed min/max are the bounds of the
+   * non-empty bins.
+   */
+  void subtract(DHistogram parent, DHistogram sibling) {
+    assert _vals == null && parent._vals != null && sameGrid(this, parent, sibling);
+    init();
+    final long o = gridOrigin(), po = parent.gridOrigin(), so = sibling.gridOrigin();
+    int bmin = _nbin, bmax = -1;
+    for (int b = 0; b < _nbin; b++) {
+      long pb = o + b - po, sb = o + b - so;
+      if (pb < 0 || pb >= parent._nbin) continue; // Parent had no rows out there
+      boolean inSibling = sibling._vals != null && 0 <= sb && sb < sibling._nbin; // No _vals: sibling had no rows
+      if (sub(3*b, parent, 3*(int)pb, sibling, inSibling ? 3*(int)sb : -1)) {
+        if (b < bmin) bmin = b;
+        bmax = b;
+      }
+    }
+    sub(3*_nbin, parent, 3*parent._nbin, sibling, sibling._vals == null ? -1 : 3*sibling._nbin); // NA bucket
+    reducePrecision();
+    if (bmax < 0) return;
+    if (_hasCodes) trackCodeBounds(bmin, bmax);
+    else {                      // Unit bins: exactly one value each
+      _min2 = Math.min(_min2, _min + bmin);
+      _maxIn = Math.max(_maxIn, _min + bmax);
+    }
+  }
+
+  // One bin of parent minus sibling (at si, if >= 0); roundoff of an emptied
+  // bin is cleared.  True if the bin is not empty.
+  private boolean sub(int i, DHistogram parent, int pi, DHistogram sibling, int si) {
+    double pw = parent._vals[pi];
+    double w = pw - (si < 0 ? 0 : sibling._vals[si]);
+    if (w <= 1e-10 * pw) return false;
+    _vals[i] = w;
+    _vals[i+1] = parent._vals[pi+1] - (si < 0 ? 0 : sibling._vals[si+1]);
+    _vals[i+2] = Math.max(0, parent._vals[pi+2] - (si < 0 ? 0 : sibling._vals[si+2]));
+    return true;
+  }
+
   /**
    * Cast bin values *except for sums of weights and Na-bucket counters to floats to drop least significant bits.
    * Improves reproducibility (drop bits most affected by floating point error).
@@ -34,11 +34,16 @@ public class DTree extends Iced {
   // Public stats about tree
   public int _leaves;
   public int _depth;
+  public int _passes;    // Passes over the data made to grow the tree
   public final int _mtrys;           // Number of columns to choose amongst in splits (at every split)
   public final int _mtrys_per_tree;  // Number of columns to choose amongst in splits (once per tree)
   public final transient Random _rand; // RNG for split decisions & sampling
   public final transient int[] _cols; // Per-tree selection of columns to consider for splits
   public transient SharedTreeModel.SharedTreeParameters _parms;
+  // Best-first growth: decided nodes whose split is not made yet, null when
+  // growing level by level; the leaves so far and the budget of leaves
+  private transient ArrayList<DecidedNode> _pending;
+  private transient int _numLeaves, _maxLeaves;
 
 
   // compute the effective number of columns to sample
@@ -93,6 +98,64 @@ public class DTree extends Iced {
 
   public final int len() { return _len; }
 
+  // Node depth, the root is at 0
+  final int depth( int nid ) {
+    int d = 0;
+    while( (nid = node(nid)._pid) != NO_PARENT ) d++;
+    return d;
+  }
+
+  /**
+   * Grow this tree best-first instead of level by level: each pass picks the
+   * split of every new leaf, but only the pending splits of highest gain are
+   * made, until the tree has maxLeaves leaves.  _max_depth still applies.
+   */
+  public void growBestFirst( int maxLeaves ) {
+    assert maxLeaves >= 2;
+    _pending = new ArrayList<>();
+    _numLeaves = 1;
+    _maxLeaves = maxLeaves;
+  }
+  public final boolean isBestFirst() { return _pending != null; }
+  public final boolean canGrow() { return _pending != null && _numLeaves < _maxLeaves; }
+
+  // Best-first: a split picked, and to be made when its gain is among the highest
+  void defer( DecidedNode dn ) {
+    assert dn._pendingHs != null;
+    if( depth(dn._nid) < _parms._max_depth ) _pending.add(dn);
+    else new DecidedNode(dn);   // Can never be split: a leaf
+  }
+
+  /**
+   * Best-first: take the pending nodes to split in this pass, the ones of
+   * highest gain.  Making one split at a time would cost a pass over the data
+   * per leaf, so a pass makes the better half of the pending splits, or a
+   * quarter of the leaves left in the budget if that is more - never more
+   * than the budget.  The leaves grow geometrically to the end, so the last
+   * splits do not take a pass each.
+   */
+  List<DecidedNode> pickBest() {
+    if( !canGrow() ) return Collections.emptyList();
+    Collections.sort(_pending, new Comparator<DecidedNode>() {
+        @Override public int compare( DecidedNode a, DecidedNode b ) {
+          int c = Double.compare(b.gain(), a.gain());
+          return c != 0 ? c : Integer.compare(a._nid, b._nid);
+        }
+      });
+    final int budget = _maxLeaves - _numLeaves;
+    int n = Math.min(Math.min(_pending.size(), budget), Math.max((_pending.size() + 1) / 2, budget / 4));
+    List<DecidedNode> best = new ArrayList<>(_pending.subList(0, n));
+    _pending.subList(0, n).clear();
+    _numLeaves += n;            // Each split turns a leaf into two
+    return best;
+  }
+
+  /** Best-first growth is over: the pending nodes are not split but end as leaves */
+  public void endBestFirst() {
+    for( DecidedNode dn : _pending ) new DecidedNode(dn);
+    _pending = null;
+  }
+
   // --------------------------------------------------------------------------
   // Abstract node flavor
   public static abstract class Node extends Iced {
@@ -301,6 +364,11 @@ public class DTree extends Iced {
   public static class UndecidedNode extends Node {
     public transient DHistogram[] _hs; //(up to) one histogram per column
     public final int _scoreCols[];      // A list of columns to score; could be null for all
+    // Histogram subtraction: columns whose histograms are not scanned, but are the
+    // parent's histograms minus the sibling's; null for none
+    IcedBitSet _derivedCols;
+    transient int _sibling;
+    transient DHistogram[] _parentHs;
     public UndecidedNode( DTree tree, int pid, DHistogram[] hs ) {
       super(tree,pid);
       assert hs.length==tree._ncols;
@@ -348,6 +416,18 @@ public class DTree extends Iced {
       return Arrays.copyOfRange(cols, len, choices);
     }
 
+    boolean scores( int col ) { return _scoreCols == null || ArrayUtils.find(_scoreCols, col) >= 0; }
+
+    boolean isDerived( int col ) { return _derivedCols != null && _derivedCols.contains(col); }
+
+    // Fill the derived histograms, once the sibling's have been built
+    void deriveHistos( DHistogram[] hs, DHistogram[] siblingHs ) {
+      for( int c = 0; c < hs.length; c++ )
+        if( isDerived(c) )
+          hs[c].subtract(_parentHs[c], siblingHs[c]);
+      _parentHs = null;
+    }
+
     // Make the parent of this Node use UNINTIALIZED NIDs for its children to prevent the split that this
     // node otherwise induces.  Happens if we find out too-late that we have a
     // perfect prediction here, and we want to turn into a leaf.
@@ -444,6 +524,7 @@ public class DTree extends Iced {
 
     transient byte _nodeType; // Complex encoding: see the compressed struct comments
     transient int _size = 0;  // Compressed byte size of this subtree
+    transient DHistogram[] _pendingHs; // Split picked but not made yet: the histograms it was picked from
 
     // Make a correctly flavored Undecided
     public UndecidedNode makeUndecidedNode(DHistogram hs[]) {
@@ -495,19 +576,47 @@ public class DTree extends Iced {
       }
     }
 
-    public DecidedNode(UndecidedNode n, DHistogram hs[]) {
+    public DecidedNode(UndecidedNode n, DHistogram hs[]) { this(n, hs, true); }
+
+    /** Pick the split; with grow false it is not made (no children) until {@link #grow} */
+    public DecidedNode(UndecidedNode n, DHistogram hs[], boolean grow) {
       super(n._tree,n._pid,n._nid); // Replace Undecided with this DecidedNode
       _nids = new int[2];           // Split into 2 subsets
+      Arrays.fill(_nids,ScoreBuildHistogram.UNDECIDED_CHILD_NODE_ID);
       _split = bestCol(n,hs);  // Best split-point for this tree
       if( _split == null) {
         // Happens because the predictor columns cannot split the responses -
         // which might be because all predictor columns are now constant, or
         // because all responses are now constant.
         _splat = Float.NaN;
-        Arrays.fill(_nids,ScoreBuildHistogram.UNDECIDED_CHILD_NODE_ID);
         return;
       }
       _splat = _split._nasplit != DHistogram.NASplitDir.NAvsREST && (_split._equal == 0 || _split._equal == 1) ? _split.splat(hs) : -1f; // Split-at value (-1 for group-wise splits)
+      if( grow ) makeChildren(hs);
+      else _pendingHs = hs;     // Rows stay here until the split is made
+    }
+
+    // A picked split which is never made: replace the node with one without
+    // a split, so its rows end in a leaf of the parent, see DTree#endBestFirst
+    DecidedNode(DecidedNode dn) {
+      super(dn._tree,dn._pid,dn._nid);
+      _nids = new int[]{ScoreBuildHistogram.UNDECIDED_CHILD_NODE_ID,ScoreBuildHistogram.UNDECIDED_CHILD_NODE_ID};
+      _split = null;
+      _splat = Float.NaN;
+    }
+
+    /** Make a split picked earlier; returns the histograms it was picked from */
+    public DHistogram[] grow() {
+      DHistogram[] hs = _pendingHs;
+      assert hs != null && _split != null;
+      _pendingHs = null;
+      makeChildren(hs);
+      return hs;
+    }
+
+    double gain() { return _split.pre_split_se() - _split.se(); }
+
+    private void makeChildren( DHistogram hs[] ) {
       for(int way = 0; way <2; way++ ) { // left / right
         // Create children histograms, not yet populated, but the ranges are set
         DHistogram nhists[] = _split.nextLevelHistos(hs, way,_splat, _tree._parms); //maintains the full range for NAvsREST
@@ -517,6 +626,30 @@ public class DTree extends Iced {
       }
     }
 
+    /**
+     * Histogram subtraction: the larger child takes its histograms of the
+     * columns both children score as these (the parent's) histograms minus the
+     * smaller child's, instead of scanning its rows.  Only for columns whose
+     * bins line up on one grid at all three nodes, see DHistogram.subtract.
+     */
+    public void deriveLargerChild( DHistogram hs[] ) {
+      if( _split == null || _nids[0] < 0 || _nids[1] < 0 ) return;
+      int big = _split._n0 >= _split._n1 ? 0 : 1;
+      UndecidedNode large = _tree.undecided(_nids[big]), small = _tree.undecided(_nids[1-big]);
+      IcedBitSet cols = null;
+      for( int c = 0; c < hs.length; c++ ) {
+        if( hs[c] == null || hs[c]._vals == null || large._hs[c] == null || small._hs[c] == null ) continue;
+        if( !large.scores(c) || !small.scores(c) ) continue;
+        if( !DHistogram.sameGrid(hs[c], small._hs[c], large._hs[c]) ) continue;
+        if( cols == null ) cols = new IcedBitSet(hs.length);
+        cols.set(c);
+      }
+      if( cols == null ) return;
+      large._derivedCols = cols;
+      large._sibling = small._nid;
+      large._parentHs = hs;
+    }
+
     public int getChildNodeID(Chunk [] chks, int row ) {
       double d = chks[_split._col].atd(row);
       int bin = -1;
@@ -0,0 +1,126 @@
+package hex.tree;
+
+import water.MRTask;
+import water.fvec.C4VolatileChunk;
+import water.fvec.C8DVolatileChunk;
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.util.ArrayUtils;
+import water.util.RandomUtils;
+
+import java.util.Random;
+
+/**
+ * Gradient-based one-side sampling (GOSS), deterministic like {@link Sample}:
+ * keep every row whose gradient is among the largest top rate of the rows,
+ * and a random other rate of all the rows out of the rest, with their weights
+ * scaled up to stand in for the rows left out.
+ * <p>
+ * The gradient of a row is its work column (what the trees are fit to), in
+ * absolute value and summed over the trees grown together, so these share
+ * one sample.  Rows left out are flagged OUT_OF_BAG in the NIDs; the weights
+ * of the sample go to a Vec of their own, to be used in place of the weights
+ * column.
+ * <p>
+ * Chunk layout: response, weights (if any), then the work and NIDs of each
+ * tree, and last the sample weights.
+ */
+public class GossSample extends MRTask<GossSample> {
+  final long _seed;
+  final int _ntrees;
+  final boolean _hasWeights;
+  final double _threshold;    // Rows with at least this gradient are all kept
+  final double _rate;         // Sampling rate of the other rows
+
+  public GossSample(long seed, int ntrees, boolean hasWeights, double threshold, double topRate, double otherRate) {
+    _seed = seed;
+    _ntrees = ntrees;
+    _hasWeights = hasWeights;
+    _threshold = threshold;
+    _rate = Math.min(1, otherRate / (1 - topRate));
+  }
+
+  @Override
+  public void map(Chunk[] cs) {
+    Chunk ys = cs[0], ws = _hasWeights ? cs[1] : null;
+    int work0 = _hasWeights ? 2 : 1;
+    int[][] nids = new int[_ntrees][];
+    for (int t = 0; t < _ntrees; t++)
+      nids[t] = ((C4VolatileChunk) cs[work0 + 2 * t + 1]).getValues();
+    double[] sws = ((C8DVolatileChunk) cs[cs.length - 1]).getValues();
+    Random rand = RandomUtils.getRNG(_seed);
+    for (int row = 0; row < ys._len; row++) {
+      double w = ws == null ? 1 : ws.atd(row);
+      boolean skip = ys.isNA(row);
+      if (!skip && gradient(cs, work0, _ntrees, row) < _threshold) {
+        rand.setSeed(_seed + row + ys.start()); //seeding is independent of chunking
+        skip = rand.nextFloat() >= _rate; //float is good enough, half as much cost
+        w /= _rate;
+      }
+      sws[row] = w;
+      if (skip)
+        for (int[] is : nids) is[row] = ScoreBuildHistogram.OUT_OF_BAG; // Flag row as being ignored by sampling
+    }
+  }
+
+  static double gradient(Chunk[] cs, int work0, int ntrees, int row) {
+    double g = 0;
+    for (int t = 0; t < ntrees; t++)
+      g += Math.abs(cs[work0 + 2 * t].atd(row));
+    return g;
+  }
+
+  /**
+   * The gradient above which the rows make up the top rate of the weight.
+   * Found from a histogram of the gradients with 8 bins per power of 2, so
+   * the rows kept are the top rate and up to one bin more.
+   */
+  public static double threshold(Frame fr, int ntrees, boolean hasWeights, double topRate, boolean runLocal) {
+    double[] ws = new GradientHisto(ntrees, hasWeights).doAll(fr, runLocal)._ws;
+    if (ws == null) return 0;
+    double total = ArrayUtils.sum(ws), top = 0;
+    for (int b = ws.length - 1; b > 0; b--)
+      if ((top += ws[b]) >= topRate * total) return lowerEdge(b);
+    return 0;
+  }
+
+  // Bin 0 holds gradients below 2^MIN_EXP, the last one those of 2^-MIN_EXP and up
+  static final int MIN_EXP = -64;
+  static final int NBINS = 1 + (-2 * MIN_EXP << 3);
+
+  static int bin(double g) {
+    int e = Math.getExponent(g);
+    if (e < MIN_EXP) return 0;
+    if (e >= -MIN_EXP) return NBINS - 1;
+    int m = (int) (Double.doubleToRawLongBits(g) >>> 49) & 7; // Top 3 bits of the mantissa
+    return 1 + ((e - MIN_EXP) << 3 | m);
+  }
+
+  static double lowerEdge(int bin) {
+    return Math.scalb(1 + ((bin - 1) & 7) / 8.0, ((bin - 1) >> 3) + MIN_EXP);
+  }
+
+  private static class GradientHisto extends MRTask<GradientHisto> {
+    final int _ntrees;
+    final boolean _hasWeights;
+    double[] _ws;               // Row weight per gradient bin
+
+    GradientHisto(int ntrees, boolean hasWeights) { _ntrees = ntrees; _hasWeights = hasWeights; }
+
+    @Override
+    public void map(Chunk[] cs) {
+      _ws = new double[NBINS];
+      Chunk ys = cs[0], ws = _hasWeights ? cs[1] : null;
+      int work0 = _hasWeights ? 2 : 1;
+      for (int row = 0; row < ys._len; row++) {
+        if (ys.isNA(row)) continue;
+        double w = ws == null ? 1 : ws.atd(row);
+        if (w == 0) continue;
+        _ws[bin(gradient(cs, work0, _ntrees, row))] += w;
+      }
+    }
+
+    @Override
+    public void reduce(GradientHisto that) { if (that._ws != null) _ws = ArrayUtils.add(_ws, that._ws); }
+  }
+}
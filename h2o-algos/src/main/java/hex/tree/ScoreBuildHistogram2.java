@@ -4,6 +4,7 @@ import hex.genmodel.utils.DistributionFamily;
 import jsr166y.CountedCompleter;
 import water.*;
 import water.fvec.*;
+import water.nbhm.NonBlockingHashMap;
 import water.util.ArrayUtils;
 import water.util.IcedBitSet;
 import water.util.VecUtils;
@@ -58,6 +59,20 @@ import java.util.concurrent.atomic.AtomicInteger;
  *
  */
 public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
+  /**
+   * Row-partitioned growth: each node keeps, per local chunk and across the
+   * levels of a tree, the rows still in undecided leaves, grouped by leaf.  A
+   * level then only scores and sorts those rows, instead of every row of the
+   * frame; rows in finished leaves are never touched again.  The histograms
+   * come out the same.  Costs an int per live row per node, kept until the
+   * model is built (see {@link #dropRowPartitions}).  This is the default of
+   * the row_partitions parameter.
+   */
+  public static final boolean ROW_PARTITIONS = Boolean.getBoolean(H2O.OptArgs.SYSTEM_PROP_PREFIX + "tree.row_partitions");
+
+  // Live rows per local chunk, per NIDs Vec (one per tree being grown)
+  private static final NonBlockingHashMap<Key,int[][]> LIVE_ROWS = new NonBlockingHashMap<>();
+
   transient int []   _cids;
   transient Chunk[][] _chks;
   transient double [][] _ys;
@@ -66,11 +81,20 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
   transient int [][] _rss;
   Frame _fr2;
   final int _numLeafs;
+  final boolean _rowPartitions;  // As in the parameters; not for best-first trees, whose split rows may wait in decided nodes
+  transient int [][] _liveRows;  // Per local chunk, the rows in undecided leaves after the previous level
   final IcedBitSet _activeCols;
+  final int [] _codeIdx; // Per column: index of its bin codes in _fr2, or -1; null if no column is binned
 
   public ScoreBuildHistogram2(H2O.H2OCountedCompleter cc, int k, int ncols, int nbins, int nbins_cats, DTree tree, int leaf, DHistogram[][] hcs, DistributionFamily family, int weightIdx, int workIdx, int nidIdxs) {
+    this(cc, k, ncols, nbins, nbins_cats, tree, leaf, hcs, family, weightIdx, workIdx, nidIdxs, null);
+  }
+
+  public ScoreBuildHistogram2(H2O.H2OCountedCompleter cc, int k, int ncols, int nbins, int nbins_cats, DTree tree, int leaf, DHistogram[][] hcs, DistributionFamily family, int weightIdx, int workIdx, int nidIdxs, int[] codeIdx) {
     super(cc, k, ncols, nbins, nbins_cats, tree, leaf, hcs, family, weightIdx, workIdx, nidIdxs);
     _numLeafs = _hcs.length;
+    _codeIdx = codeIdx;
+    _rowPartitions = tree._parms._row_partitions && !tree.isBestFirst();
 
     int hcslen = _hcs.length;
     IcedBitSet activeCols = new IcedBitSet(ncols);
@@ -121,36 +145,42 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
   // criteria, and assigning the row to a new child UndecidedNode (and
   // giving it an improved prediction).
   protected int[] score_decide(Chunk chks[], int nnids[]) {
-    int [] res = nnids.clone();
-    for( int row=0; row<nnids.length; row++ ) { // Over all rows
-      int nid = nnids[row];          // Get Node to decide from
-      if( isDecidedRow(nid)) {               // already done
-        res[row] -= _leaf;
-        continue;
-      }
-      // Score row against current decisions & assign new split
-      boolean oob = isOOBRow(nid);
-      if( oob ) nid = oob2Nid(nid); // sampled away - we track the position in the tree
-      DTree.DecidedNode dn = _tree.decided(nid);
-      if( dn._split == null ) { // Might have a leftover non-split
-        if( DTree.isRootNode(dn) ) { res[row] = nid - _leaf; continue; }
-        nid = dn._pid;             // Use the parent split decision then
-        int xnid = oob ? nid2Oob(nid) : nid;
-        nnids[row] = xnid;
-        res[row] = xnid - _leaf;
-        dn = _tree.decided(nid); // Parent steers us
-      }
-      assert !isDecidedRow(nid);
-      nid = dn.getChildNodeID(chks,row); // Move down the tree 1 level
-      if( !isDecidedRow(nid) ) {
-        if( oob ) nid = nid2Oob(nid); // Re-apply OOB encoding
-        nnids[row] = nid;
-      }
-      res[row] = nid-_leaf;
-    }
+    int [] res = new int[nnids.length];
+    for( int row=0; row<nnids.length; row++ ) // Over all rows
+      res[row] = score_decide(chks, nnids, row);
     return res;
   }
 
+  // Score one row, update its NID; returns its new leaf (relative to _leaf), or < 0 if none
+  private int score_decide(Chunk chks[], int nnids[], int row) {
+    int nid = nnids[row];          // Get Node to decide from
+    if( isDecidedRow(nid))         // already done
+      return nid - _leaf;
+    // Score row against current decisions & assign new split
+    boolean oob = isOOBRow(nid);
+    if( oob ) nid = oob2Nid(nid); // sampled away - we track the position in the tree
+    DTree.DecidedNode dn = _tree.decided(nid);
+    if( dn._split == null ) { // Might have a leftover non-split
+      if( DTree.isRootNode(dn) ) return nid - _leaf;
+      nid = dn._pid;             // Use the parent split decision then
+      nnids[row] = oob ? nid2Oob(nid) : nid;
+      dn = _tree.decided(nid); // Parent steers us
+    }
+    assert !isDecidedRow(nid);
+    nid = dn.getChildNodeID(chks,row); // Move down the tree 1 level
+    if( !isDecidedRow(nid) ) {
+      if( oob ) nid = nid2Oob(nid); // Re-apply OOB encoding
+      nnids[row] = nid;
+    }
+    return nid-_leaf;
+  }
+
+  // Row still in an undecided leaf (sampled away or not), so it moves on at the next level
+  private boolean isLiveRow(int nid) {
+    if( isOOBRow(nid) ) nid = oob2Nid(nid);
+    return nid >= _leaf;
+  }
+
   @Override
   public void setupLocal() {
     addToPendingCount(1);
@@ -164,6 +194,12 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
     _ws = new double[_cids.length][];
     _nhs = new int[_cids.length][];
     _rss = new int[_cids.length][];
+    if(_rowPartitions) {
+      Key nidsKey = _fr2.vec(_nidIdx)._key;
+      _liveRows = LIVE_ROWS.get(nidsKey);
+      if(_leaf == 0 || _liveRows == null || _liveRows.length != _cids.length) // Fresh tree
+        LIVE_ROWS.put(nidsKey, _liveRows = new int[_cids.length][]);
+    }
     long [] espc = v.espc();
     int largestChunkSz = 0;
     for(int i = 1; i < espc.length; ++i){
@@ -182,6 +218,10 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
       // more or less copied from ScoreBuildHistogram
       private void map(int id, Chunk [] chks) {
         final C4VolatileChunk nids = (C4VolatileChunk) chks[_nidIdx];
+        if(_liveRows != null) {
+          mapLive(id, chks, nids.getValues());
+          return;
+        }
         // Pass 1: Score a prior partially-built tree model, and make new Node
         // assignments to every row.  This involves pulling out the current
         // assigned DecidedNode, "scoring" the row against that Node's decision
@@ -214,6 +254,42 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
             rows[nh[nnids[row]]++] = row;
 
       }
+      // Same as above, over the live rows only; keeps the ones still live for
+      // the next level.  Each new leaf's rows come from one previous leaf, in
+      // row order, so the rows of a leaf are sorted the same as above.
+      private void mapLive(int id, Chunk [] chks, int [] nids) {
+        int [] live = _liveRows[id];
+        if( live == null ) {       // Fresh tree: all rows but the NA ones
+          assert _leaf == 0;
+          live = new int[nids.length];
+          int n = 0;
+          for (int row = 0; row < nids.length; row++)
+            if (!isDecidedRow(nids[row]))
+              live[n++] = row;
+          live = Arrays.copyOf(live, n);
+        }
+        int [] res = new int[live.length];
+        int nh[] = (_nhs[id] = new int[_numLeafs + 1]);
+        int nout = 0;              // Live, but not histogrammed (sampled away)
+        for (int i = 0; i < live.length; i++) {
+          int r = res[i] = _leaf > 0 ? score_decide(chks, nids, live[i]) : 0;
+          if (r >= 0) nh[r + 1]++;
+          else if (isLiveRow(nids[live[i]])) nout++;
+        }
+        for (int i = 0; i < _numLeafs; i++) nh[i + 1] += nh[i];
+        int nrows = nh[_numLeafs];
+        int rows[] = (_rss[id] = new int[nrows]);
+        int next[] = new int[nrows + nout];
+        int o = nrows;
+        for (int i = 0; i < live.length; i++) {
+          int row = live[i];
+          if (res[i] >= 0) rows[nh[res[i]]++] = row;
+          else if (isLiveRow(nids[row])) next[o++] = row;
+        }
+        System.arraycopy(rows, 0, next, 0, nrows);
+        _liveRows[id] = next;
+      }
+
       @Override
       protected void map(int id) {
         Vec[] vecs = _fr2.vecs();
@@ -282,6 +358,7 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
     final int _maxChunkSz;
     final int _col;
     final DHistogram [] _lh;
+    final int _codeCol;         // Column of the bin codes of _col in _fr2, or -1
 
     AtomicInteger _cidx;
     private boolean _done;
@@ -290,6 +367,7 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
 
     ComputeHistoThread(DHistogram [] hcs, int col, int maxChunkSz,AtomicInteger cidx){
       _lh = hcs; _col = col; _maxChunkSz = maxChunkSz;
+      _codeCol = _codeIdx == null ? -1 : _codeIdx[col];
       _cidx = cidx;
     }
 
@@ -301,29 +379,42 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
     @Override
     protected void map(int id){
       double [] cs = null;
+      int [] codes = null;
       for(int i = _cidx.getAndIncrement(); i < _cids.length; i = _cidx.getAndIncrement()) {
         if(cs == null) cs = MemoryManager.malloc8d(_maxChunkSz);
-        computeChunk(i,cs,_ws[i]);
+        if(codes == null && _codeCol >= 0) codes = MemoryManager.malloc4(_maxChunkSz);
+        computeChunk(i,cs,codes,_ws[i]);
       }
     }
 
-    private void computeChunk(int id, double [] cs, double [] ws){
+    private void computeChunk(int id, double [] cs, int [] codes, double [] ws){
       int [] nh = _nhs[id];
       int [] rs = _rss[id];
       Chunk resChk = _chks[id][_workIdx];
       int len = resChk._len;
       double [] ys = ScoreBuildHistogram2.this._ys[id];
-      if(_weightIdx != -1) _chks[id][_weightIdx].getDoubles(ws, 0, len);
+      // ws were bulk-decoded once per chunk in the first pass; no need to
+      // decode them again for every column
       final int hcslen = _lh.length;
-      boolean extracted = false;
+      boolean extracted = false, extractedCodes = false;
       for (int n = 0; n < hcslen; n++) {
-        int sCols[] = _tree.undecided(n + _leaf)._scoreCols; // Columns to score (null, or a list of selected cols)
+        DTree.UndecidedNode u = _tree.undecided(n + _leaf);
+        if (u.isDerived(_col)) continue; // Parent minus sibling, filled in after the pass
+        int sCols[] = u._scoreCols; // Columns to score (null, or a list of selected cols)
         if (sCols == null || ArrayUtils.find(sCols, _col) >= 0) {
           DHistogram h = _lh[n];
           int hi = nh[n];
           int lo = (n == 0 ? 0 : nh[n - 1]);
           if (hi == lo || h == null) continue; // Ignore untracked columns in this split
           if (h._vals == null) h.init();
+          if (h._hasCodes && _codeCol >= 0) { // Pre-binned column: no need to bin the raw values
+            if (!extractedCodes) {
+              _chks[id][_codeCol].getIntegers(codes,0,len,-1);
+              extractedCodes = true;
+            }
+            h.updateHistoCodes(ws, codes, ys, rs, hi, lo);
+            continue;
+          }
           if (!extracted) {
             _chks[id][_col].getDoubles(cs,0,len);
             extracted = true;
@@ -340,6 +431,41 @@ public class ScoreBuildHistogram2 extends ScoreBuildHistogram {
     }
   }
 
+  /** Forget the row partitions kept for any of these NIDs Vecs, on all nodes */
+  static void dropRowPartitions(Key[] nidsKeys) {
+    new DropRowPartitions(nidsKeys).doAllNodes();
+  }
+
+  private static class DropRowPartitions extends MRTask<DropRowPartitions> {
+    final Key[] _keys;
+    DropRowPartitions(Key[] keys) { _keys = keys; }
+    @Override public void setupLocal() {
+      for (Key k : _keys)
+        if (k != null) LIVE_ROWS.remove(k);
+    }
+  }
+
+  /** Rows kept live for the next level of the tree grown in this NIDs Vec, over all nodes; -1 if none are kept */
+  public static long liveRows(Key nidsKey) {
+    return new CountLiveRows(nidsKey).doAllNodes()._n;
+  }
+
+  private static class CountLiveRows extends MRTask<CountLiveRows> {
+    final Key _key;
+    long _n = -1;
+    CountLiveRows(Key key) { _key = key; }
+    @Override public void setupLocal() {
+      int [][] live = LIVE_ROWS.get(_key);
+      if (live == null) return;
+      _n = 0;
+      for (int [] rows : live)
+        if (rows != null) _n += rows.length;
+    }
+    @Override public void reduce(CountLiveRows that) {
+      if (that._n >= 0) _n = Math.max(_n, 0) + that._n;
+    }
+  }
+
   @Override public void postGlobal(){
     _hcs = ArrayUtils.transpose(_hcs);
     for(DHistogram [] ary:_hcs)
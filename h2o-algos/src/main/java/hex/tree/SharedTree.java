@@ -57,6 +57,12 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
   // Sum of variable empirical improvement in squared-error.  The value is not scaled.
   private transient float[/*nfeatures*/] _improvPerVar;
 
+  // Per predictor column: the Vec of its global bin codes, or null; see _prebinned
+  private transient Vec[] _binCodes;
+  // Row weights of the sample the current trees are grown on, used in place
+  // of the weights column; null if none (see GBM's GOSS sampling)
+  protected transient Vec _sampleWeights;
+
   protected Random _rand;
 
   public boolean isSupervised(){return true;}
@@ -135,6 +141,9 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
     if (_parms._nbins_cats >= 1<<16) error ("_nbins_cats", "nbins_cats must be < " + (1<<16));
     if (_parms._nbins_top_level < _parms._nbins) error ("_nbins_top_level", "nbins_top_level must be >= nbins (" + _parms._nbins + ").");
     if (_parms._nbins_top_level >= 1<<16) error ("_nbins_top_level", "nbins_top_level must be < " + (1<<16));
+    if (_parms._prebinned && _parms._histogram_type != SharedTreeModel.SharedTreeParameters.HistogramType.QuantilesGlobal
+            && _parms._histogram_type != SharedTreeModel.SharedTreeParameters.HistogramType.RoundRobin)
+      error ("_prebinned", "prebinned requires histogram_type QuantilesGlobal or RoundRobin.");
     if (_parms._max_depth <= 0) error ("_max_depth", "_max_depth must be > 0.");
     if (_parms._min_rows <=0) error ("_min_rows", "_min_rows must be > 0.");
     if (_parms._r2_stopping!=Double.MAX_VALUE) warn("_r2_stopping", "_r2_stopping is no longer supported - please use stopping_rounds, stopping_metric and stopping_tolerance instead.");
@@ -274,11 +283,14 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
             if (splitPoints[i]!=null && keys[i]!=null) {
 //              Log.info("Creating quantiles for column " + i + " (key: "+ keys[i] +")");
 //              Log.info("Quantiles for column " + i + ": " + Arrays.toString(quantiles[i]));
-              DKV.put(new DHistogram.HistoQuantiles(keys[i], splitPoints[i]));
+              DKV.put(new DHistogram.HistoQuantiles(keys[i], splitPoints[i], _parms._prebinned));
             }
           }
           qm.delete();
           DKV.remove(rndKey);
+          // One quantization pass, so histograms never re-bin the raw values
+          if (_parms._prebinned)
+            _binCodes = DHistogram.binCodes(_train, getGlobalQuantilesKeys());
         }
 
         // Also add to the basic working Frame these sets:
@@ -321,6 +333,11 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
       } finally {
         if( _model!=null ) _model.unlock(_job);
         for (Key k : getGlobalQuantilesKeys()) if (k!=null) k.remove();
+        if (_binCodes != null)
+          for (Vec v : _binCodes) if (v != null) v.remove();
+        if (_sampleWeights != null) _sampleWeights.remove();
+        if (_parms._row_partitions && _train != null)
+          ScoreBuildHistogram2.dropRowPartitions(_train.keys());
       }
     }
 
@@ -414,16 +431,24 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
 
       // Add temporary workspace vectors (optional weights are taken over from fr)
       int weightIdx = fr2.find(_parms._weights_column);
+      if (_sampleWeights != null) { weightIdx = fr2.numCols(); fr2.add("Sample_weights", _sampleWeights); }
       fr2.add(fr._names[idx_tree(k)],vecs[idx_tree(k)]);                              //tree predictions
       int workIdx = fr2.numCols(); fr2.add(fr._names[idx_work(k)],vecs[idx_work(k)]); //target value to fit (copy of actual response for DRF, residual for GBM)
       int nidIdx  = fr2.numCols(); fr2.add(fr._names[idx_nids(k)],vecs[idx_nids(k)]); //node indices for tree construction
+      int[] codeIdx = null;                                                            //global bin codes of pre-binned predictors
+      if (_binCodes != null) {
+        codeIdx = new int[_ncols];
+        Arrays.fill(codeIdx, -1);
+        for (int c = 0; c < _ncols; c++)
+          if (_binCodes[c] != null) { codeIdx[c] = fr2.numCols(); fr2.add("Bins_" + fr._names[c], _binCodes[c]); }
+      }
       if (DEV_DEBUG) {
         System.out.println("Building a layer for class " + k + ":\n" + fr2.toTwoDimTable());
       }
       // Async tree building
       // step 1: build histograms
       // step 2: split nodes
-      H2O.submitTask(sb1ts[k] = new ScoreBuildOneTree(this,k,nbins, nbins_cats, tree, leafs, hcs, fr2, build_tree_one_node, _improvPerVar, _model._parms._distribution, weightIdx, workIdx, nidIdx));
+      H2O.submitTask(sb1ts[k] = new ScoreBuildOneTree(this,k,nbins, nbins_cats, tree, leafs, hcs, fr2, build_tree_one_node, _improvPerVar, _model._parms._distribution, weightIdx, workIdx, nidIdx, codeIdx));
     }
     // Block for all K trees to complete.
     boolean did_split=false;
@@ -462,10 +487,11 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
     final int _weightIdx;
     final int _workIdx;
     final int _nidIdx;
+    final int _codeIdx[];
 
     boolean _did_split;
 
-    ScoreBuildOneTree(SharedTree st, int k, int nbins, int nbins_cats, DTree tree, int leafs[], DHistogram hcs[][][], Frame fr2, boolean build_tree_one_node, float[] improvPerVar, DistributionFamily family, int weightIdx, int workIdx, int nidIdx) {
+    ScoreBuildOneTree(SharedTree st, int k, int nbins, int nbins_cats, DTree tree, int leafs[], DHistogram hcs[][][], Frame fr2, boolean build_tree_one_node, float[] improvPerVar, DistributionFamily family, int weightIdx, int workIdx, int nidIdx, int codeIdx[]) {
       _st   = st;
       _k    = k;
       _nbins= nbins;
@@ -480,6 +506,7 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
       _weightIdx = weightIdx;
       _workIdx = workIdx;
       _nidIdx = nidIdx;
+      _codeIdx = codeIdx;
     }
     @Override public void compute2() {
       // Fuse 2 conceptual passes into one:
@@ -491,25 +518,33 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
       // got assigned into.  Collect counts, mean, variance, min, max per bin,
       // per column.
 //      new ScoreBuildHistogram(this,_k, _st._ncols, _nbins, _nbins_cats, _tree, _leafOffsets[_k], _hcs[_k], _family, _weightIdx, _workIdx, _nidIdx).dfork2(null,_fr2,_build_tree_one_node);
-      new ScoreBuildHistogram2(this,_k, _st._ncols, _nbins, _nbins_cats, _tree, _leafOffsets[_k], _hcs[_k], _family, _weightIdx, _workIdx, _nidIdx).dfork2(null,_fr2,_build_tree_one_node);
+      new ScoreBuildHistogram2(this,_k, _st._ncols, _nbins, _nbins_cats, _tree, _leafOffsets[_k], _hcs[_k], _family, _weightIdx, _workIdx, _nidIdx, _codeIdx).dfork2(null,_fr2,_build_tree_one_node);
     }
     @Override public void onCompletion(CountedCompleter caller) {
       ScoreBuildHistogram sbh = (ScoreBuildHistogram) caller;
       final int leafOffset = _leafOffsets[_k];
       int tmax = _tree.len();   // Number of total splits in tree K
+      for (int leaf = leafOffset; leaf < tmax; leaf++) { // Histogram subtraction: fill in the derived histograms
+        DTree.UndecidedNode udn = _tree.undecided(leaf);
+        if (udn._derivedCols != null)
+          udn.deriveHistos(sbh._hcs[leaf - leafOffset], sbh._hcs[udn._sibling - leafOffset]);
+      }
+      final boolean bestFirst = _tree.isBestFirst();
+      _tree._passes++;
       for (int leaf = leafOffset; leaf < tmax; leaf++) { // Visit all the new splits (leaves)
         DTree.UndecidedNode udn = _tree.undecided(leaf);
 //        System.out.println((_st._nclass==1?"Regression":("Class "+_st._response.domain()[_k]))+",\n  Undecided node:"+udn);
         // Replace the Undecided with the Split decision
-        DTree.DecidedNode dn = _st.makeDecided(udn, sbh._hcs[leaf - leafOffset]);
+        DTree.DecidedNode dn = _st.makeDecided(udn, sbh._hcs[leaf - leafOffset], !bestFirst);
 //        System.out.println(dn + "\n" + dn._split);
         if (dn._split == null) udn.do_not_split();
-        else {
-          _did_split = true;
-          DTree.Split s = dn._split; // Accumulate squared error improvements per variable
-          float improvement = (float) (s.pre_split_se() - s.se());
-          assert (improvement >= 0);
-          AtomicUtils.FloatArray.add(_improvPerVar, s.col(), improvement);
+        else if (bestFirst) _tree.defer(dn); // Split later, if its gain is among the best
+        else splitMade(dn, sbh._hcs[leaf - leafOffset]);
+      }
+      if (bestFirst) {          // Make the best splits picked so far, this pass or earlier
+        for (DTree.DecidedNode dn : _tree.pickBest()) {
+          splitMade(dn, dn.grow());
+          _tree._depth = Math.max(_tree._depth, _tree.depth(dn.nid()) + 1);
         }
       }
       _leafOffsets[_k] = tmax;          // Setup leafs for next tree level
@@ -518,7 +553,16 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
       for (int nl = tmax; nl < _tree.len(); nl++)
         _hcs[_k][nl - tmax] = _tree.undecided(nl)._hs;
 //      if (_did_split && new_leafs > 0) _tree._depth++;
-      if (_did_split) _tree._depth++; //
+      if (_did_split && !bestFirst) _tree._depth++; //
+    }
+
+    private void splitMade(DTree.DecidedNode dn, DHistogram[] hs) {
+      _did_split = true;
+      if (_tree._parms._histogram_subtraction) dn.deriveLargerChild(hs);
+      DTree.Split s = dn._split; // Accumulate squared error improvements per variable
+      float improvement = (float) (s.pre_split_se() - s.se());
+      assert (improvement >= 0);
+      AtomicUtils.FloatArray.add(_improvPerVar, s.col(), improvement);
     }
   }
 
@@ -577,8 +621,8 @@ public abstract class SharedTree<M extends SharedTreeModel<M,P,O>, P extends Sha
   }
 
   // Builder-specific decision node
-  protected DTree.DecidedNode makeDecided( DTree.UndecidedNode udn, DHistogram hs[] ) {
-    return new DTree.DecidedNode(udn, hs);
+  protected DTree.DecidedNode makeDecided( DTree.UndecidedNode udn, DHistogram hs[], boolean grow ) {
+    return new DTree.DecidedNode(udn, hs, grow);
   }
 
   // Read the 'tree' columns, do model-specific math and put the results in the
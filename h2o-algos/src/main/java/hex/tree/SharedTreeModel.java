@@ -58,6 +58,12 @@ public abstract class SharedTreeModel<
 
     public int _nbins_top_level = 1<<10; //hardcoded maximum top-level number of bins for real-valued columns
 
+    public boolean _prebinned = false; // Quantize numeric columns to their global QuantilesGlobal bins once per model, histograms read the bin codes
+
+    public boolean _histogram_subtraction = false; // Derive the larger child's histograms as parent minus sibling where bins line up
+
+    public boolean _row_partitions = ScoreBuildHistogram2.ROW_PARTITIONS; // Score and sort only the rows still in undecided leaves, kept per node across the levels of a tree
+
     public boolean _build_tree_one_node = false;
 
     public int _score_tree_interval = 0; // score every so many trees (no matter what)
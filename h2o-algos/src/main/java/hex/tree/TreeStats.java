@@ -11,6 +11,7 @@ public class TreeStats extends Iced {
   public float _mean_leaves;
   public long _byte_size;
   public int _num_trees = 0;
+  public int _max_passes = 0; // Most passes over the data taken by one tree
 
   transient long _sum_depth = 0;
   transient long _sum_leaves = 0;
@@ -21,6 +22,7 @@ public class TreeStats extends Iced {
     if( _max_depth == 0 || _max_depth < tree._depth ) _max_depth = tree._depth;
     if( _min_leaves == 0 || _min_leaves > tree._leaves) _min_leaves = tree._leaves;
     if( _max_leaves == 0 || _max_leaves < tree._leaves) _max_leaves = tree._leaves;
+    if( _max_passes < tree._passes ) _max_passes = tree._passes;
     _sum_depth += tree._depth;
     _sum_leaves += tree._leaves;
     _num_trees++;
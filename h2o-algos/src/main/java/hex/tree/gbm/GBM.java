@@ -142,6 +142,18 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
       error("_max_abs_leafnode_pred", "max_abs_leafnode_pred must be larger than 0.");
     if (_parms._pred_noise_bandwidth < 0)
       error("_pred_noise_bandwidth", "pred_noise_bandwidth must be >= 0.");
+    if (_parms._max_leaves != 0 && _parms._max_leaves < 2)
+      error("_max_leaves", "max_leaves must be 0 (grow level by level) or at least 2.");
+    if (_parms._goss_top_rate != 0) {
+      if (!(0. < _parms._goss_top_rate && _parms._goss_top_rate < 1.0))
+        error("_goss_top_rate", "goss_top_rate must be between 0 and 1 (0 for no GOSS sampling).");
+      if (!(0. < _parms._goss_other_rate && _parms._goss_top_rate + _parms._goss_other_rate <= 1.0))
+        error("_goss_other_rate", "goss_other_rate must be larger than 0, and at most 1 - goss_top_rate.");
+      if (_parms._sample_rate < 1 || _parms._sample_rate_per_class != null)
+        error("_goss_top_rate", "GOSS sampling cannot be combined with sample_rate or sample_rate_per_class.");
+      if (_parms._distribution == DistributionFamily.laplace || _parms._distribution == DistributionFamily.quantile || _parms._distribution == DistributionFamily.huber)
+        error("_goss_top_rate", "GOSS sampling is not supported for " + _parms._distribution + " distribution.");
+    }
   }
 
   // ----------------------
@@ -338,8 +350,16 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
       // ----
       // ESL2, page 387.  Step 2b iii.  Compute the gammas (leaf node predictions === fit best constant), and store them back
       // into the tree leaves.  Includes learn_rate.
-      GammaPass gp = new GammaPass(frameMap, ktrees, leaves, new Distribution(_parms), _nclass);
-      gp.doAll(_train);
+      Frame gfr = _train;
+      FrameMap gfm = frameMap;
+      if (_sampleWeights != null) { // Leaf values from the weighted sample too
+        gfr = new Frame(_train);
+        gfr.add("Sample_weights", _sampleWeights);
+        gfm = new FrameMap(GBM.this);
+        gfm.weightIndex = gfr.numCols() - 1;
+      }
+      GammaPass gp = new GammaPass(gfm, ktrees, leaves, new Distribution(_parms), _nclass);
+      gp.doAll(gfr);
       if (_parms._distribution == DistributionFamily.laplace) {
         fitBestConstantsQuantile(ktrees, leaves[0], 0.5); //special case for Laplace: compute the median for each leaf node and store that as prediction
       } else if (_parms._distribution == DistributionFamily.quantile) {
@@ -409,7 +429,9 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
       }
 
       // Sample - mark the lines by putting 'OUT_OF_BAG' into nid(<klass>) vector
-      if (_parms._sample_rate < 1 || _parms._sample_rate_per_class != null) {
+      if (_parms._goss_top_rate > 0) {
+        gossSample(ktrees, rseed);
+      } else if (_parms._sample_rate < 1 || _parms._sample_rate_per_class != null) {
         Sample ss[] = new Sample[_nclass];
         for (int k = 0; k < _nclass; k++)
           if (ktrees[k] != null)
@@ -428,11 +450,24 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
       // ESL2, page 387.  Step 2b ii.
       // One Big Loop till the ktrees are of proper depth.
       // Adds a layer to the trees each pass.
-      int depth = 0;
-      for (; depth < _parms._max_depth; depth++) {
-        hcs = buildLayer(_train, _parms._nbins, _parms._nbins_cats, ktrees, leaves, hcs, _parms._build_tree_one_node);
-        // If we did not make any new splits, then the tree is split-to-death
-        if (hcs == null) break;
+      if (_parms._max_leaves > 0) {
+        // Best-first: each pass splits the best leaves found so far, until the
+        // trees have max_leaves leaves or no leaf is worth splitting
+        for (DTree tree : ktrees)
+          if (tree != null) tree.growBestFirst(_parms._max_leaves);
+        while (canGrow(ktrees)) {
+          hcs = buildLayer(_train, _parms._nbins, _parms._nbins_cats, ktrees, leaves, hcs, _parms._build_tree_one_node);
+          if (hcs == null) break;
+        }
+        for (DTree tree : ktrees)
+          if (tree != null) tree.endBestFirst();
+      } else {
+        int depth = 0;
+        for (; depth < _parms._max_depth; depth++) {
+          hcs = buildLayer(_train, _parms._nbins, _parms._nbins_cats, ktrees, leaves, hcs, _parms._build_tree_one_node);
+          // If we did not make any new splits, then the tree is split-to-death
+          if (hcs == null) break;
+        }
       }
 
       // Each tree bottomed-out in a DecidedNode; go 1 more level and insert
@@ -465,6 +500,29 @@ public class GBM extends SharedTree<GBMModel,GBMModel.GBMParameters,GBMModel.GBM
     }
 
 
+    // GOSS: one sample for all K trees, keeping the rows of large gradients
+    private void gossSample(DTree[] ktrees, long seed) {
+      if (_sampleWeights == null) _sampleWeights = _response.makeVolatileDoubles(1)[0];
+      Frame fr = new Frame(_response);
+      if (hasWeightCol()) fr.add(_parms._weights_column, _train.vecs()[idx_weight()]);
+      int ntrees = 0;
+      for (int k = 0; k < _nclass; k++) {
+        if (ktrees[k] == null) continue;
+        fr.add(_train.names()[idx_work(k)], vec_work(_train, k));
+        fr.add(_train.names()[idx_nids(k)], vec_nids(_train, k));
+        ntrees++;
+      }
+      double threshold = GossSample.threshold(fr, ntrees, hasWeightCol(), _parms._goss_top_rate, _parms._build_tree_one_node);
+      fr.add("Sample_weights", _sampleWeights);
+      new GossSample(seed, ntrees, hasWeightCol(), threshold, _parms._goss_top_rate, _parms._goss_other_rate).doAll(fr, _parms._build_tree_one_node);
+    }
+
+    private boolean canGrow(DTree[] ktrees) {
+      for (DTree tree : ktrees)
+        if (tree != null && tree.canGrow()) return true;
+      return false;
+    }
+
     private void fitBestConstantsQuantile(DTree[] ktrees, int firstLeafIndex, double quantile) {
       if (firstLeafIndex == ktrees[0]._len) return; // no splits happened - nothing to do
       assert(_nclass==1);
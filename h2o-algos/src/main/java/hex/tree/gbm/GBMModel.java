@@ -14,6 +14,9 @@ public class GBMModel extends SharedTreeModel<GBMModel, GBMModel.GBMParameters,
     public double _col_sample_rate;
     public double _max_abs_leafnode_pred;
     public double _pred_noise_bandwidth;
+    public int _max_leaves;     // Grow trees best-first up to this many leaves; 0 grows them level by level
+    public double _goss_top_rate;   // GOSS sampling: rows of the largest gradients always kept; 0 for no GOSS
+    public double _goss_other_rate; // GOSS sampling: rows sampled from the rest, as a fraction of all rows
 
     public GBMParameters() {
       super();
@@ -25,6 +28,9 @@ public class GBMModel extends SharedTreeModel<GBMModel, GBMModel.GBMParameters,
       _max_depth = 5;
       _max_abs_leafnode_pred = Double.MAX_VALUE;
       _pred_noise_bandwidth =0;
+      _max_leaves = 0;
+      _goss_top_rate = 0;
+      _goss_other_rate = 0.1;
     }
 
     public String algoName() { return "GBM"; }
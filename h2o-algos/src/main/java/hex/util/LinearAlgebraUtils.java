@@ -110,6 +110,8 @@ public class LinearAlgebraUtils {
    *        ncolX = number of columns in X
    */
   public static class BMulInPlaceTask extends MRTask<BMulInPlaceTask> {
+    // Rows of X extracted at a time
+    static final int ROW_BLOCK = 256;
     final DataInfo _xinfo;  // Info for frame X
     final double[][] _yt;   // _yt = Y' (transpose of Y)
     final int _ncolX;     // Number of cols in X
@@ -132,21 +134,27 @@ public class LinearAlgebraUtils {
       assert cs.length == _ncolX + _yt.length;
       // Copy over only X frame chunks
       Chunk[] xchk = new Chunk[_ncolX];
-      DataInfo.Row xrow = _xinfo.newDenseRow();
       System.arraycopy(cs,0,xchk,0,_ncolX);
+      final int len = cs[0]._len;
+      DataInfo.Row[] xrows = new DataInfo.Row[Math.min(ROW_BLOCK,len)];
+      for(int k = 0; k < xrows.length; k++) xrows[k] = _xinfo.newDenseRow();
       double sum;
-      for(int row = 0; row < cs[0]._len; row++) {
-        // Extract row of X
-        _xinfo.extractDenseRow(xchk, row, xrow);
-        if (xrow.isBad()) continue;
-        int bidx = _ncolX;
-        for (double[] ps : _yt ) {
-          // Inner product of X row with Y column (Y' row)
-          sum = xrow.innerProduct(ps);
-          cs[bidx].set(row, sum);   // Save inner product to B
-          bidx++;
+      for(int from = 0; from < len; from += xrows.length) {
+        // Extract a block of rows of X, a column at a time
+        int to = Math.min(from + xrows.length, len);
+        _xinfo.extractDenseRows(xchk, from, to, xrows);
+        for(int row = from; row < to; row++) {
+          DataInfo.Row xrow = xrows[row - from];
+          if (xrow.isBad()) continue;
+          int bidx = _ncolX;
+          for (double[] ps : _yt ) {
+            // Inner product of X row with Y column (Y' row)
+            sum = xrow.innerProduct(ps);
+            cs[bidx].set(row, sum);   // Save inner product to B
+            bidx++;
+          }
+          assert bidx == cs.length;
         }
-        assert bidx == cs.length;
       }
     }
   }
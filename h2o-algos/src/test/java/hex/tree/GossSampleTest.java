@@ -0,0 +1,118 @@
+package hex.tree;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.TestUtil;
+import water.fvec.Frame;
+import water.fvec.Vec;
+import water.util.RandomUtils;
+
+import java.util.Random;
+
+public class GossSampleTest extends TestUtil {
+  @BeforeClass
+  public static void stall() { stall_till_cloudsize(1); }
+
+  @Test public void testBinEdges() {
+    Assert.assertEquals(0, GossSample.bin(0));
+    Assert.assertEquals(0, GossSample.bin(Double.MIN_VALUE));
+    Assert.assertEquals(0, GossSample.bin(Math.scalb(1.99, GossSample.MIN_EXP - 1)));
+    Assert.assertEquals(1, GossSample.bin(Math.scalb(1.0, GossSample.MIN_EXP)));
+    Assert.assertEquals(Math.scalb(1.0, GossSample.MIN_EXP), GossSample.lowerEdge(1), 0);
+    Assert.assertEquals(GossSample.NBINS - 1, GossSample.bin(Math.scalb(1.0, -GossSample.MIN_EXP)));
+    Assert.assertEquals(GossSample.NBINS - 1, GossSample.bin(Double.MAX_VALUE));
+    Assert.assertEquals(GossSample.NBINS - 1, GossSample.bin(Double.POSITIVE_INFINITY));
+    // Each bin starts at its lower edge and ends where the next one starts
+    Random rng = RandomUtils.getRNG(0x6055);
+    int prev = 0;
+    for (double g = Math.scalb(1.0, GossSample.MIN_EXP - 2); g < Math.scalb(1.0, -GossSample.MIN_EXP + 2); g *= 1 + rng.nextDouble() / 16) {
+      int b = GossSample.bin(g);
+      Assert.assertTrue("bins grow with the gradient, at " + g, b >= prev);
+      prev = b;
+      if (b == 0) continue;
+      Assert.assertTrue("bin " + b + " of " + g, GossSample.lowerEdge(b) <= g);
+      if (b < GossSample.NBINS - 1)
+        Assert.assertTrue("bin " + b + " of " + g, g < GossSample.lowerEdge(b + 1));
+    }
+    // The edges themselves, and a value just below each
+    for (int b = 1; b < GossSample.NBINS; ++b) {
+      double e = GossSample.lowerEdge(b);
+      Assert.assertEquals(b, GossSample.bin(e));
+      Assert.assertEquals(b - 1, GossSample.bin(Math.nextAfter(e, 0)));
+    }
+  }
+
+  @Test public void testThreshold() {
+    // Gradients 1..100: the top 10% reach into the bin [88,96), 8 per bin in [64,128)
+    Frame fr = frame(100, false);
+    try {
+      Assert.assertEquals(88, GossSample.threshold(fr, 1, false, 0.1, false), 0);
+      Assert.assertEquals(96, GossSample.threshold(fr, 1, false, 0.04, false), 0);
+      Assert.assertEquals(64, GossSample.threshold(fr, 1, false, 0.35, false), 0);
+    } finally {
+      fr.delete();
+    }
+    // A heavy row of gradient 1 outweighs the rest
+    fr = frame(100, true);
+    try {
+      Assert.assertEquals(1, GossSample.threshold(fr, 1, true, 0.5, false), 0);
+      Assert.assertEquals(88, GossSample.threshold(fr, 1, true, 0.01, false), 0);
+    } finally {
+      fr.delete();
+    }
+  }
+
+  @Test public void testSample() {
+    final int n = 20000;
+    final double topRate = 0.2, otherRate = 0.1, rate = otherRate / (1 - topRate);
+    Frame fr = frame(n, false);
+    try {
+      Vec nids = fr.anyVec().makeVolatileInts(new int[]{0})[0];
+      Vec sws = fr.anyVec().makeVolatileDoubles(1)[0];
+      fr.add("nids", nids);
+      fr.add("sample_weights", sws);
+      double threshold = GossSample.threshold(fr, 1, false, topRate, false);
+      new GossSample(0xDECAF, 1, false, threshold, topRate, otherRate).doAll(fr);
+      long top = 0, other = 0;
+      double kept = 0;
+      for (int row = 0; row < n; ++row) {
+        double g = row + 1, w = sws.at(row);
+        boolean in = nids.at8(row) != ScoreBuildHistogram.OUT_OF_BAG;
+        if (g >= threshold) {
+          Assert.assertTrue("top rows are all kept", in);
+          Assert.assertEquals(1, w, 0);
+          top++;
+        } else {
+          Assert.assertEquals(1 / rate, w, 1e-12);
+          if (in) other++;
+        }
+        if (in) kept += w;
+      }
+      // The top rate, up to one bin more: a bin is at most threshold/8 wide,
+      // and there is a row per unit of gradient
+      Assert.assertTrue(top >= topRate * n);
+      Assert.assertTrue(top < topRate * n + threshold / 8);
+      // The rest sampled at the other rate of all rows, their weights making up for the rest
+      double sd = Math.sqrt((n - top) * rate * (1 - rate));
+      Assert.assertEquals(rate * (n - top), other, 5 * sd);
+      Assert.assertEquals(n, kept, 5 * sd / rate);
+    } finally {
+      fr.delete();
+    }
+  }
+
+  // Response, weights (if any) and work, with the gradient of each row its
+  // number from 1; the row of gradient 1 weighs as much as all the others times 10
+  private static Frame frame(int n, boolean weights) {
+    double[] ys = new double[n], ws = new double[n], gs = new double[n];
+    for (int i = 0; i < n; ++i) {
+      gs[i] = i + 1;
+      ws[i] = i == 0 ? 10 * (n - 1) : 1;
+    }
+    Frame fr = new Frame(dvec(ys));
+    if (weights) fr.add("weights", dvec(ws));
+    fr.add("work", dvec(gs));
+    return fr;
+  }
+}
@@ -4,6 +4,8 @@ import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Test;
 import water.*;
+import water.fvec.Frame;
+import water.fvec.Vec;
 import water.util.*;
 
 import java.util.Arrays;
@@ -205,6 +207,174 @@ public class HistogramTest extends TestUtil {
     k.remove();
   }
 
+  @Test public void testBinCodes() {
+    double[] splitPts = new double[]{0,0.5,1,1.5,2,2.5,3,3.5,4,4.5,5};
+    double min = 1.2, maxEx = 4.3;
+    Key raw = Key.make(), binned = Key.make();
+    DKV.put(new DHistogram.HistoQuantiles(raw,splitPts));
+    DKV.put(new DHistogram.HistoQuantiles(binned,splitPts,true));
+    try {
+      SharedTreeModel.SharedTreeParameters.HistogramType histoType = SharedTreeModel.SharedTreeParameters.HistogramType.QuantilesGlobal;
+      DHistogram h1 = new DHistogram("raw",2,2,(byte)0,min,maxEx,0,histoType,1234,raw);
+      DHistogram h2 = new DHistogram("binned",2,2,(byte)0,min,maxEx,0,histoType,1234,binned);
+      h1.init();
+      h2.init();
+      Assert.assertFalse(h1._hasCodes);
+      Assert.assertTrue(h2._hasCodes);
+      Assert.assertEquals(h1.nbins(), h2.nbins());
+      int N = 1000;
+      Random rng = RandomUtils.getRNG(0xBEEF);
+      double[] cs = new double[N], ws = new double[N], ys = new double[N];
+      int[] codes = new int[N], rows = new int[N];
+      double lo = Double.MAX_VALUE, hi = -Double.MAX_VALUE;
+      for (int i = 0; i < N; ++i) {
+        cs[i] = i % 17 == 0 ? Double.NaN : min + rng.nextDouble() * (maxEx - min);
+        codes[i] = Double.isNaN(cs[i]) ? -1 : DHistogram.code(splitPts, cs[i]);
+        ws[i] = i % 5 == 0 ? 0 : 1;
+        ys[i] = rng.nextDouble();
+        rows[i] = i;
+        if (ws[i] != 0 && !Double.isNaN(cs[i])) { lo = Math.min(lo, cs[i]); hi = Math.max(hi, cs[i]); }
+      }
+      h1.updateHisto(ws, cs, ys, rows, N, 0);
+      h2.updateHistoCodes(ws, codes, ys, rows, N, 0);
+      Assert.assertArrayEquals(h1._vals, h2._vals, 0);
+      // Observed bounds are rounded out to the bins hit
+      Assert.assertTrue(h2.find_min() <= lo && lo < h2.find_min() + 0.5);
+      Assert.assertTrue(h2.find_maxIn() >= hi && hi < h2.find_maxEx());
+    } finally {
+      raw.remove();
+      binned.remove();
+    }
+  }
+
+  @Test public void testBinCodesMatchBin() {
+    // The codes of a pre-binned column, shifted by a node's code offset, are
+    // the bins that node's histogram finds for the raw values
+    double[] splitPts = new double[50];
+    for (int i = 0; i < splitPts.length; ++i) splitPts[i] = 2 * i;
+    Key binned = Key.make();
+    DKV.put(new DHistogram.HistoQuantiles(binned, splitPts, true));
+    Random rng = RandomUtils.getRNG(0xB1);
+    double[] vals = new double[5000];
+    for (int i = 0; i < vals.length; ++i)
+      vals[i] = i % 31 == 0 ? Double.NaN : rng.nextDouble() * 100;
+    Frame fr = new Frame(dvec(vals));
+    Vec codes = null;
+    try {
+      codes = DHistogram.binCodes(fr, new Key[]{binned})[0];
+      Assert.assertEquals(fr.numRows(), codes.length());
+      SharedTreeModel.SharedTreeParameters.HistogramType histoType = SharedTreeModel.SharedTreeParameters.HistogramType.QuantilesGlobal;
+      double[][] ranges = {{0, 100}, {12.3, 57.9}, {33, 34.5}, {97.5, 100}};
+      for (double[] range : ranges) {
+        DHistogram h = new DHistogram("binned", 20, 20, (byte) 0, range[0], range[1], 0, histoType, 1234, binned);
+        h.init();
+        Assert.assertTrue(h._hasCodes);
+        for (int row = 0; row < vals.length; ++row) {
+          double d = vals[row];
+          if (Double.isNaN(d)) {
+            Assert.assertTrue(codes.isNA(row));
+            continue;
+          }
+          if (d < range[0] || d >= range[1]) continue;
+          Assert.assertEquals("row " + row + " = " + d + " in " + Arrays.toString(range), h.bin(d), codes.at8(row) - h._codeOffset);
+        }
+      }
+      // A node inside one global bin falls back to raw values
+      DHistogram h = new DHistogram("binned", 20, 20, (byte) 0, 40.5, 41.5, 0, histoType, 1234, binned);
+      h.init();
+      Assert.assertFalse(h._hasCodes);
+    } finally {
+      if (codes != null) codes.remove();
+      fr.delete();
+      binned.remove();
+    }
+  }
+
+  @Test public void testSubtract() {
+    SharedTreeModel.SharedTreeParameters.HistogramType histoType = SharedTreeModel.SharedTreeParameters.HistogramType.UniformAdaptive;
+    // Integer column with one bin per value; the larger child saw a narrower range
+    DHistogram parent = new DHistogram("parent",20,20,(byte)1,0,10,0,histoType,1234,null);
+    DHistogram small = new DHistogram("small",20,20,(byte)1,0,10,0,histoType,1234,null);
+    DHistogram large = new DHistogram("large",20,20,(byte)1,2,10,0,histoType,1234,null);
+    DHistogram scanned = new DHistogram("scanned",20,20,(byte)1,2,10,0,histoType,1234,null);
+    Assert.assertTrue(DHistogram.sameGrid(parent, small, large));
+    int N = 1000;
+    Random rng = RandomUtils.getRNG(0xCAFE);
+    double[] cs = new double[N], ws = new double[N], ys = new double[N];
+    int[] rows = new int[N];
+    int nsmall = 0;
+    for (int i = 0; i < N; ++i) {
+      boolean toSmall = i % 3 == 0;
+      cs[i] = i % 23 == 0 ? Double.NaN : (toSmall ? rng.nextInt(10) : 3 + rng.nextInt(6));
+      ws[i] = 1;
+      ys[i] = rng.nextDouble();
+      if (toSmall) rows[nsmall++] = i;
+    }
+    int[] all = new int[N], rest = new int[N - nsmall];
+    for (int i = 0, j = 0; i < N; ++i) { all[i] = i; if (i % 3 != 0) rest[j++] = i; }
+    parent.init(); small.init(); scanned.init();
+    parent.updateHisto(ws, cs, ys, all, N, 0);
+    small.updateHisto(ws, cs, ys, rows, nsmall, 0);
+    scanned.updateHisto(ws, cs, ys, rest, rest.length, 0);
+    scanned.reducePrecision();
+    large.subtract(parent, small);
+    assertRoundoff(scanned._vals, large._vals);
+    Assert.assertEquals(scanned.find_min(), large.find_min(), 0);
+    Assert.assertEquals(scanned.find_maxIn(), large.find_maxIn(), 0);
+    // Real-valued bins do not line up between levels
+    DHistogram real = new DHistogram("real",20,20,(byte)0,0,10,0,histoType,1234,null);
+    Assert.assertFalse(DHistogram.sameGrid(real, real));
+  }
+
+  @Test public void testSubtractCodeGrid() {
+    // Pre-binned column, weighted rows: the derived histogram is the scanned one to roundoff
+    double[] splitPts = new double[40];
+    for (int i = 0; i < splitPts.length; ++i) splitPts[i] = i * 0.25;
+    Key binned = Key.make();
+    DKV.put(new DHistogram.HistoQuantiles(binned, splitPts, true));
+    try {
+      SharedTreeModel.SharedTreeParameters.HistogramType histoType = SharedTreeModel.SharedTreeParameters.HistogramType.QuantilesGlobal;
+      DHistogram parent = new DHistogram("parent",20,20,(byte)0,0,10,0,histoType,1234,binned);
+      DHistogram small = new DHistogram("small",20,20,(byte)0,0,4,0,histoType,1234,binned);
+      DHistogram large = new DHistogram("large",20,20,(byte)0,3,10,0,histoType,1234,binned);
+      DHistogram scanned = new DHistogram("scanned",20,20,(byte)0,3,10,0,histoType,1234,binned);
+      Assert.assertTrue(DHistogram.sameGrid(parent, small, large));
+      int N = 5000;
+      Random rng = RandomUtils.getRNG(0xD1FF);
+      double[] ws = new double[N], ys = new double[N];
+      int[] codes = new int[N], all = new int[N], rows = new int[N], rest = new int[N];
+      int nsmall = 0, nrest = 0;
+      for (int i = 0; i < N; ++i) {
+        boolean toSmall = rng.nextInt(3) == 0;
+        double d = toSmall ? rng.nextDouble() * 4 : 3 + rng.nextDouble() * 7;
+        codes[i] = i % 29 == 0 ? -1 : DHistogram.code(splitPts, d);
+        ws[i] = rng.nextDouble() * 3;
+        ys[i] = 50 + rng.nextGaussian() * 10;
+        all[i] = i;
+        if (toSmall) rows[nsmall++] = i; else rest[nrest++] = i;
+      }
+      parent.init(); small.init(); scanned.init();
+      parent.updateHistoCodes(ws, codes, ys, all, N, 0);
+      small.updateHistoCodes(ws, codes, ys, rows, nsmall, 0);
+      scanned.updateHistoCodes(ws, codes, ys, rest, nrest, 0);
+      parent.reducePrecision(); small.reducePrecision(); scanned.reducePrecision(); // As built
+      large.subtract(parent, small);
+      Assert.assertEquals(scanned.nbins(), large.nbins());
+      assertRoundoff(scanned._vals, large._vals);
+      Assert.assertEquals(scanned.find_min(), large.find_min(), 0);
+      Assert.assertEquals(scanned.find_maxIn(), large.find_maxIn(), 0);
+    } finally {
+      binned.remove();
+    }
+  }
+
+  // Equal up to a few float roundoffs (histograms are cast to float precision)
+  private static void assertRoundoff(double[] expected, double[] actual) {
+    Assert.assertEquals(expected.length, actual.length);
+    for (int i = 0; i < expected.length; ++i)
+      Assert.assertEquals("bin value " + i, expected[i], actual[i], 1e-6 * Math.max(1, Math.abs(expected[i])));
+  }
+
   @Test public void testShrinking() {
     double[] before = new double[]{0.2,0.28,0.31,0.32,0.32,0.4,0.7,0.81,0.84};
     double[] after = ArrayUtils.makeUniqueAndLimitToRange(before, 0.3,0.8);
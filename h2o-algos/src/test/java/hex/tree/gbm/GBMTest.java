@@ -2,7 +2,12 @@ package hex.tree.gbm;
 
 import hex.*;
 import hex.genmodel.utils.DistributionFamily;
+import hex.tree.DHistogram;
+import hex.tree.DTree;
+import hex.tree.ScoreBuildHistogram;
+import hex.tree.ScoreBuildHistogram2;
 import hex.tree.SharedTreeModel;
+import hex.tree.TreeStats;
 import org.junit.Assert;
 import org.junit.BeforeClass;
 import org.junit.Ignore;
@@ -21,8 +26,10 @@ import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
 
@@ -1926,6 +1933,202 @@ public class GBMTest extends TestUtil {
     }
   }
 
+  @Test public void prebinned() {
+    Frame tfr = null;
+    Key[] ksplits = null;
+    GBMModel gbm = null;
+    try {
+      Scope.enter();
+      tfr = parse_test_file("smalldata/covtype/covtype.20k.data");
+      int resp = 54;
+      Scope.track(tfr.replace(resp, tfr.vecs()[resp].toCategoricalVec()));
+      DKV.put(tfr);
+      SplitFrame sf = new SplitFrame(tfr, new double[]{0.5, 0.5}, new Key[]{Key.make("train.hex"), Key.make("valid.hex")});
+      // Invoke the job
+      sf.exec().get();
+      ksplits = sf._destination_frames;
+      double[] loglosses = new double[2];
+      for (int i = 0; i < 2; ++i) {
+        GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+        parms._train = ksplits[0];
+        parms._valid = ksplits[1];
+        parms._response_column = tfr.names()[resp];
+        parms._learn_rate = 0.05f;
+        parms._histogram_type = SharedTreeModel.SharedTreeParameters.HistogramType.QuantilesGlobal;
+        parms._prebinned = i == 1;
+        parms._ntrees = 10;
+        parms._score_tree_interval = parms._ntrees;
+        parms._max_depth = 5;
+        parms._seed = 0xDECAFFEE;
+
+        GBM job = new GBM(parms);
+        gbm = job.trainModel().get();
+        loglosses[i] = gbm._output._scored_valid[gbm._output._scored_valid.length - 1]._logloss;
+        if (gbm!=null) gbm.delete();
+      }
+      Log.info("QuantilesGlobal validation logloss: " + loglosses[0] + ", prebinned: " + loglosses[1]);
+      // Split points restricted to the global bins: close, not identical
+      assertEquals(loglosses[0], loglosses[1], 0.02 * loglosses[0]);
+    } finally {
+      if (tfr!=null) tfr.delete();
+      if (ksplits[0]!=null) ksplits[0].remove();
+      if (ksplits[1]!=null) ksplits[1].remove();
+      Scope.exit();
+    }
+  }
+
+  @Test public void histogramSubtraction() {
+    Frame tfr = null;
+    Key[] ksplits = null;
+    GBMModel gbm = null;
+    try {
+      Scope.enter();
+      tfr = parse_test_file("smalldata/covtype/covtype.20k.data");
+      int resp = 54;
+      Scope.track(tfr.replace(resp, tfr.vecs()[resp].toCategoricalVec()));
+      DKV.put(tfr);
+      SplitFrame sf = new SplitFrame(tfr, new double[]{0.5, 0.5}, new Key[]{Key.make("train.hex"), Key.make("valid.hex")});
+      // Invoke the job
+      sf.exec().get();
+      ksplits = sf._destination_frames;
+      double[] loglosses = new double[2];
+      for (int i = 0; i < 2; ++i) {
+        GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+        parms._train = ksplits[0];
+        parms._valid = ksplits[1];
+        parms._response_column = tfr.names()[resp];
+        parms._learn_rate = 0.05f;
+        parms._histogram_subtraction = i == 1;
+        parms._ntrees = 10;
+        parms._score_tree_interval = parms._ntrees;
+        parms._max_depth = 8;
+        parms._seed = 0xDECAFFEE;
+
+        GBM job = new GBM(parms);
+        gbm = job.trainModel().get();
+        loglosses[i] = gbm._output._scored_valid[gbm._output._scored_valid.length - 1]._logloss;
+        if (gbm!=null) gbm.delete();
+      }
+      Log.info("Validation logloss: " + loglosses[0] + ", with histogram subtraction: " + loglosses[1]);
+      // Derived histograms equal the scanned ones to roundoff (see HistogramTest),
+      // which can only flip near-tied splits
+      assertEquals(loglosses[0], loglosses[1], 1e-3 * loglosses[0]);
+    } finally {
+      if (tfr!=null) tfr.delete();
+      if (ksplits[0]!=null) ksplits[0].remove();
+      if (ksplits[1]!=null) ksplits[1].remove();
+      Scope.exit();
+    }
+  }
+
+  @Test public void rowPartitions() {
+    Frame tfr = null;
+    GBMModel gbm = null;
+    try {
+      Scope.enter();
+      tfr = parse_test_file("smalldata/covtype/covtype.20k.data");
+      int resp = 54;
+      Scope.track(tfr.replace(resp, tfr.vecs()[resp].toCategoricalVec()));
+      DKV.put(tfr);
+      double[] mses = new double[2];
+      // Rows kept live after each level, per tree grown for the first class
+      final List<List<Long>> live = new ArrayList<>();
+      for (int i = 0; i < 2; ++i) {
+        GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+        parms._train = tfr._key;
+        parms._response_column = tfr.names()[resp];
+        parms._ntrees = 5;
+        parms._max_depth = 15;
+        parms._sample_rate = 0.7; // Sampled-away rows keep moving down the tree
+        parms._seed = 0xDECAFFEE;
+        parms._row_partitions = i == 1;
+
+        GBM job = new GBM(parms) {
+          @Override
+          protected DHistogram[][][] buildLayer(Frame fr, int nbins, int nbins_cats, DTree[] ktrees, int[] leafs, DHistogram[][][] hcs, boolean build_tree_one_node) {
+            if (leafs[0] == 0) live.add(new ArrayList<Long>());
+            DHistogram[][][] res = super.buildLayer(fr, nbins, nbins_cats, ktrees, leafs, hcs, build_tree_one_node);
+            live.get(live.size() - 1).add(ScoreBuildHistogram2.liveRows(fr.vec(idx_nids(0))._key));
+            return res;
+          }
+        };
+        gbm = job.trainModel().get();
+        mses[i] = gbm._output._training_metrics.mse();
+        gbm.delete();
+        gbm = null;
+      }
+      // Same rows in the same order: the same histograms, the same model
+      assertEquals(mses[0], mses[1], 0);
+      // Without partitions nothing is kept; with them, the live rows only
+      // shrink as leaves are finished
+      assertEquals(2 * 5, live.size());
+      for (int t = 0; t < 5; t++)
+        for (long n : live.get(t)) assertEquals(-1, n);
+      for (int t = 5; t < 10; t++) {
+        List<Long> ns = live.get(t);
+        assertTrue(ns.size() > 1);
+        assertTrue(ns.get(0) <= tfr.numRows());
+        for (int l = 1; l < ns.size(); l++)
+          assertTrue("tree " + (t - 5) + ", level " + l + ": " + ns, ns.get(l) <= ns.get(l - 1));
+        assertTrue("tree " + (t - 5) + ": " + ns, ns.get(ns.size() - 1) < ns.get(0));
+      }
+    } finally {
+      if (gbm!=null) gbm.delete();
+      if (tfr!=null) tfr.delete();
+      Scope.exit();
+    }
+  }
+
+  @Test public void maxLeaves() {
+    Frame tfr = null;
+    GBMModel gbm = null;
+    try {
+      Scope.enter();
+      tfr = parse_test_file("smalldata/covtype/covtype.20k.data");
+      int resp = 54;
+      Scope.track(tfr.replace(resp, tfr.vecs()[resp].toCategoricalVec()));
+      DKV.put(tfr);
+      double[] mses = new double[2];
+      for (int i = 0; i < 2; ++i) {
+        GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+        parms._train = tfr._key;
+        parms._response_column = tfr.names()[resp];
+        parms._ntrees = 5;
+        parms._sample_rate = 0.7;
+        parms._seed = 0xDECAFFEE;
+        if (i == 0) {
+          parms._max_depth = 4;  // 16 leaves, level by level
+        } else {
+          parms._max_depth = 20;
+          parms._max_leaves = 16; // 16 leaves, best first
+        }
+
+        GBM job = new GBM(parms);
+        gbm = job.trainModel().get();
+        mses[i] = gbm._output._training_metrics.mse();
+        TreeStats ts = gbm._output._treeStats;
+        assertTrue(ts._max_leaves <= 16);
+        if (i == 1) {
+          // Every tree spends the whole budget, on branches deeper than level by level
+          assertEquals(16, ts._min_leaves);
+          assertEquals(16, ts._max_leaves);
+          assertTrue("depth " + ts._max_depth, ts._max_depth > 4);
+          // Splits are batched: a few passes more than the 4 of level by level, not one per leaf
+          assertTrue("passes " + ts._max_passes, ts._max_passes <= 6);
+        }
+        gbm.delete();
+        gbm = null;
+      }
+      Log.info("MSE level by level: " + mses[0] + ", best first: " + mses[1]);
+      // Same leaf budget, spent where it helps most
+      assertTrue(mses[1] <= mses[0] * 1.05);
+    } finally {
+      if (gbm!=null) gbm.delete();
+      if (tfr!=null) tfr.delete();
+      Scope.exit();
+    }
+  }
+
   @Test public void sampleRatePerClass() {
     Frame tfr = null;
     Key[] ksplits = null;
@@ -1963,6 +2166,96 @@ public class GBMTest extends TestUtil {
     }
   }
 
+  @Test public void goss() {
+    Frame tfr = null;
+    Key[] ksplits = null;
+    GBMModel gbm = null;
+    try {
+      Scope.enter();
+      tfr = parse_test_file("smalldata/covtype/covtype.20k.data");
+      int resp = 54;
+      Scope.track(tfr.replace(resp, tfr.vecs()[resp].toCategoricalVec()));
+      DKV.put(tfr);
+      SplitFrame sf = new SplitFrame(tfr, new double[]{0.5, 0.5}, new Key[]{Key.make("train.hex"), Key.make("valid.hex")});
+      // Invoke the job
+      sf.exec().get();
+      ksplits = sf._destination_frames;
+      double[] loglosses = new double[2];
+      final double topRate = 0.2, otherRate = 0.1, rate = otherRate / (1 - topRate);
+      final int[] samples = new int[1];
+      for (int i = 0; i < 2; ++i) {
+        GBMModel.GBMParameters parms = new GBMModel.GBMParameters();
+        parms._train = ksplits[0];
+        parms._valid = ksplits[1];
+        parms._response_column = tfr.names()[resp];
+        parms._ntrees = 10;
+        parms._score_tree_interval = parms._ntrees;
+        parms._seed = 0xDECAFFEE;
+        if (i == 1) {
+          parms._goss_top_rate = topRate;
+          parms._goss_other_rate = otherRate;
+        }
+
+        GBM job = new GBM(parms) {
+          // Check each sample as the first layer of its trees is built
+          @Override
+          protected DHistogram[][][] buildLayer(Frame fr, int nbins, int nbins_cats, DTree[] ktrees, int[] leafs, DHistogram[][][] hcs, boolean build_tree_one_node) {
+            if (_parms._goss_top_rate > 0 && leafs[0] == 0) {
+              checkSample(fr, ktrees);
+              samples[0]++;
+            }
+            return super.buildLayer(fr, nbins, nbins_cats, ktrees, leafs, hcs, build_tree_one_node);
+          }
+
+          private void checkSample(Frame fr, DTree[] ktrees) {
+            long n = fr.numRows(), top = 0, other = 0, out = 0;
+            double kept = 0, minTop = Double.MAX_VALUE, maxOther = 0;
+            for (long row = 0; row < n; ++row) {
+              double g = 0;
+              boolean in = true;
+              for (int k = 0; k < ktrees.length; ++k) {
+                if (ktrees[k] == null) continue;
+                g += Math.abs(fr.vec(idx_work(k)).at(row));
+                in = vec_nids(fr, k).at8(row) != ScoreBuildHistogram.OUT_OF_BAG;
+              }
+              double w = _sampleWeights.at(row);
+              if (w == 1) {            // Among the top gradients: always kept
+                assertTrue(in);
+                top++;
+                minTop = Math.min(minTop, g);
+              } else {                 // Sampled, standing in for the rest
+                assertEquals(1 / rate, w, 1e-12);
+                maxOther = Math.max(maxOther, g);
+                if (in) other++; else out++;
+              }
+              if (in) kept += w;
+            }
+            assertTrue("top gradients " + minTop + " vs " + maxOther, minTop > maxOther);
+            assertTrue("top rows " + top + " of " + n, top >= topRate * n);
+            double sd = Math.sqrt((n - top) * rate * (1 - rate));
+            assertEquals(rate * (n - top), other, 5 * sd);
+            assertEquals((1 - rate) * (n - top), out, 5 * sd);
+            assertEquals(n, kept, 5 * sd / rate);
+          }
+        };
+        gbm = job.trainModel().get();
+        loglosses[i] = gbm._output._scored_valid[gbm._output._scored_valid.length - 1]._logloss;
+        gbm.delete();
+        gbm = null;
+      }
+      assertEquals(10, samples[0]);
+      Log.info("Validation logloss on all rows: " + loglosses[0] + ", on a GOSS sample: " + loglosses[1]);
+      // 30% of the rows per tree, and close to the same model
+      assertEquals(loglosses[0], loglosses[1], 0.05 * loglosses[0]);
+    } finally {
+      if (gbm!=null) gbm.delete();
+      if (tfr!=null) tfr.delete();
+      if (ksplits[0]!=null) ksplits[0].remove();
+      if (ksplits[1]!=null) ksplits[1].remove();
+      Scope.exit();
+    }
+  }
+
   // PUBDEV-2822
   @Test public void testNA() {
     String xy = ",0\n1,0\n2,0\n3,0\n4,-10\n,0";
@@ -0,0 +1,114 @@
+package water;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import water.fvec.Chunk;
+import water.fvec.NewChunk;
+
+/**
+ * Per-encoding decode benchmark, following {@link ChunkBench}: row-by-row
+ * {@code atd} against the bulk {@code getDoubles}/{@code getLongs} interface,
+ * for a single chunk of each compressed type.
+ */
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ChunkDecodeBench {
+
+  @Param({"C1N", "C2", "C4", "C8", "C8D", "CUD", "CBP", "CRLE", "CDict"})
+  private String encoding;
+  @Param({"1000", "100000"})
+  private int rows;
+  private Chunk chunk;
+  private double[] ds;
+  private long[] ls;
+  private long[] nas;
+
+  @Benchmark
+  public double atdRead() {
+    final Chunk c = chunk;
+    double sum = 0;
+    for (int row = 0; row < rows; ++row)
+      if (!c.isNA(row)) sum += c.atd(row);
+    return sum;
+  }
+
+  @Benchmark
+  public double bulkDoublesRead() {
+    int n = chunk.getDoubles(ds, nas, 0, rows);
+    double sum = 0;
+    for (int i = 0; i < rows; ++i)
+      if (n == 0 || !Chunk.isNA(nas, i)) sum += ds[i];
+    return sum;
+  }
+
+  @Benchmark
+  public long bulkLongsRead() {
+    chunk.getLongs(ls, nas, 0, rows);
+    long sum = 0;
+    for (int i = 0; i < rows; ++i)
+      sum += ls[i]; // NAs decode as 0
+    return sum;
+  }
+
+  @Setup
+  public void setup() {
+    Random rng = new Random(0xDECADE);
+    double[] uniques = new double[100];
+    for (int i = 0; i < uniques.length; ++i) uniques[i] = rng.nextDouble();
+    double[] raw = new double[rows];
+    for (int i = 0; i < rows; ++i)
+      raw[i] = get(encoding, i, rng, uniques);
+    chunk = new NewChunk(raw).compress();
+    String name = chunk.getClass().getSimpleName();
+    if (!name.equals(encoding + "Chunk"))
+      throw new IllegalStateException("Expected a " + encoding + "Chunk, got " + name);
+    ds = new double[rows];
+    ls = new long[rows];
+    nas = Chunk.naBitmap(rows);
+  }
+
+  private static double get(String encoding, int i, Random rng, double[] uniques) {
+    switch (encoding) {
+      case "C1N":   return i % 200;
+      case "C2":    return rng.nextInt(60000) - 30000;
+      case "C4":    return rng.nextInt();
+      case "C8":    return rng.nextLong() >> 11; // Exact as a double, more than 51 bits
+      case "C8D":   return rng.nextDouble();
+      case "CUD":   return uniques[rng.nextInt(uniques.length)];
+      case "CBP":   return rng.nextInt(2000);    // 11 bits
+      case "CRLE":  return (i / 100) * 1000000007L;
+      case "CDict": return 1500000000123L + 7919L * rng.nextInt(50);
+      default:
+        throw H2O.unimpl();
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(ChunkDecodeBench.class.getSimpleName())
+        .build();
+
+    new Runner(opt).run();
+  }
+}
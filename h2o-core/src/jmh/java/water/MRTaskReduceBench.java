@@ -0,0 +1,112 @@
+package water;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.util.concurrent.TimeUnit;
+
+import water.fvec.Chunk;
+import water.fvec.Frame;
+import water.fvec.Vec;
+
+/**
+ * Tree reduce against streaming reduce ({@link MRTask#streamingReduce}) for a
+ * task with a large per-leaf result: a dense Gram-like {@code double[cols*cols]}
+ * made by every map call, as in GLM.  Prints the heap peak of each iteration
+ * next to the timings.
+ */
+@State(Scope.Thread)
+@Fork(value = 1, jvmArgsAppend = "-Xmx4g")
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MRTaskReduceBench {
+
+  @Param({"false", "true"})
+  private boolean streaming;
+  @Param({"200", "500"})
+  private int cols;
+  private Frame fr;
+
+  static class GramTask extends MRTask<GramTask> {
+    final int _n;
+    final boolean _streaming;
+    double[] _xx;
+    GramTask(int n, boolean streaming) { _n = n; _streaming = streaming; }
+    @Override protected boolean streamingReduce() { return _streaming; }
+    @Override public void map(Chunk[] cs) {
+      double[] xx = _xx = new double[_n*_n];
+      double[] row = new double[_n];
+      for (int r = 0; r < cs[0]._len; ++r) {
+        for (int i = 0; i < _n; ++i) row[i] = cs[i % cs.length].atd(r) + i;
+        for (int i = 0; i < _n; ++i)
+          for (int j = 0; j <= i; ++j) xx[i*_n + j] += row[i]*row[j];
+      }
+    }
+    @Override public void reduce(GramTask mrt) {
+      for (int i = 0; i < _xx.length; ++i) _xx[i] += mrt._xx[i];
+    }
+  }
+
+  @Benchmark
+  public double gram() {
+    return new GramTask(cols, streaming).doAll(fr)._xx[0];
+  }
+
+  @Setup
+  public void setup() {
+    H2O.main(new String[]{"-name", "MRTaskReduceBench", "-md5skip"});
+    H2O.waitForCloudSize(1, 30000);
+    // Many small chunks, so the local reduce tree is deep and wide
+    Vec v = Vec.makeCon(0, 100000, 10, false);
+    fr = new Frame(v.makeCopy(null), v.makeCopy(null), v.makeCopy(null), v.makeCopy(null));
+    v.remove();
+  }
+
+  @Setup(Level.Iteration)
+  public void resetPeak() {
+    System.gc();
+    for (MemoryPoolMXBean mp : ManagementFactory.getMemoryPoolMXBeans())
+      if (mp.getType() == MemoryType.HEAP) mp.resetPeakUsage();
+  }
+
+  @TearDown(Level.Iteration)
+  public void printPeak() {
+    long peak = 0;
+    for (MemoryPoolMXBean mp : ManagementFactory.getMemoryPoolMXBeans())
+      if (mp.getType() == MemoryType.HEAP) peak += mp.getPeakUsage().getUsed();
+    System.out.println(" heap peak " + (peak >> 20) + "MB (streaming=" + streaming + ", cols=" + cols + ")");
+  }
+
+  @TearDown
+  public void tearDown() {
+    if (fr != null) fr.remove();
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    Options opt = new OptionsBuilder()
+        .include(MRTaskReduceBench.class.getSimpleName())
+        .build();
+
+    new Runner(opt).run();
+  }
+}
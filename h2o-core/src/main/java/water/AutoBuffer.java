@@ -386,6 +386,9 @@ public final class AutoBuffer {
   static BBPool BBP_SML = new BBPool( 2*1024); // Bytebuffer "common small size", for UDP
   static BBPool BBP_BIG = new BBPool(64*1024); // Bytebuffer "common  big  size", for TCP
   public static int TCP_BUF_SIZ = BBP_BIG._size;
+  // Byte arrays at least this big move between the channel and their backing
+  // storage directly, instead of being staged through _bb a buffer at a time.
+  static final int ZERO_COPY_MIN = BBP_BIG._size;
 
   private int bbFree() {
     if(_bb != null && _bb.isDirect())
@@ -700,6 +703,59 @@ public final class AutoBuffer {
     return _bb;
   }
 
+  // Writing to a channel (TCP or file), not to a byte array or stream
+  private boolean isChannelWrite() { return !_read && _os == null && (_h2o != null || _chan != null); }
+
+  // Ship the buffered bytes and then the payload, straight from its backing
+  // array or file mapping, with gathering writes.  Like sendPartial, but the
+  // payload is never copied through _bb.
+  private void sendDirect( ByteBuffer payload ) {
+    _size += _bb.position() + payload.remaining();
+    if( _chan == null )
+      TimeLine.record_send(this, true);
+
+    _bb.flip(); // Prep for writing.
+    try {
+      if( _chan == null )
+        tcpOpen(); // This is a big operation.  Open a TCP socket as-needed.
+      long ns = System.nanoTime();
+      if( _chan instanceof GatheringByteChannel ) {
+        ByteBuffer[] bbs = new ByteBuffer[]{_bb, payload};
+        while( payload.hasRemaining() ) {
+          ((GatheringByteChannel)_chan).write(bbs);
+          if( RANDOM_TCP_DROP != null && SocketChannelUtils.isSocketChannel(_chan) && RANDOM_TCP_DROP.nextInt(100) == 0 )
+            throw new IOException("Random TCP Write Fail");
+        }
+      } else {                  // e.g. a wrapped (SSL) channel
+        while( _bb.hasRemaining() ) _chan.write(_bb);
+        while( payload.hasRemaining() ) _chan.write(payload);
+      }
+      _time_io_ns += (System.nanoTime()-ns);
+    } catch( IOException e ) {  // Some kind of TCP fail?  See sendPartial
+      throw new AutoBufferException(e);
+    }
+    _firstPage = false;
+    _bb.clear();
+  }
+
+  // Read straight from the channel into the destination, once _bb is drained
+  private void readDirect( ByteBuffer dst ) {
+    assert _read && !_bb.hasRemaining() && _is == null;
+    long ns = System.nanoTime();
+    try {
+      while( dst.hasRemaining() ) {
+        int res = _chan.read(dst);
+        if( res <= 0 ) // Short read, see getImpl
+          throw new AutoBufferException(new EOFException("Reading "+dst.remaining()+" more bytes, AB="+this));
+        _size += res;
+      }
+    } catch( IOException e ) {
+      throw new AutoBufferException(e);
+    }
+    _time_io_ns += (System.nanoTime()-ns);
+    _firstPage = false;
+  }
+
   // Called when the byte buffer doesn't have enough room
   // If buffer is array backed, and the needed room is small,
   // increase the size of the backing array,
@@ -814,6 +870,12 @@ public final class AutoBuffer {
     if( Short.MIN_VALUE <= x && x <= Short.MAX_VALUE ) return put1(255).put2((short)x);
     return put1(254).put4(x);
   }
+  // Bytes putInt takes for this integer
+  static int intSize(int x) {
+    if( 0 <= (x+1)&& (x+1) <= 253 ) return 1;
+    if( Short.MIN_VALUE <= x && x <= Short.MAX_VALUE ) return 3;
+    return 5;
+  }
   // Get a (compressed) integer.  See above for the compression strategy and reasoning.
   int getInt( ) {
     int x = get1U();
@@ -1044,6 +1106,10 @@ public final class AutoBuffer {
       int more = Math.min(_bb.remaining(), len - sofar);
       _bb.get(buf, sofar, more);
       sofar += more;
+      if( sofar < len && len-sofar >= ZERO_COPY_MIN && _chan != null && _is == null ) {
+        readDirect(ByteBuffer.wrap(buf, sofar, len-sofar)); // Big tail: no staging
+        break;
+      }
       if( sofar < len ) getSp(Math.min(_bb.capacity(), len-sofar));
     }
     return buf;
@@ -1264,6 +1330,10 @@ public final class AutoBuffer {
   }
   public AutoBuffer putA1( byte[] ary, int length ) { return putA1(ary,0,length); }
   public AutoBuffer putA1( byte[] ary, int sofar, int length ) {
+    if( length - sofar >= ZERO_COPY_MIN && isChannelWrite() ) {
+      sendDirect(ByteBuffer.wrap(ary, sofar, length - sofar));
+      return this;
+    }
     if (length - sofar > _bb.remaining()) expandByteBuffer(length-sofar);
     while( sofar < length ) {
       int len = Math.min(length - sofar, _bb.remaining());
@@ -1273,6 +1343,26 @@ public final class AutoBuffer {
     }
     return this;
   }
+  /** Same wire format as {@link #putA1(byte[])}, from the remaining bytes of
+   *  {@code src} (left unchanged); e.g. a read-only file mapping. */
+  public AutoBuffer putA1Buffer( ByteBuffer src ) {
+    int len = src.remaining();
+    putInt(len);
+    ByteBuffer s = src.duplicate();
+    if( len >= ZERO_COPY_MIN && isChannelWrite() ) {
+      sendDirect(s);
+      return this;
+    }
+    if (len > _bb.remaining()) expandByteBuffer(len);
+    while( s.hasRemaining() ) {
+      ByteBuffer part = s.duplicate();
+      part.limit(part.position() + Math.min(s.remaining(), _bb.remaining()));
+      s.position(part.limit());
+      _bb.put(part);
+      if( s.hasRemaining() ) sendPartial();
+    }
+    return this;
+  }
   AutoBuffer putA2( short[] ary ) {
     //_arys++;
     if( ary == null ) return putInt(-1);
@@ -1350,6 +1440,18 @@ public final class AutoBuffer {
     }
     return this;
   }
+  // Bytes putA8 takes for this (non-null) array
+  static long a8Size( long[] ary ) {
+    int x=0; for( ; x<ary.length; x++ ) if( ary[x  ]!=0 ) break;
+    int y=ary.length; for( ; y>x; y-- ) if( ary[y-1]!=0 ) break;
+    long size = intSize(x)+intSize(y-x)+(y>x ? intSize(ary.length-y) : 0)+1;
+    long min=Long.MAX_VALUE, max=Long.MIN_VALUE;
+    for( int i=x; i<y; i++ ) { if( ary[i]<min ) min=ary[i]; if( ary[i]>max ) max=ary[i]; }
+    int w = 0 <= min && max < 256 ? 1
+      : Short.MIN_VALUE <= min && max < Short.MAX_VALUE ? 2
+      : Integer.MIN_VALUE <= min && max < Integer.MAX_VALUE ? 4 : 8;
+    return size + (long)w*(y-x);
+  }
   public AutoBuffer putA4f( float[] ary ) {
     //_arys++;
     if( ary == null ) return putInt(-1);
@@ -1383,6 +1485,134 @@ public final class AutoBuffer {
     return this;
   }
 
+  // ---
+  // Packed arrays, picked per field by the @Packed annotation.
+  //
+  // Sparse: a 0 byte and the plain dense encoding (also used for null), or a
+  // 1 byte, the length, the non-zero count, then per non-zero element the
+  // count of zeros skipped before it and the element, as a zig-zag varint for
+  // integers.  Dense whenever that is no bigger, with both sizes counted
+  // exactly.  Zero is bitwise, so -0.0 is kept as a non-zero.
+  //
+  // Delta: the length (-1 for null), then per element the zig-zag varint of
+  // the difference to the previous one (to 0 for the first).
+
+  public AutoBuffer putA8dSparse( double[] ary ) {
+    if( ary == null ) return put1(0).putA8d(null);
+    int nzs = 0;
+    long sparse = 0, dense = (long)ary.length*8; // Bytes past the common length
+    for( int i=0, last=-1; i<ary.length; i++ )
+      if( Double.doubleToRawLongBits(ary[i]) != 0 ) { sparse += intSize(i-last-1)+8; nzs++; last = i; }
+    if( sparse + intSize(nzs) >= dense ) return put1(0).putA8d(ary);
+    put1(1).putInt(ary.length).putInt(nzs);
+    for( int i=0, last=-1; i<ary.length; i++ )
+      if( Double.doubleToRawLongBits(ary[i]) != 0 ) { putInt(i-last-1).put8d(ary[i]); last = i; }
+    return this;
+  }
+  public double[] getA8dSparse( ) {
+    if( get1U() == 0 ) return getA8d();
+    double[] buf = MemoryManager.malloc8d(getInt());
+    for( int nzs=getInt(), i=-1; nzs > 0; nzs-- ) { i += getInt()+1; buf[i] = get8d(); }
+    return buf;
+  }
+  public AutoBuffer putAA8dSparse( double[][] ary ) {
+    if( ary == null ) return putInt(-1);
+    putInt(ary.length);
+    for( double[] a : ary ) putA8dSparse(a);
+    return this;
+  }
+  public double[][] getAA8dSparse( ) {
+    int len = getInt(); if( len == -1 ) return null;
+    double[][] buf = new double[len][];
+    for( int i=0; i<len; i++ ) buf[i] = getA8dSparse();
+    return buf;
+  }
+  public AutoBuffer putA8Sparse( long[] ary ) {
+    if( ary == null ) return put1(0).putA8(null);
+    int nzs = 0;
+    long sparse = intSize(ary.length);
+    for( int i=0, last=-1; i<ary.length; i++ )
+      if( ary[i] != 0 ) { sparse += intSize(i-last-1)+zigZagSize(ary[i]); nzs++; last = i; }
+    if( sparse + intSize(nzs) >= a8Size(ary) ) return put1(0).putA8(ary);
+    put1(1).putInt(ary.length).putInt(nzs);
+    for( int i=0, last=-1; i<ary.length; i++ )
+      if( ary[i] != 0 ) { putInt(i-last-1).putZigZag(ary[i]); last = i; }
+    return this;
+  }
+  public long[] getA8Sparse( ) {
+    if( get1U() == 0 ) return getA8();
+    long[] buf = MemoryManager.malloc8(getInt());
+    for( int nzs=getInt(), i=-1; nzs > 0; nzs-- ) { i += getInt()+1; buf[i] = getZigZag(); }
+    return buf;
+  }
+  public AutoBuffer putA4Sparse( int[] ary ) {
+    if( ary == null ) return put1(0).putA4(null);
+    int nzs = 0;
+    long sparse = 0, dense = (long)ary.length*4; // Bytes past the common length
+    for( int i=0, last=-1; i<ary.length; i++ )
+      if( ary[i] != 0 ) { sparse += intSize(i-last-1)+zigZagSize(ary[i]); nzs++; last = i; }
+    if( sparse + intSize(nzs) >= dense ) return put1(0).putA4(ary);
+    put1(1).putInt(ary.length).putInt(nzs);
+    for( int i=0, last=-1; i<ary.length; i++ )
+      if( ary[i] != 0 ) { putInt(i-last-1).putZigZag(ary[i]); last = i; }
+    return this;
+  }
+  public int[] getA4Sparse( ) {
+    if( get1U() == 0 ) return getA4();
+    int[] buf = MemoryManager.malloc4(getInt());
+    for( int nzs=getInt(), i=-1; nzs > 0; nzs-- ) { i += getInt()+1; buf[i] = (int)getZigZag(); }
+    return buf;
+  }
+  public AutoBuffer putA8Delta( long[] ary ) {
+    if( ary == null ) return putInt(-1);
+    putInt(ary.length);
+    long prev = 0;
+    for( long l : ary ) { putZigZag(l-prev); prev = l; }
+    return this;
+  }
+  public long[] getA8Delta( ) {
+    int len = getInt(); if( len == -1 ) return null;
+    long[] buf = MemoryManager.malloc8(len);
+    long prev = 0;
+    for( int i=0; i<len; i++ ) buf[i] = prev += getZigZag();
+    return buf;
+  }
+  public AutoBuffer putA4Delta( int[] ary ) {
+    if( ary == null ) return putInt(-1);
+    putInt(ary.length);
+    long prev = 0;
+    for( int x : ary ) { putZigZag(x-prev); prev = x; }
+    return this;
+  }
+  public int[] getA4Delta( ) {
+    int len = getInt(); if( len == -1 ) return null;
+    int[] buf = MemoryManager.malloc4(len);
+    long prev = 0;
+    for( int i=0; i<len; i++ ) buf[i] = (int)(prev += getZigZag());
+    return buf;
+  }
+
+  // Zig-zag varint: 7 bits per byte, low bits first, so small values of
+  // either sign take a byte or two.
+  AutoBuffer putZigZag( long x ) {
+    long z = (x << 1) ^ (x >> 63);
+    while( (z & ~0x7FL) != 0 ) { put1((int)((z & 0x7F) | 0x80)); z >>>= 7; }
+    return put1((int)z);
+  }
+  // Bytes putZigZag takes for this integer
+  static int zigZagSize( long x ) {
+    long z = (x << 1) ^ (x >> 63);
+    int n = 1;
+    while( (z & ~0x7FL) != 0 ) { n++; z >>>= 7; }
+    return n;
+  }
+  long getZigZag( ) {
+    long z = 0;
+    int shift = 0, b;
+    do { b = get1U(); z |= (long)(b & 0x7F) << shift; shift += 7; } while( (b & 0x80) != 0 );
+    return (z >>> 1) ^ -(z & 1);
+  }
+
   public AutoBuffer putAA1( byte[][] ary ) {
     //_arys++;
     long xy = putZA(ary);
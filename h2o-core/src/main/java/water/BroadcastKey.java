@@ -0,0 +1,95 @@
+package water;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Push one Value from its home node to every node in the cloud, down the
+ * {@link MRTask} fan-out tree, see {@link DKV#broadcast}.
+ * <p>
+ * Every node installs the copy as a regular cached replica, with its POJO
+ * already deserialized, and the home node records each one as a replica
+ * before the push - so the next Put of the Key invalidates the copies as
+ * usual, and they are never stale.  The home Value stays read-locked while
+ * the push is in flight, holding off Puts to the Key until all nodes have it.
+ * A Value every node already replicates is not pushed again, so callers can
+ * broadcast each time they start a task, as FrameTask does with its DataInfo.
+ */
+public class BroadcastKey extends MRTask<BroadcastKey> {
+  // Broadcasts started from this node (as home), Value bytes shipped, and the
+  // total & max msec they took; and copies installed here by broadcasts.
+  public static final AtomicLong BROADCASTS = new AtomicLong();
+  public static final AtomicLong BYTES = new AtomicLong();
+  public static final AtomicLong MS = new AtomicLong();
+  public static final AtomicLong MAX_MS = new AtomicLong();
+  public static final AtomicLong RECEIVED = new AtomicLong();
+
+  final Key _key;
+  Value _val;                 // Cleared once installed, so results come back empty
+
+  private BroadcastKey( Key key, Value val ) { super(H2O.GET_KEY_PRIORITY); _key = key; _val = val; }
+
+  // Broadcast from anywhere: run the push on the home node
+  static Value broadcast( Key key ) {
+    H2ONode home = H2O.CLOUD._memary[key.home(H2O.CLOUD)];
+    if( home == H2O.SELF ) return atHome(key);
+    RPC.call(home,new Home(key)).get();
+    return DKV.get(key);        // Pushed here too
+  }
+
+  private static Value atHome( Key key ) {
+    assert key.home();
+    long start = System.currentTimeMillis();
+    H2ONode[] nodes = H2O.CLOUD._memary;
+    if( nodes.length == 1 ) return Value.STORE_get(key);
+    H2ONode first = nodes[0] == H2O.SELF ? nodes[1] : nodes[0];
+    Value val;
+    // Record every other node as a replica, as a TaskGetKey would.  The first
+    // read-lock fails if a racing Put already write-locked this Value; once
+    // one is held no write-lock can happen, so the rest succeed.
+    do {
+      val = Value.STORE_get(key);
+      if( val == null ) return null;
+      if( val.isReplicatedTo(nodes) ) return val; // Every node has it already
+    } while( !val.setReplica(first) );
+    for( H2ONode h2o : nodes )
+      if( h2o != H2O.SELF && h2o != first && !val.setReplica(h2o) )
+        throw H2O.fail("Value write-locked while read-locked: "+key);
+    val.memOrLoad();            // Serialize once, shared by all the sends
+    try {
+      new BroadcastKey(key,val).doAllNodes();
+    } finally {
+      for( H2ONode h2o : nodes )
+        if( h2o != H2O.SELF ) val.lowerActiveGetCount(h2o);
+    }
+    long ms = System.currentTimeMillis()-start, max;
+    BROADCASTS.incrementAndGet();
+    BYTES.addAndGet((long)val._max*(nodes.length-1));
+    MS.addAndGet(ms);
+    while( (max=MAX_MS.get()) < ms && !MAX_MS.compareAndSet(max,ms) ) ;
+    return val;
+  }
+
+  // Install the copy on each non-home node.  Children were cloned off this
+  // task before setupLocal, so clearing _val does not change what they ship.
+  @Override public void setupLocal() {
+    Value val = _val;
+    _val = null;
+    if( _key.home() ) return;   // Home has the original
+    assert val._key == null;    // Set transient fields after deserializing
+    val._key = _key;
+    // Same as TaskGetKey: take a racing local Value over ours
+    Value old = H2O.STORE.get(_key);
+    if( old != null && !old.isEmpty() ) old = null;
+    Value res = H2O.putIfMatch(_key,val,old);
+    if( res == old ) {
+      val.get();                // Deserialize now, not on the first get of every task
+      RECEIVED.incrementAndGet();
+    }
+  }
+
+  private static class Home extends DTask<Home> {
+    final Key _key;
+    Home( Key key ) { super(H2O.PUT_KEY_PRIORITY); _key = key; }
+    @Override public void compute2() { atHome(_key); tryComplete(); }
+  }
+}
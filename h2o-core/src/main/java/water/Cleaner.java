@@ -53,6 +53,17 @@ class Cleaner extends Thread {
     MemoryManager.set_goals("init",false);
   }
 
+  // Copy a cold home Chunk into the off-heap tier, if enabled and with room
+  static void parkOffHeap( Value val, Key key ) {
+    if( OffHeapStore.enabled() && !val.isPersisted() && val.onICE() && key.home() )
+      val.moveOffHeap();
+  }
+  // Can the heap copies go?  Yes if a read can get the bytes back from disk,
+  // from the off-heap tier, or from the home node.
+  static boolean canDropHeap( Value val, Key key ) {
+    return val.isPersisted() || val.isOffHeap() || !key.home();
+  }
+
   public static boolean isDiskFull() { // free disk space < 5K?
     long space = availableDiskSpace();
     return space >= 0 && space < (5 << 10);
@@ -74,6 +85,9 @@ class Cleaner extends Thread {
       // - Clean and free old values if above the desired cache level
       // Do not let optimistic cleaning get in the way of emergency cleaning.
 
+      // Free the off-heap copies of overwritten Values gone to garbage
+      OffHeapStore.reclaim();
+
       // Get a recent histogram, computing one as needed
       Histo h = Histo.current(false);
       long now = System.currentTimeMillis();
@@ -83,6 +97,7 @@ class Cleaner extends Thread {
       // the desired cache levels. Inverse: go back to sleep if the cache
       // is below desired levels & nothing has been dirty awhile.
       if( h._cached < DESIRED && // Cache is low and
+          h._offheap <= OffHeapStore.DESIRED && // off-heap tier is within its goal and
           (now-dirty < 5000) ) { // not dirty a long time
         // Block asleep, waking every 5 secs to check for stuff, or when poked
         block_store_cleaner();
@@ -104,15 +119,19 @@ class Cleaner extends Thread {
       // If not forced cleaning, expand the cleaning age to allows Values
       // more than 5sec old
       if( !force ) clean_to_age = Math.max(clean_to_age,now-5000);
-      if( DESIRED == -1 ) clean_to_age = now;  // Test mode: clean all
+      if( DESIRED == -1 ) clean_to_age = Math.max(now,h._newest); // Test mode: clean all ranked so far
+      // Off-heap copies older than this are demoted to disk
+      final EvictionPolicy policy = h._policy;
+      final long offheap_to_age = h._offheap > OffHeapStore.DESIRED ? h.clean_offheap_to(OffHeapStore.DESIRED) : Long.MIN_VALUE;
 
       // No logging if under memory pressure: can deadlock the cleaner thread
-      String s = h+" DESIRED="+(DESIRED>>20)+"M dirtysince="+(now-dirty)+" force="+force+" clean2age="+(now-clean_to_age);
+      String s = h+" policy="+policy+" DESIRED="+(DESIRED>>20)+"M dirtysince="+(now-dirty)+" force="+force+" clean2age="+(now-clean_to_age);
       if( MemoryManager.canAlloc() ) Log.debug(s);
       else                           System.err.println(s);
-      long cleaned = 0;         // Disk i/o bytes
+      final SpillWriter writer = SpillWriter.THE_WRITER;
+      final long cleaned0 = writer._spilled; // Disk i/o bytes
+      final long io_ns0 = writer._io_ns;     // i/o ns writing
       long freed = 0;           // memory freed bytes
-      long io_ns = 0;           // i/o ns writing
 
       // For faster K/V store walking get the NBHM raw backing array,
       // and walk it directly.
@@ -125,15 +144,25 @@ class Cleaner extends Thread {
         if( !(ok instanceof Key  ) ) continue; // Ignore tombstones and Primes and null's
         if( !(ov instanceof Value) ) continue; // Ignore tombstones and Primes and null's
         Value val = (Value)ov;
+        // Rank for eviction; recently touched or valuable Values rank high
+        long rank = policy.rank(val);
+        policy.aged(val);
         byte[] m = val.rawMem();
         Object p = val.rawPOJO();
-        if( m == null && p == null ) continue; // Nothing to throw out
+        if( m == null && p == null ) { // Nothing to throw out from the heap
+          // But the off-heap tier is over its goal: demote its coldest to disk
+          if( rank <= offheap_to_age && val.isOffHeap() && H2O.ARGS.cleaner ) {
+            if( val.isPersisted() ) val.freeOffHeap();
+            else if( !diskFull && val.onICE() ) writer.enqueue(val, true);
+          }
+          continue;
+        }
         if( val.isLockable() ) continue; // we do not want to throw out Lockables.
         boolean isChunk = p instanceof Chunk && !((Chunk)p).isVolatile();
         // Ignore things younger than the required age.  In particular, do
         // not spill-to-disk all dirty things we find.
         long touched = val._lastAccessedTime;
-        if( touched > clean_to_age ) { // Too recently touched?
+        if( rank > clean_to_age ) { // Too recently touched?
           // But can toss out a byte-array if already deserialized & on disk
           // (no need for both forms).  Note no savings for Chunks, for which m==p._mem
           if( val.isPersisted() && m != null && p != null && !isChunk ) {
@@ -150,29 +179,35 @@ class Cleaner extends Thread {
         // Too many POJOs are written to dynamically; cannot spill & reload
         // them without losing changes.
 
+        // Under pressure, park a cold Chunk in native memory if the off-heap
+        // tier has room: its heap copy can then go without a disk write.
+        if( isChunk && force ) parkOffHeap(val,(Key)ok);
+
         // Should I write this value out to disk?
         // Should I further force it from memory?
-        if( isChunk && !val.isPersisted() && !diskFull && ((Key)ok).home() ) { // && (force || (lazyPersist() && lazy_clean(key)))) {
-          long now_ns = System.nanoTime();
-          try { val.storePersist(); } // Write to disk
-          catch( FileNotFoundException fnfe ) { continue; } // Can happen due to racing key delete/remove
-          catch( IOException e ) {
-            Log.warn( isDiskFull()
-                      ? "Disk full! Disabling swapping to disk." + (force?" Memory low! Please free some space in " + H2O.ICE_ROOT + "!":"")
-                      : "Disk swapping failed! " + e.getMessage());
-            // Something is wrong so mark disk as full anyways so we do not
-            // attempt to write again.  (will retry next run when memory is low)
-            diskFull = true;
+        if( isChunk && !val.isPersisted() && !val.isOffHeap() && !diskFull && ((Key)ok).home() ) { // && (force || (lazyPersist() && lazy_clean(key)))) {
+          // Queue for the background writer.  Under pressure, it drops the
+          // heap copy as soon as the write completes.
+          if( val.onICE() ) SpillWriter.THE_WRITER.enqueue(val, force);
+          else {
+            try { val.storePersist(); } // Write to disk
+            catch( FileNotFoundException fnfe ) { continue; } // Can happen due to racing key delete/remove
+            catch( IOException e ) {
+              Log.warn( isDiskFull()
+                        ? "Disk full! Disabling swapping to disk." + (force?" Memory low! Please free some space in " + H2O.ICE_ROOT + "!":"")
+                        : "Disk swapping failed! " + e.getMessage());
+              // Something is wrong so mark disk as full anyways so we do not
+              // attempt to write again.  (will retry next run when memory is low)
+              diskFull = true;
+            }
           }
-          if( m == null ) m = val.rawMem();
-          if( m != null ) cleaned += m.length; // Accumulate i/o bytes
-          io_ns += System.nanoTime() - now_ns; // Accumulate i/o time
         }
         // And, under pressure, free all
-        if( isChunk && force && (val.isPersisted() || !((Key)ok).home()) ) {
+        if( isChunk && force && canDropHeap(val,(Key)ok) ) {
           val.freeMem ();  if( m != null ) freed += val._max;  m = null;
           val.freePOJO();  if( p != null ) freed += val._max;  p = null;
           if( isChunk ) freed -= val._max; // Double-counted freed mem for Chunks since val._pojo._mem & val._mem are the same.
+          EvictionPolicy.evicted(val._max);
         }
         // If we have both forms, toss the byte[] form - can be had by
         // serializing again.
@@ -185,13 +220,20 @@ class Cleaner extends Thread {
         // from RAM as we go
         force = (h._cached >= DESIRED || !MemoryManager.CAN_ALLOC); // Forced to clean
       }
+      // Wait for the queued writes to land (and their heap to be released)
+      // before re-measuring the cache
+      writer.flush();
+      if( writer._failed ) { writer._failed = false; diskFull = true; }
+      long cleaned = writer._spilled - cleaned0;
+      long io_ns = writer._io_ns - io_ns0;
 
       String s1 = "Cleaner pass took: "+PrettyPrint.msecs(System.currentTimeMillis()-now,true)+
                   ", spilled "+PrettyPrint.bytes(cleaned)+" in "+PrettyPrint.usecs(io_ns>>10);
       h = Histo.current(true); // Force a new histogram
       MemoryManager.set_goals("postclean",false);
       // No logging if under memory pressure: can deadlock the cleaner thread
-      String s2 = h+" diski_o="+PrettyPrint.bytes(cleaned)+", freed="+(freed>>20)+"M, DESIRED="+(DESIRED>>20)+"M";
+      String s2 = h+" diski_o="+PrettyPrint.bytes(cleaned)+", freed="+(freed>>20)+"M, DESIRED="+(DESIRED>>20)+"M"+
+                  (OffHeapStore.enabled() ? ", "+OffHeapStore.stats() : "");
       if( MemoryManager.canAlloc() ) Log.debug(s1,s2);
       else                           System.err.println(s1+"\n"+s2);
       // For testing thread
@@ -228,19 +270,25 @@ class Cleaner extends Thread {
     static long swapped(){ return H._swapped;}
 
     final long[] _hs = new long[128];
+    final long[] _hsOff = new long[128]; // Same, for off-heap copies
     long _oldest; // Time of the oldest K/V discovered this pass
+    long _newest; // Highest rank of a cached K/V this pass
     long _eldest; // Time of the eldest K/V found in some prior pass
     long _hStep;  // Histogram step: (now-eldest)/histogram.length
     long _cached; // Total alive data in the histogram
     long _total;  // Total data in local K/V
     long _when;   // When was this histogram computed
     long _swapped;// On-disk stuff
+    long _offheap;// Off-heap stuff; not part of _cached, which is heap only
     Value _vold;  // For assertions: record the oldest Value
+    final EvictionPolicy _policy; // Ranks Values into buckets
     boolean _clean; // Was "clean" K/V when built?
 
     // Compute a histogram
     Histo( long eldest ) {
       Arrays.fill(_hs, 0);
+      Arrays.fill(_hsOff, 0);
+      final EvictionPolicy policy = _policy = EvictionPolicy.current();
       _when = System.currentTimeMillis();
       _eldest = eldest; // Eldest seen in some prior pass
       _hStep = Math.max(1,(_when-eldest)/_hs.length);
@@ -250,7 +298,9 @@ class Cleaner extends Thread {
       long cached = 0; // Total K/V cached in ram
       long total = 0;  // Total K/V in local node
       long swapped=0;  // Total K/V persisted
+      long offheap=0;  // Total K/V in the off-heap tier
       long oldest = Long.MAX_VALUE; // K/V with the longest time since being touched
+      long newest = Long.MIN_VALUE; // Highest rank, at or past the latest touch
       Value vold = null;
       // Start the walk at slot 2, because slots 0,1 hold meta-data
       for( int i=2; i<kvs.length; i += 2 ) {
@@ -268,37 +318,47 @@ class Cleaner extends Thread {
         if( m != null ) len += val._max;
         if( p != null ) len += val._max;
         if( m != null && p instanceof Chunk ) len -= val._max; // Do not double-count Chunks
+        // Compute histogram bucket
+        long rank = policy.rank(val);
+        int idx = (int)Math.max(0,Math.min(_hs.length-1,(rank - eldest)/_hStep));
+        int off = val.offHeapLen();
+        if( off > 0 ) {         // Off-heap copies age separately
+          offheap += off;
+          _hsOff[idx] += off;
+        }
         if( len == 0 ) continue;
         cached += len; // Accumulate total amount of cached keys
 
-        if( val._lastAccessedTime < oldest ) { // Found an older Value?
+        if( rank < oldest ) { // Found an older Value?
           vold = val; // Record oldest Value seen
-          oldest = val._lastAccessedTime;
+          oldest = rank;
         }
-        // Compute histogram bucket
-        int idx = (int)((val._lastAccessedTime - eldest)/_hStep);
-        if( idx < 0 ) idx = 0;
-        else if( idx >= _hs.length ) idx = _hs.length-1;
+        if( rank > newest ) newest = rank;
         _hs[idx] += len;      // Bump histogram bucket
       }
       _cached = cached; // Total cached; NOTE: larger than sum of histogram buckets
       _total = total;   // Total used data
       _swapped = swapped;
+      _offheap = offheap;
       _oldest = oldest; // Oldest seen in this pass
+      _newest = newest;
       _vold = vold;
       _clean = clean && _dirty==Long.MAX_VALUE; // Looks like a clean K/V the whole time?
     }
 
     // Compute the time (in msec) for which we need to throw out things
     // to throw out enough things to hit the desired cached memory level.
-    long clean_to( long desired ) {
+    long clean_to( long desired ) { return clean_to(_hs,_cached,desired); }
+    // Same, for the off-heap tier
+    long clean_offheap_to( long desired ) { return clean_to(_hsOff,_offheap,desired); }
+    private long clean_to( long[] hs, long cached, long desired ) {
       long age = _eldest;       // Age of bucket zero
-      if( _cached < desired ) return age; // Already there; nothing to remove
+      if( cached < desired ) return age; // Already there; nothing to remove
       long s = 0;               // Total amount toss out
-      for( long t : _hs ) {     // For all buckets...
+      for( long t : hs ) {      // For all buckets...
         s += t;                 // Raise amount tossed out
         age += _hStep;          // Raise age beyond which you need to go
-        if( _cached - s < desired ) break;
+        if( cached - s < desired ) break;
       }
       return age;
     }
@@ -307,7 +367,7 @@ class Cleaner extends Thread {
     @Override public String toString() {
       long x = _eldest;
       long now = System.currentTimeMillis();
-      return "H(cached:"+(_cached>>20)+"M, eldest:"+x+"L < +"+(_oldest-x)+"ms <...{"+_hStep+"ms}...< +"+(_hStep*_hs.length)+"ms < +"+(now-x)+")";
+      return "H(cached:"+(_cached>>20)+"M, "+(_offheap > 0 ? "offheap:"+(_offheap>>20)+"M, " : "")+"eldest:"+x+"L < +"+(_oldest-x)+"ms <...{"+_hStep+"ms}...< +"+(_hStep*_hs.length)+"ms < +"+(now-x)+")";
     }
   }
 }
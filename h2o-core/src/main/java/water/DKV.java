@@ -190,7 +190,7 @@ public abstract class DKV {
     Value val = Value.STORE_get(key);
     // Hit in local cache?
     if( val != null ) {
-      if( val.rawMem() != null || val.rawPOJO() != null || val.isPersisted() )
+      if( val.rawMem() != null || val.rawPOJO() != null || val.isOffHeap() || val.isPersisted() )
         return val;
       assert !key.home(); // Master must have *something*; we got nothing & need to fetch
     }
@@ -213,8 +213,102 @@ public abstract class DKV {
     TaskPutKey tpk = home.pendingPutKey(key);
     if( tpk != null ) return tpk._xval == null || tpk._xval.isNull() ? null : tpk._xval;
 
+    // Already coming in with a batch?  Wait on that, unless the home node
+    // left this key out of its answer.
+    RPC<TaskGetKeys> batch = TaskGetKeys.pending(key);
+    if( batch != null ) {
+      if( !blocking ) return null;
+      TaskGetKeys tgks = batch.get();
+      int j = tgks.answered(key);
+      if( j >= 0 ) return tgks._vals[j];
+    }
+
     // Get data "the hard way"
     RPC<TaskGetKey> tgk = TaskGetKey.start(home,key);
     return blocking ? TaskGetKey.get(tgk) : null;
   }
+
+  /** Push the {@link Value} mapped to Key <em>key</em> to every node now,
+   *  instead of letting each node fetch it from home on first use.  For small
+   *  objects read by every node of a task, e.g. a model's output or a
+   *  DataInfo: one serialized copy travels down the MRTask fan-out tree, and
+   *  every node caches it already deserialized.  The copies stay coherent
+   *  like any cached replica: the next Put of the Key invalidates them.
+   *  Blocks till all nodes have the copy; just a check on the home node
+   *  if all nodes have it already.
+   *  @return The {@link Value} mapped to Key <em>key</em>, or null if no
+   *  mapping. */
+  static public Value broadcast( Key key ) { return BroadcastKey.broadcast(key); }
+
+  /** Return the {@link Value}s mapped to the <em>keys</em>, null where there
+   *  is no mapping.  Keys missing locally are fetched with one batched request
+   *  per home node, instead of one request per key.  Blocks till all data is
+   *  available, always caches.
+   *  @return The {@link Value}s mapped to the keys, in the same order */
+  static public Value[] getAll( Key[] keys ) { return getAll(keys,true); }
+  /** Prefetch and cache the Values for the <em>keys</em>, with one batched
+   *  request per home node.  Non-blocking. */
+  static public void prefetchAll( Key[] keys ) { getAll(keys,false); }
+
+  static private Value[] getAll( Key[] keys, boolean blocking ) {
+    H2O cloud = H2O.CLOUD;
+    Value[] vals = blocking ? new Value[keys.length] : null;
+    RPC[] rpcs = new RPC[keys.length];  // The batch each key waits on
+    int[] slots = new int[keys.length]; // ...and its index there, or -1 if unknown
+    // Keys left to fetch, by home node index
+    int[][] fetch = new int[cloud.size()][];
+    int[] nfetch = new int[cloud.size()];
+    for( int i = 0; i < keys.length; i++ ) {
+      Key key = keys[i];
+      Value val = Value.STORE_get(key);
+      // Hit in local cache?  Same checks as a single get.
+      if( val != null && (val.rawMem() != null || val.rawPOJO() != null || val.isOffHeap() || val.isPersisted()) ) {
+        if( blocking ) vals[i] = val;
+        continue;
+      }
+      int hidx = key.home(cloud);
+      H2ONode home = cloud._memary[hidx];
+      if( home == H2O.SELF ) continue; // No mapping
+      TaskPutKey tpk = home.pendingPutKey(key);
+      if( tpk != null ) {
+        if( blocking ) vals[i] = tpk._xval == null || tpk._xval.isNull() ? null : tpk._xval;
+        continue;
+      }
+      if( (rpcs[i] = TaskGetKeys.pending(key)) != null ) { slots[i] = -1; continue; }
+      if( fetch[hidx] == null ) fetch[hidx] = new int[Math.min(keys.length-i, TaskGetKeys.MAX_KEYS)];
+      fetch[hidx][nfetch[hidx]++] = i;
+      if( nfetch[hidx] == fetch[hidx].length ) { // Batch is full, send it
+        startBatch(cloud._memary[hidx], keys, fetch[hidx], nfetch[hidx], rpcs, slots);
+        fetch[hidx] = null;
+        nfetch[hidx] = 0;
+      }
+    }
+    for( int h = 0; h < fetch.length; h++ )
+      if( nfetch[h] > 0 ) startBatch(cloud._memary[h], keys, fetch[h], nfetch[h], rpcs, slots);
+    if( !blocking ) return null;
+    // Collect the answers.  Keys the home node left out of a batch, because
+    // the batch grew too large, are mostly few: get those one by one.
+    for( int i = 0; i < keys.length; i++ ) {
+      if( rpcs[i] == null ) continue;
+      RPC<TaskGetKeys> rpc = rpcs[i];
+      TaskGetKeys tgks;
+      try { tgks = rpc.get(); }
+      catch( RuntimeException e ) { TaskGetKeys.clear(rpc); throw e; }
+      if( tgks == null ) {      // Cancelled, e.g. the home node left
+        TaskGetKeys.clear(rpc);
+        vals[i] = get(keys[i]);
+        continue;
+      }
+      int j = slots[i] >= 0 ? slots[i] : tgks.answered(keys[i]);
+      vals[i] = j >= 0 && j < tgks._n ? tgks._vals[j] : get(keys[i]);
+    }
+    return vals;
+  }
+
+  private static void startBatch( H2ONode home, Key[] keys, int[] idxs, int n, RPC[] rpcs, int[] slots ) {
+    Key[] ks = new Key[n];
+    for( int j = 0; j < n; j++ ) ks[j] = keys[idxs[j]];
+    RPC<TaskGetKeys> rpc = TaskGetKeys.start(home,ks);
+    for( int j = 0; j < n; j++ ) { rpcs[idxs[j]] = rpc; slots[idxs[j]] = j; }
+  }
 }
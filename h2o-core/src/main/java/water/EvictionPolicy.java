@@ -0,0 +1,162 @@
+package water;
+
+import java.util.concurrent.atomic.AtomicLong;
+import water.exceptions.H2OIllegalArgumentException;
+import water.nbhm.ConcurrentAutoTable;
+import water.util.Log;
+
+/** How the {@link Cleaner} ranks cached Values for eviction.
+ *  <p><ul>
+ *  <li>{@link #LRU} - last access time only; the classic behavior.</li>
+ *  <li>{@link #LFU} - recency plus a bonus for frequently read Values.  The
+ *  read counts are halved on every Cleaner pass, so a burst of reads long ago
+ *  does not pin a Value forever - a recency/frequency balance in the spirit
+ *  of ARC, without its ghost lists.</li>
+ *  <li>{@link #COST} - recency plus a bonus for Values that are expensive to
+ *  bring back: not yet on disk (so evicting means writing them first), or on
+ *  a slow backend.  Costs come from the reload latencies observed so far, so
+ *  a Chunk that can be re-read from its source file or from the off-heap tier
+ *  goes before an intermediate that has to round-trip through the spill.</li>
+ *  </ul>
+ *  A rank is a time in msec, comparable to the access time; the Cleaner's
+ *  histogram buckets Values by rank and evicts the lowest ranks first.
+ *  <p>
+ *  Each policy counts reads, reloads, evictions and reload latency while it
+ *  is in use; these are reported by {@link water.util.WaterMeterIo}.  The
+ *  policy is picked with {@link #PROP_POLICY}, one of "lru", "lfu" or "cost".
+ */
+public abstract class EvictionPolicy {
+  static final String PROP_POLICY = H2O.OptArgs.SYSTEM_PROP_PREFIX + "cleaner.policy";
+  static final String PROP_COST_WEIGHT = H2O.OptArgs.SYSTEM_PROP_PREFIX + "cleaner.cost_weight";
+
+  public static final EvictionPolicy LRU  = new LRU();
+  public static final EvictionPolicy LFU  = new LFU();
+  public static final EvictionPolicy COST = new CostWeighted();
+  private static final EvictionPolicy[] POLICIES = new EvictionPolicy[]{LRU, LFU, COST};
+
+  private static volatile EvictionPolicy CURRENT = initial();
+  private static EvictionPolicy initial() {
+    String name = System.getProperty(PROP_POLICY);
+    if( name == null ) return LRU;
+    try { return forName(name); }
+    catch( H2OIllegalArgumentException e ) { Log.warn(e.getMessage()+"; using lru"); return LRU; }
+  }
+
+  /** The policy in use by the Cleaner */
+  public static EvictionPolicy current() { return CURRENT; }
+  /** Switch policies; takes effect at the next Cleaner pass */
+  public static void setCurrent( EvictionPolicy p ) {
+    CURRENT = p;
+    Cleaner.dirty_store();
+    Log.info("Cleaner eviction policy set to " + p);
+  }
+
+  /** Look up a policy by its configuration name; one of "lru", "lfu" or "cost". */
+  public static EvictionPolicy forName( String name ) {
+    for( EvictionPolicy p : POLICIES )
+      if( p._name.equalsIgnoreCase(name.trim()) ) return p;
+    throw new H2OIllegalArgumentException("Unknown eviction policy '" + name + "', expected one of lru, lfu, cost");
+  }
+
+  /** Policy name, as used in the configuration */
+  public final String _name;
+  private EvictionPolicy( String name ) { _name = name; }
+
+  /** Eviction rank of a Value; lowest ranks are evicted first. */
+  abstract long rank( Value v );
+  /** Called by the Cleaner once per Value per pass */
+  void aged( Value v ) { }
+
+  @Override public String toString() { return _name; }
+
+  // ---
+  // Counters, while this policy is in use
+  private final ConcurrentAutoTable _accesses = new ConcurrentAutoTable(); // Bumped per ACCESS_SAMPLE reads of a Value
+  private final AtomicLong _reloads = new AtomicLong();
+  private final AtomicLong _reload_ns = new AtomicLong();
+  private final AtomicLong _evicted_count = new AtomicLong();
+  private final AtomicLong _evicted_bytes = new AtomicLong();
+
+  /** Value reads, sampled: to within ACCESS_SAMPLE reads per Value */
+  public long accessCount()  { return _accesses.get(); }
+  public long reloadCount()  { return _reloads.get(); }
+  public long reloadNanos()  { return _reload_ns.get(); }
+  public long evictedCount() { return _evicted_count.get(); }
+  public long evictedBytes() { return _evicted_bytes.get(); }
+
+  /** Value reads are counted in steps of this, a power of 2, per Value */
+  static final int ACCESS_SAMPLE = 16;
+  static void accessed() { CURRENT._accesses.add(ACCESS_SAMPLE); }
+  static void evicted( long bytes ) {
+    EvictionPolicy p = CURRENT;
+    p._evicted_count.incrementAndGet();
+    p._evicted_bytes.addAndGet(bytes);
+  }
+
+  // Observed reload cost, per tier: slot 0 is the off-heap tier, the others
+  // are the Value backends.  Shared by all policies.
+  static final int OFFHEAP = 0;
+  private static final AtomicLong[] LOAD_NS    = new AtomicLong[8];
+  private static final AtomicLong[] LOAD_BYTES = new AtomicLong[8];
+  static {
+    for( int i = 0; i < LOAD_NS.length; i++ ) {
+      LOAD_NS[i] = new AtomicLong();
+      LOAD_BYTES[i] = new AtomicLong();
+    }
+  }
+
+  /** A Value read had to reload {@code bytes} from the given tier */
+  static void reloaded( int tier, long bytes, long ns ) {
+    EvictionPolicy p = CURRENT;
+    p._reloads.incrementAndGet();
+    p._reload_ns.addAndGet(ns);
+    LOAD_NS[tier].addAndGet(ns);
+    LOAD_BYTES[tier].addAndGet(bytes);
+  }
+
+  // Observed nanoseconds per byte reloaded from a tier, or the default until
+  // there is enough to go on.
+  static double loadNsPerByte( int tier, double dflt ) {
+    long bytes = LOAD_BYTES[tier].get();
+    return bytes < (1<<20) ? dflt : (double)LOAD_NS[tier].get()/bytes;
+  }
+
+  // ---
+  private static final class LRU extends EvictionPolicy {
+    LRU() { super("lru"); }
+    @Override long rank( Value v ) { return v._lastAccessedTime; }
+  }
+
+  // ---
+  private static final class LFU extends EvictionPolicy {
+    // Recency bonus for each doubling of the read count
+    static final long FREQ_MS = 10*1000;
+    LFU() { super("lfu"); }
+    @Override long rank( Value v ) {
+      int hits = v._hits;
+      int log2 = 32 - Integer.numberOfLeadingZeros(Math.max(hits,0));
+      return v._lastAccessedTime + log2*FREQ_MS;
+    }
+    @Override void aged( Value v ) { v._hits >>= 1; }
+  }
+
+  // ---
+  private static final class CostWeighted extends EvictionPolicy {
+    // Msec of recency bonus per msec of estimated cost to evict & reload
+    final long _weight = Long.getLong(PROP_COST_WEIGHT, 1000);
+    CostWeighted() { super("cost"); }
+    @Override long rank( Value v ) {
+      double nsPerByte;
+      if( v.isOffHeap() ) nsPerByte = loadNsPerByte(OFFHEAP, 0.1); // A memcpy
+      else {
+        nsPerByte = loadNsPerByte(v.backend(), 1);
+        if( !v.isPersisted() ) {  // Must be written out before it can go
+          SpillWriter w = SpillWriter.THE_WRITER;
+          long spilled = w._spilled;
+          nsPerByte += spilled < (1<<20) ? 2 : (double)w._io_ns/spilled;
+        }
+      }
+      return v._lastAccessedTime + (long)(nsPerByte*v._max*_weight/1e6);
+    }
+  }
+}
@@ -1477,6 +1477,7 @@ final public class H2O {
     // Create the starter Cloud with 1 member
     SELF._heartbeat._jar_md5 = JarHash.JARHASH;
     SELF._heartbeat._client = ARGS.client;
+    SELF._heartbeat._wire_codec = H2ONode.WIRE_CODEC._id;
   }
 
   /** Starts the worker threads, receiver threads, heartbeats and all other
@@ -1509,6 +1510,8 @@ final public class H2O {
     // never shuts down.  Needs to start BEFORE the HeartBeatThread to build
     // an initial histogram state.
     Cleaner.THE_CLEANER.start();
+    // And its background writer, which batches spilled Values to disk.
+    SpillWriter.THE_WRITER.start();
 
     // Start the TCPReceiverThread, to listen for TCP requests from other Cloud
     // Nodes. There should be only 1 of these, and it never shuts down.
@@ -1694,6 +1697,9 @@ final public class H2O {
     // If the K/V mapping is changing, let the store cleaner just overwrite.
     // If the K/V mapping is new, let the store cleaner just create
     if( old != null && val == null ) old.removePersist(); // Remove the old guy
+    // An overwritten Value keeps its off-heap copy: a racing get may still
+    // hold it and reload from there.  OffHeapStore.reclaim frees the copy
+    // once the old Value is garbage.
     if( val != null ) {
       Cleaner.dirty_store(); // Start storing the new guy
       if( old==null ) Scope.track_internal(key); // New Key - start tracking
@@ -4,6 +4,7 @@ import water.RPC.RPCCall;
 import water.nbhm.NonBlockingHashMap;
 import water.nbhm.NonBlockingHashMapLong;
 import water.network.SocketChannelFactory;
+import water.persist.SpillCodec;
 import water.util.ArrayUtils;
 import water.util.Log;
 import water.util.MathUtils;
@@ -19,6 +20,9 @@ import java.nio.channels.SocketChannel;
 import java.util.*;
 import java.util.concurrent.PriorityBlockingQueue;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static water.H2O.OptArgs.SYSTEM_PROP_PREFIX;
 
 /**
  * A <code>Node</code> in an <code>H2O</code> Cloud.
@@ -273,8 +277,10 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
     sock2.socket().setSendBufferSize(AutoBuffer.BBP_BIG._size);
     boolean res = sock2.connect( _key );
     assert res && !sock2.isConnectionPending() && sock2.isBlocking() && sock2.isConnected() && sock2.isOpen();
+    // Pack the big messages too if the receiving Node takes our wire codec
+    boolean pack = WIRE_CODEC != SpillCodec.NONE && _heartbeat != null && _heartbeat._wire_codec == WIRE_CODEC._id;
     ByteBuffer bb = ByteBuffer.allocate(4).order(ByteOrder.nativeOrder());
-    bb.put((byte)2);
+    bb.put(pack ? TCPReceiverThread.TCP_BIG_PACKED : TCPReceiverThread.TCP_BIG);
     bb.putChar((char)H2O.H2O_PORT);
     bb.put((byte)0xef);
     bb.flip();
@@ -283,7 +289,7 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
       wrappedSocket.write(bb);
     }
     TCPS.incrementAndGet();     // Cluster-wide counting
-    return wrappedSocket;
+    return pack ? new PackedChannel(wrappedSocket, WIRE_CODEC, WIRE_PACK_MIN) : wrappedSocket;
   }
   synchronized void freeTCPSocket( ByteChannel sock ) {
     assert 0 <= _socksAvail && _socksAvail < _socks.length;
@@ -339,6 +345,48 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
     return openChan(tcpType, socketFactory, InetAddress.getByName(originAddr), originPort);
   }
 
+  // ---
+  // Optional packing of the batched small messages.  Every Node advertises its
+  // wire codec in its HeartBeat; a batch is packed only when the receiving
+  // Node advertises the same codec, so mixed clouds just talk raw.  Batches
+  // under WIRE_PACK_MIN bytes (a lone ACK, a heartbeat) are never packed.
+  // Big messages, streamed over their own TCP socket by AutoBuffer.sendPartial,
+  // are packed frame by frame by a PackedChannel on a TCP_BIG_PACKED socket;
+  // frames that do not shrink (most Chunks are compressed already) go raw.
+  static final String PROP_WIRE_CODEC = SYSTEM_PROP_PREFIX + "wire.codec";
+  static final String PROP_WIRE_PACK_MIN = SYSTEM_PROP_PREFIX + "wire.pack.min";
+  public static final SpillCodec WIRE_CODEC = SpillCodec.forName(System.getProperty(PROP_WIRE_CODEC, "none"));
+  static final int WIRE_PACK_MIN = Integer.getInteger(PROP_WIRE_PACK_MIN, 1024);
+  // Escape in the 2-byte message size marking a packed batch; it is followed
+  // by the codec id, the raw and packed lengths, the packed bytes and the
+  // 0xef sentinel.  Small messages are always shorter than BBP_SML.
+  static final char PACKED_BATCH = (char)0xFFFF;
+  static final int PACKED_BATCH_HDR = 2+1+4+4;
+
+  /** Pack the batch {@code raw[0,len)} into {@code pbb} as a PACKED_BATCH
+   *  frame, using {@code packed} as scratch.  Returns false, leaving
+   *  {@code pbb} unspecified, if packing does not save bytes; the batch is
+   *  then sent as is.  The frame is read by
+   *  {@link TCPReceiverThread.UDP_TCP_ReaderThread}. */
+  static boolean packBatch(SpillCodec codec, byte[] raw, int len, byte[] packed, ByteBuffer pbb) {
+    int plen = codec.pack(raw,len,packed);
+    if( PACKED_BATCH_HDR+plen+1 >= len ) return false; // Incompressible; fits in the reader buffer as is
+    pbb.clear();
+    pbb.putChar(PACKED_BATCH).put(codec._id).putInt(len).putInt(plen);
+    pbb.put(packed,0,plen);
+    pbb.put((byte)0xef);
+    return true;
+  }
+
+  /** Bytes of small-message batches written to the wire */
+  public static final AtomicLong WIRE_BYTES_SENT = new AtomicLong();
+  /** Number of batches sent packed */
+  public static final AtomicLong WIRE_PACKED_BATCHES = new AtomicLong();
+  /** Raw bytes of the batches and big-message frames sent packed */
+  public static final AtomicLong WIRE_PACKED_RAW_BYTES = new AtomicLong();
+  /** Bytes saved on the wire by packing */
+  public static final AtomicLong WIRE_BYTES_SAVED = new AtomicLong();
+
   // Private thread serving (actually ships the bytes over) small msg Q.
   // Buffers the small messages together and sends the bytes over via TCP channel.
   class UDP_TCP_SendThread extends Thread {
@@ -346,6 +394,8 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
     volatile boolean _stopRequested;
     private ByteChannel _chan;  // Lazily made on demand; closed & reopened on error
     private final ByteBuffer _bb; // Reusable output large buffer
+    private byte[] _raw, _packed; // Packing scratch, made on the first packed batch
+    private ByteBuffer _pbb;      // Packed batch, as sent
   
     public UDP_TCP_SendThread(){
       super("UDP-TCP-SEND-" + H2ONode.this);
@@ -410,13 +460,15 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
   
     void sendBuffer(){
       int retries = 0;
-      _bb.flip();                 // limit set to old position; position set to 0
-      while( !_stopRequested && _bb.hasRemaining()) {
+      ByteBuffer bb = packBatch();
+      bb.flip();                  // limit set to old position; position set to 0
+      WIRE_BYTES_SENT.addAndGet(bb.limit());
+      while( !_stopRequested && bb.hasRemaining()) {
         try {
           ByteChannel chan = _chan == null ? (_chan=openChan()) : _chan;
-          chan.write(_bb);
+          chan.write(bb);
         } catch(IOException ioe) {
-          _bb.rewind();           // Position to zero; limit unchanged; retry the operation
+          bb.rewind();            // Position to zero; limit unchanged; retry the operation
           // Log if not shutting down, and not middle-of-cloud-formation where
           // other node is still booting up (expected common failure), or *never*
           // comes up - such as when not all nodes mentioned in a flatfile will be
@@ -436,6 +488,29 @@ public final class H2ONode extends Iced<H2ONode> implements Comparable {
       }
       _bb.clear();            // Position set to 0; limit to capacity
     }
+
+    // Pack the pending batch, if the remote Node reads our codec, the batch
+    // is big enough to bother, and packing actually saves bytes.  Returns the
+    // buffer to send: either _bb untouched or the packed batch.
+    private ByteBuffer packBatch() {
+      final SpillCodec codec = WIRE_CODEC;
+      final int len = _bb.position();
+      if( codec == SpillCodec.NONE || len < WIRE_PACK_MIN || _heartbeat._wire_codec != codec._id )
+        return _bb;
+      if( _raw == null ) {
+        _raw = new byte[_bb.capacity()];
+        _packed = new byte[codec.maxPackedLength(_bb.capacity())];
+        _pbb = ByteBuffer.allocateDirect(_bb.capacity()).order(ByteOrder.nativeOrder());
+      }
+      _bb.flip();
+      _bb.get(_raw,0,len);
+      _bb.limit(_bb.capacity()).position(len); // Back as it was, in case we send it raw
+      if( !H2ONode.packBatch(codec,_raw,len,_packed,_pbb) ) return _bb;
+      WIRE_PACKED_BATCHES.incrementAndGet();
+      WIRE_PACKED_RAW_BYTES.addAndGet(len);
+      WIRE_BYTES_SAVED.addAndGet(len-_pbb.position());
+      return _pbb;
+    }
   
     // Open channel on first write attempt
     private ByteChannel openChan() throws IOException {
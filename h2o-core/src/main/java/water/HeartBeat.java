@@ -21,6 +21,7 @@ public class HeartBeat extends Iced<HeartBeat> {
 
 
   public int _pid;              // Process ID
+  public byte _wire_codec;      // Codec packing the messages sent to this Node, see H2ONode
 
   // Static cpus & threads
   public short _num_cpus;        // Number of CPUs on this Node
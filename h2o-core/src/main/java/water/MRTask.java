@@ -4,10 +4,19 @@ import jsr166y.CountedCompleter;
 import jsr166y.ForkJoinPool;
 import water.fvec.*;
 import water.util.DistributedException;
+import water.util.Log;
 import water.util.PrettyPrint;
+import water.util.TaskProfiler;
 import water.fvec.Vec.VectorGroup;
+import water.init.NodeTopology;
 
 import java.util.Arrays;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static water.H2O.OptArgs.SYSTEM_PROP_PREFIX;
 
 /**
  * Map/Reduce style distributed computation.
@@ -70,12 +79,13 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   *
   *    internal "top-level" fields
   *    ---------------------------
-  *     - RPC<T> _nleft, _nrite: "child" node/JVMs that are doing work
+  *     - RPC<T> _nkids[]      : "child" node/JVMs that are doing work (up to FANOUT)
   *     - boolean _topLocal    : "root" MRTask on a local machine
   *     - boolean _topGlobal   : "root" MRTask on the "root" node
   *     - T _left, _rite       : "child" MRTasks on a local machine
   *     - T _res               : "result" MRTask (everything reduced into here)
   *     - int _nlo,_nhi        : range of nodes to do remote work on (divide-conquer; see Diagram 2)
+  *     - short _norder[]      : node order the range indexes, grouped by topology (null: cloud order)
   *     - Futures _fs          : _topLocal task blocks on _fs for _left and _rite to complete
   *
   *       Diagram 1: N is for Node; T is for Task
@@ -83,7 +93,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   *              3 node cloud              Inside one of the 'N' nodes:
   *                   N1                               T  _topLocal**
   *                 /   \                            /  \
-  *         N2 (_nleft)  N3 (_nrite)         T (_left)   T (_rite)
+  *       N2 (_nkids[0])  N3 (_nkids[1])     T (_left)   T (_rite)
   *
   *                  **: T is also _topGlobal if N==N1
   *
@@ -101,9 +111,9 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   *                ==>       setupLocal0 on N1
   *                            - topLocal=true
   *                            - _fs = new Futures()
-  *                            - nmid = (_nlo + _nhi) >> 1 => split the range of nodes (divide-conquer)
-  *                            - _nleft = remote_compute(_nlo,nmid) => chooses a node in range and does new RPC().call()
-  *                            - _nrite = remote_compute(nmid,_nhi)    serializing MRTask and call dinvoke on remote.
+  *                            - split the rest of the range of nodes in FANOUT parts (divide-conquer)
+  *                            - _nkids[i] = remote_compute(lo_i,hi_i) => chooses a node in range and does new RPC().call()
+  *                                                                     serializing MRTask and call dinvoke on remote.
   *                           /                                 \
   *                         /                                     \
   *                       /                                         \
@@ -149,8 +159,12 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
    *  style, can not be passed via K/V store).*/
   protected AppendableVec[] _appendables;
 
-  /** Internal field to track the left &amp; right remote nodes/JVMs to work on */
-  transient protected RPC<T> _nleft, _nrite;
+  /** Internal field to track the child remote nodes/JVMs to work on */
+  transient protected RPC<T>[] _nkids;
+
+  /** Number of child nodes each node hands remote work to; the reduce tree
+   *  over the cloud is FANOUT-ary.  */
+  static final int FANOUT = Math.max(2, Integer.getInteger(SYSTEM_PROP_PREFIX + "mr.fanout", 2));
 
   /** Internal field to track if this is a top-level local call */
   transient protected boolean _topLocal; // Top-level local call, returning results over the wire
@@ -164,9 +178,42 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   /** Internal field upon which all reduces occur. */
   transient private T _res;           // Result
 
+  /** Node-local accumulators leaf results are folded into, in streaming
+   *  reduce mode; shared by all local copies of a top-local task.  */
+  transient private ConcurrentLinkedQueue<T> _accs;
+
+  /** Speculative mode: per child range, the race of its RPC against a local
+   *  backup run; the count of local chunks not yet mapped; when the local
+   *  work started; a copy of the top-local task made before any map, for
+   *  backup runs to start from; and the timer task starting them.  */
+  transient private Race[] _races;
+  transient private AtomicInteger _chunksLeft;
+  transient private long _specStart;
+  transient private T _specTemplate;
+  transient private TimerTask _specTask;
+
+  /** Set on a backup run only: the nodes whose chunks it maps */
+  transient private boolean[] _backupNodes;
+
+  /** A child range still out this many times as long as the local work took
+   *  is raced by a local backup run, in speculative mode... */
+  static final double SPEC_FACTOR = Double.parseDouble(System.getProperty(SYSTEM_PROP_PREFIX + "mr.speculate.factor", "2.0"));
+  /** ...but never before this many milliseconds into the task. */
+  static final long SPEC_MIN_MS = Long.getLong(SYSTEM_PROP_PREFIX + "mr.speculate.min_ms", 1000);
+  private static Timer SPEC_TIMER;
+  private static synchronized Timer specTimer() {
+    if( SPEC_TIMER == null ) SPEC_TIMER = new Timer("MRTask-speculate", true);
+    return SPEC_TIMER;
+  }
+
   /** The range of Nodes to work on remotely */
   protected short _nlo, _nhi;
 
+  /** Node order the range is taken from, grouping nodes by network topology
+   *  (see {@link NodeTopology}); null for the cloud order.  Set once by the
+   *  top-level call and shipped along, so all nodes split the same order.  */
+  private short[] _norder;
+
   /** Internal field to track a range of local Chunks to work on */
   transient protected int _lo, _hi;
 
@@ -185,6 +232,10 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   /** Used to invoke profiling.  Call as: <code>new MRTask().profile().doAll();*/
   public T profile() { _profile = new MRProfile(this); return (T)this; }
 
+  /** Always-on per-class counters of map, reduce and RPC time, see
+   *  {@link TaskProfiler}; null when turned off.  Node-local.  */
+  transient TaskProfiler _stats;
+
   /** Get the resulting Frame from this invoked MRTask.  <b>This Frame is not
    *  in the DKV.</b> AppendableVec instances are closed into Vec instances,
    *  which then appear in the DKV.
@@ -298,8 +349,18 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   protected void closeLocal() { }
 
   /** Compute a permissible node index on which to launch remote work. */
-  private int addShift( int x ) { x += _nlo; int sz = H2O.CLOUD.size(); return x < sz ? x : x-sz; }
-  private int subShift( int x ) { x -= _nlo; int sz = H2O.CLOUD.size(); return x <  0 ? x+sz : x; }
+  private int addShift( int x ) { x += _nlo; int sz = H2O.CLOUD.size(); x = x < sz ? x : x-sz; return _norder == null ? x : _norder[x]; }
+  private int subShift( int x ) { x = rank(x) - _nlo; int sz = H2O.CLOUD.size(); return x <  0 ? x+sz : x; }
+  private int rank( int idx ) {
+    if( _norder == null ) return idx;
+    for( int i = 0; i < _norder.length; i++ ) if( _norder[i] == idx ) return i;
+    throw H2O.fail("Node " + idx + " missing from the node order");
+  }
+  // Top-level: do the whole cloud, starting from self
+  private void allNodes() {
+    _norder = NodeTopology.order(H2O.CLOUD.members());
+    _nlo = (short)rank(selfidx()); _nhi = (short)H2O.CLOUD.size();
+  }
   private short selfidx() { int idx = H2O.SELF.index(); if( idx>= 0 ) return (short)idx; assert H2O.SELF._heartbeat._client; return 0; }
 
   // Profiling support.  Time for each subpart of a single M/R task, plus any
@@ -405,7 +466,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   public void dfork(Key... keys ) {
     _topGlobal = true;
     _keys = keys;
-    _nlo = selfidx(); _nhi = (short)H2O.CLOUD.size(); // Do Whole Cloud
+    allNodes();                 // Do Whole Cloud
     setupLocal0();              // Local setup
     H2O.submitTask(this);       // Begin normal execution on a FJ thread
   }
@@ -451,7 +512,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     if( types != null && types.length > 0 )
       _vid = fr.anyVec().group().reserveKeys(types.length);
     _fr = fr;                   // Record vectors to work on
-    _nlo = selfidx(); _nhi = (short)H2O.CLOUD.size(); // Do Whole Cloud
+    allNodes();                 // Do Whole Cloud
     _run_local = run_local;     // Run locally by copying data, or run globally?
     setupLocal0();              // Local setup
     H2O.submitTask(this);       // Begin normal execution on a FJ thread
@@ -503,10 +564,30 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   }
 
   protected boolean modifiesVolatileVecs(){return true;}
+
+  /** Override to return true to fold each leaf's result into a node-local
+   *  accumulator as soon as its map is done, instead of holding it until its
+   *  sibling subtree is done and reducing pairwise up the local tree.  At most
+   *  one accumulator per F/J thread is ever made (a thread folds one leaf at a
+   *  time) and they are reused across all chunks on the node, so per-node
+   *  transient memory is bounded by the thread count rather than by the shape
+   *  of the tree.  Results are reduced in no particular order, so
+   *  {@link #reduce} must be commutative as well as associative.  */
+  protected boolean streamingReduce(){return false;}
+
+  /** Override to return true for idempotent, read-only Frame tasks (no output
+   *  Vecs, no writes to the input, no side effects in map), such as scoring
+   *  and metrics.  A node that is done with its own chunks then maps the
+   *  chunks of any straggling child range itself, fetching them through DKV,
+   *  and the first of the two results is used; the loser is dropped.  */
+  protected boolean speculative(){return false;}
+  private boolean speculate() {
+    return speculative() && _fr != null && _output_types == null && !_run_local && !H2O.ARGS.client;
+  }
   /*
-   * Set top-level fields and fire off remote work (if there is any to do) to 2 selected
-   * child JVM/nodes. Setup for local work: fire off any global work to cloud neighbors; do all
-   * chunks; call user's init.
+   * Set top-level fields and fire off remote work (if there is any to do) to up to FANOUT
+   * selected child JVM/nodes. Setup for local work: fire off any global work to cloud neighbors;
+   * do all chunks; call user's init.
    */
   private void setupLocal0() {
     if(_profile != null)
@@ -518,20 +599,33 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
         if(v.isVolatile())v.preWriting();
     }
     _topLocal = true;
+    _stats = TaskProfiler.ENABLED ? TaskProfiler.forClass(getClass()) : null;
+    _accs = streamingReduce() ? new ConcurrentLinkedQueue<T>() : null;
     // Check for global vs local work
     int selfidx = selfidx();
     int nlo = subShift(selfidx);
     assert nlo < _nhi;
-    final int nmid = (nlo+_nhi)>>>1; // Mid-point
 
     // Run remote IF:
     // - Not forced to run local (no remote jobs allowed) AND
     // - - There's remote work, or Client mode (always remote work)
     if( (!_run_local) && ((nlo+1 < _nhi) || H2O.ARGS.client) ) {
+      // Split the rest of the range into up to FANOUT contiguous sub-ranges,
+      // one per child.  Contiguous in the topology order, so sibling
+      // subtrees share a switch where they can.
+      final int start = H2O.ARGS.client ? nlo : nlo+1;
+      final int n = _nhi-start, nkids = Math.min(FANOUT,n);
+      _nkids = new RPC[nkids];
+      _races = speculate() ? new MRTask.Race[nkids] : null;
       if(_profile!=null) _profile._rpcLstart = System.currentTimeMillis();
-      _nleft = remote_compute(H2O.ARGS.client ? nlo : nlo+1,nmid);
-      if(_profile!=null) _profile._rpcRstart = System.currentTimeMillis();
-      _nrite = remote_compute( nmid,_nhi);
+      for( int i=0; i<nkids; i++ ) {
+        if(_profile!=null && i==nkids-1) _profile._rpcRstart = System.currentTimeMillis();
+        int lo = start+n*i/nkids, hi = start+n*(i+1)/nkids;
+        H2O.H2OCountedCompleter cc = this;
+        if( _races != null ) cc = (_races[i] = new Race(lo,hi))._rpcDone;
+        _nkids[i] = remote_compute(lo,hi,cc);
+        if( _races != null ) _races[i]._rpc = _nkids[i];
+      }
       if(_profile!=null) _profile._rpcRdone  = System.currentTimeMillis();
     } else {
       if(_profile!=null)
@@ -548,12 +642,127 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     // Setup any user's shared local structures for both normal cluster nodes
     // and any client; want this for possible reduction ONTO client
     setupLocal();
+    if( _races != null ) {      // Watch for stragglers once the local chunks are done
+      _specTemplate = clone();
+      _specStart = System.currentTimeMillis();
+      _chunksLeft = new AtomicInteger(_hi-_lo);
+      if( _hi == _lo ) localDone();
+    }
     if(_profile!=null) _profile._localdone = System.currentTimeMillis();
   }
 
+  // Speculative mode: all local chunks are mapped.  Race a local backup run
+  // against any child range still out after SPEC_FACTOR times as long.
+  private void localDone() {
+    final Race[] races = _races;
+    final T tmpl = _specTemplate;
+    if( races == null || tmpl == null ) return; // Already done
+    long elapsed = System.currentTimeMillis()-_specStart;
+    long delay = Math.max(SPEC_MIN_MS,(long)(SPEC_FACTOR*elapsed))-elapsed;
+    TimerTask task = new TimerTask() {
+        // An exception escaping run() would kill the shared timer thread, and
+        // with it speculation for every later task
+        @Override public void run() {
+          for( Race r : races )
+            try { r.backup(tmpl); }
+            catch( Throwable t ) { Log.err("Failed to start a backup run of "+tmpl.getClass().getSimpleName(), t); }
+        }
+      };
+    specTimer().schedule(task, Math.max(0,delay));
+    _specTask = task;
+  }
+  private void cancelSpecTask() {
+    TimerTask task = _specTask;
+    if( task != null ) task.cancel();
+    _specTask = null;
+  }
+
+  // One child range, raced against a local backup run.  The first of the two
+  // to finish completes the child's pending count on the top-local task,
+  // exactly once, and the loser is cancelled; a failure only counts once both
+  // sides have failed (or the backup never started).
+  private final class Race {
+    static final int UNDECIDED=0, RACING=1, RPC_WON=2, BACKUP_WON=3, FAILED=4;
+    final int _lo, _hi;         // Child node range
+    final AtomicInteger _state = new AtomicInteger(UNDECIDED); // RACING once the backup starts
+    volatile RPC<T> _rpc;       // The child's RPC, once sent
+    volatile MRTask<T> _backup; // Backup run, once started
+    volatile boolean _rpcFailed, _backupFailed;
+    final H2O.H2OCountedCompleter _rpcDone, _backupDone;
+
+    Race( int lo, int hi ) {
+      _lo = lo; _hi = hi;
+      _rpcDone = new H2O.H2OCountedCompleter(priority()) {
+        @Override public void onCompletion( CountedCompleter caller ) { won(RPC_WON); }
+        @Override public boolean onExceptionalCompletion( Throwable ex, CountedCompleter caller ) {
+          _rpcFailed = true;
+          if( _state.get() != RACING || _backupFailed ) failed(ex);
+          return false;
+        }
+      };
+      _backupDone = new H2O.H2OCountedCompleter(priority()) {
+        @Override public void onCompletion( CountedCompleter caller ) { won(BACKUP_WON); }
+        @Override public boolean onExceptionalCompletion( Throwable ex, CountedCompleter caller ) {
+          _backupFailed = true;
+          if( _rpcFailed ) failed(ex);
+          return false;
+        }
+      };
+    }
+
+    boolean backupWon() { return _state.get() == BACKUP_WON; }
+
+    // Map all chunks homed on the child range's nodes, right here.  The
+    // template is passed in, as the top-local task drops its own once done.
+    void backup( T tmpl ) {
+      if( _rpcFailed || !_state.compareAndSet(UNDECIDED,RACING) ) return;
+      try {
+        MRTask<T> t0 = tmpl, b = t0.copyAndInit();
+        b.setCompleter(_backupDone);
+        b._topLocal = false;
+        b._res = null;
+        b._accs = null;
+        b._races = null;
+        b._chunksLeft = null;
+        b._lo = 0;  b._hi = t0._fr.anyVec().nChunks();
+        boolean[] nodes = new boolean[H2O.CLOUD.size()];
+        for( int x = _lo; x < _hi; x++ ) nodes[addShift(x)] = true;
+        b._backupNodes = nodes;
+        _backup = b;
+        H2O.submitTask(b);
+      } catch( Throwable t ) {    // Never started; the RPC alone decides
+        _backupFailed = true;
+        if( _rpcFailed ) failed(t);
+        throw t;
+      }
+    }
+
+    private boolean decide( int to ) {
+      while( true ) {
+        int st = _state.get();
+        if( st != UNDECIDED && st != RACING ) return false;
+        if( _state.compareAndSet(st,to) ) return true;
+      }
+    }
+    private void won( int who ) {
+      if( !decide(who) ) return;
+      if( who == RPC_WON ) {
+        MRTask<T> b = _backup;
+        if( b != null ) b.self_cancel2(); // Drop the backup
+      } else {
+        RPC<T> rpc = _rpc;
+        if( rpc != null ) rpc.cancel(true); // Drop the straggler's answer
+      }
+      tryComplete();
+    }
+    private void failed( Throwable ex ) {
+      if( decide(FAILED) ) completeExceptionally(ex);
+    }
+  }
+
   // Make an RPC call to some node in the middle of the given range.  Add a
   // pending completion to self, so that we complete when the RPC completes.
-  private RPC<T> remote_compute( int nlo, int nhi ) {
+  private RPC<T> remote_compute( int nlo, int nhi, H2O.H2OCountedCompleter cc ) {
     if( nlo < nhi ) {  // have remote work
       int node = addShift(nlo);
       assert node != H2O.SELF.index(); // Not the same as selfidx() if this is a client
@@ -569,7 +778,9 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
       // - when launched on the local (right here, in this next line of code)
       //   the completed RPC calls our self completion.  i.e. the completed RPC
       //   calls MRTask.onCompletion
-      return new RPC<>(H2O.CLOUD._memary[node], mrt).addCompleter(this).call();
+      // In speculative mode the RPC completes a Race instead, which completes
+      // self once.
+      return new RPC<>(H2O.CLOUD._memary[node], mrt).addCompleter(cc).call();
     }
     return null; // nlo >= nhi => no remote work
   }
@@ -598,13 +809,16 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
           _hi > _lo && _keys[_lo].home() ) {
         assert(_keys == null || !H2O.ARGS.client) : "Client node should not process any keys in MRTask!";
         if(_profile!=null) _profile._userstart = System.currentTimeMillis();
+        long t0 = _stats != null ? System.nanoTime() : 0;
         if( _keys != null ) map(_keys[_lo]);
+        if( _stats != null && _keys != null ) _stats.map(System.nanoTime()-t0, 0);
         _res = self();        // Save results since called map() at least once!
         if(_profile!=null) _profile._closestart = System.currentTimeMillis();
       }
     } else if( _hi > _lo ) {    // Frame, Single chunk?
       Vec v0 = _fr.anyVec();
-      if( _run_local || v0.chunkKey(_lo).home() ) { // And chunk is homed here?
+      if( _backupNodes != null ? _backupNodes[v0.chunkKey(_lo).home_node().index()] // Backing up a child range?
+          : (_run_local || v0.chunkKey(_lo).home()) ) { // And chunk is homed here?
         assert(_run_local || !H2O.ARGS.client) : "Client node should not process any keys in MRTask!";
 
         // Make decompression chunk headers for these chunks
@@ -613,7 +827,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
         NewChunk [] appendableChunks = null;
         for( int i=0; i<vecs.length; i++ )
           if( vecs[i] != null ) {
-            assert _run_local || vecs[i].chunkKey(_lo).home()
+            assert _run_local || _backupNodes != null || vecs[i].chunkKey(_lo).home()
               : "Chunk="+_lo+" v0="+v0+", k="+v0.chunkKey(_lo)+"   v["+i+"]="+vecs[i]+", k="+vecs[i].chunkKey(_lo);
             bvs[i] = vecs[i].chunkForChunkIdx(_lo);
           }
@@ -631,6 +845,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
         if(_profile!=null)
           _profile._userstart = System.currentTimeMillis();
 
+        long t0 = _stats != null ? System.nanoTime() : 0;
         int num_fr_vecs = _fr.vecs().length;
         int num_outputs = _output_types == null? 0 : _output_types.length;
         if (num_outputs == 0) {
@@ -655,6 +870,11 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
         }
         if (num_outputs >= 0)
           map(bvs, appendableChunks);
+        if( _stats != null ) {
+          long bytes = 0;
+          for( Chunk bv : bvs ) if( bv != null ) bytes += bv.byteSize();
+          _stats.map(System.nanoTime()-t0, bytes);
+        }
 
         _res = self();          // Save results since called map() at least once!
         // Further D/K/V put any new vec results.
@@ -666,9 +886,21 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     }
     if(_profile!=null)
       _profile._mapdone = System.currentTimeMillis();
+    if( _res != null && _accs != null ) fold();
+    if( _chunksLeft != null && _hi > _lo && _chunksLeft.decrementAndGet() == 0 ) localDone();
     tryComplete();
   }
 
+  // Streaming reduce: fold this leaf's result into an idle accumulator, or
+  // make it one if every accumulator is busy, and let go of the result.
+  private void fold() {
+    T acc = _accs.poll();
+    if( acc == null ) acc = _res;
+    else acc.reduce4(_res);
+    _res = null;
+    _accs.offer(acc);
+  }
+
   /** OnCompletion - reduce the left and right into self.  Called internal by
    *  F/J.  Not expected to be user-called. */
   @Override public final void onCompletion( CountedCompleter caller ) {
@@ -680,6 +912,12 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     reduce2(_rite); _rite = null;
     if(_profile!=null) _profile._reducedone = System.currentTimeMillis();
     // Only on the top local call, have more completion work
+    if( _topLocal && _accs != null ) {   // Gather the accumulators too
+      for( T acc : _accs )
+        if( _res == null ) _res = acc;
+        else _res.reduce4(acc);
+      _accs = null;
+    }
     if( _topLocal ) postLocal0();
     if(_profile!=null) _profile._onCdone = System.currentTimeMillis();
   }
@@ -707,8 +945,13 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
   private void postLocal0() {
     closeLocal();               // User's node-local cleanup
     if(_profile!=null) _profile._closeLocalDone = System.currentTimeMillis();
-    reduce3(_nleft);            // Reduce global results from neighbors.
-    reduce3(_nrite);
+    if( _nkids != null )        // Reduce global results from neighbors.
+      for( int i=0; i<_nkids.length; i++ )
+        if( _races != null && _races[i].backupWon() ) reduce2(_races[i]._backup);
+        else reduce3(_nkids[i]);
+    _races = null;  _specTemplate = null;
+    cancelSpecTask();
+    if( _stats != null ) _stats.task();
     if(_profile!=null) _profile._remoteBlkDone = System.currentTimeMillis();
     _fs.blockForPending();      // Block any pending user tasks
     if(_profile!=null) _profile._localBlkDone = System.currentTimeMillis();
@@ -737,6 +980,10 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     // blocks.  Not much can be asserted there.
     if(_profile!=null)
       _profile.gather(mrt._profile, rpc.size_rez());
+    if( _stats != null ) {
+      _stats.rpc(rpc.elapsed_ms(), rpc.size_rez());
+      mrt._stats = _stats;      // Remote results count their reduces here too
+    }
     // Unlike reduce2, results are in mrt directly not mrt._res.
     if( mrt._nhi != -1L ) {     // Any results at all?
       if( _res == null ) _res = mrt;
@@ -753,7 +1000,11 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
         _appendables[i].reduce(mrt._appendables[i]);
     if( _ex == null ) _ex = mrt._ex;
     // User's reduction
+    TaskProfiler stats = _stats;
+    if( stats == null ) { reduce(mrt); return; }
+    long t0 = System.nanoTime();
     reduce(mrt);
+    stats.reduce(System.nanoTime()-t0);
   }
 
   // Full local work-tree cancellation
@@ -768,6 +1019,7 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
    *  expected to be user-called.  */
   @Override public final boolean onExceptionalCompletion( Throwable ex, CountedCompleter caller ) {
     self_cancel1();
+    cancelSpecTask();
     // Block for completion - we don't want the work, but we want all the
     // workers stopped before we complete this task.  Otherwise this task quits
     // early and begins post-task processing (generally cleanup from the
@@ -776,8 +1028,10 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
 
     // Since blocking can throw (generally the same exception, again and again)
     // catch & ignore, keeping only the first one we already got.
-    RPC<T> nl = _nleft; if( nl != null ) try { nl.get(); } catch( Throwable ignore ) { } _nleft = null;
-    RPC<T> nr = _nrite; if( nr != null ) try { nr.get(); } catch( Throwable ignore ) { } _nrite = null;
+    RPC<T>[] nkids = _nkids;
+    if( nkids != null )
+      for( RPC<T> rpc : nkids ) if( rpc != null ) try { rpc.get(); } catch( Throwable ignore ) { }
+    _nkids = null;
     return true;
   }
 
@@ -787,7 +1041,8 @@ public abstract class MRTask<T extends MRTask<T>> extends DTask<T> implements Fo
     x._topGlobal = false;
     x.setCompleter(this); // Set completer, what used to be a final field
     x._topLocal = false;  // Not a top job
-    x._nleft = x._nrite = null;
+    x._nkids = null;
+    ((MRTask<T>)x)._specTemplate = null;
     x. _left = x. _rite = null;
     x._fs = _fs;
     if( _profile!=null )  x._profile = new MRProfile(this);
@@ -122,6 +122,9 @@ abstract public class MemoryManager {
 
     boolean skipThisLogMessageToAvoidSpammingTheLogs = false;
     String m="";
+    // The off-heap tier has its own budget; past its goal the Cleaner
+    // demotes to disk, which never blocks heap allocations.
+    if( OffHeapStore.overGoal() ) Cleaner.kick_store_cleaner();
     if( cacheUsageNow > Cleaner.DESIRED ) {
       m = (CAN_ALLOC?"Swapping!  ":"blocked:   ");
       if( oom ) setMemLow(); // Stop allocations; trigger emergency clean
@@ -152,7 +155,8 @@ abstract public class MemoryManager {
     }
 
     // No logging if under memory pressure: can deadlock the cleaner thread
-    String s = m+msg+", (K/V:"+PrettyPrint.bytes(cacheUsageGC)+" + POJO:"+PrettyPrint.bytes(pojoUsedGC)+" + FREE:"+PrettyPrint.bytes(freeHeap)+" == MEM_MAX:"+PrettyPrint.bytes(MEM_MAX)+"), desiredKV="+PrettyPrint.bytes(Cleaner.DESIRED)+(oom?" OOM!":" NO-OOM");
+    String s = m+msg+", (K/V:"+PrettyPrint.bytes(cacheUsageGC)+" + POJO:"+PrettyPrint.bytes(pojoUsedGC)+" + FREE:"+PrettyPrint.bytes(freeHeap)+" == MEM_MAX:"+PrettyPrint.bytes(MEM_MAX)+"), desiredKV="+PrettyPrint.bytes(Cleaner.DESIRED)+
+      (OffHeapStore.enabled() ? ", "+OffHeapStore.stats() : "")+(oom?" OOM!":" NO-OOM");
     if( CAN_ALLOC ) { if( oom ) Log.warn(s); else Log.debug(s); }
     else            System.err.println(s);
   }
@@ -232,7 +236,9 @@ abstract public class MemoryManager {
           // To prevent deadlock, we cannot block the cleaner thread in any
           // case.  This is probably an allocation for logging (ouch! shades of
           // logging-induced deadlock!) which will probably be recycled quickly.
-          !(Thread.currentThread() instanceof Cleaner) ) {
+          // Same for the spill writer, which the cleaner waits on.
+          !(Thread.currentThread() instanceof Cleaner) &&
+          !(Thread.currentThread() instanceof SpillWriter) ) {
         synchronized(_lock) {
           try { _lock.wait(300*1000); } catch (InterruptedException ex) { }
         }
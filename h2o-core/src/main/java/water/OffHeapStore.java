@@ -0,0 +1,131 @@
+package water;
+
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import sun.misc.Unsafe;
+import water.nbhm.UtilUnsafe;
+import water.util.PrettyPrint;
+
+/** Off-heap tier for cold Chunks, between the Java heap and the disk spill.
+ *  <p>
+ *  Under memory pressure the {@link Cleaner} copies the serialized form of a
+ *  cold Chunk into native memory and drops its heap copies, instead of
+ *  writing it to disk.  A later read copies the bytes back onto the heap
+ *  (one memcpy, no i/o); the off-heap copy stays, so evicting the Chunk again
+ *  is free.  When the tier fills past its goal, the Cleaner demotes the
+ *  coldest off-heap Values to disk.
+ *  <p>
+ *  Chunks always decode from a heap {@code byte[]}, so this tier does not let
+ *  Chunks be read in place; what it buys is a large cache of cold data that
+ *  the garbage collector never scans nor copies.  Native memory is not
+ *  counted against the heap.  It is freed explicitly when no reader can be
+ *  holding the Value (on delete, or once a disk copy exists), and otherwise
+ *  once its Block is garbage: an overwritten Value may still be in the hands
+ *  of a racing reader, so its copy is left for {@link #reclaim} to free.
+ *  <p>
+ *  Off by default; enabled by setting {@link #PROP_OFFHEAP_MAX} to the number
+ *  of bytes of native memory to use.
+ */
+public final class OffHeapStore {
+  static final String PROP_OFFHEAP_MAX = H2O.OptArgs.SYSTEM_PROP_PREFIX + "offheap.max";
+
+  private static final Unsafe _unsafe = UtilUnsafe.getUnsafe();
+  private static final long _Bbase = _unsafe.arrayBaseOffset(byte[].class);
+  // Copy in strides, so a large copy does not hold off a safepoint for long
+  private static final long STRIDE = 1L<<20;
+
+  /** Native memory budget in bytes; 0 when the tier is disabled */
+  static volatile long MAX = Math.max(0, Long.getLong(PROP_OFFHEAP_MAX, 0));
+  // Desired off-heap level; above this the Cleaner demotes to disk.
+  static volatile long DESIRED = MAX-(MAX>>3);
+  // Exposed for testing only
+  static void setMax( long max ) { MAX = max; DESIRED = max-(max>>3); }
+
+  private static final AtomicLong USED = new AtomicLong();
+  private static final AtomicLong STORED = new AtomicLong(); // Total bytes moved off heap
+  private static final AtomicLong LOADED = new AtomicLong(); // Total bytes copied back
+
+  static boolean enabled() { return MAX > 0; }
+  /** Native memory currently held by the tier */
+  public static long used() { return USED.get(); }
+  static boolean overGoal() { return USED.get() > DESIRED; }
+
+  /** One Value's bytes in native memory.  The address is cleared (under the
+   *  Block's lock) when freed, so a racing reader never touches freed memory. */
+  static final class Block {
+    private long _addr;         // Guarded by this
+    final int _len;
+    private final Release _release;
+    private Block( long addr, int len ) { _addr = addr; _len = len; _release = new Release(this, addr, len); }
+
+    /** A fresh heap copy of the bytes, or null if already freed */
+    byte[] load() {
+      // Allocate outside the lock: under pressure this waits on the Cleaner,
+      // which frees Blocks under their locks
+      byte[] mem = MemoryManager.malloc1(_len);
+      synchronized( this ) {
+        if( _addr == 0 ) return null;
+        for( long off = 0; off < _len; off += STRIDE )
+          _unsafe.copyMemory(null, _addr+off, mem, _Bbase+off, Math.min(STRIDE,_len-off));
+      }
+      LOADED.addAndGet(_len);
+      return mem;
+    }
+
+    /** Release the native memory; safe to call more than once */
+    synchronized void free() {
+      if( _addr == 0 ) return;
+      _addr = 0;
+      _release.release();
+    }
+  }
+
+  // Frees a Block's memory exactly once: either when the Block is freed
+  // explicitly, or when it is found on the DEAD queue, unreachable.  Pending
+  // Releases are held in LIVE, else they would be collected with their Block.
+  private static final ReferenceQueue<Block> DEAD = new ReferenceQueue<>();
+  private static final Set<Release> LIVE = Collections.newSetFromMap(new ConcurrentHashMap<Release,Boolean>());
+  private static final class Release extends PhantomReference<Block> {
+    private final long _addr;
+    private final int _len;
+    Release( Block b, long addr, int len ) { super(b, DEAD); _addr = addr; _len = len; LIVE.add(this); }
+    void release() {
+      if( !LIVE.remove(this) ) return; // Already released
+      _unsafe.freeMemory(_addr);
+      USED.addAndGet(-_len);
+    }
+  }
+
+  /** Free the native memory of Blocks no longer reachable, i.e. held by
+   *  overwritten Values no reader holds anymore.  Called by the Cleaner, and
+   *  before every allocation. */
+  static void reclaim() {
+    Reference<? extends Block> r;
+    while( (r = DEAD.poll()) != null ) ((Release)r).release();
+  }
+
+  /** Copy {@code mem} into native memory.  Returns null if the tier is
+   *  disabled or over budget, or the allocation fails. */
+  static Block store( byte[] mem ) {
+    reclaim();
+    final int len = mem.length;
+    if( len == 0 || USED.addAndGet(len) > MAX ) { USED.addAndGet(-len); return null; }
+    long addr;
+    try { addr = _unsafe.allocateMemory(len); }
+    catch( OutOfMemoryError oom ) { USED.addAndGet(-len); return null; }
+    for( long off = 0; off < len; off += STRIDE )
+      _unsafe.copyMemory(mem, _Bbase+off, null, addr+off, Math.min(STRIDE,len-off));
+    STORED.addAndGet(len);
+    return new Block(addr, len);
+  }
+
+  static String stats() {
+    return "OFFHEAP:"+PrettyPrint.bytes(USED.get())+"/"+PrettyPrint.bytes(MAX)+
+      " (stored "+PrettyPrint.bytes(STORED.get())+", loaded "+PrettyPrint.bytes(LOADED.get())+")";
+  }
+}
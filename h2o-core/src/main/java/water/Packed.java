@@ -0,0 +1,30 @@
+package water;
+
+import java.lang.annotation.*;
+
+/** Packed Annotation
+ *
+ *  Picks a compact wire encoding for a primitive array field of an Iced
+ *  class.  The {@link Weaver} generated serializer then calls the matching
+ *  {@code AutoBuffer.put*}/{@code get*} pair instead of the plain dense one,
+ *  e.g. {@link AutoBuffer#putA8dSparse} for a {@code double[]} marked
+ *  {@code @Packed(Packed.SPARSE)}.  JSON output is unchanged.
+ *  <ul>
+ *  <li>{@link #SPARSE}: the non-zero elements and the gaps between them; for
+ *      {@code int[]}, {@code long[]}, {@code double[]} and {@code double[][]}.
+ *      Falls back to dense per array when most elements are non-zero. </li>
+ *  <li>{@link #DELTA}: zig-zag varint of the difference to the previous
+ *      element; for {@code int[]} and {@code long[]} of sorted or slowly
+ *      changing values, e.g. row indices or offsets. </li>
+ *  </ul>
+ */
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.FIELD})
+@Documented
+public @interface Packed {
+  int SPARSE = 1;
+  int DELTA = 2;
+
+  /** {@link #SPARSE} or {@link #DELTA} */
+  int value();
+}
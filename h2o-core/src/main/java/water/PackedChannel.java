@@ -0,0 +1,120 @@
+package water;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+
+import water.persist.SpillCodec;
+
+/** A blocking channel that writes its bytes as frames, each packed with a
+ *  {@link SpillCodec} when that saves bytes, and reads them back unpacked.
+ *  Wraps the sockets of big messages (TCP_BIG_PACKED) between Nodes that
+ *  advertise the same wire codec, see {@link H2ONode#WIRE_CODEC}.
+ *  <p>
+ *  A frame is the codec id (0 for raw), the raw and packed lengths, and the
+ *  packed bytes.  Every write makes whole frames, so a message's last frame
+ *  ends with the message; frames under the pack threshold, or that do not
+ *  shrink, go raw.  The close handshake bytes of {@link AutoBuffer} bypass
+ *  this channel on the underlying socket.
+ */
+public final class PackedChannel implements ByteChannel {
+  static final int FRAME_MAX = 1<<20;
+  private static final int HDR = 1+4+4;
+
+  private final ByteChannel _chan;
+  private final SpillCodec _codec;
+  private final int _packMin;
+  private final ByteBuffer _hdr = ByteBuffer.allocate(HDR);
+  private byte[] _raw = new byte[0], _packed = new byte[0];
+  private ByteBuffer _out;      // Unpacked bytes of the current frame not yet read
+
+  public PackedChannel( ByteChannel chan, SpillCodec codec, int packMin ) {
+    _chan = chan;
+    _codec = codec;
+    _packMin = packMin;
+  }
+
+  /** The wrapped channel */
+  public ByteChannel channel() { return _chan; }
+
+  @Override public int write( ByteBuffer src ) throws IOException {
+    int n = src.remaining();
+    while( src.hasRemaining() )
+      writeFrame(src, Math.min(src.remaining(), FRAME_MAX));
+    return n;
+  }
+
+  private void writeFrame( ByteBuffer src, int len ) throws IOException {
+    if( _raw.length < len ) _raw = new byte[len];
+    src.get(_raw, 0, len);
+    SpillCodec codec = SpillCodec.NONE;
+    byte[] body = _raw;
+    int plen = len;
+    if( _codec != SpillCodec.NONE && len >= _packMin ) {
+      int max = _codec.maxPackedLength(len);
+      if( _packed.length < max ) _packed = new byte[max];
+      int p = _codec.pack(_raw, len, _packed);
+      if( p < len ) {
+        codec = _codec;
+        body = _packed;
+        plen = p;
+        H2ONode.WIRE_PACKED_RAW_BYTES.addAndGet(len);
+        H2ONode.WIRE_BYTES_SAVED.addAndGet(len-p);
+      }
+    }
+    _hdr.clear();
+    _hdr.put(codec._id).putInt(len).putInt(plen).flip();
+    writeFully(_hdr);
+    writeFully(ByteBuffer.wrap(body, 0, plen));
+  }
+
+  private void writeFully( ByteBuffer bb ) throws IOException {
+    while( bb.hasRemaining() ) _chan.write(bb);
+  }
+
+  @Override public int read( ByteBuffer dst ) throws IOException {
+    if( (_out == null || !_out.hasRemaining()) && !readFrame() ) return -1;
+    int n = Math.min(dst.remaining(), _out.remaining());
+    int lim = _out.limit();
+    _out.limit(_out.position()+n);
+    dst.put(_out);
+    _out.limit(lim);
+    return n;
+  }
+
+  // Read and unpack the next frame; false on a clean end of stream before it
+  private boolean readFrame() throws IOException {
+    _hdr.clear();
+    if( !readFully(_hdr, true) ) return false;
+    _hdr.flip();
+    SpillCodec codec = SpillCodec.forId(_hdr.get());
+    int len = _hdr.getInt(), plen = _hdr.getInt();
+    if( len <= 0 || len > FRAME_MAX || plen <= 0 || plen > len || (codec == SpillCodec.NONE) != (plen == len) )
+      throw new IOException("Bad packed frame: codec " + codec + ", " + len + " raw bytes, " + plen + " packed");
+    if( _raw.length < len ) _raw = new byte[len];
+    if( codec == SpillCodec.NONE ) {
+      readFully(ByteBuffer.wrap(_raw, 0, len), false);
+    } else {
+      if( _packed.length < plen ) _packed = new byte[plen];
+      readFully(ByteBuffer.wrap(_packed, 0, plen), false);
+      codec.unpack(_packed, 0, plen, _raw, len);
+    }
+    _out = ByteBuffer.wrap(_raw, 0, len);
+    return true;
+  }
+
+  // Fill bb; an end of stream is only clean before the first byte of a frame
+  private boolean readFully( ByteBuffer bb, boolean atFrame ) throws IOException {
+    while( bb.hasRemaining() ) {
+      if( _chan.read(bb) < 0 ) {
+        if( atFrame && bb.position() == 0 ) return false;
+        throw new EOFException("Packed frame cut short, " + bb.remaining() + " bytes missing");
+      }
+    }
+    return true;
+  }
+
+  @Override public boolean isOpen() { return _chan.isOpen(); }
+  @Override public void close() throws IOException { _chan.close(); }
+}
@@ -86,6 +86,7 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
   // if should remain the same size.
   int _size;
   int _size_rez;                // Size of received results
+  long _done_ms;                // When the answer arrived
 
   // Magic Cookies
   static final byte SERVER_UDP_SEND = 10;
@@ -139,6 +140,7 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
     _dt.setCompleter(new H2O.H2OCallback<DTask>() {
         @Override public void callback(DTask dt) {
           synchronized(RPC.this) {
+            _done_ms = System.currentTimeMillis();
             _done = true;
             RPC.this.notifyAll();
           }
@@ -595,6 +597,7 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
 //          UDPTimeOutThread.PENDING.remove(_tasknum);
           _dt.read(ab);             // Read the answer (under lock?)
           _size_rez = ab.size();    // Record received size
+          _done_ms = System.currentTimeMillis();
           ab.close();               // Also finish the read (under lock?  even if canceled, since need to drain TCP)
           if (!isCancelled())       // Can be canceled already (locally by MRTask while recieving remote answer)
             _dt.onAck();            // One time only execute (before sending ACKACK)
@@ -645,6 +648,8 @@ public class RPC<V extends DTask> implements Future<V>, Delayed, ForkJoinPool.Ma
   }
   // Size of received results
   int size_rez() { return _size_rez; }
+  // Round trip time of a completed call, in msec
+  long elapsed_ms() { return _done_ms == 0 ? 0 : _done_ms-_started; }
 
   // ---
   static final long RETRY_MS = 10000; // Initial UDP packet retry in msec
@@ -0,0 +1,155 @@
+package water;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import water.util.Log;
+import water.util.PrettyPrint;
+
+/** Background spill pipeline for the {@link Cleaner}.
+ *  <p>
+ *  The Cleaner queues victims instead of writing them one at a time.  This
+ *  thread gathers queued Values into batches of about {@link #BATCH_BYTES},
+ *  and hands each batch to the ice backend as a single store - which the
+ *  local-disk backend turns into one sequential append to its spill log.
+ *  Values are marked persisted only after the write returns, and only then
+ *  may their heap copies be dropped: either by a later Cleaner pass, or
+ *  right away when the Cleaner queued them under memory pressure.
+ */
+class SpillWriter extends Thread {
+  static final long BATCH_BYTES = 32L<<20; // Bytes per batched store
+  static final long QUEUE_BYTES = 256L<<20;// Cleaner blocks when more is queued
+  static final SpillWriter THE_WRITER = new SpillWriter();
+
+  // A queued Value, and whether to drop its heap copy once written
+  private static final class Spill {
+    final Value _v;
+    final long _touched;        // Access time when queued
+    final boolean _onHeap;      // Had a heap copy when queued; else demoted from off-heap
+    boolean _free;              // Guarded by the writer; also drops any off-heap copy
+    Spill( Value v, boolean free ) {
+      _v = v; _touched = v._lastAccessedTime; _free = free;
+      _onHeap = v.rawMem() != null || v.rawPOJO() != null;
+    }
+  }
+
+  // All guarded by this
+  private final ArrayDeque<Spill> _queue = new ArrayDeque<>();
+  private final IdentityHashMap<Value,Spill> _queued = new IdentityHashMap<>();
+  private long _queuedBytes;
+  private boolean _busy;        // A batch is being written
+
+  // Set when a batch fails to write; cleared by the Cleaner
+  volatile boolean _failed;
+  // Totals, for the Cleaner's log line
+  volatile long _spilled;       // Bytes written
+  volatile long _io_ns;         // Time writing
+
+  private SpillWriter() {
+    super("SpillWriter");
+    setDaemon(true);
+    setPriority(MAX_PRIORITY-2);
+  }
+
+  /** Queue a Value for writing, blocking while too much is queued.  If
+   *  {@code free}, the Value's heap copy is dropped once it is on disk - unless
+   *  it was touched in the meantime.  Re-queuing a queued Value only updates
+   *  its {@code free} flag. */
+  synchronized void enqueue( Value v, boolean free ) {
+    Spill s = _queued.get(v);
+    if( s != null ) { s._free |= free; return; }
+    while( _queuedBytes > QUEUE_BYTES )
+      try { wait(); } catch( InterruptedException ignore ) { }
+    s = new Spill(v, free);
+    _queue.add(s);
+    _queued.put(v, s);
+    _queuedBytes += v._max;
+    notifyAll();
+  }
+
+  /** Block until everything queued so far is written (or failed) */
+  synchronized void flush() {
+    while( !_queue.isEmpty() || _busy )
+      try { wait(); } catch( InterruptedException ignore ) { }
+  }
+
+  // Take the next batch, blocking for work
+  private synchronized ArrayList<Spill> take() {
+    while( _queue.isEmpty() )
+      try { wait(); } catch( InterruptedException ignore ) { }
+    ArrayList<Spill> batch = new ArrayList<>();
+    long bytes = 0;
+    while( !_queue.isEmpty() && bytes < BATCH_BYTES ) {
+      Spill s = _queue.poll();
+      batch.add(s);
+      bytes += s._v._max;
+    }
+    _busy = true;
+    return batch;
+  }
+
+  // Retire a written (or failed) batch, letting the Cleaner queue more
+  private synchronized void done( ArrayList<Spill> batch ) {
+    for( Spill s : batch ) {
+      _queued.remove(s._v);
+      _queuedBytes -= s._v._max;
+    }
+    _busy = false;
+    notifyAll();
+  }
+
+  @Override public void run() {
+    while( true ) {
+      ArrayList<Spill> batch = take();
+      try { write(batch); }
+      catch( Throwable t ) { Log.err(t); }
+      finally { done(batch); }
+    }
+  }
+
+  private void write( ArrayList<Spill> batch ) {
+    // Skip Values deleted or written since they were queued
+    ArrayList<Spill> live = new ArrayList<>(batch.size());
+    for( Spill s : batch )
+      if( !s._v.isDeleted() && !s._v.isPersisted() )
+        live.add(s);
+    if( live.isEmpty() ) return;
+    Value[] vs = new Value[live.size()];
+    long bytes = 0;
+    for( int i = 0; i < vs.length; i++ ) {
+      vs[i] = live.get(i)._v;
+      bytes += vs[i]._max;
+    }
+    long now_ns = System.nanoTime();
+    try {
+      H2O.getPM().store(Value.ICE, vs);
+    } catch( IOException e ) {
+      Log.warn( Cleaner.isDiskFull()
+                ? "Disk full! Disabling swapping to disk." + (MemoryManager.canAlloc()?"":" Memory low! Please free some space in " + H2O.ICE_ROOT + "!")
+                : "Disk swapping failed! " + e.getMessage());
+      // Something is wrong so mark disk as full anyways so we do not
+      // attempt to write again.  (will retry next run when memory is low)
+      _failed = true;
+      return;
+    }
+    long io_ns = System.nanoTime() - now_ns;
+    _io_ns += io_ns;
+    _spilled += bytes;
+    // Written: now the heap copies may go
+    long freed = 0;
+    for( Spill s : live ) {
+      Value v = s._v;
+      v.storedPersist();
+      if( s._free && v._lastAccessedTime == s._touched && v.isPersisted() ) {
+        v.freeMem();
+        v.freePOJO();
+        v.freeOffHeap();        // Demoted from the off-heap tier
+        freed += v._max;
+        if( s._onHeap ) EvictionPolicy.evicted(v._max);
+      }
+    }
+    if( MemoryManager.canAlloc() )
+      Log.debug("Spilled "+vs.length+" values, "+PrettyPrint.bytes(bytes)+" in "+PrettyPrint.usecs(io_ns>>10)+", freed "+PrettyPrint.bytes(freed));
+  }
+}
@@ -9,6 +9,7 @@ import java.nio.channels.ServerSocketChannel;
 import java.nio.channels.SocketChannel;
 
 import water.network.SocketChannelFactory;
+import water.persist.SpillCodec;
 import water.util.Log;
 import water.util.SB;
 
@@ -40,6 +41,11 @@ public class TCPReceiverThread extends Thread {
    */
   static final byte TCP_EXTERNAL = 3;
 
+  /**
+   * Byte representing TCP communication for big data, packed by a {@link PackedChannel}
+   */
+  static final byte TCP_BIG_PACKED = 4;
+
   public TCPReceiverThread(
           ServerSocketChannel sock) {
     super("TCP-Accept");
@@ -107,11 +113,15 @@ public class TCPReceiverThread extends Thread {
         case TCP_BIG:
           new TCPReaderThread(wrappedSocket, new AutoBuffer(wrappedSocket, inetAddress), inetAddress).start();
           break;
+        case TCP_BIG_PACKED:
+          ByteChannel packed = new PackedChannel(wrappedSocket, H2ONode.WIRE_CODEC, H2ONode.WIRE_PACK_MIN);
+          new TCPReaderThread(packed, new AutoBuffer(packed, inetAddress), inetAddress).start();
+          break;
         case TCP_EXTERNAL:
           new ExternalFrameHandlerThread(wrappedSocket, new AutoBuffer(wrappedSocket, null)).start();
           break;
         default:
-          throw H2O.fail("unexpected channel type " + chanType + ", only know 1 - Small, 2 - Big and 3 - ExternalFrameHandling");
+          throw H2O.fail("unexpected channel type " + chanType + ", only know 1 - Small, 2 - Big, 3 - ExternalFrameHandling and 4 - Big packed");
         }
       } catch( java.nio.channels.AsynchronousCloseException ex ) {
         break;                  // Socket closed for shutdown
@@ -187,6 +197,7 @@ public class TCPReceiverThread extends Thread {
     private final ByteChannel _chan;
     private final ByteBuffer _bb;
     private final H2ONode _h2o;
+    private byte[] _raw, _packed; // Unpacking scratch, made on the first packed batch
 
     public UDP_TCP_ReaderThread(H2ONode h2o, ByteChannel chan) {
       super("UDP-TCP-READ-" + h2o);
@@ -223,6 +234,43 @@ public class TCPReceiverThread extends Thread {
       return _bb;
     }
 
+    // A batch packed by the sender (see H2ONode.WIRE_CODEC): codec id, raw and
+    // packed lengths, the packed bytes and a sentinel.  Unpacks to the same
+    // run of size/message/sentinel frames a raw batch carries.
+    private void readPackedBatch() throws IOException {
+      ByteBuffer bb = read(1+4+4);
+      SpillCodec codec = SpillCodec.forId(bb.get());
+      int rawLen = bb.getInt(), plen = bb.getInt();
+      if( rawLen > _bb.capacity() || plen >= rawLen )
+        throw new IOException("Bad packed batch from " + _h2o + ": raw " + rawLen + " bytes, packed " + plen);
+      if( _raw == null ) { _raw = new byte[_bb.capacity()]; _packed = new byte[_bb.capacity()]; }
+      int sentinel = read(plen+1).get(_packed,0,plen).get();
+      if( (0xFF & sentinel) != 0xef )
+        throw new IOException("Missing expected sentinel (0xef) at the end of a packed batch from " + _h2o + ", likely out of sync");
+      ByteBuffer raw = unpackBatch(codec,_packed,plen,_raw,rawLen,_bb.order());
+      while( raw.hasRemaining() )
+        UDPReceiverThread.basic_packet_handling(nextMessage(_h2o,raw));
+    }
+
+    /** Unpack {@code packed[0,plen)} into {@code raw[0,rawLen)}, returning
+     *  the raw batch ready for {@link #nextMessage}. */
+    static ByteBuffer unpackBatch(SpillCodec codec, byte[] packed, int plen, byte[] raw, int rawLen, ByteOrder order) throws IOException {
+      codec.unpack(packed,0,plen,raw,rawLen);
+      return ByteBuffer.wrap(raw,0,rawLen).order(order);
+    }
+
+    /** The message in the next size/message/sentinel frame of an unpacked batch. */
+    static AutoBuffer nextMessage(H2ONode h2o, ByteBuffer raw) throws IOException {
+      int sz = raw.getChar();
+      if( sz == H2ONode.PACKED_BATCH || sz > raw.remaining()-1 )
+        throw new IOException("Bad message size " + sz + " inside a packed batch, " + raw.remaining() + " bytes left");
+      byte[] ary = MemoryManager.malloc1(Math.max(16,sz));
+      raw.get(ary,0,sz);
+      if( (0xFF & raw.get()) != 0xef )
+        throw new IOException("Missing expected sentinel (0xef) inside a packed batch from " + h2o);
+      return new AutoBuffer(h2o, ary, 0, sz);
+    }
+
     @Override public void run() {
       assert !_bb.hasArray();   // Direct ByteBuffer only
       boolean idle = false;
@@ -232,6 +280,7 @@ public class TCPReceiverThread extends Thread {
           idle = true; // OK to have remote suicide while idle; happens during normal shutdown
           int sz = read(2).getChar(); // 2 bytes of next-message-size
           idle = false;
+          if( sz == H2ONode.PACKED_BATCH ) { readPackedBatch(); continue; }
           assert sz < AutoBuffer.BBP_SML._size : "Incoming message is too big, should've been sent by TCP-BIG, got " + sz + " bytes";
           byte[] ary = MemoryManager.malloc1(Math.max(16,sz));
           int sentinel = read(sz+1).get(ary,0,sz).get(); // extract the message bytes, then the sentinel byte
@@ -0,0 +1,103 @@
+package water;
+
+import water.nbhm.NonBlockingHashMap;
+
+/**
+ * Get a batch of Keys, all homed on the same remote node, in one round trip.
+ * The batched form of {@link TaskGetKey}, used by {@link DKV#getAll}.
+ * <p>
+ * The home node answers a prefix of the batch, stopping once the Values
+ * shipped so far pass {@link #MAX_BYTES}; the caller asks again for the rest.
+ */
+public class TaskGetKeys extends DTask<TaskGetKeys> {
+  /** Most Keys asked for in one batch */
+  static final int MAX_KEYS = 1024;
+  /** Soft limit on the Value bytes shipped back by one batch */
+  static final int MAX_BYTES = 1<<26;
+
+  Key[] _keys;               // Set by client/sender JVM, cleared by server JVM
+  Value[] _vals;             // Set by server JVM, read by client JVM
+  int _n;                    // Keys answered, set by server JVM
+  transient Key[] _xkeys;    // Set by client, read by client
+  transient H2ONode _h2o;    // Set by server JVM, read by server JVM on ACKACK
+  transient RPC<TaskGetKeys> _rpc; // Set by client, read by client
+
+  // Keys being fetched by some batch, so a racing get can wait on that batch
+  // instead of starting another fetch.
+  private static final NonBlockingHashMap<Key,RPC<TaskGetKeys>> TGKS = new NonBlockingHashMap<>();
+
+  // The in-progress batch fetching this key, or null
+  static RPC<TaskGetKeys> pending( Key key ) { return TGKS.get(key); }
+
+  // Clear the batch's keys from the dup cache, unless a later batch took them
+  // over.  Done on the ACK, and by the caller for a batch that failed or was
+  // cancelled and so never got one.
+  static void clear( RPC<TaskGetKeys> rpc ) {
+    for( Key k : rpc._dt._xkeys ) TGKS.remove(k,rpc);
+  }
+
+  // Index of the key among the ones the home node answered, or -1 if it was
+  // left out (and must be fetched again)
+  int answered( Key key ) {
+    for( int i = 0; i < _n; i++ )
+      if( _xkeys[i].equals(key) ) return i;
+    return -1;
+  }
+
+  // Start an RPC to fetch a batch of Values from their home node
+  static RPC<TaskGetKeys> start( H2ONode target, Key[] keys ) {
+    assert keys.length <= MAX_KEYS;
+    RPC<TaskGetKeys> rpc = new RPC<>(target,new TaskGetKeys(keys),1.0f);
+    rpc._dt._rpc = rpc;
+    for( Key k : keys ) TGKS.put(k,rpc);
+    rpc.setTaskNum().call();    // Start the op
+    return rpc;
+  }
+
+  private TaskGetKeys( Key[] keys ) { super(H2O.GET_KEY_PRIORITY); _keys = _xkeys = keys; }
+
+  // Top-level non-recursive invoke
+  @Override public void dinvoke( H2ONode sender ) {
+    _h2o = sender;
+    Key[] ks = _keys;
+    _keys = null;               // Not part of the return result
+    _vals = new Value[ks.length];
+    long bytes = 0;
+    while( _n < ks.length && bytes < MAX_BYTES ) {
+      Key k = ks[_n];
+      assert k.home();          // Gets are always from home
+      // Track replicas so we can invalidate, retrying on a racing delete (see TaskGetKey)
+      Value val;
+      do  val = Value.STORE_get(k);
+      while( val != null && !val.setReplica(sender) );
+      if( val != null ) bytes += val._max;
+      _vals[_n++] = val;
+    }
+    tryComplete();
+  }
+  @Override public void compute2() { throw H2O.fail(); }
+
+  // Received an ACK; executes on the node asking&receiving the Values.
+  // Caches each the same way as TaskGetKey.onAck.
+  @Override public void onAck() {
+    for( int i = 0; i < _n; i++ ) {
+      Key k = _xkeys[i];
+      Value val = _vals[i];
+      if( val != null ) {       // Set transient fields after deserializing
+        assert !k.home() && val._key == null;
+        val._key = k;
+      }
+      Value old = H2O.STORE.get(k);
+      if( old != null && !old.isEmpty() ) old=null;
+      Value res = H2O.putIfMatch(k,val,old);
+      if( res != old ) _vals[i] = res;
+    }
+    clear(_rpc);                // Clear from dup cache
+  }
+
+  // Received an ACKACK; executes on the node sending the Values
+  @Override public void onAckAck() {
+    for( int i = 0; i < _n; i++ )
+      if( _vals[i] != null ) _vals[i].lowerActiveGetCount(_h2o);
+  }
+}
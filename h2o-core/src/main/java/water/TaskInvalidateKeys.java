@@ -0,0 +1,148 @@
+package water;
+
+import water.nbhm.NonBlockingHashMap;
+import water.util.Log;
+
+import java.util.Arrays;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static water.H2O.OptArgs.SYSTEM_PROP_PREFIX;
+
+/**
+ * Invalidate a batch of cached Keys on one remote node in one round trip.
+ * The coalesced form of {@link TaskInvalidateKey}.
+ * <p>
+ * Invalidates headed for the same node within {@code
+ * -Dsys.ai.h2o.dkv.invalidate.window_ms=N} msec (default 1, 0 to turn it
+ * off) are queued and shipped as one RPC, so one ack and one ack-ack cover
+ * the lot.  A batch is sent after N msec, when it reaches
+ * {@link #MAX_KEYS}, or as soon as somebody blocks on it - so a blocking Put
+ * waits no longer than before, and only Puts racing it share its batch.
+ */
+public class TaskInvalidateKeys extends DTask<TaskInvalidateKeys> {
+  /** Coalescing window, msec; 0 sends every invalidate on its own.  Not
+   *  final, so tests can set it. */
+  static volatile int WINDOW_MS = Integer.getInteger(SYSTEM_PROP_PREFIX + "dkv.invalidate.window_ms", 1);
+  /** Most Keys invalidated by one batch */
+  static final int MAX_KEYS = 1024;
+
+  Key[] _keys;                // Set by sender JVM, cleared by receiver JVM
+  transient Value[] _xvals;   // The new Values, read-locked until the ack
+  transient long _queued;     // When the first invalidate was queued
+
+  // Batch being filled, per destination node
+  private static final NonBlockingHashMap<H2ONode,Batch> PENDING = new NonBlockingHashMap<>();
+
+  private static Timer TIMER;
+  private static synchronized Timer timer() {
+    if( TIMER == null ) TIMER = new Timer("DKV-invalidate", true);
+    return TIMER;
+  }
+
+  /** Queue the invalidate of a cached key on a remote node, to be blocked on
+   *  through the Futures.  The new Value is read-locked until it is acked. */
+  static void invalidate( H2ONode h2o, Key key, Value newval, Futures fs ) {
+    while( true ) {
+      Batch b = PENDING.get(h2o);
+      if( b == null ) {
+        Batch nb = new Batch(h2o);
+        b = PENDING.putIfAbsent(h2o,nb);
+        if( b == null ) (b = nb).schedule();
+      }
+      if( b.add(key,newval,fs) ) return;
+      // Batch already sent, start another
+    }
+  }
+
+  private TaskInvalidateKeys( Key[] keys, Value[] vals, long queued ) {
+    super(H2O.INVALIDATE_PRIORITY);
+    _keys = keys;
+    _xvals = vals;
+    _queued = queued;
+  }
+
+  // Drop each cached Value, as TaskPutKey does for a single invalidate
+  @Override public void dinvoke( H2ONode sender ) {
+    for( Key k : _keys ) {
+      assert !k.home();
+      Paxos.lockCloud(k);
+      Value old = H2O.STORE.get(k);
+      while( H2O.putIfMatch(k,null,old) != old )
+        old = H2O.STORE.get(k);
+    }
+    _keys = null;               // No return result
+    tryComplete();
+  }
+  @Override public void compute2() { throw H2O.fail(); }
+
+  // Received the one ACK for the whole batch: lower the read-locks, possibly
+  // enabling pending writes to start
+  @Override public void onAck() {
+    for( Value v : _xvals ) v.lowerActiveGetCount(null);
+    TimeLine.record_invalidates(_xvals.length, System.currentTimeMillis()-_queued);
+  }
+
+  // Invalidates queued for one node and not sent yet; a Future for the RPC
+  // that will carry them.
+  private static final class Batch implements Future<TaskInvalidateKeys> {
+    final H2ONode _h2o;
+    final long _queued = System.currentTimeMillis();
+    Key[] _keys = new Key[4];
+    Value[] _vals = new Value[4];
+    int _n;
+    Futures _lastFs;            // Skip re-adding to the same Futures
+    volatile RPC<TaskInvalidateKeys> _rpc; // Set once sent
+    Batch( H2ONode h2o ) { _h2o = h2o; }
+
+    void schedule() {
+      timer().schedule(new TimerTask() {
+          @Override public void run() {
+            // An exception would kill the shared Timer thread; the batch is
+            // left to the next blocking get() to send
+            try { send(); }
+            catch( Throwable t ) { Log.err("Failed to send a batch of invalidates to " + _h2o, t); }
+          }
+        }, WINDOW_MS);
+    }
+
+    // False if already sent
+    boolean add( Key key, Value newval, Futures fs ) {
+      boolean newFs;
+      synchronized( this ) {
+        if( _rpc != null ) return false;
+        assert newval._key != null && key.home();
+        // Block further writes to the new Value until the invalidate completes
+        newval.read_lock();
+        if( _n == _keys.length ) {
+          _keys = Arrays.copyOf(_keys,_n<<1);
+          _vals = Arrays.copyOf(_vals,_n<<1);
+        }
+        _keys[_n] = key;  _vals[_n++] = newval;
+        if( (newFs = _lastFs != fs) ) _lastFs = fs;
+        if( _n >= MAX_KEYS ) send();
+      }
+      if( newFs ) fs.add(this); // Outside the lock: Futures may call back into get()
+      return true;
+    }
+
+    synchronized RPC<TaskInvalidateKeys> send() {
+      if( _rpc == null ) {
+        PENDING.remove(_h2o,this);
+        TaskInvalidateKeys tik = new TaskInvalidateKeys(Arrays.copyOf(_keys,_n),Arrays.copyOf(_vals,_n),_queued);
+        _rpc = RPC.call(_h2o,tik);
+        _keys = null;  _vals = null;
+      }
+      return _rpc;
+    }
+
+    // Blocking on the batch sends it right away
+    @Override public TaskInvalidateKeys get() { return send().get(); }
+    @Override public TaskInvalidateKeys get( long timeout, TimeUnit unit ) { return send().get(timeout,unit); }
+    @Override public boolean isDone() { RPC<TaskInvalidateKeys> rpc = _rpc; return rpc != null && rpc.isDone(); }
+    @Override public boolean isCancelled() { RPC<TaskInvalidateKeys> rpc = _rpc; return rpc != null && rpc.isCancelled(); }
+    @Override public boolean cancel( boolean mayInterruptIfRunning ) { return false; }
+  }
+}
@@ -2,6 +2,8 @@ package water;
 
 import java.net.InetAddress;
 import java.net.UnknownHostException;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
 
 import sun.misc.Unsafe;
 import water.nbhm.UtilUnsafe;
@@ -43,8 +45,33 @@ public class TimeLine extends UDP {
   static long JVM_BOOT_MSEC = System.currentTimeMillis();
 
 
-  // Snapshot and return the current TIMELINE array
-  private static long[] snapshot() { return TIMELINE.clone(); }
+  // DKV invalidate counters, carried after the events in every snapshot:
+  // keys invalidated, invalidate RPCs (one per batch when coalescing), and
+  // total & max msec from queuing an invalidate to its ack.
+  public static final int INV_KEYS=0, INV_RPCS=1, INV_MS=2, INV_MAX_MS=3;
+  static final int INV_WORDS=4;
+  private static final AtomicLongArray INVALIDATES = new AtomicLongArray(INV_WORDS);
+
+  // Record an acked invalidate RPC covering that many keys
+  static void record_invalidates( int keys, long ms ) {
+    INVALIDATES.addAndGet(INV_KEYS,keys);
+    INVALIDATES.incrementAndGet(INV_RPCS);
+    INVALIDATES.addAndGet(INV_MS,ms);
+    long max;
+    while( (max=INVALIDATES.get(INV_MAX_MS)) < ms && !INVALIDATES.compareAndSet(INV_MAX_MS,max,ms) ) ;
+  }
+  /** An invalidate counter of a snapshot, e.g. {@link #INV_KEYS} */
+  public static long invalidates( long[] tl, int field ) {
+    int idx = TIMELINE.length+field;
+    return idx < tl.length ? tl[idx] : 0;
+  }
+
+  // Snapshot and return the current TIMELINE array, plus the invalidate counters
+  static long[] snapshot() {
+    long[] a = Arrays.copyOf(TIMELINE,TIMELINE.length+INV_WORDS);
+    for( int i=0; i<INV_WORDS; i++ ) a[TIMELINE.length+i] = INVALIDATES.get(i);
+    return a;
+  }
 
   // CAS access to the TIMELINE array
   private static final int _Lbase  = _unsafe.arrayBaseOffset(long[].class);
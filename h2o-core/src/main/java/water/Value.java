@@ -97,16 +97,50 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
   /** Invalidate byte[] cache.  Only used to eagerly free memory, for data
    *  which is expected to be read-once. */
   public final void freeMem() {
-    assert isPersisted() || _pojo != null || _key.isChunkKey();
+    assert isPersisted() || _pojo != null || _offheap != null || _key.isChunkKey();
     _mem = null;
   }
   /** Invalidate POJO cache.  Only used to eagerly free memory, for data
    *  which is expected to be read-once. */
   public final void freePOJO() {
-    assert isPersisted() || _mem != null;
+    assert isPersisted() || _mem != null || _offheap != null;
     _pojo = null;
   }
 
+  // ---
+  // A copy of the _mem array in native memory, or null.  Set by the Cleaner
+  // when it evicts a cold Chunk into the OffHeapStore; freed when the Value
+  // is deleted or demoted to disk, and reclaimed by the OffHeapStore once
+  // the Value is garbage (e.g. after it was overwritten).
+  private transient volatile OffHeapStore.Block _offheap;
+  final boolean isOffHeap() { return _offheap != null; }
+  final int offHeapLen() { OffHeapStore.Block b = _offheap; return b == null ? 0 : b._len; }
+
+  /** Copy the serialized form into the OffHeapStore, so the heap copies can
+   *  be dropped without a disk write.  Only called by the Cleaner.
+   *  @return true if the Value now has an off-heap copy */
+  boolean moveOffHeap() {
+    if( _offheap != null ) return true;
+    byte[] mem = _mem;
+    if( mem == null ) {
+      Freezable pojo = _pojo;
+      if( pojo == null ) return false;
+      mem = pojo.asBytes();
+    }
+    OffHeapStore.Block b = OffHeapStore.store(mem);
+    if( b == null ) return false;
+    _offheap = b;
+    if( isDeleted() ) { freeOffHeap(); return false; } // Check del bit AFTER setting; close race with deleting user thread
+    return true;
+  }
+  /** Release the off-heap copy, if any */
+  void freeOffHeap() {
+    OffHeapStore.Block b = _offheap;
+    if( b == null ) return;
+    _offheap = null;
+    b.free();
+  }
+
   /** The FAST path get-byte-array - final method for speed.  Will (re)build
    *  the mem array from either the POJO or disk.  Never returns NULL.
    *  @return byte[] holding the serialized POJO  */
@@ -117,11 +151,19 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
     if( pojo != null )          // Has the POJO, make raw bytes
       return _mem = pojo.asBytes();
     if( _max == 0 ) return (_mem = new byte[0]);
-    return (_mem = loadPersist());
+    long now_ns = System.nanoTime();
+    OffHeapStore.Block b = _offheap; // Read once!
+    int tier = EvictionPolicy.OFFHEAP;
+    if( b == null || (mem = b.load()) == null ) {
+      mem = loadPersist();
+      tier = backend();
+    }
+    EvictionPolicy.reloaded(tier, _max, System.nanoTime()-now_ns);
+    return (_mem = mem);
   }
   // Just an empty shell of a Value, no local data but the Value is "real".
   // Any attempt to look at the Value will require a remote fetch.
-  final boolean isEmpty() { return _max > 0 && _mem==null && _pojo == null && !isPersisted(); }
+  final boolean isEmpty() { return _max > 0 && _mem==null && _pojo == null && _offheap == null && !isPersisted(); }
 
   /** The FAST path get-POJO as an {@link Iced} subclass - final method for
    *  speed.  Will (re)build the POJO from the _mem array.  Never returns NULL.
@@ -157,7 +199,13 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
   // ---
   // Time of last access to this value.
   transient long _lastAccessedTime = System.currentTimeMillis();
-  private void touch() {_lastAccessedTime = System.currentTimeMillis();}
+  // Reads since the Cleaner last aged it; racy, as it only guides eviction.
+  // Every so many also go to the shared access counter, off the hot path.
+  transient int _hits;
+  private void touch() {
+    _lastAccessedTime = System.currentTimeMillis();
+    if( (++_hits & (EvictionPolicy.ACCESS_SAMPLE-1)) == 0 ) EvictionPolicy.accessed();
+  }
   // Exposed and used for testing only; used to trigger premature cleaning/disk-swapping
   void touchAt(long time) {_lastAccessedTime = time;}
 
@@ -202,13 +250,18 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
     if( isDeleted() ) return;   // 01 and 11 cases
     if( isPersisted() ) return; // 10 case
     H2O.getPM().store(backend(), this); // Write to disk
+    storedPersist();
+  }
 
+  /** Record that a store of this Value completed; called by the single
+   *  writing thread after {@link #storePersist} or a batched store. */
+  void storedPersist() {
     // 00 -> 10 expected, set write bit
-    // 10       assert; only Cleaner writes
+    // 10       assert; only SpillWriter writes
     // 01       delete-during-write; delete again
-    // 11       assert; only Cleaner writes
-    assert !isPersisted();      // Only Cleaner writes
-    setDsk(); // Not locked, not atomic, so can only called by one thread: Cleaner
+    // 11       assert; only SpillWriter writes
+    assert !isPersisted();      // Only SpillWriter writes
+    setDsk(); // Not locked, not atomic, so can only called by one thread: SpillWriter
     if( isDeleted() ) // Check del bit AFTER setting persist bit; close race with deleting user thread
       H2O.getPM().delete(backend(), this); // Possibly nothing to delete (race with writer)
   }
@@ -224,6 +277,7 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
     if( !onICE() ) return;      // Wrong filestore?
     if( isDeleted() ) return;   // Already deleted?
     setDel();                   // Set del bit BEFORE testing isPersist
+    freeOffHeap();
     if( !isPersisted() ) return;// Nothing there
     H2O.getPM().delete(backend(), this); // Possibly nothing to delete (race with writer)
   }
@@ -357,7 +411,15 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
   // and the normal serializer then might ship over a null instead of the
   // intended byte[].  Also, the value is NOT on the deserialize'd machines disk
   public final AutoBuffer write_impl( AutoBuffer ab ) {
-    return ab.put1(_persist).put2(_type).putA1(memOrLoad());
+    ab.put1(_persist).put2(_type);
+    // A large Value only on disk ships straight from its file mapping, without
+    // paging it back into the heap
+    if( _mem == null && _pojo == null && _offheap == null && _max >= AutoBuffer.TCP_BUF_SIZ && isPersisted() ) {
+      try {
+        if( H2O.getPM().writeDirect(backend(), this, ab) ) return ab;
+      } catch( IOException ignore ) { } // Fall back to a normal load
+    }
+    return ab.putA1(memOrLoad());
   }
   // Custom serializer: set _max from _mem length; set replicas & timestamp.
   public final Value read_impl(AutoBuffer bb) {
@@ -484,6 +546,19 @@ public final class Value extends Iced implements ForkJoinPool.ManagedBlocker {
     return true;
   }
 
+  /** True if every other Node in <em>nodes</em> is in the replica list, so
+   *  already caches this Value or has a fetch of it in flight.  A replica
+   *  that dropped its copy stays listed, and just fetches it again. */
+  boolean isReplicatedTo( H2ONode[] nodes ) {
+    assert _key.home(); // Only the HOME node for a key tracks replicas
+    byte[] r = _replicas;
+    if( r == null ) return false;
+    for( H2ONode h2o : nodes )
+      if( h2o != H2O.SELF && (h2o._unique_idx >= r.length || r[h2o._unique_idx] != 1) )
+        return false;
+    return true;
+  }
+
   /** Atomically lower active GET and Invalidate count */
   void lowerActiveGetCount( H2ONode h2o ) {
     assert _key.home();    // Only the HOME node for a key tracks replicas
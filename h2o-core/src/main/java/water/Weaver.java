@@ -460,7 +460,7 @@ public class Weaver {
       if( javassist.Modifier.isTransient(mods) || javassist.Modifier.isStatic(mods) )
         continue;  // Only serialize not-transient instance fields (not static)
       if (ctf.hasAnnotation(API.class))
-        if( ((API)ctf.getAvailableAnnotations()[0]).json() == false )
+        if( ((API)annotation(ctf,API.class)).json() == false )
           continue;
       if( field_sep1 != null ) { sb.append(field_sep1); field_sep1 = null; }
       else if( field_sep2 != null ) sb.append(field_sep2);
@@ -487,6 +487,8 @@ public class Weaver {
 
       String z = FLDSZ1[ftype % 20];
       for(int i = 0; i < ftype / 20; ++i ) z = 'A'+z;
+      if( impl.equals("write") || impl.equals("read") )
+        z += packed(iced_cc, ctf, ftype);          // e.g. putA8dSparse
       subsub(sb, "%z", z);                         // %z ==> short type name
       subsub(sb, "%s", ctf.getName());             // %s ==> field name
       subsub(sb, "%c", dollarsub(base.getName())); // %c ==> base class name
@@ -502,6 +504,25 @@ public class Weaver {
     return body;
   }
 
+  // Suffix of the AutoBuffer put/get pair for a @Packed field, "" for none
+  private static String packed( CtClass iced_cc, CtField ctf, int ftype ) {
+    if( !ctf.hasAnnotation(Packed.class) ) return "";
+    int enc = ((Packed)annotation(ctf,Packed.class)).value();
+    switch( enc ) {
+    case Packed.SPARSE: if( ftype==24 || ftype==26 || ftype==27 || ftype==47 ) return "Sparse"; break;
+    case Packed.DELTA:  if( ftype==24 || ftype==26 ) return "Delta"; break;
+    }
+    throw barf(iced_cc, ctf.getSignature()+" @Packed("+enc+")");
+  }
+
+  private static Object annotation( CtField ctf, Class<?> clz ) {
+    try {
+      return ctf.getAnnotation(clz);
+    } catch( ClassNotFoundException e ) {
+      throw new RuntimeException(e);
+    }
+  }
+
   // Add a gen'd method.  Politely print if there's an error during generation.
   private static void addMethod( String body, CtClass icer_cc ) throws CannotCompileException {
     try {
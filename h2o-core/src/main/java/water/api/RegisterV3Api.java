@@ -79,6 +79,10 @@ public class RegisterV3Api extends AbstractRegister {
         "GET /3/Profiler", ProfilerHandler.class, "fetch",
         "Report real-time profiling information for all nodes (sorted, aggregated stack traces).");
 
+    RequestServer.registerEndpoint("taskProfiler",
+        "GET /3/Profiler/Tasks", TaskProfilerHandler.class, "fetch",
+        "Report per-MRTask-class map, reduce and RPC wait counters and histograms, per node or summed over all nodes.");
+
     RequestServer.registerEndpoint("stacktraces",
         "GET /3/JStack", JStackHandler.class, "fetch",
         "Report stack traces for all threads on all nodes.");
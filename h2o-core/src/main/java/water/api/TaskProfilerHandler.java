@@ -0,0 +1,29 @@
+package water.api;
+
+import water.H2O;
+import water.api.schemas3.TaskProfileV3;
+import water.api.schemas3.TaskProfilerV3;
+import water.util.TaskProfiler;
+
+/** Per-MRTask-class map, reduce and RPC counters, see {@link TaskProfiler} */
+public class TaskProfilerHandler extends Handler {
+  @SuppressWarnings("unused") // called through reflection by RequestServer
+  public TaskProfilerV3 fetch(int version, TaskProfilerV3 p) {
+    if (p.nodeidx < -1 || p.nodeidx >= H2O.CLOUD.size())
+      throw new IllegalArgumentException("nodeidx must be -1 or a node index below " + H2O.CLOUD.size() + ".");
+
+    TaskProfiler.TaskProfile[][] nodes = TaskProfiler.collect();
+    TaskProfiler.TaskProfile[] profiles;
+    if (p.nodeidx == -1) {
+      p.node_name = "all";
+      profiles = TaskProfiler.sum(nodes);
+    } else {
+      p.node_name = H2O.CLOUD._memary[p.nodeidx].getIpPortString();
+      profiles = nodes[p.nodeidx] == null ? new TaskProfiler.TaskProfile[0] : nodes[p.nodeidx];
+    }
+    p.tasks = new TaskProfileV3[profiles.length];
+    for (int i = 0; i < profiles.length; i++)
+      p.tasks[i] = new TaskProfileV3().fillFromProfile(profiles[i]);
+    return p;
+  }
+}
@@ -0,0 +1,67 @@
+package water.api.schemas3;
+
+import water.Iced;
+import water.api.API;
+import water.util.TaskProfiler.TaskProfile;
+
+public class TaskProfileV3 extends SchemaV3<Iced, TaskProfileV3> {
+  @API(help="MRTask class", direction=API.Direction.OUTPUT)
+  public String task;
+
+  @API(help="Number of local runs of the task", direction=API.Direction.OUTPUT)
+  public long tasks;
+
+  @API(help="Number of chunks (or keys) mapped", direction=API.Direction.OUTPUT)
+  public long chunks;
+
+  @API(help="Bytes of chunks read by the map calls", direction=API.Direction.OUTPUT)
+  public long bytes_read;
+
+  @API(help="Total map time (ms)", direction=API.Direction.OUTPUT)
+  public double map_ms;
+
+  @API(help="Map throughput (MB/s of map time)", direction=API.Direction.OUTPUT)
+  public double map_mb_per_sec;
+
+  @API(help="Number of reduce calls", direction=API.Direction.OUTPUT)
+  public long reduces;
+
+  @API(help="Total reduce time (ms)", direction=API.Direction.OUTPUT)
+  public double reduce_ms;
+
+  @API(help="Number of RPCs to child nodes", direction=API.Direction.OUTPUT)
+  public long rpcs;
+
+  @API(help="Total wait on RPCs to child nodes, from call to answer (ms)", direction=API.Direction.OUTPUT)
+  public long rpc_ms;
+
+  @API(help="Bytes of results brought back by the RPCs", direction=API.Direction.OUTPUT)
+  public long rpc_bytes;
+
+  @API(help="Histogram of map time per chunk: bucket 0 is under 1us, bucket i is [2^(i-1),2^i) us", direction=API.Direction.OUTPUT)
+  public long[] map_hist_us;
+
+  @API(help="Histogram of reduce time: bucket 0 is under 1us, bucket i is [2^(i-1),2^i) us", direction=API.Direction.OUTPUT)
+  public long[] reduce_hist_us;
+
+  @API(help="Histogram of RPC wait: bucket 0 is under 1ms, bucket i is [2^(i-1),2^i) ms", direction=API.Direction.OUTPUT)
+  public long[] rpc_hist_ms;
+
+  public TaskProfileV3 fillFromProfile(TaskProfile p) {
+    task = p._task;
+    tasks = p.tasks();
+    chunks = p.chunks();
+    bytes_read = p.bytesRead();
+    map_ms = p.mapNanos() / 1e6;
+    map_mb_per_sec = p.mapNanos() == 0 ? 0 : (p.bytesRead() / 1e6) / (p.mapNanos() / 1e9);
+    reduces = p.reduces();
+    reduce_ms = p.reduceNanos() / 1e6;
+    rpcs = p.rpcs();
+    rpc_ms = p.rpcMs();
+    rpc_bytes = p.rpcBytes();
+    map_hist_us = p.mapHistUs();
+    reduce_hist_us = p.reduceHistUs();
+    rpc_hist_ms = p.rpcHistMs();
+    return this;
+  }
+}
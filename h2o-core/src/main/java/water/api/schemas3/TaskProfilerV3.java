@@ -0,0 +1,15 @@
+package water.api.schemas3;
+
+import water.Iced;
+import water.api.API;
+
+public class TaskProfilerV3 extends RequestSchemaV3<Iced, TaskProfilerV3> {
+  @API(help="Index of the node to report, or -1 for the sum over all nodes")
+  public int nodeidx = -1;
+
+  @API(help="Node name, or \"all\" for the sum over all nodes", direction=API.Direction.OUTPUT)
+  public String node_name;
+
+  @API(help="Counters per MRTask class", direction=API.Direction.OUTPUT)
+  public TaskProfileV3[] tasks;
+}
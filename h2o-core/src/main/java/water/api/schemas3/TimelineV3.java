@@ -23,6 +23,26 @@ public class TimelineV3 extends RequestSchemaV3<Timeline,TimelineV3> {
   @API(help="recorded timeline events", direction=API.Direction.OUTPUT)
   public EventV3[] events;
 
+  @API(help="DKV invalidates sent by each node", direction=API.Direction.OUTPUT)
+  public InvalidatesV3[] invalidates;
+
+  public static class InvalidatesV3 extends SchemaV3<Iced, InvalidatesV3> {
+    @API(help="Node sending the invalidates", direction=API.Direction.OUTPUT)
+    public String node;
+
+    @API(help="Cached keys invalidated", direction=API.Direction.OUTPUT)
+    public long keys;
+
+    @API(help="Invalidate RPCs sent; fewer than keys when coalescing", direction=API.Direction.OUTPUT)
+    public long rpcs;
+
+    @API(help="Average msec per invalidate RPC, from queuing its first key to the ack", direction=API.Direction.OUTPUT)
+    public double avg_ms;
+
+    @API(help="Max msec of an invalidate RPC, from queuing its first key to the ack", direction=API.Direction.OUTPUT)
+    public long max_ms;
+  }
+
   public static class EventV3<I, S extends EventV3<I, S>> extends SchemaV3<Iced, S> {
     @API(help="Time when the event was recorded. Format is hh:mm:ss:ms")
     private final String date;
@@ -177,6 +197,15 @@ public class TimelineV3 extends RequestSchemaV3<Timeline,TimelineV3> {
           outputEvents.add(new NetworkEvent(ms, ns, event.isSend(), event.isTCP() ? "TCP" : "UDP", msgType.toString(), from, to, UDP.printx16(event.dataLo(), event.dataHi())));
         }
       }
+      invalidates = new InvalidatesV3[cloud.size()];
+      for (int i = 0; i < invalidates.length; i++) {
+        InvalidatesV3 inv = invalidates[i] = new InvalidatesV3();
+        inv.node = cloud.members()[i].toString();
+        inv.keys = timeline.snapshot.invalidates(i, TimeLine.INV_KEYS);
+        inv.rpcs = timeline.snapshot.invalidates(i, TimeLine.INV_RPCS);
+        inv.avg_ms = inv.rpcs == 0 ? 0 : (double) timeline.snapshot.invalidates(i, TimeLine.INV_MS) / inv.rpcs;
+        inv.max_ms = timeline.snapshot.invalidates(i, TimeLine.INV_MAX_MS);
+      }
     } // if timeline.snapshot
     events = outputEvents.toArray(new EventV3[null == outputEvents ? 0 : outputEvents.size()]);
     return this;
@@ -11,6 +11,15 @@ public class WaterMeterIoV3 extends RequestSchemaV3<WaterMeterIo, WaterMeterIoV3
   @API(help="array of IO info", direction = API.Direction.OUTPUT)
   public WaterMeterIo.IoStatsEntry persist_stats[];
 
+  @API(help="Cleaner eviction statistics", direction = API.Direction.OUTPUT)
+  public WaterMeterIo.EvictionStatsEntry eviction_stats;
+
+  @API(help="Inter-node small-message wire statistics", direction = API.Direction.OUTPUT)
+  public WaterMeterIo.WireStatsEntry wire_stats;
+
+  @API(help="DKV broadcast statistics", direction = API.Direction.OUTPUT)
+  public WaterMeterIo.BroadcastStatsEntry broadcast_stats;
+
   // Version&Schema-specific filling into the implementation object
   public WaterMeterIo createImpl() {
     WaterMeterIo obj = new WaterMeterIo();
@@ -3,6 +3,7 @@ package water.fvec;
 import water.parser.BufferedString;
 import water.util.UnsafeUtils;
 
+import java.util.Arrays;
 import java.util.UUID;
 
 /**
@@ -100,4 +101,12 @@ public class C0DChunk extends Chunk {
     return v;
   }
 
+  @Override public int getDoubles(double [] vals, long [] nas, int from, int to){
+    clearNAs(nas,to-from);
+    Arrays.fill(vals,0,to-from,_con);
+    if(!Double.isNaN(_con)) return 0;
+    if(nas != null)
+      for(int k = 0; k < to-from; k++) setNA(nas,k);
+    return to-from;
+  }
 }
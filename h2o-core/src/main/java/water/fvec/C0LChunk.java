@@ -2,6 +2,8 @@ package water.fvec;
 
 import water.util.UnsafeUtils;
 
+import java.util.Arrays;
+
 /**
  * The constant 'long' column.
  */
@@ -57,4 +59,15 @@ public class C0LChunk extends Chunk {
         v.addValue(_con);
     return v;
   }
+
+  @Override public int getDoubles(double [] vals, long [] nas, int from, int to){
+    clearNAs(nas,to-from);
+    Arrays.fill(vals,0,to-from,_con);
+    return 0;
+  }
+  @Override public int getLongs(long [] vals, long [] nas, int from, int to){
+    clearNAs(nas,to-from);
+    Arrays.fill(vals,0,to-from,_con);
+    return 0;
+  }
 }
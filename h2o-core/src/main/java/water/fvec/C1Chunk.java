@@ -81,4 +81,24 @@ public class C1Chunk extends Chunk {
   @Override
   public boolean hasFloat() {return false;}
 
+  @Override public int getDoubles(double [] vals, long [] nas, int from, int to){
+    clearNAs(nas,to-from);
+    int n = 0;
+    for(int i = from; i < to; i++) {
+      int x = 0xFF&_mem[i];
+      if(x == _NA) { vals[i-from] = Double.NaN; n += setNA(nas,i-from); }
+      else vals[i-from] = x;
+    }
+    return n;
+  }
+  @Override public int getLongs(long [] vals, long [] nas, int from, int to){
+    clearNAs(nas,to-from);
+    int n = 0;
+    for(int i = from; i < to; i++) {
+      int x = 0xFF&_mem[i];
+      if(x == _NA) { vals[i-from] = 0; n += setNA(nas,i-from); }
+      else vals[i-from] = x;
+    }
+    return n;
+  }
 }
@@ -49,4 +49,16 @@ public class C1NChunk extends Chunk {
     return v;
   }
 
+  @Override public int getDoubles(double [] vals, long [] nas, int from, int to){
+    clearNAs(nas,to-from);
+    for(int i = from; i < to; ++i)
+      vals[i-from] = _mem[i]&0xFF;
+    return 0;
+  }
+  @Override public int getLongs(long [] vals, long [] nas, int from, int to){
+    clearNAs(nas,to-from);
+    for(int i = from; i < to; ++i)
+      vals[i-from] = _mem[i]&0xFF;
+    return 0;
+  }
 }
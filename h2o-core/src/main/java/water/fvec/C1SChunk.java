@@ -113,4 +113,14 @@ public class C1SChunk extends Chunk {
     return vals;
   }
 
+  @Override public int getDoubles(double [] vals, long [] nas, int from, int to){
+    clearNAs(nas,to-from);
+    int n = 0;
+    for(int i = from; i < to; i++) {
+      int x = 0xFF&_mem[i+_OFF];
+      if(x == C1Chunk._NA) { vals[i-from] = Double.NaN; n += setNA(nas,i-from); }
+      else vals[i-from] = (x+_bias)*_scale;
+    }
+    return n;
+  }
 }
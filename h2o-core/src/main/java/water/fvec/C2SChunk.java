@@ -104,4 +104,15 @@ public class C2SChunk extends Chunk {
     }
     return vals;
   }
+
+  @Override public int getDoubles(double [] vals, long [] nas, int from, int to){
+    clearNAs(nas,to-from);
+    int n = 0;
+    for(int i = from; i < to; i++) {
+      int x = UnsafeUtils.get2(_mem,(i<<1)+_OFF);
+      if(x == C2Chunk._NA) { vals[i-from] = Double.NaN; n += setNA(nas,i-from); }
+      else vals[i-from] = (x+_bias)*_scale;
+    }
+    return n;
+  }
 }
@@ -77,4 +77,24 @@ public class C4Chunk extends Chunk {
     return vals;
   }
 
+  @Override public int getDoubles(double [] vals, long [] nas, int from, int to){
+    clearNAs(nas,to-from);
+    int n = 0;
+    for(int i = from; i < to; i++) {
+      int x = UnsafeUtils.get4(_mem, 4*i);
+      if(x == _NA) { vals[i-from] = Double.NaN; n += setNA(nas,i-from); }
+      else vals[i-from] = x;
+    }
+    return n;
+  }
+  @Override public int getLongs(long [] vals, long [] nas, int from, int to){
+    clearNAs(nas,to-from);
+    int n = 0;
+    for(int i = from; i < to; i++) {
+      int x = UnsafeUtils.get4(_mem, 4*i);
+      if(x == _NA) { vals[i-from] = 0; n += setNA(nas,i-from); }
+      else vals[i-from] = x;
+    }
+    return n;
+  }
 }
@@ -63,4 +63,15 @@ public class C4FChunk extends Chunk {
     assert _mem.length == _len <<2;
   }
   @Override public boolean hasFloat() {return true;}
+
+  @Override public int getDoubles(double [] vals, long [] nas, int from, int to){
+    clearNAs(nas,to-from);
+    int n = 0;
+    for(int i = from; i < to; i++) {
+      float x = UnsafeUtils.get4f(_mem, 4*i);
+      if(Float.isNaN(x)) { vals[i-from] = Double.NaN; n += setNA(nas,i-from); }
+      else vals[i-from] = x;
+    }
+    return n;
+  }
 }
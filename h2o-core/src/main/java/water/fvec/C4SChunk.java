@@ -102,4 +102,14 @@ public class C4SChunk extends Chunk {
   }
 
 
+  @Override public int getDoubles(double [] vals, long [] nas, int from, int to){
+    clearNAs(nas,to-from);
+    int n = 0;
+    for(int i = from; i < to; i++) {
+      int x = UnsafeUtils.get4(_mem,_OFF + 4*i);
+      if(x == C4Chunk._NA) { vals[i-from] = Double.NaN; n += setNA(nas,i-from); }
+      else vals[i-from] = (x+_bias)*_scale;
+    }
+    return n;
+  }
 }
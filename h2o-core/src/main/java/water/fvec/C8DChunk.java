@@ -71,4 +71,14 @@ public class C8DChunk extends Chunk {
     return vals;
   }
 
+  @Override public int getDoubles(double [] vals, long [] nas, int from, int to){
+    clearNAs(nas,to-from);
+    int n = 0;
+    for(int i = from; i < to; i++) {
+      double x = UnsafeUtils.get8d(_mem, 8*i);
+      if(Double.isNaN(x)) { vals[i-from] = Double.NaN; n += setNA(nas,i-from); }
+      else vals[i-from] = x;
+    }
+    return n;
+  }
 }
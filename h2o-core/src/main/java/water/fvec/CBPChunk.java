@@ -0,0 +1,190 @@
+package water.fvec;
+
+import water.MemoryManager;
+import water.util.UnsafeUtils;
+
+/**
+ * The frame-of-reference, bit-packed compression: each value is stored as a
+ * code of a fixed width from 1 to 63 bits, added to a base.  A column whose
+ * range needs 11 bits takes 11 bits per row, instead of the 16 of a C2Chunk.
+ * If the chunk has missing values, the all-ones code is the NA.
+ * <p>
+ * Layout: a header of the length, the bit width, an NA flag and the 8-byte
+ * base; then the codes packed back to back, lowest bits first, read 8 bytes
+ * at a time (so the data is followed by 8 bytes of padding).
+ */
+public class CBPChunk extends Chunk {
+  static final int _OFF = 4+4+8;
+  public static long computeByteSize(int bits, int len) {
+    return _OFF + (((long)len*bits+7)>>3) + 8;
+  }
+
+  private transient int _bits;
+  private transient long _mask;   // Low _bits set
+  private transient long _naCode; // The NA code, or -1 if none
+  private transient long _base;
+
+  CBPChunk() {}
+  /** Pack the 8-byte longs in {@code bs}, which are offsets from {@code base}
+   *  in {@code [0,2^bits)} or {@link C8Chunk#_NA}. */
+  CBPChunk( byte[] bs, int len, long base, int bits, boolean hasNA ) {
+    assert 1 <= bits && bits <= 63;
+    _start = -1;
+    _mem = MemoryManager.malloc1((int)computeByteSize(bits, len));
+    UnsafeUtils.set4(_mem, 0, len);
+    _mem[4] = (byte)bits;
+    _mem[5] = (byte)(hasNA ? 1 : 0);
+    UnsafeUtils.set8(_mem, 8, base);
+    initFromBytes();
+    for( int i = 0; i < len; i++ ) {
+      long c = UnsafeUtils.get8(bs, i<<3);
+      put(i, c == C8Chunk._NA ? _naCode : c);
+    }
+  }
+
+  /** Fewest bits holding codes {@code [0,range]}, plus an NA code if
+   *  {@code hasNA}; 64 if it does not fit in 63 bits. */
+  static int bitsFor( long range, boolean hasNA ) {
+    long maxCode = hasNA ? range+1 : range;
+    if( maxCode < 0 ) return 64; // Overflow
+    return Math.max(1, 64 - Long.numberOfLeadingZeros(maxCode));
+  }
+
+  // Code of row i.  Codes of up to 56 bits fit in the 8 bytes starting at
+  // their first byte; wider ones may spill into the next byte.
+  private long code( int i ) {
+    long bp = (long)i*_bits;
+    int off = _OFF + (int)(bp>>>3);
+    int sh = (int)bp&7;
+    long w = UnsafeUtils.get8(_mem, off) >>> sh;
+    if( sh + _bits > 64 ) w |= (long)(0xFF & _mem[off+8]) << (64-sh);
+    return w & _mask;
+  }
+  private void put( int i, long c ) {
+    long bp = (long)i*_bits;
+    int off = _OFF + (int)(bp>>>3);
+    int sh = (int)bp&7;
+    long w = UnsafeUtils.get8(_mem, off);
+    UnsafeUtils.set8(_mem, off, (w & ~(_mask<<sh)) | (c<<sh));
+    if( sh + _bits > 64 ) {
+      int hi = (1<<(sh+_bits-64))-1; // Bits of the next byte in use
+      _mem[off+8] = (byte)((_mem[off+8] & ~hi) | (int)(c>>>(64-sh)));
+    }
+  }
+
+  @Override protected final long at8_impl( int i ) {
+    long c = code(i);
+    if( c == _naCode ) throw new IllegalArgumentException("at8_abs but value is missing");
+    return c + _base;
+  }
+  @Override protected final double atd_impl( int i ) {
+    long c = code(i);
+    return c == _naCode ? Double.NaN : c + _base;
+  }
+  @Override protected final boolean isNA_impl( int i ) { return code(i) == _naCode; }
+  @Override boolean set_impl(int idx, long l) {
+    long c = l - _base;
+    if( c < 0 || c > (_naCode < 0 ? _mask : _mask-1) || (l < _base) != (c < 0) ) return false;
+    put(idx, c);
+    return true;
+  }
+  @Override boolean set_impl(int idx, double d) {
+    if( Double.isNaN(d) ) return setNA_impl(idx);
+    long l = (long)d;
+    return l == d && set_impl(idx, l);
+  }
+  @Override boolean set_impl(int i, float f ) { return set_impl(i,(double)f); }
+  @Override boolean setNA_impl(int idx) {
+    if( _naCode < 0 ) return false;
+    put(idx, _naCode);
+    return true;
+  }
+  @Override public boolean hasFloat() { return false; }
+  @Override public boolean hasNA() { return _naCode >= 0; }
+
+  private void processRow( int r, ChunkVisitor v ) {
+    long c = code(r);
+    if( c == _naCode ) v.addNAs(1);
+    else v.addValue(c + _base);
+  }
+  @Override public <T extends ChunkVisitor> T processRows(T v, int from, int to) {
+    for( int i = from; i < to; i++ ) processRow(i,v);
+    return v;
+  }
+  @Override public <T extends ChunkVisitor> T processRows(T v, int[] ids) {
+    for( int i : ids ) processRow(i,v);
+    return v;
+  }
+
+  /** Dense bulk interface.  For widths up to 56 bits every code is a single
+   *  unaligned 8-byte read; decode 4 rows per iteration. */
+  @Override public double [] getDoubles(double [] vals, int from, int to, double NA) {
+    final byte[] mem = _mem;
+    final int b = _bits;
+    final long mask = _mask, na = _naCode, base = _base;
+    int i = from;
+    if( b <= 56 ) {
+      long bp = (long)i*b;
+      for( ; i+4 <= to; i += 4 ) {
+        long c0 = (UnsafeUtils.get8(mem, _OFF+(int)(bp>>>3)) >>> ((int)bp&7)) & mask;  bp += b;
+        long c1 = (UnsafeUtils.get8(mem, _OFF+(int)(bp>>>3)) >>> ((int)bp&7)) & mask;  bp += b;
+        long c2 = (UnsafeUtils.get8(mem, _OFF+(int)(bp>>>3)) >>> ((int)bp&7)) & mask;  bp += b;
+        long c3 = (UnsafeUtils.get8(mem, _OFF+(int)(bp>>>3)) >>> ((int)bp&7)) & mask;  bp += b;
+        int k = i-from;
+        vals[k  ] = c0 == na ? NA : c0 + base;
+        vals[k+1] = c1 == na ? NA : c1 + base;
+        vals[k+2] = c2 == na ? NA : c2 + base;
+        vals[k+3] = c3 == na ? NA : c3 + base;
+      }
+    }
+    for( ; i < to; i++ ) {
+      long c = code(i);
+      vals[i-from] = c == na ? NA : c + base;
+    }
+    return vals;
+  }
+  @Override public double [] getDoubles(double [] vals, int [] ids) {
+    int k = 0;
+    for( int i : ids ) {
+      long c = code(i);
+      vals[k++] = c == _naCode ? Double.NaN : c + _base;
+    }
+    return vals;
+  }
+  @Override public int [] getIntegers(int [] vals, int from, int to, int NA) {
+    for( int i = from; i < to; i++ ) {
+      long c = code(i);
+      vals[i-from] = c == _naCode ? NA : (int)(c + _base);
+    }
+    return vals;
+  }
+  @Override public int getDoubles(double [] vals, long [] nas, int from, int to) {
+    clearNAs(nas, to-from);
+    int n = 0;
+    for( int i = from; i < to; i++ ) {
+      long c = code(i);
+      if( c == _naCode ) { vals[i-from] = Double.NaN; n += setNA(nas, i-from); }
+      else vals[i-from] = c + _base;
+    }
+    return n;
+  }
+  @Override public int getLongs(long [] vals, long [] nas, int from, int to) {
+    clearNAs(nas, to-from);
+    int n = 0;
+    for( int i = from; i < to; i++ ) {
+      long c = code(i);
+      if( c == _naCode ) { vals[i-from] = 0; n += setNA(nas, i-from); }
+      else vals[i-from] = c + _base;
+    }
+    return n;
+  }
+
+  @Override protected final void initFromBytes () {
+    _start = -1;  _cidx = -1;
+    set_len(UnsafeUtils.get4(_mem, 0));
+    _bits = _mem[4];
+    _mask = (1L<<_bits)-1;
+    _naCode = _mem[5] != 0 ? _mask : -1;
+    _base = UnsafeUtils.get8(_mem, 8);
+  }
+}
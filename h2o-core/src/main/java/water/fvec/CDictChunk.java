@@ -0,0 +1,193 @@
+package water.fvec;
+
+import water.MemoryManager;
+import water.util.UnsafeUtils;
+
+/**
+ * The dictionary encoding: a table of the distinct values, and a 1- or 2-byte
+ * code per row indexing into it.  Good for low-cardinality columns whose
+ * values are wide, e.g. timestamps or large ids; {@link CUDChunk} covers up
+ * to 256 distinct doubles, this covers longs and up to 65535 distinct values.
+ * <p>
+ * Layout: a header of the length, the dictionary size, the code width and a
+ * flag for whether the values are doubles or longs; then the 8-byte values
+ * (NA is NaN, or {@link C8Chunk#_NA} for longs); then the codes.
+ */
+public class CDictChunk extends Chunk {
+  static final int _OFF = 4+4+8;
+  public static final int MAX_UNIQUES = 65535;
+  public static int computeByteSize(int uniques, int len) {
+    return _OFF + (uniques<<3) + (uniques <= 256 ? len : len<<1);
+  }
+
+  private transient int _uniques;
+  private transient int _codeSz;
+  private transient boolean _isDouble;
+  private transient int _codeOff;
+
+  CDictChunk() {}
+  private CDictChunk( byte[] bs, int len, LongTable dict, boolean isDouble ) {
+    _start = -1;
+    set_len(len);
+    _uniques = dict._size;
+    _codeSz = _uniques <= 256 ? 1 : 2;
+    _isDouble = isDouble;
+    _codeOff = _OFF + (_uniques<<3);
+    _mem = MemoryManager.malloc1(computeByteSize(_uniques, len));
+    UnsafeUtils.set4(_mem, 0, len);
+    UnsafeUtils.set4(_mem, 4, _uniques);
+    _mem[8] = (byte)_codeSz;
+    _mem[9] = (byte)(isDouble ? 1 : 0);
+    for( int j = 0; j < _uniques; j++ )
+      UnsafeUtils.set8(_mem, _OFF + (j<<3), dict._vals[j]);
+    for( int i = 0; i < len; i++ ) {
+      int code = dict.get(UnsafeUtils.get8(bs, i<<3));
+      if( _codeSz == 1 ) _mem[_codeOff+i] = (byte)code;
+      else UnsafeUtils.set2(_mem, _codeOff+(i<<1), (short)code);
+    }
+  }
+
+  /** Dictionary encoding of the 8-byte values in {@code bs[0,len)} (doubles
+   *  if {@code isDouble}, else longs), or null if it would not fit in
+   *  {@code maxBytes}. */
+  static CDictChunk make( byte[] bs, int len, boolean isDouble, long maxBytes ) {
+    // Most uniques that still fit, with 2-byte codes
+    long cap = Math.min(MAX_UNIQUES, (maxBytes - _OFF - ((long)len<<1)) >> 3);
+    if( cap <= 256 )            // Else try again assuming 1-byte codes
+      cap = Math.min(256, (maxBytes - _OFF - len) >> 3);
+    if( cap <= 0 ) return null;
+    LongTable dict = new LongTable((int)cap);
+    for( int i = 0; i < len; i++ )
+      if( !dict.add(UnsafeUtils.get8(bs, i<<3)) ) return null; // Too many distinct values
+    if( computeByteSize(dict._size, len) > maxBytes ) return null;
+    return new CDictChunk(bs, len, dict, isDouble);
+  }
+
+  // Open-addressing set of longs, numbering values in insertion order and
+  // refusing to grow past a cap
+  private static final class LongTable {
+    final long[] _vals;         // Distinct values, in code order
+    final long[] _keys;
+    final int[] _codes;         // 1 + code; 0 for an empty slot
+    final int _cap;
+    int _size;
+    LongTable( int cap ) {
+      _cap = cap;
+      _vals = new long[cap];
+      int n = Integer.highestOneBit(Math.max(cap,8)*2-1)<<1; // Load factor <= 1/2
+      _keys = new long[n];
+      _codes = new int[n];
+    }
+    private int slot( long x ) {
+      int mask = _keys.length-1;
+      int h = (int)(x ^ (x>>>32));
+      h ^= h>>>16;  h *= 0x85EBCA6B;  h ^= h>>>13; // Murmur3 finalizer
+      int i = h & mask;
+      while( _codes[i] != 0 && _keys[i] != x ) i = (i+1) & mask;
+      return i;
+    }
+    boolean add( long x ) {
+      int i = slot(x);
+      if( _codes[i] != 0 ) return true;
+      if( _size == _cap ) return false;
+      _keys[i] = x;
+      _vals[_size] = x;
+      _codes[i] = ++_size;
+      return true;
+    }
+    int get( long x ) { return _codes[slot(x)]-1; }
+  }
+
+  private int code( int i ) {
+    return _codeSz == 1 ? 0xFF & _mem[_codeOff+i] : 0xFFFF & UnsafeUtils.get2(_mem, _codeOff+(i<<1));
+  }
+  private long raw( int i ) { return UnsafeUtils.get8(_mem, _OFF + (code(i)<<3)); }
+
+  // The dictionary as doubles, with NAs replaced
+  private double[] dict( double NA ) {
+    double[] d = new double[_uniques];
+    for( int j = 0; j < _uniques; j++ ) {
+      long x = UnsafeUtils.get8(_mem, _OFF + (j<<3));
+      if( _isDouble ) { d[j] = Double.longBitsToDouble(x); if( Double.isNaN(d[j]) ) d[j] = NA; }
+      else d[j] = x == C8Chunk._NA ? NA : x;
+    }
+    return d;
+  }
+
+  @Override protected final double atd_impl( int i ) {
+    long x = raw(i);
+    if( _isDouble ) return Double.longBitsToDouble(x);
+    return x == C8Chunk._NA ? Double.NaN : x;
+  }
+  @Override protected final long at8_impl( int i ) {
+    long x = raw(i);
+    if( _isDouble ) {
+      double d = Double.longBitsToDouble(x);
+      if( Double.isNaN(d) ) throw new IllegalArgumentException("at8_abs but value is missing");
+      return (long)d;
+    }
+    if( x == C8Chunk._NA ) throw new IllegalArgumentException("at8_abs but value is missing");
+    return x;
+  }
+  @Override protected final boolean isNA_impl( int i ) {
+    long x = raw(i);
+    return _isDouble ? Double.isNaN(Double.longBitsToDouble(x)) : x == C8Chunk._NA;
+  }
+  @Override public boolean hasFloat() { return _isDouble; }
+  @Override boolean set_impl(int idx, long l) { return false; }
+  @Override boolean set_impl(int i, double d) { return false; }
+  @Override boolean set_impl(int i, float f ) { return false; }
+  @Override boolean setNA_impl(int idx) { return false; }
+
+  private void processRow( int r, ChunkVisitor v ) {
+    long x = raw(r);
+    if( _isDouble ) {
+      double d = Double.longBitsToDouble(x);
+      if( Double.isNaN(d) ) v.addNAs(1); else v.addValue(d);
+    } else {
+      if( x == C8Chunk._NA ) v.addNAs(1); else v.addValue(x);
+    }
+  }
+  @Override public <T extends ChunkVisitor> T processRows(T v, int from, int to) {
+    for( int i = from; i < to; i++ ) processRow(i,v);
+    return v;
+  }
+  @Override public <T extends ChunkVisitor> T processRows(T v, int[] ids) {
+    for( int i : ids ) processRow(i,v);
+    return v;
+  }
+
+  /** Dense bulk interface: decode the dictionary once, then gather */
+  @Override public double [] getDoubles(double [] vals, int from, int to, double NA) {
+    double[] d = dict(NA);
+    if( _codeSz == 1 )
+      for( int i = from; i < to; i++ ) vals[i-from] = d[0xFF & _mem[_codeOff+i]];
+    else
+      for( int i = from; i < to; i++ ) vals[i-from] = d[0xFFFF & UnsafeUtils.get2(_mem, _codeOff+(i<<1))];
+    return vals;
+  }
+  @Override public double [] getDoubles(double [] vals, int [] ids) {
+    double[] d = dict(Double.NaN);
+    int k = 0;
+    for( int i : ids ) vals[k++] = d[code(i)];
+    return vals;
+  }
+  @Override public int getDoubles(double [] vals, long [] nas, int from, int to) {
+    getDoubles(vals, from, to, Double.NaN);
+    clearNAs(nas, to-from);
+    int n = 0;
+    if( hasNA() )
+      for( int k = 0; k < to-from; k++ )
+        if( Double.isNaN(vals[k]) ) n += setNA(nas, k);
+    return n;
+  }
+
+  @Override protected final void initFromBytes () {
+    _start = -1;  _cidx = -1;
+    set_len(UnsafeUtils.get4(_mem, 0));
+    _uniques = UnsafeUtils.get4(_mem, 4);
+    _codeSz = _mem[8];
+    _isDouble = _mem[9] != 0;
+    _codeOff = _OFF + (_uniques<<3);
+  }
+}
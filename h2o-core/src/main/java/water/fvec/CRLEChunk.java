@@ -0,0 +1,189 @@
+package water.fvec;
+
+import java.util.Arrays;
+import water.MemoryManager;
+import water.util.UnsafeUtils;
+
+/**
+ * The run-length encoding: a list of runs of a repeated value.  Good for
+ * sorted columns and long stretches of the same value.
+ * <p>
+ * Layout: a header of the length, the run count and a flag for whether the
+ * values are doubles or longs; then one 8-byte value per run (NA is NaN,
+ * or {@link C8Chunk#_NA} for longs); then the exclusive end row of each run.
+ */
+public class CRLEChunk extends Chunk {
+  static final int _OFF = 4+4+8;
+  public static int computeByteSize(int runs) { return _OFF + runs*(8+4); }
+
+  private transient int _runs;
+  private transient boolean _isDouble;
+  // Run found by the last lookup; racy, but any value read is a valid run
+  private transient int _last;
+
+  CRLEChunk() {}
+  /** Encode the 8-byte values in {@code bs} (doubles if {@code isDouble},
+   *  else longs), which hold exactly {@code runs} runs. */
+  CRLEChunk( byte[] bs, int len, int runs, boolean isDouble ) {
+    _start = -1;
+    set_len(len);
+    _runs = runs;
+    _isDouble = isDouble;
+    _mem = MemoryManager.malloc1(computeByteSize(runs));
+    UnsafeUtils.set4(_mem, 0, len);
+    UnsafeUtils.set4(_mem, 4, runs);
+    _mem[8] = (byte)(isDouble ? 1 : 0);
+    int r = 0;
+    for( int i = 0; i < len; i++ ) {
+      long x = UnsafeUtils.get8(bs, i<<3);
+      if( i > 0 && x == UnsafeUtils.get8(bs, (i-1)<<3) ) continue;
+      if( r > 0 ) UnsafeUtils.set4(_mem, endOff(r-1), i);
+      UnsafeUtils.set8(_mem, _OFF + (r<<3), x);
+      r++;
+    }
+    assert r == runs;
+    UnsafeUtils.set4(_mem, endOff(runs-1), len);
+  }
+
+  /** Number of runs of equal 8-byte values in {@code bs[0,len)} */
+  static int countRuns( byte[] bs, int len ) {
+    if( len == 0 ) return 0;
+    int runs = 1;
+    long prev = UnsafeUtils.get8(bs, 0);
+    for( int i = 1; i < len; i++ ) {
+      long x = UnsafeUtils.get8(bs, i<<3);
+      if( x != prev ) { runs++; prev = x; }
+    }
+    return runs;
+  }
+
+  private int endOff( int r ) { return _OFF + (_runs<<3) + (r<<2); }
+  private int end( int r ) { return UnsafeUtils.get4(_mem, endOff(r)); }
+  private long raw( int r ) { return UnsafeUtils.get8(_mem, _OFF + (r<<3)); }
+
+  // The run holding row i: check the last run found (and the next one, for
+  // sequential scans) before falling back to a binary search
+  private int run( int i ) {
+    int r = _last;
+    if( r < _runs && i < end(r) && (r == 0 || i >= end(r-1)) ) return r;
+    if( r+1 < _runs && i >= end(r) && i < end(r+1) ) return (_last = r+1);
+    int lo = 0, hi = _runs-1;
+    while( lo < hi ) {
+      int mid = (lo+hi)>>>1;
+      if( end(mid) <= i ) lo = mid+1; else hi = mid;
+    }
+    return (_last = lo);
+  }
+
+  private double value( int r, double NA ) {
+    long x = raw(r);
+    if( _isDouble ) { double d = Double.longBitsToDouble(x); return Double.isNaN(d) ? NA : d; }
+    return x == C8Chunk._NA ? NA : x;
+  }
+
+  @Override protected final double atd_impl( int i ) { return value(run(i), Double.NaN); }
+  @Override protected final long at8_impl( int i ) {
+    long x = raw(run(i));
+    if( _isDouble ) {
+      double d = Double.longBitsToDouble(x);
+      if( Double.isNaN(d) ) throw new IllegalArgumentException("at8_abs but value is missing");
+      return (long)d;
+    }
+    if( x == C8Chunk._NA ) throw new IllegalArgumentException("at8_abs but value is missing");
+    return x;
+  }
+  @Override protected final boolean isNA_impl( int i ) {
+    long x = raw(run(i));
+    return _isDouble ? Double.isNaN(Double.longBitsToDouble(x)) : x == C8Chunk._NA;
+  }
+  @Override public boolean hasFloat() { return _isDouble; }
+  @Override boolean set_impl(int idx, long l) { return false; }
+  @Override boolean set_impl(int i, double d) { return false; }
+  @Override boolean set_impl(int i, float f ) { return false; }
+  @Override boolean setNA_impl(int idx) { return false; }
+
+  @Override public <T extends ChunkVisitor> T processRows(T v, int from, int to) {
+    if( from >= to ) return v;
+    for( int r = run(from); from < to; r++ ) {
+      int n = Math.min(end(r),to) - from;
+      long x = raw(r);
+      if( _isDouble ) {
+        double d = Double.longBitsToDouble(x);
+        if( Double.isNaN(d) ) v.addNAs(n);
+        else for( int k = 0; k < n; k++ ) v.addValue(d);
+      } else {
+        if( x == C8Chunk._NA ) v.addNAs(n);
+        else for( int k = 0; k < n; k++ ) v.addValue(x);
+      }
+      from += n;
+    }
+    return v;
+  }
+  @Override public <T extends ChunkVisitor> T processRows(T v, int[] ids) {
+    for( int i : ids ) {
+      int r = run(i);
+      long x = raw(r);
+      if( _isDouble ) {
+        double d = Double.longBitsToDouble(x);
+        if( Double.isNaN(d) ) v.addNAs(1); else v.addValue(d);
+      } else {
+        if( x == C8Chunk._NA ) v.addNAs(1); else v.addValue(x);
+      }
+    }
+    return v;
+  }
+
+  /** Dense bulk interface: fill each run at once */
+  @Override public double [] getDoubles(double [] vals, int from, int to, double NA) {
+    if( from >= to ) return vals;
+    int i = from;
+    for( int r = run(from); i < to; r++ ) {
+      int e = Math.min(end(r),to);
+      Arrays.fill(vals, i-from, e-from, value(r,NA));
+      i = e;
+    }
+    return vals;
+  }
+  @Override public double [] getDoubles(double [] vals, int [] ids) {
+    int k = 0;
+    for( int i : ids ) vals[k++] = value(run(i), Double.NaN);
+    return vals;
+  }
+  @Override public int getDoubles(double [] vals, long [] nas, int from, int to) {
+    clearNAs(nas, to-from);
+    if( from >= to ) return 0;
+    int n = 0;
+    for( int r = run(from), i = from; i < to; r++ ) {
+      int e = Math.min(end(r),to);
+      double d = value(r,Double.NaN);
+      Arrays.fill(vals, i-from, e-from, d);
+      if( Double.isNaN(d) )
+        for( ; i < e; i++ ) n += setNA(nas, i-from);
+      i = e;
+    }
+    return n;
+  }
+  @Override public int getLongs(long [] vals, long [] nas, int from, int to) {
+    clearNAs(nas, to-from);
+    if( from >= to ) return 0;
+    int n = 0;
+    for( int r = run(from), i = from; i < to; r++ ) {
+      int e = Math.min(end(r),to);
+      long x = raw(r);
+      boolean na = _isDouble ? Double.isNaN(Double.longBitsToDouble(x)) : x == C8Chunk._NA;
+      Arrays.fill(vals, i-from, e-from, na ? 0 : _isDouble ? (long)Double.longBitsToDouble(x) : x);
+      if( na )
+        for( ; i < e; i++ ) n += setNA(nas, i-from);
+      i = e;
+    }
+    return n;
+  }
+
+  @Override protected final void initFromBytes () {
+    _start = -1;  _cidx = -1;
+    set_len(UnsafeUtils.get4(_mem, 0));
+    _runs = UnsafeUtils.get4(_mem, 4);
+    _isDouble = _mem[8] != 0;
+    _last = 0;
+  }
+}
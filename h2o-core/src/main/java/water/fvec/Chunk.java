@@ -3,6 +3,7 @@ package water.fvec;
 import water.*;
 import water.parser.BufferedString;
 
+import java.util.Arrays;
 import java.util.UUID;
 
 /** A compression scheme, over a chunk of data - a single array of bytes.
@@ -786,6 +787,47 @@ public abstract class Chunk extends Iced<Chunk> implements Vec.Holder {
   public int [] getIntegers(int [] vals, int from, int to, int NA){
     return processRows(new ChunkVisitor.IntAryVisitor(vals,NA),from,to).vals;
   }
+
+  /**
+   * Dense bulk interface with a missing-value bitmap: decode rows
+   * {@code [from,to)} into {@code vals[0,to-from)}, and mark each missing row
+   * {@code i} in {@code nas} (see {@link #isNA(long[],int)}).  Missing rows
+   * decode as NaN.  The compressed chunk types override this with a single
+   * tight loop over their encoding.
+   * @param nas bitmap of at least {@code to-from} bits from {@link #naBitmap},
+   *            cleared by this call; or null if not wanted
+   * @return number of missing rows
+   */
+  public int getDoubles(double [] vals, long [] nas, int from, int to){
+    getDoubles(vals,from,to,Double.NaN);
+    clearNAs(nas,to-from);
+    int n = 0;
+    for(int k = 0; k < to-from; k++)
+      if(Double.isNaN(vals[k])) n += setNA(nas,k);
+    return n;
+  }
+  /**
+   * Dense bulk interface with a missing-value bitmap, as longs: decode rows
+   * {@code [from,to)} into {@code vals[0,to-from)}, and mark each missing row
+   * in {@code nas}.  Missing rows decode as 0; real values are truncated as
+   * by {@link #at8}.
+   * @return number of missing rows
+   */
+  public int getLongs(long [] vals, long [] nas, int from, int to){
+    clearNAs(nas,to-from);
+    return processRows(new ChunkVisitor.LongAryVisitor(vals,nas),from,to).naCnt();
+  }
+
+  /** A missing-value bitmap for {@code len} rows */
+  public static long [] naBitmap(int len){ return new long[(len+63)>>6]; }
+  /** Is row {@code i} marked missing in the bitmap */
+  public static boolean isNA(long [] nas, int i){ return (nas[i>>6] & (1L<<i)) != 0; }
+  static void clearNAs(long [] nas, int len){ if(nas != null) Arrays.fill(nas,0,(len+63)>>6,0); }
+  // Mark row k missing; returns 1 for counting
+  static int setNA(long [] nas, int k){
+    if(nas != null) nas[k>>6] |= 1L<<k;
+    return 1;
+  }
   /**
    * Dense bulk interface, fetch values from the given ids
    * @param vals
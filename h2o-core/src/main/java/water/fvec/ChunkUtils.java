@@ -19,6 +19,7 @@ public class ChunkUtils {
 
     public static Chunk[] getChunks(Frame fr, int cidx) {
         Chunk[] chunks = new Chunk[fr.vecs().length];
+        Vec.fetchChunks(fr.vecs(), cidx);
         for(int i=0; i<fr.vecs().length; i++){
             chunks[i] = fr.vec(i).chunkForChunkIdx(cidx);
         }
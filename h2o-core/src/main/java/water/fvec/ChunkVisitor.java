@@ -189,4 +189,43 @@ public abstract class ChunkVisitor {
       _k = kmax;
     }
   }
+  /**
+   * Simple chunk visitor for extracting rows from chunks into a long array,
+   * with missing rows marked in a bitmap.
+   */
+  public static final class LongAryVisitor extends ChunkVisitor {
+    public final long [] vals;
+    private final long [] _nas;
+    private int _k = 0;
+    private int _naCnt = 0;
+    LongAryVisitor(long [] vals, long [] nas){this.vals = vals; _nas = nas;}
+    public int naCnt(){return _naCnt;}
+    @Override
+    public void addValue(int val) {vals[_k++] = val;}
+    @Override
+    public void addValue(long val) {vals[_k++] = val;}
+    @Override
+    public void addValue(double val) {
+      if(Double.isNaN(val)) addNAs(1);
+      else vals[_k++] = (long)val;
+    }
+    @Override
+    public void addZeros(int zeros) {
+      int k = _k;
+      int kmax = k +zeros;
+      for(;k < kmax; k++)vals[k] = 0;
+      _k = kmax;
+    }
+    @Override
+    public void addNAs(int nas) {
+      int k = _k;
+      int kmax = k + nas;
+      for(;k < kmax; k++) {
+        vals[k] = 0;
+        Chunk.setNA(_nas,k);
+      }
+      _naCnt += nas;
+      _k = kmax;
+    }
+  }
 }
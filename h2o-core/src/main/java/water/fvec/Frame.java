@@ -1101,10 +1101,11 @@ public class Frame extends Lockable<Frame> {
       long  last_c0 = anyv.espc()[last_ci];            // ...         last chunk start
       long  last_c1 = anyv.espc()[last_ci + 1];        // ...         last chunk end
       Chunk[] last_cs = new Chunk[vecs.length];       // ...         last chunks
-      for (int c = 0; c < _cols.length; c++) {
+      for (int c = 0; c < _cols.length; c++)
         vecs[c] = _base.vecs()[_cols[c]];
+      Vec.fetchChunks(vecs, last_ci);
+      for (int c = 0; c < _cols.length; c++)
         last_cs[c] = vecs[c].chunkForChunkIdx(last_ci);
-      }
       for (int i = 0; i < ix[0]._len; i++) {
         // select one row
         r = ix[0].at8(i);   // next row to select
@@ -1116,6 +1117,7 @@ public class Frame extends Lockable<Frame> {
             last_ci = anyv.elem2ChunkIdx(r);
             last_c0 = anyv.espc()[last_ci];
             last_c1 = anyv.espc()[last_ci + 1];
+            Vec.fetchChunks(vecs, last_ci);
             for (int c = 0; c < vecs.length; c++)
               last_cs[c] = vecs[c].chunkForChunkIdx(last_ci);
           }
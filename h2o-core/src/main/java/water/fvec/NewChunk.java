@@ -1252,6 +1252,17 @@ public class NewChunk extends Chunk {
       return chunkD();
     } // else an integer column
 
+    // Long runs of a value, or few distinct wide values?
+    int bpv = leRange <= 255 ? 1 : leRange < 65535 ? 2 : (Integer.MIN_VALUE < min && max <= Integer.MAX_VALUE) ? 4 : 8;
+    Chunk rd = chunkRunsOrDict(bpv);
+    if( rd != null ) return rd;
+    // Fewer bits than the byte-sized encodings below?
+    if( xmin == 0 && _len >= MIN_ENCODED_LEN ) {
+      int bits = CBPChunk.bitsFor(leRange, _naCnt > 0);
+      if( bits < 64 && CBPChunk.computeByteSize(bits, _len) < 0.8*bpv*_len )
+        return new CBPChunk(bufX(lemin,0,0,3), _len, lemin, bits, _naCnt > 0);
+    }
+
     // Compress column into a byte
     if(xmin == 0 &&  0<=lemin && lemax <= 255 && ((_naCnt + _catCnt)==0) )
       return new C1NChunk( bufX(0,0,C1NChunk._OFF,0));
@@ -1277,6 +1288,46 @@ public class NewChunk extends Chunk {
 
   private static long [] NAS = {C1Chunk._NA,C2Chunk._NA,C4Chunk._NA,C8Chunk._NA};
 
+  // Chunks shorter than this are not worth run-length, dictionary or
+  // bit-packed encoding
+  static final int MIN_ENCODED_LEN = 256;
+
+  // Run-length or dictionary encoding of a dense integer column, if either
+  // saves at least 20% over the plain encoding of bpv bytes per value.
+  // Dictionaries only pay off against 4- and 8-byte values.
+  private Chunk chunkRunsOrDict( int bpv ) {
+    if( _len < MIN_ENCODED_LEN || _id != null ) return null;
+    final long limit = (long)(0.8*bpv*_len);
+    // A quick upper bound first, then the exact count over the values
+    boolean rle = CRLEChunk.computeByteSize(countRuns()) < limit;
+    if( !rle && bpv < 4 ) return null;
+    byte[] bs = bufX(0,0,0,3);  // Plain longs
+    int runs = CRLEChunk.countRuns(bs, _len);
+    int rleSize = CRLEChunk.computeByteSize(runs);
+    rle = rleSize < limit;
+    CDictChunk dict = bpv < 4 ? null : CDictChunk.make(bs, _len, false, rle ? rleSize-1 : limit);
+    if( dict != null ) return dict;
+    return rle ? new CRLEChunk(bs, _len, runs, false) : null;
+  }
+
+  // Upper bound on the runs of equal values in a dense integer column: equal
+  // values with differing mantissa/exponent pairs (10,0 and 1,1) count as
+  // separate runs
+  private int countRuns() {
+    int runs = 0;
+    boolean na = false;
+    long m = 0;
+    int x = 0;
+    for( int i = 0; i < _len; i++ ) {
+      boolean na2 = isNA2(i);
+      long m2 = na2 ? 0 : _ms.get(i);
+      int x2 = na2 ? 0 : _xs.get(i);
+      if( i == 0 || na2 != na || m2 != m || x2 != x ) runs++;
+      na = na2;  m = m2;  x = x2;
+    }
+    return runs;
+  }
+
   // Compute a sparse integer buffer
   private byte[] bufS(int len, int id_sz, int val_sz,boolean na_sparse){
     long NA = CXIChunk.NA(val_sz);
@@ -1372,10 +1423,19 @@ public class NewChunk extends Chunk {
       UnsafeUtils.set8d(bs, 8*i, d);
     }
     assert j == _sparseLen :"j = " + j + ", _len = " + _sparseLen;
-    if (fitsInUnique && CUDChunk.computeByteSize(hs.size(), len()) < 0.8 * bs.length)
+    final long limit = (long)(0.8 * bs.length);
+    // Long runs of a value?
+    if( _len >= MIN_ENCODED_LEN ) {
+      int runs = CRLEChunk.countRuns(bs, _len);
+      int rleSize = CRLEChunk.computeByteSize(runs);
+      if( rleSize < limit && (!fitsInUnique || rleSize < CUDChunk.computeByteSize(hs.size(), len())) )
+        return new CRLEChunk(bs, _len, runs, true);
+    }
+    if (fitsInUnique && CUDChunk.computeByteSize(hs.size(), len()) < limit)
       return new CUDChunk(bs, hs, len());
-    else
-      return new C8DChunk(bs);
+    // Too many distinct values for CUD, but few enough for 2-byte codes?
+    CDictChunk dict = !fitsInUnique && _len >= MIN_ENCODED_LEN ? CDictChunk.make(bs, _len, true, limit) : null;
+    return dict != null ? dict : new C8DChunk(bs);
   }
 
   // Compute a compressed UUID buffer
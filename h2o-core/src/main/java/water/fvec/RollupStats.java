@@ -184,6 +184,8 @@ final class RollupStats extends Iced {
         checksum=new RollupStatsHelpers(this).numericChunkRollup((C8Chunk) c, start, checksum);
       else if (c instanceof C8DChunk)
         checksum=new RollupStatsHelpers(this).numericChunkRollup((C8DChunk) c, start, checksum);
+      else if (!c.isSparseZero() && !c.isSparseNA())
+        checksum=new RollupStatsHelpers(this).numericChunkRollupBulk(c, start, checksum);
       else
         checksum=new RollupStatsHelpers(this).numericChunkRollup(c, start, checksum);
 
@@ -603,5 +603,76 @@ public class RollupStatsHelpers {
     _rs._sigma = M2;
     return checksum;
   }
-}
 
+  // Rows decoded at a time by numericChunkRollupBulk
+  private static final int BULK_ROWS = 1024;
+
+  /**
+   * Same as the MASTER TEMPLATE for the other dense chunks (run-length, dictionary, bit-packed, ...),
+   * but decoding blocks of rows with the Chunk bulk interface instead of a virtual call per row and value.
+   *
+   * @param c
+   * @param start
+   * @param checksum
+   * @return
+   */
+  public long numericChunkRollupBulk(Chunk c, long start, long checksum) {
+    long pinfs=0, ninfs=0, naCnt=0, nzCnt=0;
+    // pull (some) members into local variables for speed
+    boolean isInt = _rs._isInt;
+    boolean hasFloat = c.hasFloat();
+    double dmin = _rs._mins[_rs._mins.length-1];
+    double dmax = _rs._maxs[_rs._maxs.length-1];
+
+    assert(_rs._pinfs == 0); assert(_rs._ninfs == 0); assert(_rs._naCnt == 0); assert(_rs._nzCnt == 0);
+    assert(dmin == Double.MAX_VALUE); assert(dmax == -Double.MAX_VALUE);
+
+    long rows = 0; //count of non-NA rows
+    double mean = 0; //mean of non-NA rows
+    double M2 = 0; //variance of non-NA rows
+
+    // loop over blocks of rows, decoding each block in one call
+    final int len = c._len;
+    final int blk = Math.min(BULK_ROWS,len);
+    double[] ds = hasFloat ? new double[blk] : null;
+    long[] ls = hasFloat ? null : new long[blk];
+    long[] nas = Chunk.naBitmap(blk);
+    for (int from = 0; from < len; from += blk) {
+      int to = Math.min(from+blk,len);
+      int nn = hasFloat ? c.getDoubles(ds, nas, from, to) : c.getLongs(ls, nas, from, to);
+      naCnt += nn;
+      for (int k = 0; k < to-from; k++) {
+        if (nn > 0 && Chunk.isNA(nas,k)) continue;
+        double x;
+        long l;
+        if (hasFloat) { x = ds[k]; l = Double.doubleToRawLongBits(x); }
+        else { l = ls[k]; x = (double)l; }
+        if (l != 0) // ignore 0s in checksum to be consistent with sparse chunks
+          checksum ^= (17 * (start + from + k)) ^ 23 * l;
+        if (x == Double.POSITIVE_INFINITY) pinfs++;
+        else if (x == Double.NEGATIVE_INFINITY) ninfs++;
+        else {
+          if (x != 0) nzCnt++;
+          if (x < dmin) dmin = _rs.min(x);
+          if (x > dmax) dmax = _rs.max(x);
+          if (isInt) isInt = (long)x == x;
+          rows++;
+          double delta = x - mean;
+          mean += delta / rows;
+          M2 += delta * (x - mean);
+        }
+      }
+    }
+
+    // write back local variables into members
+    _rs._pinfs = pinfs;
+    _rs._ninfs = ninfs;
+    _rs._naCnt = naCnt;
+    _rs._nzCnt = nzCnt;
+    _rs._rows += rows;
+    _rs._isInt = isInt;
+    _rs._mean = mean;
+    _rs._sigma = M2;
+    return checksum;
+  }
+}
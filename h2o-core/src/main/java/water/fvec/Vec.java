@@ -1026,6 +1026,24 @@ public class Vec extends Keyed<Vec> {
     return c;
   }
 
+  /** Pull chunks {@code cidxs} of all the {@code vecs} into the local cache,
+   *  fetching the remote ones with one batched request per home node (see
+   *  {@link DKV#getAll}) rather than a round trip per chunk.  Following
+   *  {@link #chunkForChunkIdx} calls then hit locally.  Blocks.  Only plain
+   *  Vecs are fetched; wrapped and file-backed Vecs make their chunks on
+   *  demand. */
+  public static void fetchChunks(Vec[] vecs, int... cidxs) {
+    Key[] ks = new Key[vecs.length*cidxs.length];
+    int n = 0;
+    for( Vec v : vecs )
+      if( v != null && v.getClass() == Vec.class )
+        for( int cidx : cidxs ) {
+          Key k = v.chunkKey(cidx);
+          if( !k.home() ) ks[n++] = k;
+        }
+    if( n > 1 ) DKV.getAll(Arrays.copyOf(ks, n));
+  }
+
   /** The Chunk for a row#.  Warning: this pulls the data locally; using this
    *  call on every Chunk index on the same node will probably trigger an OOM!
    *  @return Chunk for a row# */
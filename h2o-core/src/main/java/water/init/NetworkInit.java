@@ -498,6 +498,7 @@ public class NetworkInit {
       H2O.setFlatfile(parseFlatFileFromString(embeddedConfigFlatfile));
     else 
       H2O.setFlatfile(parseFlatFile(H2O.ARGS.flatfile));
+    NodeTopology.load();
 
     // All the machines has to agree on the same multicast address (i.e., multicast group)
     // Hence use the cloud name to generate multicast address
@@ -599,9 +600,10 @@ public class NetworkInit {
   /**
    * Read a set of Nodes from a file. Format is:
    *
-   * name/ip_address:port
+   * name/ip_address:port [group]
    * - name is unused and optional
    * - port is optional
+   * - group is optional, the node's rack or switch (see NodeTopology)
    * - leading '#' indicates a comment
    *
    * For example:
@@ -625,6 +627,7 @@ public class NetworkInit {
     List<FlatFileEntry> list = parseFlatFile(f);
     for(FlatFileEntry entry : list)
       h2os.add(H2ONode.intern(entry.inet, entry.port+1));// use the UDP port here
+    NodeTopology.add(list);
     return h2os;
   }
 
@@ -634,12 +637,15 @@ public class NetworkInit {
     List<FlatFileEntry> list = parseFlatFile(is);
     for(FlatFileEntry entry : list)
       h2os.add(H2ONode.intern(entry.inet, entry.port+1));// use the UDP port here
+    NodeTopology.add(list);
     return h2os;
   }
 
   static class FlatFileEntry {
     InetAddress inet;
     int port;
+    boolean anyPort;            // No port given
+    String group;               // Optional topology group, see NodeTopology
   }
 
   static List<FlatFileEntry> parseFlatFile( File f ) {
@@ -662,6 +668,10 @@ public class NetworkInit {
         strLine = strLine.trim();
         // be user friendly and skip comments and empty lines
         if (strLine.startsWith("#") || strLine.isEmpty()) continue;
+        // An optional second column is the node's topology group
+        String group = null;
+        String[] cols = strLine.split("\\s+", 2);
+        if( cols.length == 2 ) { strLine = cols[0]; group = cols[1].trim(); }
 
         String ip = null, portStr = null;
         int slashIdx = strLine.indexOf('/');
@@ -691,6 +701,8 @@ public class NetworkInit {
         FlatFileEntry entry = new FlatFileEntry();
         entry.inet = inet;
         entry.port = port;
+        entry.anyPort = portStr == null || portStr.equals("");
+        entry.group = group;
         list.add(entry);
       }
     } catch( Exception e ) { H2O.die(e.toString()); }
@@ -0,0 +1,113 @@
+package water.init;
+
+import water.H2ONode;
+import water.util.Log;
+
+import java.io.File;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static water.H2O.OptArgs.SYSTEM_PROP_PREFIX;
+
+/**
+ * Network topology of the cloud, used to lay out the reduce tree of
+ * {@link water.MRTask}.
+ * <p>
+ * A node may be tagged with a group - typically the rack or switch it hangs
+ * off - by a second column in the flatfile, or in a separate topology file
+ * named by {@code -Dsys.ai.h2o.topology.file}, with the same lines:
+ * <pre>
+ * 10.10.65.105:54321 rack1
+ * 10.10.65.106 rack2
+ * </pre>
+ * A line without a port tags every node on that host.  Untagged nodes are
+ * grouped by host.  {@link #order} sorts the cloud so each group is one
+ * contiguous run; MRTask splits that order into contiguous sub-ranges, so
+ * sibling subtrees mostly stay within a switch.
+ */
+public class NodeTopology {
+  static final String PROP_TOPOLOGY_FILE = SYSTEM_PROP_PREFIX + "topology.file";
+
+  // Groups by "ip:port" and by host ip
+  private static final ConcurrentHashMap<String,String> NODES = new ConcurrentHashMap<>();
+  private static final ConcurrentHashMap<String,String> HOSTS = new ConcurrentHashMap<>();
+
+  // Order computed for the last cloud asked about
+  private static volatile Order _last;
+  private static final class Order {
+    final H2ONode[] _members; final short[] _order;
+    Order( H2ONode[] members, short[] order ) { _members = members; _order = order; }
+  }
+
+  /** Record the groups of any tagged flatfile or topology file entries */
+  static void add( List<NetworkInit.FlatFileEntry> entries ) {
+    for( NetworkInit.FlatFileEntry e : entries ) {
+      if( e.group == null ) continue;
+      String host = e.inet.getHostAddress();
+      if( e.anyPort ) HOSTS.put(host, e.group);
+      else NODES.put(host + ":" + e.port, e.group);
+    }
+  }
+
+  /** Read the topology file, if one is configured */
+  static void load() {
+    String fname = System.getProperty(PROP_TOPOLOGY_FILE);
+    if( fname == null ) return;
+    File f = new File(fname);
+    if( !f.exists() ) {
+      Log.warn("Topology file specified but not found: " + fname);
+      return;
+    }
+    add(NetworkInit.parseFlatFile(f));
+    Log.info("Read node topology from " + fname + ": " + NODES.size() + " nodes and " + HOSTS.size() + " hosts tagged");
+  }
+
+  /** Group of a node, as "ip:port" */
+  static String group( String ipPort ) {
+    String g = NODES.get(ipPort);
+    if( g != null ) return g;
+    String host = ipPort.substring(0, ipPort.lastIndexOf(':'));
+    g = HOSTS.get(host);
+    return g != null ? g : host;
+  }
+
+  /** Order of the cloud members grouped by topology: the i-th node of the
+   *  order is {@code members[order[i]]}.  Null when no topology is configured
+   *  or the cloud order already keeps the groups together.  */
+  public static short[] order( H2ONode[] members ) {
+    if( NODES.isEmpty() && HOSTS.isEmpty() ) return null;
+    Order o = _last;
+    if( o != null && o._members == members ) return o._order;
+    String[] ipPorts = new String[members.length];
+    for( int i = 0; i < members.length; i++ )
+      ipPorts[i] = members[i].getIpPortString();
+    short[] order = order(ipPorts);
+    _last = new Order(members, order);
+    return order;
+  }
+
+  static short[] order( String[] ipPorts ) {
+    final String[] groups = new String[ipPorts.length];
+    Integer[] idx = new Integer[ipPorts.length];
+    for( int i = 0; i < ipPorts.length; i++ ) {
+      groups[i] = group(ipPorts[i]);
+      idx[i] = i;
+    }
+    // Stable, so nodes keep the cloud order within a group
+    Arrays.sort(idx, new Comparator<Integer>() {
+      @Override public int compare( Integer a, Integer b ) { return groups[a].compareTo(groups[b]); }
+    });
+    short[] order = new short[idx.length];
+    boolean same = true;
+    for( int i = 0; i < idx.length; i++ ) {
+      order[i] = (short)(int)idx[i];
+      same &= order[i] == i;
+    }
+    return same ? null : order;
+  }
+
+  // For tests
+  static void clear() { NODES.clear(); HOSTS.clear(); _last = null; }
+}
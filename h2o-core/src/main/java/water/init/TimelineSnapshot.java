@@ -22,6 +22,11 @@ public final class TimelineSnapshot implements
   final H2O _cloud;
   boolean _processed;
 
+  /** A DKV invalidate counter of a node, e.g. {@link TimeLine#INV_KEYS} */
+  public long invalidates(int nodeId, int field) {
+    return _snapshot[nodeId] == null ? 0 : TimeLine.invalidates(_snapshot[nodeId], field);
+  }
+
   public TimelineSnapshot(H2O cloud, long[][] snapshot) {
     _cloud = cloud;
     _snapshot = snapshot;
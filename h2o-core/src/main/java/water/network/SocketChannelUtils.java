@@ -1,16 +1,23 @@
 package water.network;
 
+import water.PackedChannel;
+
 import java.nio.channels.ByteChannel;
 import java.nio.channels.SocketChannel;
 
 public class SocketChannelUtils {
 
     public static boolean isSocketChannel(ByteChannel channel) {
+        if(channel instanceof PackedChannel) {
+            return isSocketChannel(((PackedChannel) channel).channel());
+        }
         return channel instanceof SocketChannel || channel instanceof SSLSocketChannel;
     }
 
     public static SocketChannel underlyingSocketChannel(ByteChannel channel) {
-        if(channel instanceof SSLSocketChannel) {
+        if(channel instanceof PackedChannel) {
+            return underlyingSocketChannel(((PackedChannel) channel).channel());
+        } else if(channel instanceof SSLSocketChannel) {
             return ((SSLSocketChannel) channel).channel();
         } else if(channel instanceof SocketChannel) {
             return (SocketChannel) channel;
@@ -1,15 +1,20 @@
 package water.parser;
 
+import java.util.Arrays;
 import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 import water.Iced;
-import water.util.IcedHashMap;
 import water.util.Log;
 import water.util.PrettyPrint;
+import water.util.StringUtils;
 
 /** Class for tracking categorical (factor) columns.
  *
- *  Basically a wrapper around non blocking hash map.
+ *  A specialized hash set of byte strings: the keys live back to back in
+ *  byte arenas, and open-addressing (linear probing) tables map them to
+ *  their int ids.  Lookups run directly on the parser's buffer window, so
+ *  parsing a cell that is already known allocates nothing.
  *  In the first pass, we just collect set of unique strings per column
  *  (if there are less than MAX_CATEGORICAL_COUNT unique elements).
  *  
@@ -17,6 +22,10 @@ import water.util.PrettyPrint;
  *  In the second pass, map is used only for lookup and never updated.
  *  
  *  Categorical objects are shared among threads on the local nodes!
+ *  Lookups are lock-free.  The keys are split over stripes by hash, each a
+ *  table of its own, and an insert locks only its key's stripe, so parse
+ *  threads adding different keys rarely contend.  A reader sees a new key
+ *  only through a volatile slot write, after its bytes.
  *
  * @author tomasnykodym
  *
@@ -24,60 +33,223 @@ import water.util.PrettyPrint;
 public final class Categorical extends Iced {
 
   public static final int MAX_CATEGORICAL_COUNT = 10000000;
-  transient AtomicInteger _id = new AtomicInteger();
+  // Power of 2; picked by the high hash bits, the slots by the low ones
+  private static final int NSTRIPES = 16;
   int _maxId = -1;
-  volatile IcedHashMap<BufferedString, Integer> _map;
   boolean maxDomainExceeded = false;
+  private transient volatile Stripe[] _stripes;
+  private transient AtomicInteger _size;   // Distinct keys
+  private transient AtomicInteger _lastId; // Ids handed out are 1.._lastId
 
-  Categorical() { _map = new IcedHashMap<>(); }
+  // Immutable-size arrays of one stripe.  Growing any of them makes a new
+  // Table, so a lock-free reader holding the old one always sees consistent
+  // arrays.  Keys are numbered in the table by insertion, from 0.
+  private static final class Table {
+    final AtomicIntegerArray _slots; // Key number+1, 0 for an empty slot
+    final byte[] _arena;             // Key bytes, back to back
+    final int[] _offs;               // Key number -> start in _arena
+    final int[] _lens;               // Key number -> length
+    final int[] _hashes;             // Key number -> hash
+    final int[] _ids;                // Key number -> id
+    int _n;                          // Keys; only touched under the lock
+    int _arenaLen;                   // Bytes in use; only touched under the lock
+    Table( int slots, int arena, int keys ) {
+      _slots = new AtomicIntegerArray(slots);
+      _arena = new byte[arena];
+      _offs = new int[keys];
+      _lens = new int[keys];
+      _hashes = new int[keys];
+      _ids = new int[keys];
+    }
+  }
+
+  // The lock for inserts into its table; no table until the first insert
+  private static final class Stripe { volatile Table _t; }
+
+  private static Stripe[] newStripes() {
+    Stripe[] ss = new Stripe[NSTRIPES];
+    for( int i = 0; i < NSTRIPES; i++ ) ss[i] = new Stripe();
+    return ss;
+  }
+
+  // Every column of a parse gets one on every node, so tables start small
+  Categorical() {
+    _stripes = newStripes();
+    _size = new AtomicInteger();
+    _lastId = new AtomicInteger();
+  }
+
+  private static int hash( byte[] buf, int off, int len ) {
+    int h = 0;
+    for( int i = off; i < off+len; i++ ) h = 31*h + buf[i];
+    return h ^ (h>>>16);        // Spread the high bits into the slot index
+  }
+  private Stripe stripe( int h ) { return _stripes[h >>> (32 - Integer.numberOfTrailingZeros(NSTRIPES))]; }
+
+  // Id of the key, or 0 if absent
+  private static int find( Table t, byte[] buf, int off, int len, int h ) {
+    if( t == null ) return 0;
+    final int mask = t._slots.length()-1;
+    for( int i = h & mask; ; i = (i+1) & mask ) {
+      int k = t._slots.get(i)-1;
+      if( k < 0 ) return 0;
+      if( t._hashes[k] == h && sameBytes(t, k, buf, off, len) ) return t._ids[k];
+    }
+  }
+  private static boolean sameBytes( Table t, int k, byte[] buf, int off, int len ) {
+    if( t._lens[k] != len ) return false;
+    int s = t._offs[k];
+    for( int i = 0; i < len; i++ )
+      if( t._arena[s+i] != buf[off+i] ) return false;
+    return true;
+  }
 
   /** Add key to this map (treated as hash set in this case). */
   int addKey(BufferedString str) {
-    // _map is shared and be cast to null (if categorical is killed) -> grab local copy
-    IcedHashMap<BufferedString, Integer> m = _map;
-    if( m == null ) return Integer.MAX_VALUE;     // Nuked already
-    Integer res = m.get(str);
-    if( res != null ) return res; // Recorded already
-    assert str.length() < 65535; // Length limit so 65535 can be used as a sentinel
-    int newVal = _id.incrementAndGet();
-    res = m.putIfAbsent(new BufferedString(str), newVal);
-    if( res != null ) return res;
-    if( m.size() > MAX_CATEGORICAL_COUNT) maxDomainExceeded = true;
-    return newVal;
+    final byte[] buf = str.getBuffer();
+    final int off = str.getOffset(), len = str.length();
+    final int h = hash(buf, off, len);
+    final Stripe s = stripe(h);
+    int id = find(s._t, buf, off, len, h);
+    if( id != 0 ) return id;    // Recorded already
+    assert len < 65535; // Length limit so 65535 can be used as a sentinel
+    synchronized( s ) {
+      id = find(s._t, buf, off, len, h);
+      if( id != 0 ) return id;
+      id = _lastId.incrementAndGet();
+      insert(s, buf, off, len, h, id);
+      if( _size.get() > MAX_CATEGORICAL_COUNT ) maxDomainExceeded = true;
+      return id;
+    }
+  }
+
+  // Append the key under the given id and publish it; caller holds the
+  // stripe's lock and has checked the key is absent
+  private void insert( Stripe s, byte[] buf, int off, int len, int h, int id ) {
+    Table t = s._t;
+    if( t != null && (long)t._arenaLen + len > Integer.MAX_VALUE )
+      throw new ParseDataset.H2OParseException("Categorical keys exceed 2GB on a single node.  Consider reparsing this column as a string.");
+    if( t == null || t._arenaLen + len > t._arena.length || t._n == t._ids.length || 2*(t._n+1) > t._slots.length() )
+      s._t = t = grow(t, len);  // Readers switch to the new, complete copy
+    final int k = t._n;
+    System.arraycopy(buf, off, t._arena, t._arenaLen, len);
+    t._offs[k] = t._arenaLen;
+    t._lens[k] = len;
+    t._arenaLen += len;
+    t._hashes[k] = h;
+    t._ids[k] = id;
+    t._n++;
+    final int mask = t._slots.length()-1;
+    int i = h & mask;
+    while( t._slots.get(i) != 0 ) i = (i+1) & mask;
+    t._slots.set(i, k+1);       // Volatile: publishes the bytes written above
+    _size.incrementAndGet();
   }
-  final boolean containsKey(BufferedString key){ return _map.containsKey(key); }
+
+  // Room for one more key of len bytes, at most half full
+  private static Table grow( Table t, int len ) {
+    if( t == null ) t = new Table(2, 0, 0);
+    int slots = Math.max(t._slots.length(), 8);
+    while( 2*(t._n+1) > slots ) slots <<= 1;
+    long arena = Math.max(t._arena.length, 32);
+    while( t._arenaLen + len > arena ) arena <<= 1;
+    int keys = Math.max(t._ids.length, 4);
+    while( t._n >= keys ) keys <<= 1;
+    Table t2 = new Table(slots, (int)Math.min(arena, Integer.MAX_VALUE), keys);
+    System.arraycopy(t._arena, 0, t2._arena, 0, t._arenaLen);
+    System.arraycopy(t._offs, 0, t2._offs, 0, t._n);
+    System.arraycopy(t._lens, 0, t2._lens, 0, t._n);
+    System.arraycopy(t._hashes, 0, t2._hashes, 0, t._n);
+    System.arraycopy(t._ids, 0, t2._ids, 0, t._n);
+    t2._n = t._n;
+    t2._arenaLen = t._arenaLen;
+    final int mask = slots-1;
+    for( int k = 0; k < t._n; k++ ) {
+      int i = t._hashes[k] & mask;
+      while( t2._slots.get(i) != 0 ) i = (i+1) & mask;
+      t2._slots.set(i, k+1);
+    }
+    return t2;
+  }
+
+  final boolean containsKey(BufferedString key){ return getTokenId(key) != 0; }
   @Override public String toString() {
-    return "{"+_map+" }";
+    StringBuilder sb = new StringBuilder("{");
+    for( BufferedString k : getColumnDomain() )
+      sb.append(k).append('=').append(getTokenId(k)).append(", ");
+    return sb.append(" }").toString();
   }
 
-  int getTokenId( BufferedString str ) { return _map.get(str); }
+  /** Id of a key, or 0 if absent */
+  int getTokenId( BufferedString str ) {
+    final byte[] buf = str.getBuffer();
+    final int off = str.getOffset(), len = str.length();
+    final int h = hash(buf, off, len);
+    return find(stripe(h)._t, buf, off, len, h);
+  }
   
-  int maxId() { return _maxId == -1 ? _id.get() : _maxId; }
-  int size() { return _map.size(); }
+  int maxId() { return _maxId == -1 ? _lastId.get() : _maxId; }
+  int size() { return _size.get(); }
   boolean isMapFull() { return maxDomainExceeded; }
 
+  /** The distinct keys, each copied out of the arena */
   BufferedString[] getColumnDomain() {
-    return  _map.keySet().toArray(new BufferedString[_map.size()]);
+    BufferedString[] res = new BufferedString[_size.get()];
+    int n = 0;
+    for( Stripe s : _stripes ) {
+      Table t = s._t;
+      if( t == null ) continue;
+      for( int k = 0; k < t._n && n < res.length; k++ )
+        res[n++] = new BufferedString(Arrays.copyOfRange(t._arena, t._offs[k], t._offs[k]+t._lens[k]), 0, t._lens[k]);
+    }
+    return n == res.length ? res : Arrays.copyOf(res, n);
   }
 
   public static final int MAX_EXAMPLES = 10;
   // TODO(Vlad): either make sure it works, or just get rid of it
-  public void convertToUTF8(int col){
+  /** Rekey non-UTF-8 keys, keeping their ids.  Called once parsing is done,
+   *  as it rebuilds the table in place. */
+  public synchronized void convertToUTF8(int col){
     int hexConvCnt = 0;
-    BufferedString[] bStrs = _map.keySet().toArray(new BufferedString[_map.size()]);
+    final Stripe[] stripes = _stripes;
+    boolean changed = false;
+    BufferedString bs = new BufferedString();
     StringBuilder hexSB = new StringBuilder();
-    for (int i =0; i < bStrs.length; i++) {
-      String s = bStrs[i].toString();
-      if (!bStrs[i].sameString(s)) {
-        if (s.contains("\uFFFD")) { // make weird chars into hex
-          s = bStrs[i].bytesToString();
-          if (hexConvCnt++ < MAX_EXAMPLES) hexSB.append(s +", ");
-          if (hexConvCnt == MAX_EXAMPLES) hexSB.append("...");
+    byte[][][] rekeyed = new byte[stripes.length][][]; // Stripe, key number -> new bytes
+    for (int si = 0; si < stripes.length; si++) {
+      Table t = stripes[si]._t;
+      if (t == null) continue;
+      for (int k = 0; k < t._n; k++) {
+        bs.set(t._arena, t._offs[k], t._lens[k]);
+        String s = bs.toString();
+        if (!bs.sameString(s)) {
+          if (s.contains("\uFFFD")) { // make weird chars into hex
+            s = bs.bytesToString();
+            if (hexConvCnt++ < MAX_EXAMPLES) hexSB.append(s +", ");
+            if (hexConvCnt == MAX_EXAMPLES) hexSB.append("...");
+          }
+          if (rekeyed[si] == null) rekeyed[si] = new byte[t._n][];
+          rekeyed[si][k] = StringUtils.bytesOf(s);
+          changed = true;
+        }
+      }
+    }
+    if (changed) {
+      _stripes = newStripes();
+      _size.set(0);
+      for (int si = 0; si < stripes.length; si++) {
+        Table t = stripes[si]._t;
+        if (t == null) continue;
+        for (int k = 0; k < t._n; k++) {
+          byte[] re = rekeyed[si] == null ? null : rekeyed[si][k];
+          byte[] buf = re != null ? re : t._arena;
+          int off = re != null ? 0 : t._offs[k];
+          int len = re != null ? buf.length : t._lens[k];
+          int h = hash(buf, off, len);
+          Stripe s = stripe(h);
+          if (find(s._t, buf, off, len, h) == 0) // A rekeyed duplicate loses its id, as a map put would
+            insert(s, buf, off, len, h, t._ids[k]);
         }
-        int val = _map.get(bStrs[i]);
-        _map.remove(bStrs[i]);
-        bStrs[i] = new BufferedString(s);
-        _map.put(bStrs[i], val);
       }
     }
     if (hexConvCnt > 0) Log.info("Found categoricals with non-UTF-8 characters in the "
@@ -85,31 +257,4 @@ public final class Categorical extends Iced {
         + " column. Converting unrecognized characters into hex:  "
         + hexSB.toString());
   }
-
-  // Since this is a *concurrent* hashtable, writing it whilst its being
-  // updated is tricky.  If the table is NOT being updated, then all is written
-  // as expected.  If the table IS being updated we only promise to write the
-  // Keys that existed at the time the table write began.  If elements are
-  // being deleted, they may be written anyways.  If the Values are changing, a
-  // random Value is written.
-//  public AutoBuffer write_impl( AutoBuffer ab ) {
-//    if( _map == null ) return ab.put1(1); // Killed map marker
-//    ab.put1(0);                           // Not killed
-//    ab.put4(maxId());
-//    for( BufferedString key : _map.keySet() )
-//      ab.put2((char)key.length()).putA1(key.getBuffer(),key.length()).put4(_map.get(key));
-//    return ab.put2((char)65535); // End of map marker
-//  }
-//
-//  public Categorical read_impl( AutoBuffer ab ) {
-//    assert _map == null || _map.size()==0;
-//    _map = null;
-//    if( ab.get1() == 1 ) return this; // Killed?
-//    _maxId = ab.get4();
-//    _map = new NonBlockingHashMap<>();
-//    int len;
-//    while( (len = ab.get2()) != 65535 ) // Read until end-of-map marker
-//      _map.put(new BufferedString(ab.getA1(len)),ab.get4());
-//    return this;
-//  }
 }
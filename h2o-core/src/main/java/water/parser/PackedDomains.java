@@ -71,6 +71,40 @@ public class PackedDomains {
     } catch (IOException ignore) {}
   }
   
+  /**
+   * Sort-merge lookup: for each word of the sorted packed domain {@code local},
+   * its index in the sorted packed domain {@code global}, or -1 if missing.
+   * One linear pass over both, without unpacking either.
+   */
+  public static int[] globalIndices(byte[] local, byte[] global) {
+    final int n = sizeOf(local), ng = sizeOf(global);
+    int[] res = new int[n];
+    int p = 4, q = 4, g = 0;
+    for (int i = 0; i < n; i++) {
+      int c = -1;
+      while (g < ng && (c = compareWords(global, q, local, p)) < 0) {
+        q = nextWord(global, q);
+        g++;
+      }
+      res[i] = c == 0 ? g : -1;
+      p = nextWord(local, p);
+    }
+    return res;
+  }
+
+  // Unsigned byte order of two zero-terminated words, as BufferedString.compareTo
+  private static int compareWords(byte[] a, int p, byte[] b, int q) {
+    while (true) {
+      int x = a[p++] & 0xFF, y = b[q++] & 0xFF;
+      if (x != y || x == 0) return x - y;
+    }
+  }
+
+  private static int nextWord(byte[] domain, int p) {
+    while (domain[p++] != 0);
+    return p;
+  }
+
   public static byte[] merge(byte[] as, byte[] bs) {
     ByteArrayOutputStream out = new ByteArrayOutputStream();
 
@@ -114,4 +148,18 @@ public class PackedDomains {
     decodeAsInt(n - 4, bytes, 0);
     return bytes;
   }
+
+  /**
+   * Merge of any number of sorted packed domains, skipping nulls; null if all
+   * are.  Pairwise by levels, so each word is copied once per level.
+   */
+  public static byte[] mergeAll(byte[][] domains) {
+    if (domains.length == 0) return null;
+    byte[][] runs = domains.clone();
+    for (int step = 1; step < runs.length; step <<= 1)
+      for (int i = 0; i + step < runs.length; i += step << 1)
+        runs[i] = runs[i] == null ? runs[i + step]
+            : runs[i + step] == null ? runs[i] : merge(runs[i], runs[i + step]);
+    return runs[0];
+  }
 }
@@ -214,7 +214,11 @@ public final class ParseDataset {
       // Since this is racily called, perhaps multiple times, read _mfpt only exactly once.
       MultiFileParseTask mfpt = _pds._mfpt;
       _pds._mfpt = null;        // Read once, test for null once.
-      if (mfpt != null) mfpt.onExceptionCleanup(fs);
+      if (mfpt != null) {
+        mfpt.onExceptionCleanup(fs);
+        // Domains gathered on the nodes are only consumed once the parse unifies them
+        new LocalDomains.ClearLocalDomains(mfpt._cKey).doAllNodes();
+      }
       // Assume the input is corrupt - or already partially deleted after
       // parsing.  Nuke it all - no partial Vecs lying around.
       for (Key k : _keys) Keyed.remove(k, fs);
@@ -263,13 +267,17 @@ public final class ParseDataset {
       if (!setup.getParseType().isDomainProvided) { // Domains are not provided via setup we need to collect them
         job.update(0, "Collecting categorical domains across nodes.");
         {
-          GatherCategoricalDomainsTask gcdt = new GatherCategoricalDomainsTask(mfpt._cKey, ecols).doAllNodes();
+          // Each column's domain is unified on the column's home node
+          RPC<MergeCategoricalDomain>[] rpcs = new RPC[ecols.length];
+          for (int i = 0; i < ecols.length; i++)
+            rpcs[i] = new RPC<>(avs[ecols[i]]._key.home_node(), new MergeCategoricalDomain(mfpt._cKey, i, ecols[i], ecols.length)).call();
           //Test domains for excessive length.
           List<String> offendingColNames = new ArrayList<>();
           for (int i = 0; i < ecols.length; i++) {
-            if (gcdt.getDomainLength(i) < Categorical.MAX_CATEGORICAL_COUNT) {
-              if( gcdt.getDomainLength(i)==0 ) avs[ecols[i]].setBad(); // The all-NA column
-              else avs[ecols[i]].setDomain(gcdt.getDomain(i));
+            MergeCategoricalDomain mcd = rpcs[i].get();
+            if (mcd._size < Categorical.MAX_CATEGORICAL_COUNT) {
+              if( mcd._size==0 ) avs[ecols[i]].setBad(); // The all-NA column
+              else avs[ecols[i]].setDomain(PackedDomains.unpackToStrings(mcd._domain));
             } else
               offendingColNames.add(setup._column_names[ecols[i]]);
           }
@@ -300,7 +308,7 @@ public final class ParseDataset {
           RPC[] rpcs = new RPC[H2O.CLOUD.size()];
           for (int i = 0; i < fcdt.length; i++){
             H2ONode[] nodes = H2O.CLOUD.members();
-            fcdt[i] = new CreateParse2GlobalCategoricalMaps(mfpt._cKey, fr._key, ecols);
+            fcdt[i] = new CreateParse2GlobalCategoricalMaps(mfpt._cKey, ecols);
             rpcs[i] = new RPC<>(nodes[i], fcdt[i]).call();
           }
           for (RPC rpc : rpcs)
@@ -371,48 +379,44 @@ public final class ParseDataset {
       }
     return pds;
   }
+  /** Builds this node's parse-local to global ordinal maps, from the parse-time
+   *  token id of each word of the node's sorted local domains and the global
+   *  ordinal of each, both left in {@link LocalDomains} by the merge. */
   private static class CreateParse2GlobalCategoricalMaps extends DTask<CreateParse2GlobalCategoricalMaps> {
     private final Key   _parseCatMapsKey;
-    private final Key   _frKey;
     private final int[] _ecol;
 
-    private CreateParse2GlobalCategoricalMaps(Key parseCatMapsKey, Key key, int[] ecol) {
+    private CreateParse2GlobalCategoricalMaps(Key parseCatMapsKey, int[] ecol) {
       _parseCatMapsKey = parseCatMapsKey;
-      _frKey = key;
       _ecol = ecol;
     }
 
     @Override public void compute2() {
-      Frame _fr = DKV.getGet(_frKey);
       // get the node local category->ordinal maps for each column from initial parse pass
-      if( !MultiFileParseTask._categoricals.containsKey(_parseCatMapsKey) ) {
+      final LocalDomains local = LocalDomains.LOCAL.remove(_parseCatMapsKey);
+      if( !MultiFileParseTask._categoricals.containsKey(_parseCatMapsKey) || local == null ) {
         tryComplete();
         return;
       }
-        final Categorical[] parseCatMaps = MultiFileParseTask._categoricals.get(_parseCatMapsKey);
-        int[][] _nodeOrdMaps = new int[_ecol.length][];
-
-        // create old_ordinal->new_ordinal map for each cat column
-        for (int eColIdx = 0; eColIdx < _ecol.length; eColIdx++) {
-          int colIdx = _ecol[eColIdx];
-          if (parseCatMaps[colIdx].size() != 0) {
-            _nodeOrdMaps[eColIdx] = MemoryManager.malloc4(parseCatMaps[colIdx].maxId() + 1);
-            Arrays.fill(_nodeOrdMaps[eColIdx], -1);
-            //Bulk String->BufferedString conversion is slightly faster, but consumes memory
-            final BufferedString[] unifiedDomain = BufferedString.toBufferedString(_fr.vec(colIdx).domain());
-            //final String[] unifiedDomain = _fr.vec(colIdx).domain();
-            for (int i = 0; i < unifiedDomain.length; i++) {
-              //final BufferedString cat = new BufferedString(unifiedDomain[i]);
-              if (parseCatMaps[colIdx].containsKey(unifiedDomain[i])) {
-                _nodeOrdMaps[eColIdx][parseCatMaps[colIdx].getTokenId(unifiedDomain[i])] = i;
-              }
-            }
-          } else {
-            Log.debug("Column " + colIdx + " was marked as categorical but categorical map is empty!");
-          }
+      final Categorical[] parseCatMaps = MultiFileParseTask._categoricals.get(_parseCatMapsKey);
+      final int[][] nodeOrdMaps = new int[_ecol.length][];
+
+      // create old_ordinal->new_ordinal map for each cat column
+      for (int eColIdx = 0; eColIdx < _ecol.length; eColIdx++) {
+        int colIdx = _ecol[eColIdx];
+        if (parseCatMaps[colIdx].size() != 0) {
+          int[] map = MemoryManager.malloc4(parseCatMaps[colIdx].maxId() + 1);
+          Arrays.fill(map, -1);
+          int[] ids = local._ids[eColIdx], glob = local._glob[eColIdx];
+          for (int i = 0; i < ids.length; i++)
+            map[ids[i]] = glob[i];
+          nodeOrdMaps[eColIdx] = map;
+        } else {
+          Log.debug("Column " + colIdx + " was marked as categorical but categorical map is empty!");
         }
-        // Store the local->global ordinal maps in DKV by node parse categorical key and node index
-        DKV.put(Key.make(_parseCatMapsKey.toString() + "parseCatMapNode" + H2O.SELF.index()), new CategoricalUpdateMap(_nodeOrdMaps));
+      }
+      // Store the local->global ordinal maps in DKV by node parse categorical key and node index
+      DKV.put(Key.make(_parseCatMapsKey.toString() + "parseCatMapNode" + H2O.SELF.index()), new CategoricalUpdateMap(nodeOrdMaps));
       tryComplete();
     }
   }
@@ -443,9 +447,13 @@ public final class ParseDataset {
       for(int i = 0; i < chks.length; ++i) {
         Chunk chk = chks[i];
         if (!(chk instanceof CStrChunk)) {
+          // Decode the old ordinals in bulk before rewriting in place
+          long[] olds = MemoryManager.malloc8(chk._len);
+          long[] nas = Chunk.naBitmap(chk._len);
+          chk.getLongs(olds, nas, 0, chk._len);
           for( int j = 0; j < chk._len; ++j){
-            if( chk.isNA(j) )continue;
-            final int old = (int) chk.at8(j);
+            if( Chunk.isNA(nas, j) )continue;
+            final int old = (int) olds[j];
             if (old < 0 || (_parse2GlobalCatMaps[i] != null && old >= _parse2GlobalCatMaps[i].length))
               chk.reportBrokenCategorical(i, j, old, _parse2GlobalCatMaps[i], _fr.vec(i).domain().length);
             if(_parse2GlobalCatMaps[i] != null && _parse2GlobalCatMaps[i][old] < 0)
@@ -466,60 +474,134 @@ public final class ParseDataset {
         DKV.remove(Key.make(_parseCatMapsKey.toString() + "parseCatMapNode" + i));
     }
   }
-  private static class GatherCategoricalDomainsTask extends MRTask<GatherCategoricalDomainsTask> {
+  /** A node's share of the categorical domain unification of one parse: per
+   *  categorical column, the parse-time token id of each word of the node's
+   *  sorted local domain, and the global ordinal of each word. */
+  private static class LocalDomains {
+    // Node-local, by parse key; consumed by CreateParse2GlobalCategoricalMaps
+    static final NonBlockingHashMap<Key, LocalDomains> LOCAL = new NonBlockingHashMap<>();
+    final int[][] _ids, _glob;
+    private LocalDomains(int ncols) { _ids = new int[ncols][]; _glob = new int[ncols][]; }
+
+    static LocalDomains get(Key k, int ncols) {
+      LocalDomains ld = LOCAL.get(k);
+      if (ld == null) {
+        LocalDomains nld = new LocalDomains(ncols);
+        ld = LOCAL.putIfAbsent(k, nld);
+        if (ld == null) ld = nld;
+      }
+      return ld;
+    }
+
+    /** Drops the local domains a failed or cancelled parse left behind */
+    private static class ClearLocalDomains extends MRTask<ClearLocalDomains> {
+      private final Key _k;
+      private ClearLocalDomains(Key k) { _k = k; }
+      @Override public void setupLocal() { LOCAL.remove(_k); }
+    }
+  }
+
+  /** Unifies the domain of one categorical column on the column's home node.
+   *  Fetches every node's sorted local domain, merges them, and sends each
+   *  node just the global ordinals of its own words; only the caller gets
+   *  the unified domain, to set on the Vec.  Never blocks: the fetches and
+   *  the sends complete this task as they come back. */
+  private static class MergeCategoricalDomain extends DTask<MergeCategoricalDomain> {
     private final Key _k;
-    private final int[] _catColIdxs;
-    private byte[][] _packedDomains;
+    private final int _eColIdx, _colIdx, _necols;
+    byte[] _domain;             // Unified sorted domain, packed; null if empty or past the limit
+    int _size;                  // Words in the unified domain
 
-    private GatherCategoricalDomainsTask(Key k, int[] ccols) {
+    private MergeCategoricalDomain(Key k, int eColIdx, int colIdx, int necols) {
       _k = k;
-      _catColIdxs = ccols;
+      _eColIdx = eColIdx;
+      _colIdx = colIdx;
+      _necols = necols;
     }
 
-    @Override
-    public void setupLocal() {
-      if (!MultiFileParseTask._categoricals.containsKey(_k)) return;
-      _packedDomains = new byte[_catColIdxs.length][];
-      final BufferedString[][] _perColDomains = new BufferedString[_catColIdxs.length][];
-      final Categorical[] _colCats = MultiFileParseTask._categoricals.get(_k);
-      int i = 0;
-      for (int col : _catColIdxs) {
-        _colCats[col].convertToUTF8(col + 1);
-        _perColDomains[i] = _colCats[col].getColumnDomain();
-        Arrays.sort(_perColDomains[i]);
-        _packedDomains[i] = PackedDomains.pack(_perColDomains[i]);
-        i++;
+    @Override public void compute2() {
+      final H2ONode[] nodes = H2O.CLOUD.members();
+      final byte[][] locals = new byte[nodes.length][];
+      // Completes when every node's domain is in; this task waits on it
+      final H2OCountedCompleter fetched = new H2OCountedCompleter(this) {
+        @Override public void compute2() { throw H2O.fail(); }
+        @Override public void onCompletion(CountedCompleter caller) { merge(nodes, locals); }
+      };
+      fetched.addToPendingCount(nodes.length - 1);
+      addToPendingCount(1);
+      for (int i = 0; i < nodes.length; i++) {
+        final int fi = i;
+        new RPC<>(nodes[i], new FetchLocalDomain(_k, _eColIdx, _colIdx, _necols)).addCompleter(new H2O.H2OCallback<FetchLocalDomain>(fetched) {
+          @Override public void callback(FetchLocalDomain f) { locals[fi] = f._domain; }
+        }).call();
       }
-      Log.trace("Done locally collecting domains on each node.");
+      tryComplete();
     }
-    
-    @Override
-    public void reduce(final GatherCategoricalDomainsTask other) {
-      if (_packedDomains == null) {
-        _packedDomains = other._packedDomains;
-      } else if (other._packedDomains != null) { // merge two packed domains
-        H2OCountedCompleter[] domtasks = new H2OCountedCompleter[_catColIdxs.length];
-        for (int i = 0; i < _catColIdxs.length; i++) {
-          final int fi = i;
-          domtasks[i] = new H2OCountedCompleter(currThrPriority()) {
-            @Override
-            public void compute2() {
-              _packedDomains[fi] = PackedDomains.merge(_packedDomains[fi], other._packedDomains[fi]);
-              tryComplete();
-            }
-          };
-        }
-        ForkJoinTask.invokeAll(domtasks);
+
+    // Runs before the fetches complete this task, so it may still add the sends
+    private void merge(H2ONode[] nodes, byte[][] locals) {
+      byte[] domain = PackedDomains.mergeAll(locals);
+      _size = domain == null ? 0 : PackedDomains.sizeOf(domain);
+      if (_size == 0 || _size >= Categorical.MAX_CATEGORICAL_COUNT) return; // All-NA, or failing the parse
+      _domain = domain;
+      for (int i = 0; i < nodes.length; i++) {
+        if (locals[i] == null) continue;
+        addToPendingCount(1);
+        int[] glob = PackedDomains.globalIndices(locals[i], domain);
+        new RPC<>(nodes[i], new SetGlobalOrdinals(_k, _eColIdx, _necols, glob)).addCompleter(this).call();
       }
-      Log.trace("Done merging domains.");
     }
+  }
+
+  /** Sorts and packs this node's domain of one categorical column, keeping
+   *  the parse-time token id of each word; null if the node parsed none. */
+  private static class FetchLocalDomain extends DTask<FetchLocalDomain> {
+    private final Key _k;
+    private final int _eColIdx, _colIdx, _necols;
+    byte[] _domain;
 
-    public int getDomainLength(int colIdx) {
-      return _packedDomains == null ? 0 : PackedDomains.sizeOf(_packedDomains[colIdx]);
+    private FetchLocalDomain(Key k, int eColIdx, int colIdx, int necols) {
+      _k = k;
+      _eColIdx = eColIdx;
+      _colIdx = colIdx;
+      _necols = necols;
     }
 
-    public String[] getDomain(int colIdx) {
-      return _packedDomains == null ? null : PackedDomains.unpackToStrings(_packedDomains[colIdx]);
+    @Override public void compute2() {
+      Categorical[] cats = MultiFileParseTask._categoricals.get(_k);
+      if (cats != null) {
+        Categorical cat = cats[_colIdx];
+        cat.convertToUTF8(_colIdx + 1);
+        BufferedString[] dom = cat.getColumnDomain();
+        Arrays.sort(dom);
+        int[] ids = new int[dom.length];
+        for (int j = 0; j < dom.length; j++)
+          ids[j] = cat.getTokenId(dom[j]);
+        LocalDomains.get(_k, _necols)._ids[_eColIdx] = ids;
+        _domain = PackedDomains.pack(dom);
+      }
+      tryComplete();
+    }
+  }
+
+  /** Takes the global ordinals of this node's sorted local domain of one
+   *  categorical column. */
+  private static class SetGlobalOrdinals extends DTask<SetGlobalOrdinals> {
+    private final Key _k;
+    private final int _eColIdx, _necols;
+    private int[] _glob;
+
+    private SetGlobalOrdinals(Key k, int eColIdx, int necols, int[] glob) {
+      _k = k;
+      _eColIdx = eColIdx;
+      _necols = necols;
+      _glob = glob;
+    }
+
+    @Override public void compute2() {
+      LocalDomains.get(_k, _necols)._glob[_eColIdx] = _glob;
+      _glob = null;             // No return result
+      tryComplete();
     }
   }
 
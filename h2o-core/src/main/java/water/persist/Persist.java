@@ -12,6 +12,7 @@ import water.util.Log;
 /** Abstract class describing various persistence targets.
  *  <p><ul>
  *  <li>{@link #store(Value v)} - Store a Value, using storage space.</li>
+ *  <li>{@link #store(Value[] vs)} - Store a batch of Values.</li>
  *  <li>{@link #load(Value v)} - Load a previously stored Value.</li>
  *  <li>{@link #delete(Value v)} - Free storage from a previously store Value.</li>
  *  </ul>
@@ -22,12 +23,31 @@ public abstract class Persist {
   /** Store a Value into persistent storage, consuming some storage space. */
   abstract public void store(Value v) throws IOException;
 
+  /** Store a batch of Values.  Backends able to coalesce the writes override
+   *  this; all Values are stored when the call returns normally. */
+  public void store(Value[] vs) throws IOException {
+    for( Value v : vs ) store(v);
+  }
+
   /** Load a previously stored Value */
   abstract public byte[] load(Value v) throws IOException;
 
+  /** Write the stored bytes of a Value to {@code ab} as with
+   *  {@link AutoBuffer#putA1}, straight from e.g. a file mapping, so they can
+   *  be shipped without paging them into the heap.  Returns false, having
+   *  written nothing, if this backend cannot do so without a copy. */
+  public boolean writeDirect(Value v, AutoBuffer ab) throws IOException { return false; }
+
   /** Reclaim space from a previously stored Value */
   abstract public void delete(Value v);
 
+  /** Select the codec used to encode Values written by {@link #store(Value v)}.
+   *  @return false if this backend does not support spill codecs */
+  public boolean setSpillCodec(SpillCodec codec) { return false; }
+
+  /** Codec used to encode newly stored Values */
+  public SpillCodec getSpillCodec() { return SpillCodec.NONE; }
+
   /** Usable storage space, or -1 for unknown */
   public long getUsableSpace() { return /*UNKNOWN*/-1; }
 
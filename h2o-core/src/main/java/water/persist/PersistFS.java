@@ -2,7 +2,10 @@ package water.persist;
 
 import java.io.*;
 import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
 import java.util.ArrayList;
+import java.util.zip.CRC32;
 
 import water.*;
 import water.api.FSIOException;
@@ -15,10 +18,27 @@ import water.util.Log;
 final class PersistFS extends Persist {
   final File _root;
   final File _dir;
+  private final PersistManager.PersistStatsEntry _stats;
+  // Codec for newly spilled Values; records already on disk carry their own codec id
+  private volatile SpillCodec _codec = SpillCodec.NONE;
+  // Append-only segment files holding all spilled Values
+  final SpillLog _log;
+  // Page spilled Values back in by copying from read-only mappings of the
+  // sealed spill log segments, instead of with read() calls.  The copy onto
+  // the heap is still made: Chunks decode from a byte[], not from a buffer.
+  // Only shipping a spilled Value to another Node (writeDirect) skips it.
+  volatile boolean _mmap = Boolean.getBoolean(PersistManager.PROP_ICE_MMAP);
 
-  PersistFS(File root) {
+  // Spill record layout, little-endian:
+  //   [magic:4][codec id:1][raw len:4][packed len:4][crc32 of packed bytes:4][packed bytes]
+  static final int SPILL_MAGIC = 0x31454349; // "ICE1"
+  static final int SPILL_HDR = 4+1+4+4+4;
+
+  PersistFS(File root, PersistManager.PersistStatsEntry stats) {
     _root = root;
+    _stats = stats;
     _dir = new File(root, "ice" + H2O.API_PORT);
+    _log = new SpillLog(new File(_dir, "spill"));
     //deleteRecursive(_dir);
     // Make the directory as-needed
     root.mkdirs();
@@ -26,7 +46,7 @@ final class PersistFS extends Persist {
       H2O.die("ice_root not a read/writable directory");
   }
 
-  public void cleanUp() { deleteRecursive(_dir); }
+  public void cleanUp() { _log.close(); deleteRecursive(_dir); }
 
   private static void deleteRecursive(File path) {
     if( !path.exists() ) return;
@@ -36,47 +56,134 @@ final class PersistFS extends Persist {
     path.delete();
   }
 
-  private File getFile(Value v) {
-    return new File(_dir, getIceName(v));
-  }
+  @Override public boolean setSpillCodec(SpillCodec codec) { _codec = codec; return true; }
+  @Override public SpillCodec getSpillCodec() { return _codec; }
 
+  // With _mmap the record is copied out of the mapping, saving the read()
+  // calls and the kernel's copy, but the result is a heap array all the same.
   @Override public byte[] load(Value v) throws IOException {
-    File f = getFile(v);
-    if( f.length() < v._max ) { // Should be fully on disk...
+    SpillLog.Loc loc = _log.get(v);
+    if( loc == null ) { // Should be fully on disk...
       // or it's a racey delete of a spilled value
-      assert !v.isPersisted() : f.length() + " " + v._max + " " + v._key;
+      assert !v.isPersisted() : v._max + " " + v._key;
       return null; // No value
     }
-    try (FileInputStream s = new FileInputStream(f)) {
-        AutoBuffer ab = new AutoBuffer(s.getChannel(), true, Value.ICE);
-        byte[] b = ab.getA1(v._max);
-        ab.close();
-        return b;
-      }
+    SpillLog.Segment seg = loc._seg;
+    if( !seg.pin() ) return null; // Racey delete emptied the segment
+    try {
+      // Either through a read-only mapping of a sealed segment, or positional
+      // reads; both let concurrent page-ins proceed without contending
+      ByteBuffer map = _mmap ? seg.mapped() : null;
+      byte[] h = new byte[SPILL_HDR];
+      if( map != null ) { map.position((int)loc._pos); map.get(h); }
+      else seg.read(ByteBuffer.wrap(h), loc._pos);
+      ByteBuffer hdr = ByteBuffer.wrap(h).order(ByteOrder.LITTLE_ENDIAN);
+      if( hdr.getInt() != SPILL_MAGIC ) throw new IOException("No spill record for " + v._key + " in " + seg._file);
+      SpillCodec codec = SpillCodec.forId(hdr.get());
+      int raw = hdr.getInt(), packed = hdr.getInt(), crc = hdr.getInt();
+      if( raw != v._max || SPILL_HDR+packed != loc._len )
+        throw new IOException("Spill record for " + v._key + " header mismatch: raw=" + raw + " packed=" + packed + " v._max=" + v._max);
+      // Uncompressed spills read straight into the result; others via a staging array
+      byte[] b = MemoryManager.malloc1(raw);
+      byte[] p = codec == SpillCodec.NONE ? b : new byte[packed];
+      if( map != null ) map.get(p, 0, packed);
+      else seg.read(ByteBuffer.wrap(p, 0, packed), loc._pos+SPILL_HDR);
+      // Every load: mapped pages evicted from the page cache are read from disk again
+      CRC32 crc32 = new CRC32();
+      crc32.update(p, 0, packed);
+      checkCRC(v, (int)crc32.getValue(), crc);
+      if( p != b ) codec.unpack(p, 0, packed, b, raw);
+      if( map != null ) _stats.load_mapped_count.incrementAndGet();
+      _stats.load_bytes_packed.addAndGet(loc._len);
+      return b;
+    } finally {
+      seg.unpin();
+    }
+  }
+
+  // Uncompressed records of sealed segments are written from a view of the
+  // mapping, checksummed; anything else is loaded the normal way.  The
+  // segment stays pinned, and so mapped, until the write is done.
+  @Override public boolean writeDirect(Value v, AutoBuffer ab) throws IOException {
+    SpillLog.Loc loc = _log.get(v);
+    if( !_mmap || loc == null || !loc._seg.pin() ) return false;
+    try {
+      ByteBuffer map = loc._seg.mapped();
+      if( map == null ) return false;
+      map.order(ByteOrder.LITTLE_ENDIAN).position((int)loc._pos);
+      if( map.getInt() != SPILL_MAGIC || SpillCodec.forId(map.get()) != SpillCodec.NONE || map.getInt() != v._max )
+        return false;
+      map.getInt();             // Packed length, same as raw
+      int crc = map.getInt();
+      map.limit((int)(loc._pos+loc._len));
+      ByteBuffer rec = map.slice();
+      checkCRC(v, crc(rec.duplicate()), crc);
+      _stats.load_mapped_count.incrementAndGet();
+      ab.putA1Buffer(rec.asReadOnlyBuffer());
+      return true;
+    } finally {
+      loc._seg.unpin();
+    }
+  }
+
+  private void checkCRC(Value v, int actual, int expected) throws IOException {
+    if( actual == expected ) return;
+    _stats.checksum_failures.incrementAndGet();
+    throw new IOException("Spill record for " + v._key + " checksum mismatch");
+  }
+
+  // CRC32 of the remaining bytes of a buffer, through a small scratch array
+  private static int crc(ByteBuffer bb) {
+    CRC32 crc32 = new CRC32();
+    byte[] tmp = new byte[Math.min(bb.remaining(), 1<<16)];
+    while( bb.hasRemaining() ) {
+      int n = Math.min(tmp.length, bb.remaining());
+      bb.get(tmp, 0, n);
+      crc32.update(tmp, 0, n);
+    }
+    return (int)crc32.getValue();
   }
 
   // Store Value v to disk.
-  @Override public void store(Value v) throws IOException {
-    assert !v.isPersisted();
-    File dirs = new File(_dir, getIceDirectory(v._key));
-    if( !dirs.mkdirs() && !dirs.exists() )
-      throw new java.io.IOException("mkdirs failed making "+dirs);
-    try(FileOutputStream s = new FileOutputStream(getFile(v))) {
-        byte[] m = v.memOrLoad(); // we are not single threaded anymore
-        if( m != null && m.length != v._max ) {
-          Log.warn("Value size mismatch? " + v._key + " byte[].len=" + m.length+" v._max="+v._max);
-          v._max = m.length; // Implies update of underlying POJO, then re-serializing it without K/V storing it
-        }
-        new AutoBuffer(s.getChannel(), false, Value.ICE).putA1(m, m.length).close();
-      } catch( AutoBuffer.AutoBufferException abe ) {
-      throw abe._ioe;
+  @Override public void store(Value v) throws IOException { store(new Value[]{v}); }
+
+  // Store a batch of Values to disk, with one sequential append to the spill log.
+  @Override public void store(Value[] vs) throws IOException {
+    ByteBuffer[] recs = new ByteBuffer[2*vs.length];
+    long bytes = 0;
+    for( int i = 0; i < vs.length; i++ ) {
+      Value v = vs[i];
+      assert !v.isPersisted();
+      byte[] m = v.memOrLoad(); // we are not single threaded anymore
+      if( m != null && m.length != v._max ) {
+        Log.warn("Value size mismatch? " + v._key + " byte[].len=" + m.length+" v._max="+v._max);
+        v._max = m.length; // Implies update of underlying POJO, then re-serializing it without K/V storing it
+      }
+      // Pack, but keep the raw form if the codec does not shrink it
+      SpillCodec codec = _codec;
+      byte[] p = m;
+      int packed = m.length;
+      if( codec != SpillCodec.NONE ) {
+        byte[] buf = new byte[codec.maxPackedLength(m.length)];
+        int len = codec.pack(m, m.length, buf);
+        if( len < m.length ) { p = buf; packed = len; }
+        else codec = SpillCodec.NONE;
+      }
+      CRC32 crc32 = new CRC32();
+      crc32.update(p, 0, packed);
+      ByteBuffer hdr = ByteBuffer.allocate(SPILL_HDR).order(ByteOrder.LITTLE_ENDIAN);
+      hdr.putInt(SPILL_MAGIC).put(codec._id).putInt(m.length).putInt(packed).putInt((int)crc32.getValue());
+      hdr.flip();
+      recs[2*i  ] = hdr;
+      recs[2*i+1] = ByteBuffer.wrap(p, 0, packed);
+      bytes += SPILL_HDR+packed;
     }
+    _log.append(vs, recs);
+    _stats.store_bytes_packed.addAndGet(bytes);
   }
 
   @Override public void delete(Value v) {
-    getFile(v).delete();        // Silently ignore errors
-    // Attempt to delete empty containing directory
-    new File(_dir, getIceDirectory(v._key)).delete();
+    _log.delete(v);
   }
 
   @Override public long getUsableSpace() {
@@ -1,5 +1,6 @@
 package water.persist;
 
+import water.AutoBuffer;
 import water.H2O;
 import water.Key;
 import water.MRTask;
@@ -35,6 +36,16 @@ public class PersistManager {
    * layer forwards the request through HDFS API. */
   final static String PROP_ENABLE_HDFS_FALLBACK = SYSTEM_PROP_PREFIX + "persist.enable.hdfs.fallback";
 
+  /** Property which selects the {@link SpillCodec} used by user-mode swapping
+   * to the ice_root, one of "none", "lz4" or "deflate". */
+  final static String PROP_ICE_CODEC = SYSTEM_PROP_PREFIX + "persist.ice.codec";
+
+  /** Property which makes user-mode swapping page Values back in by copying
+   * from memory-mapped spill files, rather than with file reads.  The heap
+   * copy is still made: Chunks decode from a byte[], not the mapping.  Only
+   * Values shipped to other Nodes go straight from the mapping. */
+  final static String PROP_ICE_MMAP = SYSTEM_PROP_PREFIX + "persist.ice.mmap";
+
   /** Persistence schemes; used as file prefixes eg "hdfs://some_hdfs_path/some_file" */
   public static class Schemes {
     public static final String FILE = "file";
@@ -52,6 +63,10 @@ public class PersistManager {
       delete_count = new AtomicLong();
       load_count = new AtomicLong();
       load_bytes = new AtomicLong();
+      store_bytes_packed = new AtomicLong();
+      load_bytes_packed = new AtomicLong();
+      checksum_failures = new AtomicLong();
+      load_mapped_count = new AtomicLong();
     }
 
     public AtomicLong store_count;
@@ -59,6 +74,11 @@ public class PersistManager {
     public AtomicLong delete_count;
     public AtomicLong load_count;
     public AtomicLong load_bytes;
+    // Bytes actually written/read by the backend, after any spill codec
+    public AtomicLong store_bytes_packed;
+    public AtomicLong load_bytes_packed;
+    public AtomicLong checksum_failures;
+    public AtomicLong load_mapped_count;
   }
 
   private Persist[] I;
@@ -100,10 +120,10 @@ public class PersistManager {
     boolean windowsPath = iceRoot.toString().matches("^[a-zA-Z]:.*");
 
     if (windowsPath) {
-      ice = new PersistFS(new File(iceRoot.toString()));
+      ice = new PersistFS(new File(iceRoot.toString()), stats[Value.ICE]);
     }
     else if ((iceRoot.getScheme() == null) || Schemes.FILE.equals(iceRoot.getScheme())) {
-      ice = new PersistFS(new File(iceRoot.getPath()));
+      ice = new PersistFS(new File(iceRoot.getPath()), stats[Value.ICE]);
     }
     else if( Schemes.HDFS.equals(iceRoot.getScheme()) ) {
       Log.err("HDFS ice_root not yet supported.  Exiting.");
@@ -126,6 +146,9 @@ public class PersistManager {
     I[Value.ICE ] = ice;
     I[Value.NFS ] = new PersistNFS();
 
+    String codec = System.getProperty(PROP_ICE_CODEC);
+    if (codec != null) setSpillCodec(Value.ICE, SpillCodec.forName(codec));
+
     try {
       Class klass = Class.forName("water.persist.PersistHdfs");
       java.lang.reflect.Constructor constructor = klass.getConstructor();
@@ -149,6 +172,15 @@ public class PersistManager {
   public void store(int backend, Value v) throws IOException {
     stats[backend].store_count.incrementAndGet();
     I[backend].store(v);
+    stats[backend].store_bytes.addAndGet(v._max);
+  }
+
+  public void store(int backend, Value[] vs) throws IOException {
+    stats[backend].store_count.addAndGet(vs.length);
+    I[backend].store(vs);
+    long bytes = 0;
+    for (Value v : vs) bytes += v._max;
+    stats[backend].store_bytes.addAndGet(bytes);
   }
 
   public void delete(int backend, Value v) {
@@ -163,6 +195,22 @@ public class PersistManager {
     return arr;
   }
 
+  /** Write the stored bytes of a Value to {@code ab}, or return false if the
+   *  backend must load them; see {@link Persist#writeDirect}. */
+  public boolean writeDirect(int backend, Value v, AutoBuffer ab) throws IOException {
+    return I[backend] != null && I[backend].writeDirect(v, ab);
+  }
+
+  /** Select the codec used when storing Values to the given backend.
+   *  @throws H2OIllegalArgumentException if the backend cannot encode spills */
+  public void setSpillCodec(int backend, SpillCodec codec) {
+    if (I[backend] == null || !I[backend].setSpillCodec(codec))
+      throw new H2OIllegalArgumentException("Persist backend " + Value.nameOfPersist(backend) + " does not support spill codecs");
+    Log.info("Spill codec for " + Value.nameOfPersist(backend) + " set to " + codec);
+  }
+
+  public SpillCodec getSpillCodec(int backend) { return I[backend].getSpillCodec(); }
+
   /** Get the current Persist flavor for user-mode swapping. */
   public Persist getIce() { return I[Value.ICE]; }
 
@@ -0,0 +1,236 @@
+package water.persist;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+import water.exceptions.H2OIllegalArgumentException;
+
+/** Block codecs for Values spilled to disk by user-mode swapping.
+ *  <p><ul>
+ *  <li>{@link #NONE} - raw bytes, no compression.</li>
+ *  <li>{@link #LZ4} - pure-Java LZ4 block format; fast, modest ratio.</li>
+ *  <li>{@link #DEFLATE} - JDK Deflate at best speed; slower, better ratio.</li>
+ *  </ul>
+ *  A codec is a singleton identified on disk by its {@link #_id}, so a spill
+ *  file can always be decoded no matter which codec the backend is currently
+ *  configured with.  The same codecs pack batches of small messages between
+ *  nodes, see {@link water.H2ONode}.  Codecs hold no state across calls other
+ *  than per-thread scratch (the LZ4 hash table, the JDK Deflater/Inflater),
+ *  reused so the hot send and spill paths do not allocate a compressor per
+ *  call.
+ */
+public abstract class SpillCodec {
+  public static final SpillCodec NONE    = new None();
+  public static final SpillCodec LZ4     = new LZ4();
+  public static final SpillCodec DEFLATE = new Deflate();
+  // Indexed by codec id
+  private static final SpillCodec[] CODECS = new SpillCodec[]{NONE, LZ4, DEFLATE};
+
+  /** Codec id, as written in the spill file header */
+  public final byte _id;
+  /** Codec name, as used in the configuration */
+  public final String _name;
+
+  private SpillCodec(int id, String name) { _id = (byte)id; _name = name; }
+
+  /** Upper bound on the packed size of {@code len} raw bytes. */
+  public abstract int maxPackedLength(int len);
+
+  /** Pack {@code src[0,len)} into {@code dst} starting at offset 0.
+   *  {@code dst} holds at least {@link #maxPackedLength(int)} bytes.
+   *  @return the packed length */
+  public abstract int pack(byte[] src, int len, byte[] dst);
+
+  /** Unpack {@code src[off,off+len)} into {@code dst[0,rawLen)}.
+   *  @throws IOException if the packed bytes are not a valid encoding of
+   *  exactly {@code rawLen} bytes */
+  public abstract void unpack(byte[] src, int off, int len, byte[] dst, int rawLen) throws IOException;
+
+  /** Look up a codec by its configuration name; one of "none", "lz4" or "deflate". */
+  public static SpillCodec forName(String name) {
+    for( SpillCodec c : CODECS )
+      if( c._name.equalsIgnoreCase(name.trim()) ) return c;
+    throw new H2OIllegalArgumentException("Unknown spill codec '" + name + "', expected one of none, lz4, deflate");
+  }
+
+  /** Look up a codec by the id read from a spill file header. */
+  public static SpillCodec forId(int id) throws IOException {
+    if( id < 0 || id >= CODECS.length ) throw new IOException("Unknown spill codec id " + id);
+    return CODECS[id];
+  }
+
+  @Override public String toString() { return _name; }
+
+  // ---
+  private static final class None extends SpillCodec {
+    None() { super(0, "none"); }
+    @Override public int maxPackedLength(int len) { return len; }
+    @Override public int pack(byte[] src, int len, byte[] dst) { System.arraycopy(src, 0, dst, 0, len); return len; }
+    @Override public void unpack(byte[] src, int off, int len, byte[] dst, int rawLen) throws IOException {
+      if( len != rawLen ) throw new IOException("Raw spill length mismatch: " + len + " != " + rawLen);
+      System.arraycopy(src, off, dst, 0, len);
+    }
+  }
+
+  // ---
+  // LZ4 block format: a series of sequences, each a token byte (4 bits of
+  // literal length, 4 bits of match length-4), extra literal length bytes,
+  // the literals, a 2-byte little-endian match offset and extra match length
+  // bytes.  The final sequence is literals only, and the last 5 bytes of the
+  // input are always literals.
+  private static final class LZ4 extends SpillCodec {
+    private static final int MIN_MATCH = 4;
+    private static final int LAST_LITERALS = 5;
+    private static final int MF_LIMIT = 12;    // No match starts in the last 12 bytes
+    private static final int HASH_LOG = 12;
+    private static final int MAX_DISTANCE = 65535;
+    private static final int SKIP_TRIGGER = 6; // Speed up the scan over incompressible data
+
+    // Hash table of the packer, one per thread; cleared on every pack
+    private static final ThreadLocal<int[]> TABLE = new ThreadLocal<int[]>() {
+      @Override protected int[] initialValue() { return new int[1<<HASH_LOG]; }
+    };
+
+    LZ4() { super(1, "lz4"); }
+
+    @Override public int maxPackedLength(int len) { return len + len/255 + 16; }
+
+    private static int readInt( byte[] b, int i ) {
+      return (b[i]&0xFF) | (b[i+1]&0xFF)<<8 | (b[i+2]&0xFF)<<16 | (b[i+3]&0xFF)<<24;
+    }
+    private static int hash( int x ) { return (x * -1640531535) >>> (32-HASH_LOG); }
+
+    private static int putLen( int n, byte[] dst, int op ) {
+      while( n >= 255 ) { dst[op++] = (byte)255; n -= 255; }
+      dst[op++] = (byte)n;
+      return op;
+    }
+    private static int putLiterals( byte[] src, int lit, int litLen, byte[] dst, int op, int token ) {
+      if( litLen >= 15 ) { dst[token] = (byte)(15<<4); op = putLen(litLen-15, dst, op); }
+      else dst[token] = (byte)(litLen<<4);
+      System.arraycopy(src, lit, dst, op, litLen);
+      return op+litLen;
+    }
+
+    @Override public int pack(byte[] src, int len, byte[] dst) {
+      int op = 0, anchor = 0;
+      if( len > MF_LIMIT ) {
+        final int[] table = TABLE.get();
+        Arrays.fill(table, 0);  // Stale positions from the last call could point past this input
+        final int limit = len - MF_LIMIT;           // Last match start, exclusive
+        final int matchLimit = len - LAST_LITERALS; // Last match end, exclusive
+        int ip = 1;
+        while( ip < limit ) {
+          int seq = readInt(src, ip);
+          int h = hash(seq);
+          int ref = table[h];
+          table[h] = ip;
+          if( ip - ref > MAX_DISTANCE || readInt(src, ref) != seq ) {
+            ip += 1 + ((ip - anchor) >>> SKIP_TRIGGER);
+            continue;
+          }
+          // Extend the match backwards into the pending literals
+          while( ip > anchor && ref > 0 && src[ip-1] == src[ref-1] ) { ip--; ref--; }
+          // And forwards
+          int mlen = MIN_MATCH;
+          while( ip+mlen < matchLimit && src[ip+mlen] == src[ref+mlen] ) mlen++;
+          // Emit literals + match
+          int token = op++;
+          op = putLiterals(src, anchor, ip-anchor, dst, op, token);
+          int off = ip - ref;
+          dst[op++] = (byte) off;
+          dst[op++] = (byte)(off>>>8);
+          int ml = mlen - MIN_MATCH;
+          if( ml >= 15 ) { dst[token] |= 15; op = putLen(ml-15, dst, op); }
+          else dst[token] |= ml;
+          ip += mlen;
+          anchor = ip;
+          if( ip-2 < limit ) table[hash(readInt(src, ip-2))] = ip-2;
+        }
+      }
+      // Trailing literals
+      int token = op++;
+      return putLiterals(src, anchor, len-anchor, dst, op, token);
+    }
+
+    @Override public void unpack(byte[] src, int off, int len, byte[] dst, int rawLen) throws IOException {
+      final int end = off+len;
+      int ip = off, op = 0;
+      try {
+        while( true ) {
+          if( ip >= end ) throw new IOException("Corrupt LZ4 spill: truncated input");
+          int token = src[ip++]&0xFF;
+          int lit = token>>>4;
+          if( lit == 15 ) { int b; do { b = src[ip++]&0xFF; lit += b; } while( b == 255 ); }
+          if( ip+lit > end ) throw new IOException("Corrupt LZ4 spill: literals overrun input");
+          System.arraycopy(src, ip, dst, op, lit);
+          ip += lit;  op += lit;
+          if( ip == end ) break;  // Final, literal-only sequence
+          int moff = (src[ip]&0xFF) | (src[ip+1]&0xFF)<<8;
+          ip += 2;
+          int ml = token&15;
+          if( ml == 15 ) { int b; do { b = src[ip++]&0xFF; ml += b; } while( b == 255 ); }
+          ml += MIN_MATCH;
+          int ref = op - moff;
+          if( moff == 0 || ref < 0 ) throw new IOException("Corrupt LZ4 spill: bad match offset " + moff);
+          if( moff >= ml ) System.arraycopy(dst, ref, dst, op, ml);
+          else for( int i = 0; i < ml; i++ ) dst[op+i] = dst[ref+i]; // Overlapping copy, replicates a run
+          op += ml;
+        }
+      } catch( ArrayIndexOutOfBoundsException aioobe ) {
+        throw new IOException("Corrupt LZ4 spill: " + aioobe.getMessage());
+      }
+      if( op != rawLen ) throw new IOException("Corrupt LZ4 spill: unpacked " + op + " bytes, expected " + rawLen);
+    }
+  }
+
+  // ---
+  private static final class Deflate extends SpillCodec {
+    // Per-thread (de)compressors, reset between uses; native memory is
+    // released when the thread goes away and the finalizers run
+    private static final ThreadLocal<Deflater> DEFLATER = new ThreadLocal<Deflater>() {
+      @Override protected Deflater initialValue() { return new Deflater(Deflater.BEST_SPEED, true); }
+    };
+    private static final ThreadLocal<Inflater> INFLATER = new ThreadLocal<Inflater>() {
+      @Override protected Inflater initialValue() { return new Inflater(true); }
+    };
+
+    Deflate() { super(2, "deflate"); }
+
+    // zlib bound for raw deflate, plus slack for the final block
+    @Override public int maxPackedLength(int len) { return len + (len>>>12) + (len>>>14) + (len>>>25) + 64; }
+
+    @Override public int pack(byte[] src, int len, byte[] dst) {
+      Deflater d = DEFLATER.get();
+      try {
+        d.setInput(src, 0, len);
+        d.finish();
+        int op = 0;
+        while( !d.finished() ) op += d.deflate(dst, op, dst.length-op);
+        return op;
+      } finally { d.reset(); }
+    }
+
+    @Override public void unpack(byte[] src, int off, int len, byte[] dst, int rawLen) throws IOException {
+      Inflater inf = INFLATER.get();
+      try {
+        // Raw inflate wants one dummy byte past the end of the input
+        byte[] in = new byte[len+1];
+        System.arraycopy(src, off, in, 0, len);
+        inf.setInput(in);
+        int op = 0;
+        while( op < rawLen && !inf.finished() ) {
+          int n = inf.inflate(dst, op, rawLen-op);
+          if( n == 0 && (inf.needsInput() || inf.needsDictionary()) ) break;
+          op += n;
+        }
+        if( op != rawLen ) throw new IOException("Corrupt deflate spill: unpacked " + op + " bytes, expected " + rawLen);
+      } catch( DataFormatException dfe ) {
+        throw new IOException("Corrupt deflate spill: " + dfe.getMessage());
+      } finally { inf.reset(); }
+    }
+  }
+}
@@ -0,0 +1,225 @@
+package water.persist;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import water.Key;
+import water.Value;
+import water.nbhm.NonBlockingHashMap;
+import water.nbhm.UtilUnsafe;
+import water.util.Log;
+
+/** Append-only log of spilled Values, one per node.
+ *  <p>
+ *  Values are appended in batches to the active segment file, one large
+ *  gathering write per batch, and are found again through an in-memory index
+ *  keyed by {@link Key}.  Each index entry remembers the exact {@link Value}
+ *  it was written for, so a racing delete of an older Value for the same Key
+ *  cannot unlink a newer spill.  Segments are sealed once they pass
+ *  {@link #SEGMENT_SIZE}, and deleted once every Value in them is deleted.
+ *  There is no compaction: a segment with a single live Value stays on disk.
+ */
+final class SpillLog {
+  static final long SEGMENT_SIZE = 256L<<20;
+
+  private final File _dir;
+  private final NonBlockingHashMap<Key,Loc> _index = new NonBlockingHashMap<>();
+  private Segment _active;      // Guarded by this
+  private int _nextId;          // Guarded by this
+
+  SpillLog( File dir ) { _dir = dir; }
+
+  /** Where a spilled Value lives: a record of {@code _len} bytes at {@code _pos} */
+  static final class Loc {
+    final Value _v;
+    final Segment _seg;
+    final long _pos;
+    final int _len;
+    Loc( Value v, Segment seg, long pos, int len ) { _v = v; _seg = seg; _pos = pos; _len = len; }
+  }
+
+  static final class Segment {
+    final File _file;
+    final FileChannel _chan;
+    final AtomicLong _live = new AtomicLong(); // Bytes of not-yet-deleted records
+    long _end;                  // Append position; guarded by the SpillLog
+    volatile boolean _sealed;   // No more appends
+    // Readers pin the segment, and deletion waits for the last pin to drop,
+    // so the channel and the mapping are never closed under a read.  The pin
+    // count goes to -1 once the segment is deleted.
+    private final AtomicInteger _pins = new AtomicInteger();
+    private volatile boolean _condemned; // Sealed and empty; deleted when unpinned
+    // Read-only mapping of the whole file, made once the segment is sealed
+    // and cannot grow, so it is never remapped.  Views of it are only used
+    // under a pin, and it is unmapped when the segment is deleted.
+    private volatile MappedByteBuffer _map;
+    Segment( File f ) throws IOException {
+      _file = f;
+      _chan = new RandomAccessFile(f, "rw").getChannel();
+    }
+    /** Start reading; false if the segment is deleted already */
+    boolean pin() {
+      while( true ) {
+        int p = _pins.get();
+        if( p < 0 ) return false;
+        if( _pins.compareAndSet(p, p+1) ) return true;
+      }
+    }
+    /** Done reading; the last reader out of a condemned segment deletes it */
+    void unpin() {
+      if( _pins.decrementAndGet() == 0 && _condemned ) tryDelete();
+    }
+    /** Positional read, safe against concurrent readers and the appender */
+    void read( ByteBuffer bb, long pos ) throws IOException {
+      while( bb.hasRemaining() ) {
+        int n = _chan.read(bb, pos);
+        if( n < 0 ) throw new IOException("Truncated spill segment " + _file);
+        pos += n;
+      }
+    }
+    /** A private view of the read-only mapping of this segment, or null if it
+     *  is not sealed yet or too large to map.  Reads through the mapping are
+     *  served from the OS page cache without a system call.  Caller holds
+     *  a pin, and drops the view before unpinning. */
+    ByteBuffer mapped() throws IOException {
+      if( !_sealed ) return null;
+      MappedByteBuffer m = _map;
+      if( m == null ) {
+        synchronized(this) {
+          if( (m = _map) == null ) {
+            long size = _chan.size();
+            if( size > Integer.MAX_VALUE ) return null;
+            _map = m = _chan.map(FileChannel.MapMode.READ_ONLY, 0, size);
+          }
+        }
+      }
+      return m.duplicate();     // Independent position per reader
+    }
+    // Drop the file once sealed and empty, or when its last reader is done
+    void maybeDelete() {
+      if( !_sealed || _live.get() != 0 ) return;
+      _condemned = true;
+      tryDelete();
+    }
+    private void tryDelete() {
+      if( !_pins.compareAndSet(0, -1) ) return; // Pinned, or deleted already
+      MappedByteBuffer m = _map;
+      _map = null;
+      if( m != null ) unmap(m);
+      try { _chan.close(); } catch( IOException ignore ) { }
+      if( !_file.delete() ) Log.warn("Failed to delete spill segment " + _file);
+    }
+  }
+
+  // Release a mapping now rather than when it is GC'd; there is no public API
+  // for it.  Java 9+ has Unsafe.invokeCleaner, Java 7 and 8 the buffer's own
+  // cleaner.  On failure the mapping is left to the GC.
+  static void unmap( MappedByteBuffer m ) {
+    try {
+      Object unsafe = UtilUnsafe.getUnsafe();
+      Method clean;
+      try {
+        clean = unsafe.getClass().getMethod("invokeCleaner", ByteBuffer.class);
+      } catch( NoSuchMethodException e ) {
+        Method cleaner = m.getClass().getMethod("cleaner");
+        cleaner.setAccessible(true);
+        Object c = cleaner.invoke(m);
+        if( c != null ) c.getClass().getMethod("clean").invoke(c);
+        return;
+      }
+      clean.invoke(unsafe, m);
+    } catch( Exception e ) {
+      Log.debug("Spill segment mapping left to the GC: " + e);
+    }
+  }
+
+  /** Append one record per Value, each record being the concatenation of
+   *  {@code recs[2*i]} and {@code recs[2*i+1]}.  Values become loadable only
+   *  after the write for their segment has returned. */
+  synchronized void append( Value[] vs, ByteBuffer[] recs ) throws IOException {
+    int i = 0;
+    while( i < vs.length ) {
+      Segment seg = activeSegment();
+      // Gather as many records as fit in this segment; at least one
+      long pos = seg._end, bytes = 0;
+      int j = i;
+      do {
+        bytes += recs[2*j].remaining() + recs[2*j+1].remaining();
+        j++;
+      } while( j < vs.length && pos+bytes+recs[2*j].remaining()+recs[2*j+1].remaining() <= SEGMENT_SIZE );
+      // One large sequential write for the group
+      ByteBuffer[] group = new ByteBuffer[2*(j-i)];
+      System.arraycopy(recs, 2*i, group, 0, group.length);
+      Loc[] locs = new Loc[j-i];
+      long p = pos;
+      for( int k = i; k < j; k++ ) {
+        int len = recs[2*k].remaining() + recs[2*k+1].remaining();
+        locs[k-i] = new Loc(vs[k], seg, p, len);
+        p += len;
+      }
+      seg._chan.position(pos);
+      long todo = bytes;
+      while( todo > 0 ) todo -= seg._chan.write(group);
+      seg._end = pos+bytes;
+      // Publish: count live bytes before any delete can see the Loc
+      seg._live.addAndGet(bytes);
+      for( Loc loc : locs ) {
+        Loc old = _index.put(loc._v._key, loc);
+        if( old != null ) release(old); // Stale spill of an older Value
+      }
+      if( seg._end >= SEGMENT_SIZE ) seal(seg);
+      i = j;
+    }
+  }
+
+  private Segment activeSegment() throws IOException {
+    if( _active == null ) {
+      if( !_dir.mkdirs() && !_dir.exists() )
+        throw new IOException("mkdirs failed making " + _dir);
+      _active = new Segment(new File(_dir, "segment_" + (_nextId++) + ".log"));
+    }
+    return _active;
+  }
+
+  private void seal( Segment seg ) {
+    seg._sealed = true;
+    if( _active == seg ) _active = null;
+    seg.maybeDelete();
+  }
+
+  /** Seal the active segment, so the next append starts a new one */
+  synchronized void sealActive() { if( _active != null ) seal(_active); }
+
+  /** Location of the given Value, or null if it is not (or no longer) spilled */
+  Loc get( Value v ) {
+    Loc loc = _index.get(v._key);
+    return loc != null && loc._v == v ? loc : null;
+  }
+
+  /** Forget the given Value's spill, if any */
+  void delete( Value v ) {
+    Loc loc = get(v);
+    if( loc != null && _index.remove(v._key, loc) ) release(loc);
+  }
+
+  private void release( Loc loc ) {
+    if( loc._seg._live.addAndGet(-loc._len) == 0 ) loc._seg.maybeDelete();
+  }
+
+  /** Close all segments; files are left for the caller to remove */
+  synchronized void close() {
+    for( Loc loc : _index.values() )
+      try { loc._seg._chan.close(); } catch( IOException ignore ) { }
+    if( _active != null )
+      try { _active._chan.close(); } catch( IOException ignore ) { }
+    _index.clear();
+    _active = null;
+  }
+}
@@ -721,10 +721,17 @@ class BinaryMerge extends DTask<BinaryMerge> {
         cidx[row] = anyVec.elem2ChunkIdx(_rows[row]);  // binary search of espc array.  TODO: sort input row numbers to avoid
         offset[row] = (int)(_rows[row] - anyVec.espc()[cidx[row]]);
       }
+      // Only the chunks the rows hit; any not held here come in one batch per node
+      boolean used[] = new boolean[anyVec.nChunks()];
+      int nused = 0;
+      for (int row=0; row<_rows.length; row++) if (!used[cidx[row]]) { used[cidx[row]] = true; nused++; }
+      int usedIdx[] = new int[nused];
+      for (int i=0, j=0; i<used.length; i++) if (used[i]) usedIdx[j++] = i;
+      Vec.fetchChunks(_fr.vecs(), usedIdx);
       Chunk c[] = new Chunk[anyVec.nChunks()];
       for (int col=0; col<_fr.numCols(); col++) {
         Vec v = _fr.vec(col);
-        for (int i=0; i<c.length; i++) c[i] = v.chunkKey(i).home() ? v.chunkForChunkIdx(i) : null;
+        for (int i : usedIdx) c[i] = v.chunkForChunkIdx(i);
         for (int row=0; row<_rows.length; row++) {
           _chk[col][row] = c[cidx[row]].atd(offset[row]);
         }
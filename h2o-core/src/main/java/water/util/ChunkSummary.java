@@ -29,9 +29,12 @@ public class ChunkSummary extends MRTask<ChunkSummary> {
       {"C4S","4-Byte Fractions"},
       {"C4F","4-byte Reals"},
       {"C8","8-byte Integers"},
+      {"CBP","Bit-packed Integers"},
       {"C16","UUIDs"},
       {"CStr","Strings"},
       {"CUD","Unique Reals"},
+      {"CRLE","Run-length Encoded"},
+      {"CDict","Dictionary Encoded"},
       {"C8D","64-bit Reals"},
   };
 
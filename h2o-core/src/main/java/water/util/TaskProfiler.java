@@ -0,0 +1,157 @@
+package water.util;
+
+import water.H2O;
+import water.Iced;
+import water.MRTask;
+import water.nbhm.NonBlockingHashMap;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import static water.H2O.OptArgs.SYSTEM_PROP_PREFIX;
+
+/**
+ * Node-local execution counters of {@link MRTask}s, per task class: per-chunk
+ * map time and bytes read, reduce time, and the wait on the RPCs to child
+ * nodes, each with a log2 histogram.  Always on unless
+ * {@code -Dsys.ai.h2o.mr.profile.disable=true}.  The counters are striped by
+ * thread, like a LongAdder, so the few atomic adds per chunk rarely contend
+ * or bounce a cache line between cores; a snapshot sums the stripes.
+ * {@link #collect} gathers them from the whole cloud.
+ */
+public final class TaskProfiler {
+  public static final boolean ENABLED = !Boolean.getBoolean(SYSTEM_PROP_PREFIX + "mr.profile.disable");
+
+  /** Histogram buckets: bucket 0 counts values below 1, bucket i values in [2^(i-1), 2^i) */
+  public static final int NBUCKETS = 32;
+
+  // Counter layout
+  static final int TASKS=0, CHUNKS=1, BYTES_READ=2, MAP_NANOS=3, REDUCES=4, REDUCE_NANOS=5, RPCS=6, RPC_MS=7, RPC_BYTES=8;
+  static final int NFIELDS = 9;
+  static final int MAP_HIST = NFIELDS, REDUCE_HIST = MAP_HIST+NBUCKETS, RPC_HIST = REDUCE_HIST+NBUCKETS;
+  static final int NCOUNTERS = RPC_HIST+NBUCKETS;
+
+  // Stripes of counters, a power of 2; each padded by a cache line from the next
+  static final int NSTRIPES = Math.min(16, Integer.highestOneBit(Math.max(1, Runtime.getRuntime().availableProcessors()-1)) << 1);
+  private static final int STRIDE = NCOUNTERS+8;
+
+  private static final NonBlockingHashMap<String,TaskProfiler> PROFILERS = new NonBlockingHashMap<>();
+
+  private final String _task;
+  private final AtomicLongArray _c = new AtomicLongArray(NSTRIPES*STRIDE);
+  private TaskProfiler( String task ) { _task = task; }
+
+  /** The counters of a task class */
+  public static TaskProfiler forClass( Class<?> clz ) {
+    String name = clz.getName();
+    TaskProfiler p = PROFILERS.get(name);
+    if( p != null ) return p;
+    TaskProfiler old = PROFILERS.putIfAbsent(name, p = new TaskProfiler(name));
+    return old == null ? p : old;
+  }
+
+  static int bucket( long x ) { return x < 1 ? 0 : Math.min(NBUCKETS-1, 64-Long.numberOfLeadingZeros(x)); }
+
+  // Offset of the calling thread's stripe; F/J worker ids are consecutive
+  private static int stripe() { return ((int)Thread.currentThread().getId() & (NSTRIPES-1))*STRIDE; }
+
+  /** One top-level local run of the task on this node */
+  public void task() { _c.incrementAndGet(stripe()+TASKS); }
+  /** One chunk mapped, reading that many bytes of chunks */
+  public void map( long nanos, long bytes ) {
+    int s = stripe();
+    _c.incrementAndGet(s+CHUNKS);
+    _c.addAndGet(s+BYTES_READ, bytes);
+    _c.addAndGet(s+MAP_NANOS, nanos);
+    _c.incrementAndGet(s+MAP_HIST+bucket(nanos/1000));
+  }
+  /** One reduce of two results */
+  public void reduce( long nanos ) {
+    int s = stripe();
+    _c.incrementAndGet(s+REDUCES);
+    _c.addAndGet(s+REDUCE_NANOS, nanos);
+    _c.incrementAndGet(s+REDUCE_HIST+bucket(nanos/1000));
+  }
+  /** One RPC to a child node, from the call to the answer, bringing back that many bytes */
+  public void rpc( long ms, int bytes ) {
+    int s = stripe();
+    _c.incrementAndGet(s+RPCS);
+    _c.addAndGet(s+RPC_MS, ms);
+    _c.addAndGet(s+RPC_BYTES, bytes);
+    _c.incrementAndGet(s+RPC_HIST+bucket(ms));
+  }
+
+  /** A snapshot of the counters of one task class, on one node or summed over the cloud */
+  public static class TaskProfile extends Iced<TaskProfile> {
+    public String _task;
+    public long[] _c;
+    TaskProfile( String task, long[] c ) { _task = task; _c = c; }
+    public long get( int field ) { return _c[field]; }
+    public long[] hist( int first ) { return Arrays.copyOfRange(_c, first, first+NBUCKETS); }
+    public long tasks()         { return _c[TASKS]; }
+    public long chunks()        { return _c[CHUNKS]; }
+    public long bytesRead()     { return _c[BYTES_READ]; }
+    public long mapNanos()      { return _c[MAP_NANOS]; }
+    public long reduces()       { return _c[REDUCES]; }
+    public long reduceNanos()   { return _c[REDUCE_NANOS]; }
+    public long rpcs()          { return _c[RPCS]; }
+    public long rpcMs()         { return _c[RPC_MS]; }
+    public long rpcBytes()      { return _c[RPC_BYTES]; }
+    public long[] mapHistUs()   { return hist(MAP_HIST); }
+    public long[] reduceHistUs(){ return hist(REDUCE_HIST); }
+    public long[] rpcHistMs()   { return hist(RPC_HIST); }
+    void add( TaskProfile p ) { for( int i = 0; i < _c.length; i++ ) _c[i] += p._c[i]; }
+  }
+
+  /** Snapshot of this node's counters, by task class name */
+  public static TaskProfile[] snapshot() {
+    ArrayList<TaskProfile> res = new ArrayList<>();
+    for( TaskProfiler p : PROFILERS.values() ) {
+      long[] c = new long[NCOUNTERS];
+      for( int s = 0; s < NSTRIPES*STRIDE; s += STRIDE )
+        for( int i = 0; i < c.length; i++ ) c[i] += p._c.get(s+i);
+      res.add(new TaskProfile(p._task, c));
+    }
+    TaskProfile[] ps = res.toArray(new TaskProfile[res.size()]);
+    Arrays.sort(ps, new Comparator<TaskProfile>() {
+      @Override public int compare( TaskProfile a, TaskProfile b ) { return a._task.compareTo(b._task); }
+    });
+    return ps;
+  }
+
+  /** Sum per-node snapshots per task class */
+  public static TaskProfile[] sum( TaskProfile[][] nodes ) {
+    NonBlockingHashMap<String,TaskProfile> sums = new NonBlockingHashMap<>();
+    for( TaskProfile[] ps : nodes )
+      if( ps != null )
+        for( TaskProfile p : ps ) {
+          TaskProfile s = sums.get(p._task);
+          if( s == null ) sums.put(p._task, new TaskProfile(p._task, p._c.clone()));
+          else s.add(p);
+        }
+    TaskProfile[] res = sums.values().toArray(new TaskProfile[sums.size()]);
+    Arrays.sort(res, new Comparator<TaskProfile>() {
+      @Override public int compare( TaskProfile a, TaskProfile b ) { return a._task.compareTo(b._task); }
+    });
+    return res;
+  }
+
+  /** Snapshots of all nodes, indexed by node */
+  public static TaskProfile[][] collect() { return new CollectTask().doAllNodes()._result; }
+
+  private static class CollectTask extends MRTask<CollectTask> {
+    TaskProfile[][] _result;
+    CollectTask() { super(H2O.GUI_PRIORITY); }
+    @Override public void setupLocal() {
+      _result = new TaskProfile[H2O.CLOUD.size()][];
+      _result[H2O.SELF.index()] = snapshot();
+    }
+    @Override public void reduce( CollectTask that ) {
+      for( int i = 0; i < _result.length; ++i )
+        if( _result[i] == null )
+          _result[i] = that._result[i];
+    }
+  }
+}
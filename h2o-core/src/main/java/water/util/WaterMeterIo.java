@@ -25,6 +25,83 @@ public class WaterMeterIo extends Iced {
 
     @API(help="Cumulative loaded bytes", direction = API.Direction.OUTPUT)
     public long load_bytes;
+
+    @API(help="Cumulative stored bytes on the backend, after spill compression", direction = API.Direction.OUTPUT)
+    public long store_bytes_packed;
+
+    @API(help="Cumulative loaded bytes from the backend, before spill decompression", direction = API.Direction.OUTPUT)
+    public long load_bytes_packed;
+
+    @API(help="Number of loads failing the spill checksum", direction = API.Direction.OUTPUT)
+    public long checksum_failures;
+
+    @API(help="Number of loads served from memory-mapped spill files", direction = API.Direction.OUTPUT)
+    public long load_mapped_count;
+  }
+
+  public static class EvictionStatsEntry extends SchemaV3<Iced, EvictionStatsEntry> {
+    @API(help="Cleaner eviction policy", direction = API.Direction.OUTPUT)
+    public String policy;
+
+    @API(help="Number of local Value reads", direction = API.Direction.OUTPUT)
+    public long access_count;
+
+    @API(help="Number of reads reloading the Value from off-heap memory or a back end", direction = API.Direction.OUTPUT)
+    public long reload_count;
+
+    @API(help="Fraction of reads served from the heap", direction = API.Direction.OUTPUT)
+    public double hit_rate;
+
+    @API(help="Number of Values evicted from the heap", direction = API.Direction.OUTPUT)
+    public long evicted_count;
+
+    @API(help="Cumulative bytes evicted from the heap", direction = API.Direction.OUTPUT)
+    public long evicted_bytes;
+
+    @API(help="Cumulative reload time in nanoseconds", direction = API.Direction.OUTPUT)
+    public long reload_nanos;
+
+    @API(help="Mean reload latency in milliseconds", direction = API.Direction.OUTPUT)
+    public double reload_mean_ms;
+
+    void computeRates() {
+      hit_rate = access_count == 0 ? 1 : Math.max(0, 1 - (double) reload_count / access_count);
+      reload_mean_ms = reload_count == 0 ? 0 : reload_nanos / 1e6 / reload_count;
+    }
+  }
+
+  public static class WireStatsEntry extends SchemaV3<Iced, WireStatsEntry> {
+    @API(help="Codec packing batched small messages", direction = API.Direction.OUTPUT)
+    public String codec;
+
+    @API(help="Cumulative bytes of small-message batches sent", direction = API.Direction.OUTPUT)
+    public long bytes_sent;
+
+    @API(help="Number of batches sent packed", direction = API.Direction.OUTPUT)
+    public long packed_batches;
+
+    @API(help="Cumulative raw bytes of the batches sent packed", direction = API.Direction.OUTPUT)
+    public long packed_raw_bytes;
+
+    @API(help="Cumulative bytes saved on the wire by packing", direction = API.Direction.OUTPUT)
+    public long bytes_saved;
+  }
+
+  public static class BroadcastStatsEntry extends SchemaV3<Iced, BroadcastStatsEntry> {
+    @API(help="Number of DKV broadcasts pushed from this (home) node", direction = API.Direction.OUTPUT)
+    public long broadcasts;
+
+    @API(help="Cumulative Value bytes shipped by the broadcasts", direction = API.Direction.OUTPUT)
+    public long bytes;
+
+    @API(help="Cumulative broadcast time in milliseconds", direction = API.Direction.OUTPUT)
+    public long time_ms;
+
+    @API(help="Longest broadcast in milliseconds", direction = API.Direction.OUTPUT)
+    public long max_ms;
+
+    @API(help="Number of broadcast copies installed on this node", direction = API.Direction.OUTPUT)
+    public long received;
   }
 
   // Input
@@ -32,6 +109,9 @@ public class WaterMeterIo extends Iced {
 
   // Output
   public IoStatsEntry persist_stats[];
+  public EvictionStatsEntry eviction_stats;
+  public WireStatsEntry wire_stats;
+  public BroadcastStatsEntry broadcast_stats;
 
   public void doIt(boolean aggregateAllNodes) {
     if (! aggregateAllNodes) {
@@ -48,7 +128,26 @@ public class WaterMeterIo extends Iced {
           persist_stats[j] = new IoStatsEntry();
           persist_stats[j].backend    = io.persist_stats[j].backend;
         }
+        eviction_stats = new EvictionStatsEntry();
+        eviction_stats.policy = io.eviction_stats.policy;
+        wire_stats = new WireStatsEntry();
+        wire_stats.codec = io.wire_stats.codec;
+        broadcast_stats = new BroadcastStatsEntry();
       }
+      eviction_stats.access_count += io.eviction_stats.access_count;
+      eviction_stats.reload_count += io.eviction_stats.reload_count;
+      eviction_stats.evicted_count += io.eviction_stats.evicted_count;
+      eviction_stats.evicted_bytes += io.eviction_stats.evicted_bytes;
+      eviction_stats.reload_nanos += io.eviction_stats.reload_nanos;
+      wire_stats.bytes_sent += io.wire_stats.bytes_sent;
+      wire_stats.packed_batches += io.wire_stats.packed_batches;
+      wire_stats.packed_raw_bytes += io.wire_stats.packed_raw_bytes;
+      wire_stats.bytes_saved += io.wire_stats.bytes_saved;
+      broadcast_stats.broadcasts += io.broadcast_stats.broadcasts;
+      broadcast_stats.bytes += io.broadcast_stats.bytes;
+      broadcast_stats.time_ms += io.broadcast_stats.time_ms;
+      broadcast_stats.max_ms = Math.max(broadcast_stats.max_ms, io.broadcast_stats.max_ms);
+      broadcast_stats.received += io.broadcast_stats.received;
 
       for (int j = 0; j < persist_stats.length; j++) {
         persist_stats[j].store_count += io.persist_stats[j].store_count;
@@ -56,8 +155,13 @@ public class WaterMeterIo extends Iced {
         persist_stats[j].delete_count += io.persist_stats[j].delete_count;
         persist_stats[j].load_count += io.persist_stats[j].load_count;
         persist_stats[j].load_bytes += io.persist_stats[j].load_bytes;
+        persist_stats[j].store_bytes_packed += io.persist_stats[j].store_bytes_packed;
+        persist_stats[j].load_bytes_packed += io.persist_stats[j].load_bytes_packed;
+        persist_stats[j].checksum_failures += io.persist_stats[j].checksum_failures;
+        persist_stats[j].load_mapped_count += io.persist_stats[j].load_mapped_count;
       }
     }
+    eviction_stats.computeRates();
   }
 
   private void doIt(int idx) {
@@ -68,10 +172,16 @@ public class WaterMeterIo extends Iced {
     new RPC<>(node, t).call().get();
     Log.trace("IO GetTask completed to node " + idx);
     persist_stats = t._persist_stats;
+    eviction_stats = t._eviction_stats;
+    wire_stats = t._wire_stats;
+    broadcast_stats = t._broadcast_stats;
   }
 
   private static class GetTask extends DTask<GetTask> {
     private IoStatsEntry _persist_stats[];
+    private EvictionStatsEntry _eviction_stats;
+    private WireStatsEntry _wire_stats;
+    private BroadcastStatsEntry _broadcast_stats;
 
     public GetTask() { super(H2O.MIN_HI_PRIORITY); _persist_stats = null; }
 
@@ -106,6 +216,10 @@ public class WaterMeterIo extends Iced {
         dest_e.delete_count = src_e.delete_count.get();
         dest_e.load_count = src_e.load_count.get();
         dest_e.load_bytes = src_e.load_bytes.get();
+        dest_e.store_bytes_packed = src_e.store_bytes_packed.get();
+        dest_e.load_bytes_packed = src_e.load_bytes_packed.get();
+        dest_e.checksum_failures = src_e.checksum_failures.get();
+        dest_e.load_mapped_count = src_e.load_mapped_count.get();
       }
 
       int[] backendsToZeroCheck = new int[] {0, 5, 6, 7};
@@ -116,8 +230,34 @@ public class WaterMeterIo extends Iced {
         assert(src_e.delete_count.get() == 0);
         assert(src_e.load_count.get() == 0);
         assert(src_e.load_bytes.get() == 0);
+        assert(src_e.store_bytes_packed.get() == 0);
+        assert(src_e.load_bytes_packed.get() == 0);
       }
 
+      EvictionPolicy p = EvictionPolicy.current();
+      _eviction_stats = new EvictionStatsEntry();
+      _eviction_stats.policy = p.toString();
+      _eviction_stats.access_count = p.accessCount();
+      _eviction_stats.reload_count = p.reloadCount();
+      _eviction_stats.evicted_count = p.evictedCount();
+      _eviction_stats.evicted_bytes = p.evictedBytes();
+      _eviction_stats.reload_nanos = p.reloadNanos();
+      _eviction_stats.computeRates();
+
+      _wire_stats = new WireStatsEntry();
+      _wire_stats.codec = H2ONode.WIRE_CODEC.toString();
+      _wire_stats.bytes_sent = H2ONode.WIRE_BYTES_SENT.get();
+      _wire_stats.packed_batches = H2ONode.WIRE_PACKED_BATCHES.get();
+      _wire_stats.packed_raw_bytes = H2ONode.WIRE_PACKED_RAW_BYTES.get();
+      _wire_stats.bytes_saved = H2ONode.WIRE_BYTES_SAVED.get();
+
+      _broadcast_stats = new BroadcastStatsEntry();
+      _broadcast_stats.broadcasts = BroadcastKey.BROADCASTS.get();
+      _broadcast_stats.bytes = BroadcastKey.BYTES.get();
+      _broadcast_stats.time_ms = BroadcastKey.MS.get();
+      _broadcast_stats.max_ms = BroadcastKey.MAX_MS.get();
+      _broadcast_stats.received = BroadcastKey.RECEIVED.get();
+
       tryComplete();
     }
   }
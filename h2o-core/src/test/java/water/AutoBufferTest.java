@@ -2,7 +2,11 @@ package water;
 
 import org.junit.Test;
 
+import java.io.File;
+import java.io.RandomAccessFile;
 import java.io.Serializable;
+import java.nio.ByteBuffer;
+import java.util.Arrays;
 
 import static org.junit.Assert.*;
 
@@ -445,7 +449,25 @@ public class AutoBufferTest {
 
   @Test
   public void testPutA1() throws Exception {
-
+    // Large arrays bypass the staging buffer, through a file channel both ways
+    byte[] small = new byte[]{1, 2, 3};
+    byte[] big = new byte[3 * AutoBuffer.ZERO_COPY_MIN + 17];
+    for (int i = 0; i < big.length; i++) big[i] = (byte) (i * 31);
+    File f = File.createTempFile("autobuffer", ".bin");
+    try {
+      AutoBuffer ab = new AutoBuffer(new RandomAccessFile(f, "rw").getChannel(), false, Value.ICE);
+      ab.put4(42).putA1(small).putA1(big).putA1Buffer(ByteBuffer.wrap(big, 5, big.length - 5)).put4(43);
+      ab.close();
+      ab = new AutoBuffer(new RandomAccessFile(f, "r").getChannel(), true, Value.ICE);
+      assertEquals(42, ab.get4());
+      assertArrayEquals(small, ab.getA1());
+      assertArrayEquals(big, ab.getA1());
+      assertArrayEquals(Arrays.copyOfRange(big, 5, big.length), ab.getA1());
+      assertEquals(43, ab.get4());
+      ab.close();
+    } finally {
+      f.delete();
+    }
   }
 
   @Test
@@ -483,6 +505,90 @@ public class AutoBufferTest {
 
   }
 
+  @Test
+  public void testPutPacked() throws Exception {
+    double[] sparse = new double[1000];
+    sparse[0] = 1.5; sparse[17] = -0.0; sparse[400] = Double.NaN; sparse[999] = -3;
+    double[] dense = new double[]{1, 2, 0, 4};
+    long[] longs = new long[300];
+    longs[3] = Long.MIN_VALUE; longs[299] = 7;
+    int[] ints = new int[300];
+    ints[0] = -5; ints[250] = Integer.MAX_VALUE;
+    long[] sorted = new long[]{100, 101, 103, 103, 90, Long.MAX_VALUE, Long.MIN_VALUE};
+    int[] rows = new int[]{0, 2, 3, 1000, Integer.MIN_VALUE, Integer.MAX_VALUE};
+    AutoBuffer ab = new AutoBuffer();
+    ab.putA8dSparse(sparse).putA8dSparse(dense).putA8dSparse(null).putAA8dSparse(new double[][]{sparse, null, dense})
+      .putA8Sparse(longs).putA4Sparse(ints).putA8Delta(sorted).putA4Delta(rows).putA4Delta(null).put4(42);
+    ab.flipForReading();
+    assertEquals(Arrays.toString(sparse), Arrays.toString(ab.getA8dSparse()));
+    assertEquals(Arrays.toString(dense), Arrays.toString(ab.getA8dSparse()));
+    assertNull(ab.getA8dSparse());
+    assertEquals(Arrays.deepToString(new double[][]{sparse, null, dense}), Arrays.deepToString(ab.getAA8dSparse()));
+    assertArrayEquals(longs, ab.getA8Sparse());
+    assertArrayEquals(ints, ab.getA4Sparse());
+    assertArrayEquals(sorted, ab.getA8Delta());
+    assertArrayEquals(rows, ab.getA4Delta());
+    assertNull(ab.getA4Delta());
+    assertEquals(42, ab.get4());
+    // The sparse array packs well below its dense size
+    assertTrue(new AutoBuffer().putA8dSparse(sparse).position() < 50);
+  }
+
+  @Test
+  public void testSparseCutoff() {
+    // Whichever of the dense and sparse encodings is smaller, and still reads back
+    for( int len : new int[]{1, 2, 3, 10, 12, 100, 300, 1000} ) {
+      for( int nzs=0; nzs<=len; nzs++ ) {
+        double[] ary = new double[len];
+        for( int i=0; i<len; i++ )
+          if( (long)i*nzs/len != (long)(i+1)*nzs/len ) ary[i] = i+1; // nzs non-zeros, spread out
+        int dense = 1+AutoBuffer.intSize(len)+8*len;
+        int sparse = 1+AutoBuffer.intSize(len)+AutoBuffer.intSize(nzs);
+        for( int i=0, last=-1; i<len; i++ )
+          if( ary[i] != 0 ) { sparse += AutoBuffer.intSize(i-last-1)+8; last = i; }
+        AutoBuffer ab = new AutoBuffer().putA8dSparse(ary);
+        assertEquals("len "+len+", non-zeros "+nzs, Math.min(dense, sparse), ab.position());
+        ab.flipForReading();
+        assertArrayEquals(ary, ab.getA8dSparse(), 0);
+      }
+    }
+  }
+
+  @Test
+  public void testSparseCutoffIntegers() {
+    // Same for longs and ints, with the non-zeros as zig-zag varints of any size
+    long[] vals = new long[]{1, -1, 200, -70000, 1L<<40, Long.MIN_VALUE};
+    for( int len : new int[]{1, 2, 3, 10, 100, 300} ) {
+      for( long v : vals ) {
+        for( int nzs=0; nzs<=len; nzs++ ) {
+          long[] ls = new long[len];
+          int[] is = new int[len];
+          int sparse = 1+AutoBuffer.intSize(len)+AutoBuffer.intSize(nzs), isparse = sparse;
+          for( int i=0, last=-1; i<len; i++ )
+            if( (long)i*nzs/len != (long)(i+1)*nzs/len ) { // nzs non-zeros, spread out
+              ls[i] = v;
+              is[i] = (int)v == 0 ? 1 : (int)v;
+              sparse += AutoBuffer.intSize(i-last-1)+AutoBuffer.zigZagSize(ls[i]);
+              isparse += AutoBuffer.intSize(i-last-1)+AutoBuffer.zigZagSize(is[i]);
+              last = i;
+            }
+          String msg = "len "+len+", value "+v+", non-zeros "+nzs;
+          AutoBuffer ab = new AutoBuffer().putA8Sparse(ls);
+          assertEquals(msg, Math.min(new AutoBuffer().put1(0).putA8(ls).position(), sparse), ab.position());
+          ab.flipForReading();
+          assertArrayEquals(msg, ls, ab.getA8Sparse());
+          ab = new AutoBuffer().putA4Sparse(is);
+          assertEquals(msg, Math.min(new AutoBuffer().put1(0).putA4(is).position(), isparse), ab.position());
+          ab.flipForReading();
+          assertArrayEquals(msg, is, ab.getA4Sparse());
+        }
+      }
+    }
+    assertEquals(1, AutoBuffer.zigZagSize(-64));
+    assertEquals(2, AutoBuffer.zigZagSize(64));
+    assertEquals(10, AutoBuffer.zigZagSize(Long.MIN_VALUE));
+  }
+
   @Test
   public void testPutAA1() throws Exception {
 
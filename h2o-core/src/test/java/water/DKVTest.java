@@ -1,6 +1,7 @@
 package water;
 
 import org.junit.Assert;
+import org.junit.Assume;
 import org.junit.BeforeClass;
 import org.junit.Ignore;
 import org.junit.Test;
@@ -95,6 +96,111 @@ public class DKVTest extends TestUtil {
     }
   }
 
+  private static class CacheKey extends MRTask<CacheKey> {
+    final Key _key;
+    CacheKey(Key key) { _key = key; }
+    @Override public void setupLocal() { DKV.get(_key); }
+  }
+
+  /**
+   * Overwriting a key cached on every other node invalidates each cache
+   * (one key per node, coalesced or not), and the TimeLine counts it.
+   */
+  @Test
+  public void testInvalidateCounts() {
+    Key k = Key.make((byte) 1, Key.HIDDEN_USER_KEY, true, H2O.SELF);
+    try {
+      DKV.put(k, new IcedInt(0));
+      new CacheKey(k).doAllNodes();
+      long keys = TimeLine.invalidates(TimeLine.snapshot(), TimeLine.INV_KEYS);
+      long rpcs = TimeLine.invalidates(TimeLine.snapshot(), TimeLine.INV_RPCS);
+      DKV.put(k, new IcedInt(1));
+      Assert.assertEquals(keys + H2O.CLOUD.size() - 1, TimeLine.invalidates(TimeLine.snapshot(), TimeLine.INV_KEYS));
+      assertTrue(TimeLine.invalidates(TimeLine.snapshot(), TimeLine.INV_RPCS) - rpcs <= H2O.CLOUD.size() - 1);
+      new CacheKey(k).doAllNodes();
+      Assert.assertEquals(1, ((IcedInt) DKV.getGet(k))._val);
+    } finally {
+      DKV.remove(k);
+    }
+  }
+
+  /**
+   * Puts of several keys cached on every other node, made within the
+   * coalescing window, invalidate each node with a single RPC.
+   */
+  @Test
+  public void testInvalidateBatched() {
+    Assume.assumeTrue(H2O.CLOUD.size() > 1);
+    int old = TaskInvalidateKeys.WINDOW_MS;
+    Key[] keys = new Key[10];
+    try {
+      // Long enough that only blocking on the Futures sends the batches
+      TaskInvalidateKeys.WINDOW_MS = 60 * 1000;
+      for (int i = 0; i < keys.length; ++i) {
+        DKV.put(keys[i] = Key.make((byte) 1, Key.HIDDEN_USER_KEY, true, H2O.SELF), new IcedInt(0));
+        new CacheKey(keys[i]).doAllNodes();
+      }
+      long[] tl = TimeLine.snapshot();
+      long invKeys = TimeLine.invalidates(tl, TimeLine.INV_KEYS), rpcs = TimeLine.invalidates(tl, TimeLine.INV_RPCS);
+      Futures fs = new Futures();
+      for (Key k : keys) DKV.put(k, new IcedInt(1), fs);
+      fs.blockForPending();
+      tl = TimeLine.snapshot();
+      Assert.assertEquals(invKeys + keys.length * (H2O.CLOUD.size() - 1), TimeLine.invalidates(tl, TimeLine.INV_KEYS));
+      Assert.assertEquals(rpcs + H2O.CLOUD.size() - 1, TimeLine.invalidates(tl, TimeLine.INV_RPCS));
+      for (Key k : keys) {
+        new CacheKey(k).doAllNodes();
+        Assert.assertEquals(1, ((IcedInt) DKV.getGet(k))._val);
+      }
+    } finally {
+      TaskInvalidateKeys.WINDOW_MS = old;
+      for (Key k : keys)
+        if (k != null) DKV.remove(k);
+    }
+  }
+
+  private static class CountCached extends MRTask<CountCached> {
+    final Key _key;
+    int _cached;
+    CountCached(Key key) { _key = key; }
+    @Override public void setupLocal() {
+      Value v = H2O.STORE.get(_key);
+      if (v != null && !v.isNull()) _cached = 1;
+    }
+    @Override public void reduce(CountCached c) { _cached += c._cached; }
+  }
+
+  private static class CountBroadcasts extends MRTask<CountBroadcasts> {
+    long _n;
+    @Override public void setupLocal() { _n = BroadcastKey.BROADCASTS.get(); }
+    @Override public void reduce(CountBroadcasts c) { _n += c._n; }
+  }
+
+  /**
+   * A broadcast leaves a copy on every node, which the next put invalidates.
+   */
+  @Test
+  public void testBroadcast() {
+    Key k = Key.make((byte) 1, Key.HIDDEN_USER_KEY, true, H2O.CLOUD._memary[H2O.CLOUD.size() - 1]);
+    try {
+      DKV.put(k, new IcedInt(7));
+      Assert.assertEquals(7, ((IcedInt) DKV.broadcast(k).get())._val);
+      Assert.assertEquals(H2O.CLOUD.size(), new CountCached(k).doAllNodes()._cached);
+      // Every node has it, so broadcasting again ships nothing
+      long pushes = new CountBroadcasts().doAllNodes()._n;
+      Assert.assertEquals(7, ((IcedInt) DKV.broadcast(k).get())._val);
+      Assert.assertEquals(pushes, new CountBroadcasts().doAllNodes()._n);
+      DKV.put(k, new IcedInt(8));
+      // Only home and the writer are left
+      assertTrue(new CountCached(k).doAllNodes()._cached <= (k.home() ? 1 : 2));
+      new CacheKey(k).doAllNodes();
+      Assert.assertEquals(8, ((IcedInt) DKV.getGet(k))._val);
+      Assert.assertNull(DKV.broadcast(Key.make()));
+    } finally {
+      DKV.remove(k);
+    }
+  }
+
   class Bytes extends Iced<Bytes> {
     public byte[] _b;
     Bytes(byte[] b) { _b = b; }
@@ -0,0 +1,85 @@
+package water;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.exceptions.H2OIllegalArgumentException;
+import water.util.IcedInt;
+
+import static org.junit.Assert.*;
+
+public class EvictionPolicyTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  private static Value makeValue(int len, long touched) {
+    Value v = new Value(Key.make(), len, new byte[len], TypeMap.PRIM_B, Value.ICE);
+    v.touchAt(touched);
+    return v;
+  }
+
+  @Test public void testLRU() {
+    long now = System.currentTimeMillis();
+    assertTrue(EvictionPolicy.LRU.rank(makeValue(100, now - 1000)) < EvictionPolicy.LRU.rank(makeValue(100, now)));
+  }
+
+  @Test public void testLFU() {
+    long now = System.currentTimeMillis();
+    Value cold = makeValue(100, now), hot = makeValue(100, now);
+    hot._hits = 1000;
+    assertTrue(EvictionPolicy.LFU.rank(cold) < EvictionPolicy.LFU.rank(hot));
+    // Aging decays the frequency bonus
+    for (int i = 0; i < 12; i++) EvictionPolicy.LFU.aged(hot);
+    assertEquals(EvictionPolicy.LFU.rank(cold), EvictionPolicy.LFU.rank(hot));
+  }
+
+  @Test public void testCost() {
+    long now = System.currentTimeMillis();
+    Value unwritten = makeValue(4 << 20, now), written = makeValue(4 << 20, now);
+    written.setDsk();
+    // Evicting an unwritten Value means writing it first: costlier, so ranked higher
+    assertTrue(EvictionPolicy.COST.rank(written) < EvictionPolicy.COST.rank(unwritten));
+    // Same cost, older access still goes first
+    assertTrue(EvictionPolicy.COST.rank(makeValue(4 << 20, now - 60000)) < EvictionPolicy.COST.rank(unwritten));
+  }
+
+  @Test public void testAccessSampled() {
+    Value v = new Value(Key.make(), new IcedInt(42));
+    int hits = v._hits;
+    long before = EvictionPolicy.current().accessCount();
+    for (int i = 0; i < 10 * EvictionPolicy.ACCESS_SAMPLE; i++) v.get();
+    assertEquals(hits + 10 * EvictionPolicy.ACCESS_SAMPLE, v._hits);
+    // Counted in whole samples, at least those of this Value
+    long counted = EvictionPolicy.current().accessCount() - before;
+    assertEquals(0, counted % EvictionPolicy.ACCESS_SAMPLE);
+    assertTrue(counted >= 9 * EvictionPolicy.ACCESS_SAMPLE);
+  }
+
+  @Test public void testNewestRank() {
+    // The test-mode Cleaner pass cleans up to the highest rank found, past
+    // the access times when a policy adds a bonus
+    Key k = Key.make();
+    EvictionPolicy old = EvictionPolicy.current();
+    try {
+      Value v = new Value(k, new byte[100]);
+      v._hits = 1000;
+      H2O.putIfMatch(k, v, null);
+      EvictionPolicy.setCurrent(EvictionPolicy.LFU);
+      Cleaner.Histo h = new Cleaner.Histo(0);
+      assertTrue(h._newest >= EvictionPolicy.LFU.rank(v));
+      assertTrue(h._newest > System.currentTimeMillis());
+      assertTrue(h._newest < Long.MAX_VALUE);
+    } finally {
+      EvictionPolicy.setCurrent(old);
+      DKV.remove(k);
+    }
+  }
+
+  @Test public void testForName() {
+    assertSame(EvictionPolicy.LRU, EvictionPolicy.forName("LRU"));
+    assertSame(EvictionPolicy.COST, EvictionPolicy.forName(" cost"));
+    try {
+      EvictionPolicy.forName("fifo");
+      fail();
+    } catch (H2OIllegalArgumentException expected) {
+    }
+  }
+}
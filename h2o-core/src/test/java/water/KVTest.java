@@ -4,6 +4,7 @@ import static org.junit.Assert.*;
 import org.junit.*;
 
 import java.io.File;
+import java.util.Arrays;
 import water.fvec.Chunk;
 import water.fvec.NFSFileVec;
 import water.util.FileUtils;
@@ -119,6 +120,47 @@ public class KVTest extends TestUtil {
   }
 
 
+  // ---
+  // Batch-fetch Keys homed remotely, plus a local one and a missing one
+  @Test public void testGetAll() {
+    Assume.assumeTrue(H2O.CLOUD.size() > 1); // Needs a remote home node
+    H2O cloud = H2O.CLOUD;
+    H2ONode target = cloud._memary[0];
+    if( target == H2O.SELF ) target = cloud._memary[1];
+    Key[] keys = new Key[50];
+    for( int i = 0; i < keys.length-2; i++ )
+      keys[i] = Key.make("getAll"+i,(byte)1,Key.BUILT_IN_KEY,true,target);
+    keys[keys.length-2] = Key.make("getAllLocal",(byte)1,Key.BUILT_IN_KEY,true,H2O.SELF);
+    keys[keys.length-1] = Key.make("getAllMissing",(byte)1,Key.BUILT_IN_KEY,true,target);
+    // Put them from their homes, so there are no cached copies here
+    new RPC<>(target,new PutAtHome(Arrays.copyOf(keys,keys.length-2))).call().get();
+    DKV.put(keys[keys.length-2],new Value(keys[keys.length-2],new byte[]{(byte)(keys.length-2)}));
+    Value[] vals = DKV.getAll(keys);
+    for( int i = 0; i < keys.length-1; i++ ) {
+      assertEquals(keys[i],vals[i]._key);
+      assertEquals(i,vals[i].memOrLoad()[0]);
+    }
+    assertNull(vals[keys.length-1]);
+    // Now cached locally
+    for( int i = 0; i < keys.length-1; i++ )
+      assertSame(vals[i],H2O.STORE.get(keys[i]));
+    Futures fs = new Futures();
+    for( Key k : keys ) DKV.remove(k,fs);
+    fs.blockForPending();
+  }
+
+  private static class PutAtHome extends DTask<PutAtHome> {
+    final Key[] _keys;
+    PutAtHome(Key[] keys) { _keys = keys; }
+    @Override public void compute2() {
+      Futures fs = new Futures();
+      for( int i = 0; i < _keys.length; i++ )
+        DKV.put(_keys[i],new Value(_keys[i],new byte[]{(byte)i}),fs);
+      fs.blockForPending();
+      tryComplete();
+    }
+  }
+
   // ---
   // Map in h2o.jar - a multi-megabyte file - into a NFSFileVec
   // Run a distributed byte histogram.
@@ -3,6 +3,7 @@ package water;
 import org.junit.*;
 import water.fvec.Vec;
 import water.fvec.Chunk;
+import water.util.IcedInt;
 import water.util.PrettyPrint;
 
 import java.util.concurrent.atomic.AtomicInteger;
@@ -55,6 +56,79 @@ public class MRTaskTest extends TestUtil {
       assertTrue("too many unreduced results, should be <= " + max_unreduced_elems + " but was " + max_cnt, max_cnt <= max_unreduced_elems);
     }
   }
+
+  // streaming reduce folds leaves as they finish: at most one accumulator and
+  // one in-flight leaf per thread hold a result, and nothing is lost
+  private static class StreamingSum extends MRTask<StreamingSum> {
+    static final AtomicInteger cntr = new AtomicInteger();
+    static final AtomicInteger maxCntr = new AtomicInteger();
+    long _sum;
+    @Override protected boolean streamingReduce() { return true; }
+    @Override public void map(Chunk c) {
+      int cnt = cntr.incrementAndGet();
+      int max = maxCntr.get();
+      while (cnt > max) {
+        maxCntr.compareAndSet(max, cnt);
+        max = maxCntr.get();
+      }
+      for (int i = 0; i < c._len; ++i) _sum += c.at8(i);
+    }
+    @Override public void reduce(StreamingSum s) { cntr.decrementAndGet(); _sum += s._sum; }
+  }
+
+  @Test public void test_streaming_reductions(){
+    Vec vec = Vec.makeCon(1, 1 << 14, 3, true); // Many small chunks, all over the cloud
+    try {
+      StreamingSum s = new StreamingSum().doAll(vec);
+      assertEquals(vec.length(), s._sum);
+      int max_unreduced_elems = 2 * H2O.NUMCPUS;
+      int max_cnt = StreamingSum.maxCntr.get();
+      assertTrue("too many unreduced results, should be <= " + max_unreduced_elems + " but was " + max_cnt,
+          max_cnt <= max_unreduced_elems);
+    } finally {
+      vec.remove();
+    }
+  }
+
+  // speculative mode: the chunks of a straggling node get mapped by another
+  // node, and the first result wins.  The straggler stalls until the test
+  // puts the release Key, so its F/J threads are not held past the test.
+  private static class SlowNodeSum extends MRTask<SlowNodeSum> {
+    final int _slow;
+    final Key _release;
+    long _sum;
+    SlowNodeSum(int slow, Key release) { _slow = slow; _release = release; }
+    @Override protected boolean speculative() { return true; }
+    @Override public void map(Chunk c) {
+      if (H2O.SELF.index() == _slow) {
+        long deadline = System.currentTimeMillis() + 10000;
+        while (DKV.get(_release) == null && System.currentTimeMillis() < deadline)
+          try { Thread.sleep(50); } catch (InterruptedException ignore) { }
+      }
+      for (int i = 0; i < c._len; ++i) _sum += c.at8(i);
+    }
+    @Override public void reduce(SlowNodeSum s) { _sum += s._sum; }
+  }
+
+  @Test public void test_speculative_straggler(){
+    Vec vec = Vec.makeCon(1, 1 << 12, 6, true);
+    Key release = Key.make();
+    try {
+      int slow = H2O.CLOUD.size() - 1;
+      Assume.assumeTrue(slow > 0 && slow != H2O.SELF.index());
+      long start = System.currentTimeMillis();
+      SlowNodeSum s = new SlowNodeSum(slow, release).doAll(vec);
+      long ms = System.currentTimeMillis() - start;
+      assertEquals(vec.length(), s._sum);
+      assertTrue("straggler was not backed up, took " + ms + "ms", ms < 10000);
+    } finally {
+      DKV.put(release, new IcedInt(1));
+      try { Thread.sleep(500); } catch (InterruptedException ignore) { } // A few polls for the straggler to see it
+      vec.remove();
+      DKV.remove(release);
+    }
+  }
+
   // Test speed of calling 1M map calls
   @Test
   public void testMillionMaps() {
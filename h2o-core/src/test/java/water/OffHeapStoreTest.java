@@ -0,0 +1,100 @@
+package water;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.fvec.Chunk;
+import water.fvec.Vec;
+
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class OffHeapStoreTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  private long _oldMax;
+  @Before public void enable()  { _oldMax = OffHeapStore.MAX; OffHeapStore.setMax(1<<20); }
+  @After  public void disable() { OffHeapStore.setMax(_oldMax); }
+
+  private static Value makeValue(Key k, int len) {
+    byte[] b = new byte[len];
+    new Random(len).nextBytes(b);
+    return new Value(k, len, b, TypeMap.PRIM_B, Value.ICE);
+  }
+
+  @Test public void testMoveAndReload() {
+    long used0 = OffHeapStore.used();
+    Value v = makeValue(Key.make(), 100000);
+    byte[] expected = v.memOrLoad().clone();
+    assertTrue(v.moveOffHeap());
+    assertEquals(used0 + 100000, OffHeapStore.used());
+    v.freeMem();
+    v.freePOJO();
+    assertFalse(v.isEmpty());
+    // Reload copies back onto the heap, and keeps the off-heap copy
+    assertArrayEquals(expected, v.memOrLoad());
+    assertTrue(v.isOffHeap());
+    v.removePersist();
+    assertFalse(v.isOffHeap());
+    assertEquals(used0, OffHeapStore.used());
+  }
+
+  @Test public void testDemotedChunkReadBack() {
+    double[] ds = new double[1000];
+    for( int i = 0; i < ds.length; i++ ) ds[i] = i * 0.5;
+    Vec vec = dvec(ds);
+    try {
+      Key ck = vec.chunkKey(0);
+      Value val = DKV.get(ck);
+      // What the Cleaner does to a cold home Chunk under pressure
+      Cleaner.parkOffHeap(val, ck);
+      assertTrue(val.isOffHeap());
+      assertTrue(Cleaner.canDropHeap(val, ck));
+      val.freeMem();
+      val.freePOJO();
+      assertNull(val.rawMem());
+      assertNull(val.rawPOJO());
+      // Reads hit the local copy, and reload it from the off-heap tier
+      assertSame(val, DKV.get(ck));
+      assertSame(val, DKV.getAll(new Key[]{ck})[0]);
+      Chunk c = vec.chunkForChunkIdx(0);
+      assertEquals(ds.length, c._len);
+      for( int i = 0; i < ds.length; i++ ) assertEquals(ds[i], c.atd(i), 0);
+    } finally {
+      vec.remove();
+    }
+  }
+
+  @Test public void testOverBudget() {
+    long used0 = OffHeapStore.used();
+    Value v = makeValue(Key.make(), 2<<20);
+    assertFalse(v.moveOffHeap());
+    assertFalse(v.isOffHeap());
+    assertEquals(used0, OffHeapStore.used());
+  }
+
+  @Test public void testOverwriteKeepsCopyForReaders() throws InterruptedException {
+    long used0 = OffHeapStore.used();
+    Key k = Key.make();
+    Value v1 = makeValue(k, 1000);
+    byte[] expected = v1.memOrLoad().clone();
+    DKV.put(k, v1);
+    assertTrue(v1.moveOffHeap());
+    v1.freeMem();
+    DKV.put(k, makeValue(k, 2000));
+    // A reader still holding the overwritten Value reloads it from off-heap
+    assertTrue(v1.isOffHeap());
+    assertArrayEquals(expected, v1.memOrLoad());
+    // Once the old Value is garbage, its copy is reclaimed
+    v1 = null;
+    for( int i = 0; i < 100 && OffHeapStore.used() != used0; i++ ) {
+      System.gc();
+      Thread.sleep(10);
+      OffHeapStore.reclaim();
+    }
+    assertEquals(used0, OffHeapStore.used());
+    DKV.remove(k);
+  }
+}
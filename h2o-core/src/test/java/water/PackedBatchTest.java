@@ -0,0 +1,119 @@
+package water;
+
+import org.junit.Test;
+import water.persist.SpillCodec;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/** Round trips of the small-message batches packed by {@link H2ONode} and
+ *  unpacked by {@link TCPReceiverThread.UDP_TCP_ReaderThread}. */
+public class PackedBatchTest {
+
+  private static final int CAP = AutoBuffer.BBP_SML._size * 4;
+
+  // A batch of size/message/sentinel frames, as built by the send thread
+  private static ByteBuffer batch(byte[][] msgs) {
+    ByteBuffer bb = ByteBuffer.allocate(CAP).order(ByteOrder.nativeOrder());
+    for (byte[] m : msgs) {
+      bb.putChar((char) m.length);
+      bb.put(m);
+      bb.put((byte) 0xef);
+    }
+    return bb;
+  }
+
+  private static byte[][] messages(Random r, int n, boolean compressible) {
+    byte[][] msgs = new byte[n][];
+    for (int i = 0; i < n; i++) {
+      msgs[i] = new byte[1 + r.nextInt(200)];
+      if (compressible) Arrays.fill(msgs[i], (byte) (i & 7));
+      else r.nextBytes(msgs[i]);
+    }
+    return msgs;
+  }
+
+  // Reads a packed frame the way the reader thread does, after the escape
+  private static byte[][] unpack(ByteBuffer frame, int n) throws IOException {
+    SpillCodec codec = SpillCodec.forId(frame.get());
+    int rawLen = frame.getInt(), plen = frame.getInt();
+    assertTrue(plen < rawLen);
+    byte[] packed = new byte[plen];
+    frame.get(packed);
+    assertEquals(0xef, frame.get() & 0xFF);
+    assertFalse(frame.hasRemaining());
+    ByteBuffer raw = TCPReceiverThread.UDP_TCP_ReaderThread.unpackBatch(codec, packed, plen, new byte[rawLen], rawLen, frame.order());
+    byte[][] msgs = new byte[n][];
+    for (int i = 0; i < n; i++) {
+      AutoBuffer ab = TCPReceiverThread.UDP_TCP_ReaderThread.nextMessage(null, raw);
+      msgs[i] = Arrays.copyOf(ab._bb.array(), ab._size);
+    }
+    assertFalse(raw.hasRemaining());
+    return msgs;
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    Random r = new Random(0xBA7C);
+    for (SpillCodec codec : new SpillCodec[]{SpillCodec.LZ4, SpillCodec.DEFLATE}) {
+      for (int n : new int[]{1, 10, 100}) {
+        byte[][] msgs = messages(r, n, true);
+        ByteBuffer bb = batch(msgs);
+        int len = bb.position();
+        byte[] raw = Arrays.copyOf(bb.array(), CAP);
+        ByteBuffer pbb = ByteBuffer.allocate(CAP).order(ByteOrder.nativeOrder());
+        if (!H2ONode.packBatch(codec, raw, len, new byte[codec.maxPackedLength(CAP)], pbb)) {
+          assertEquals("only a lone tiny message may fail to pack", 1, n);
+          continue;
+        }
+        assertTrue(pbb.position() < len);
+        pbb.flip();
+        // The escape: a packed frame starts with a size no small message has
+        assertEquals(H2ONode.PACKED_BATCH, pbb.getChar());
+        assertTrue(H2ONode.PACKED_BATCH >= AutoBuffer.BBP_SML._size);
+        byte[][] res = unpack(pbb, n);
+        for (int i = 0; i < n; i++)
+          assertArrayEquals(codec + ", message " + i + " of " + n, msgs[i], res[i]);
+      }
+    }
+  }
+
+  @Test
+  public void testIncompressibleSentRaw() {
+    Random r = new Random(0xF00D);
+    for (SpillCodec codec : new SpillCodec[]{SpillCodec.NONE, SpillCodec.LZ4, SpillCodec.DEFLATE}) {
+      ByteBuffer bb = batch(messages(r, 50, false));
+      int len = bb.position();
+      ByteBuffer pbb = ByteBuffer.allocate(CAP);
+      assertFalse(codec.toString(), H2ONode.packBatch(codec, bb.array(), len, new byte[codec.maxPackedLength(CAP)], pbb));
+    }
+  }
+
+  @Test
+  public void testCorruptBatch() throws IOException {
+    byte[][] msgs = messages(new Random(0xBAD), 20, true);
+    ByteBuffer bb = batch(msgs);
+    // Sentinel missing inside the raw batch
+    byte[] raw = Arrays.copyOf(bb.array(), bb.position());
+    raw[2 + msgs[0].length] = 0;
+    ByteBuffer rbb = ByteBuffer.wrap(raw).order(bb.order());
+    try {
+      TCPReceiverThread.UDP_TCP_ReaderThread.nextMessage(null, rbb);
+      fail("expected a missing sentinel");
+    } catch (IOException expected) { /* ok */ }
+    // A nested escape, or a size past the end of the batch
+    for (char sz : new char[]{H2ONode.PACKED_BATCH, (char) 1000}) {
+      rbb = ByteBuffer.allocate(16).order(bb.order());
+      rbb.putChar(sz).put(new byte[10]).flip();
+      try {
+        TCPReceiverThread.UDP_TCP_ReaderThread.nextMessage(null, rbb);
+        fail("expected a bad size " + (int) sz);
+      } catch (IOException expected) { /* ok */ }
+    }
+  }
+}
@@ -0,0 +1,129 @@
+package water;
+
+import org.junit.Test;
+import water.persist.SpillCodec;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ByteChannel;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+/** Round trips of the big messages framed and packed by {@link PackedChannel}. */
+public class PackedChannelTest {
+
+  private static final int PACK_MIN = 1024;
+
+  // A channel over a stream pair; writes to out, reads from in
+  private static class StreamChannel implements ByteChannel {
+    final ReadableByteChannel _in;
+    final WritableByteChannel _out;
+    StreamChannel(byte[] in, ByteArrayOutputStream out) {
+      _in = Channels.newChannel(new ByteArrayInputStream(in == null ? new byte[0] : in));
+      _out = Channels.newChannel(out);
+    }
+    @Override public int read(ByteBuffer dst) throws IOException { return _in.read(dst); }
+    @Override public int write(ByteBuffer src) throws IOException { return _out.write(src); }
+    @Override public boolean isOpen() { return true; }
+    @Override public void close() { }
+  }
+
+  private static byte[] write(SpillCodec codec, byte[]... msgs) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    PackedChannel chan = new PackedChannel(new StreamChannel(null, out), codec, PACK_MIN);
+    for (byte[] m : msgs)
+      assertEquals(m.length, chan.write(ByteBuffer.wrap(m)));
+    return out.toByteArray();
+  }
+
+  // Reads n bytes through a buffer of the given size
+  private static byte[] read(PackedChannel chan, int n, int bufSize) throws IOException {
+    byte[] res = new byte[n];
+    ByteBuffer bb = ByteBuffer.allocate(bufSize);
+    int off = 0;
+    while (off < n) {
+      bb.clear();
+      bb.limit(Math.min(bufSize, n - off));
+      int r = chan.read(bb);
+      assertTrue("short of " + (n - off) + " bytes", r > 0);
+      bb.flip();
+      bb.get(res, off, r);
+      off += r;
+    }
+    return res;
+  }
+
+  private static PackedChannel reader(byte[] wire) {
+    return new PackedChannel(new StreamChannel(wire, new ByteArrayOutputStream()), SpillCodec.NONE, PACK_MIN);
+  }
+
+  private static byte[] compressible(Random r, int n) {
+    byte[] b = new byte[n];
+    for (int i = 0; i < n; i += 64)
+      Arrays.fill(b, i, Math.min(n, i + 64), (byte) r.nextInt(4));
+    return b;
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    Random r = new Random(0xB16);
+    for (SpillCodec codec : new SpillCodec[]{SpillCodec.LZ4, SpillCodec.DEFLATE}) {
+      // Two messages, the first over several frames, the second a partial frame
+      byte[] m1 = compressible(r, 2 * PackedChannel.FRAME_MAX + 12345), m2 = compressible(r, 5000);
+      byte[] wire = write(codec, m1, m2);
+      assertTrue(codec + " packs " + wire.length, wire.length < (m1.length + m2.length) / 4);
+      // Read back through a big buffer, then through one smaller than a frame
+      PackedChannel chan = reader(wire);
+      assertArrayEquals(codec.toString(), m1, read(chan, m1.length, 1 << 16));
+      assertArrayEquals(codec.toString(), m2, read(chan, m2.length, 7));
+      // Clean end of stream at a frame boundary
+      assertEquals(-1, chan.read(ByteBuffer.allocate(16)));
+    }
+  }
+
+  @Test
+  public void testRawFrames() throws IOException {
+    Random r = new Random(0x5EED);
+    byte[] noise = new byte[100000], small = compressible(r, PACK_MIN - 1);
+    r.nextBytes(noise);
+    for (SpillCodec codec : new SpillCodec[]{SpillCodec.NONE, SpillCodec.LZ4, SpillCodec.DEFLATE}) {
+      // Incompressible and under the threshold: raw, costing only the frame headers
+      byte[] wire = write(codec, noise, small);
+      assertEquals(codec.toString(), noise.length + small.length + 2 * 9, wire.length);
+      PackedChannel chan = reader(wire);
+      assertArrayEquals(noise, read(chan, noise.length, 4096));
+      assertArrayEquals(small, read(chan, small.length, 4096));
+      assertEquals(-1, chan.read(ByteBuffer.allocate(16)));
+    }
+  }
+
+  @Test
+  public void testTruncated() throws IOException {
+    byte[] m = compressible(new Random(0xC07), 50000);
+    byte[] wire = write(SpillCodec.LZ4, m);
+    for (int cut : new int[]{3, wire.length - 1}) {
+      PackedChannel chan = reader(Arrays.copyOf(wire, cut));
+      try {
+        read(chan, m.length, 4096);
+        fail("expected a cut frame at " + cut);
+      } catch (EOFException expected) { /* ok */ }
+    }
+    // A frame claiming more than a frame's worth of bytes
+    ByteBuffer bad = ByteBuffer.allocate(9);
+    bad.put((byte) 0).putInt(PackedChannel.FRAME_MAX + 1).putInt(PackedChannel.FRAME_MAX + 1);
+    try {
+      reader(bad.array()).read(ByteBuffer.allocate(16));
+      fail("expected a bad frame");
+    } catch (IOException expected) {
+      assertFalse(expected instanceof EOFException);
+    }
+  }
+}
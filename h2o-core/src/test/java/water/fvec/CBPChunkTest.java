@@ -0,0 +1,92 @@
+package water.fvec;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.IcedUtils;
+import water.TestUtil;
+import water.util.UnsafeUtils;
+
+import java.util.Random;
+
+public class CBPChunkTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  private static void check(double[] vals, Chunk cc) {
+    Assert.assertEquals(vals.length, cc._len);
+    for (int i = 0; i < vals.length; ++i) {
+      if (Double.isNaN(vals[i])) Assert.assertTrue(cc.isNA(i));
+      else Assert.assertEquals(vals[i], cc.atd(i), 0);
+    }
+    // Bulk decode, at an odd offset and with a ragged tail
+    double[] ds = cc.getDoubles(new double[vals.length - 8], 3, vals.length - 5, -1);
+    for (int i = 0; i < ds.length; ++i)
+      Assert.assertEquals(Double.isNaN(vals[i + 3]) ? -1 : vals[i + 3], ds[i], 0);
+  }
+
+  @Test
+  public void test_11bits() {
+    Random r = new Random(1234);
+    double[] vals = new double[1000];
+    for (int i = 0; i < vals.length; ++i) vals[i] = i % 31 == 0 ? Double.NaN : -100 + r.nextInt(2048);
+    NewChunk nc = new NewChunk(null, 0);
+    for (double v : vals) if (Double.isNaN(v)) nc.addNA(); else nc.addNum((long) v, 0);
+    Chunk cc = nc.compress();
+    Assert.assertTrue(cc instanceof CBPChunk);
+    Assert.assertFalse(cc.hasFloat());
+    // 12 bits, with the NA code, instead of the 16 of a C2Chunk
+    Assert.assertTrue(cc._mem.length < 2 * vals.length * 0.8);
+    check(vals, cc);
+    Chunk cc2 = IcedUtils.deepCopy(cc);
+    check(vals, cc2);
+
+    // In-place writes within the range
+    Assert.assertTrue(cc2.set_impl(1, -100L));
+    Assert.assertTrue(cc2.set_impl(2, 1947L));
+    Assert.assertTrue(cc2.setNA_impl(3));
+    Assert.assertFalse(cc2.set_impl(4, 1948L)); // The NA code
+    Assert.assertFalse(cc2.set_impl(5, -101L));
+    Assert.assertFalse(cc2.set_impl(6, 0.5));
+    vals[1] = -100;
+    vals[2] = 1947;
+    vals[3] = Double.NaN;
+    check(vals, cc2);
+
+    nc = cc2.extractRows(new NewChunk(null, 0), 0, vals.length);
+    for (int i = 0; i < vals.length; ++i) Assert.assertEquals(vals[i], nc.atd(i), 0);
+    Assert.assertTrue(nc.compress() instanceof CBPChunk);
+  }
+
+  @Test
+  public void test_all_widths() {
+    Random r = new Random(42);
+    for (int bits = 1; bits <= 63; ++bits) {
+      int len = 333;
+      long base = r.nextLong() >> 2;
+      long mask = (1L << bits) - 1;
+      byte[] bs = new byte[len << 3];
+      double[] vals = new double[len];
+      long[] ls = new long[len];
+      for (int i = 0; i < len; ++i) {
+        long c = i % 17 == 0 ? C8Chunk._NA : r.nextLong() & mask;
+        if (c == mask) c--; // Reserved for NA
+        UnsafeUtils.set8(bs, i << 3, c);
+        ls[i] = c + base;
+        vals[i] = c == C8Chunk._NA ? Double.NaN : c + base;
+      }
+      Chunk cc = new CBPChunk(bs, len, base, bits, true);
+      for (int i = 0; i < len; ++i) {
+        if (Double.isNaN(vals[i])) Assert.assertTrue(cc.isNA(i));
+        else Assert.assertEquals("bits=" + bits + ", row " + i, ls[i], cc.at8(i));
+      }
+      check(vals, cc);
+    }
+  }
+
+  @Test
+  public void test_short_chunks_stay_plain() {
+    NewChunk nc = new NewChunk(null, 0);
+    for (int i = 0; i < NewChunk.MIN_ENCODED_LEN - 1; ++i) nc.addNum(i * 7 % 1000, 0);
+    Assert.assertTrue(nc.compress() instanceof C2Chunk);
+  }
+}
@@ -0,0 +1,72 @@
+package water.fvec;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.IcedUtils;
+import water.TestUtil;
+
+import java.util.Random;
+
+public class CDictChunkTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  private static void check(double[] vals, Chunk cc) {
+    Assert.assertEquals(vals.length, cc._len);
+    for (int i = 0; i < vals.length; ++i) {
+      if (Double.isNaN(vals[i])) Assert.assertTrue(cc.isNA(i));
+      else Assert.assertEquals(vals[i], cc.atd(i), 0);
+    }
+    double[] ds = cc.getDoubles(new double[vals.length - 10], 10, vals.length, -1);
+    for (int i = 0; i < ds.length; ++i)
+      Assert.assertEquals(Double.isNaN(vals[i + 10]) ? -1 : vals[i + 10], ds[i], 0);
+    NewChunk nc = cc.extractRows(new NewChunk(null, 0), 0, vals.length);
+    for (int i = 0; i < vals.length; ++i)
+      Assert.assertEquals(vals[i], nc.atd(i), 0);
+  }
+
+  @Test
+  public void test_timestamps() {
+    // A few distinct wide longs, in no particular order
+    Random r = new Random(42);
+    double[] vals = new double[1000];
+    for (int i = 0; i < vals.length; ++i)
+      vals[i] = i % 97 == 0 ? Double.NaN : 1500000000123L + 7919L * r.nextInt(50);
+    NewChunk nc = new NewChunk(null, 0);
+    for (double v : vals) if (Double.isNaN(v)) nc.addNA(); else nc.addNum((long) v, 0);
+    Chunk cc = nc.compress();
+    Assert.assertTrue(cc instanceof CDictChunk);
+    Assert.assertFalse(cc.hasFloat());
+    Assert.assertTrue(cc._mem.length < 4 * vals.length);
+    Assert.assertEquals((long) vals[1], cc.at8(1));
+    check(vals, cc);
+    check(vals, IcedUtils.deepCopy(cc));
+  }
+
+  @Test
+  public void test_doubles_2byte_codes() {
+    // More distinct doubles than CUDChunk can hold
+    Random r = new Random(7);
+    double[] uniques = new double[300];
+    for (int i = 0; i < uniques.length; ++i) uniques[i] = r.nextDouble() * 1e6;
+    double[] vals = new double[2000];
+    for (int i = 0; i < vals.length; ++i) vals[i] = uniques[r.nextInt(uniques.length)];
+    vals[5] = Double.NaN;
+    NewChunk nc = new NewChunk(null, 0);
+    for (double v : vals) nc.addNum(v);
+    Chunk cc = nc.compress();
+    Assert.assertTrue(cc instanceof CDictChunk);
+    Assert.assertTrue(cc.hasFloat());
+    check(vals, cc);
+    Chunk cc2 = IcedUtils.deepCopy(cc);
+    check(vals, cc2);
+    Assert.assertFalse(cc2.set_impl(0, vals[1]));
+  }
+
+  @Test
+  public void test_too_many_uniques() {
+    NewChunk nc = new NewChunk(null, 0);
+    for (int i = 0; i < 1000; ++i) nc.addNum(1e-3 * i * Math.PI);
+    Assert.assertTrue(nc.compress() instanceof C8DChunk);
+  }
+}
@@ -0,0 +1,90 @@
+package water.fvec;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.IcedUtils;
+import water.TestUtil;
+
+public class CRLEChunkTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  private static void check(double[] vals, Chunk cc) {
+    Assert.assertEquals(vals.length, cc._len);
+    for (int i = 0; i < vals.length; ++i) {
+      if (Double.isNaN(vals[i])) Assert.assertTrue(cc.isNA(i));
+      else Assert.assertEquals(vals[i], cc.atd(i), 0);
+    }
+    // Bulk decode, starting mid-run
+    double[] ds = cc.getDoubles(new double[vals.length - 100], 50, vals.length - 50, -1);
+    for (int i = 0; i < ds.length; ++i)
+      Assert.assertEquals(Double.isNaN(vals[i + 50]) ? -1 : vals[i + 50], ds[i], 0);
+    // Random access out of order
+    for (int i = vals.length - 1; i >= 0; i -= 7)
+      Assert.assertEquals(vals[i], cc.atd(i), 0);
+  }
+
+  @Test
+  public void test_longs() {
+    double[] vals = new double[1000];
+    for (int i = 0; i < vals.length; ++i) vals[i] = i < 300 ? 1234567890123L : i < 310 ? Double.NaN : i < 700 ? -5 : i / 100;
+    NewChunk nc = new NewChunk(null, 0);
+    for (double v : vals) if (Double.isNaN(v)) nc.addNA(); else nc.addNum((long) v, 0);
+    Chunk cc = nc.compress();
+    Assert.assertTrue(cc instanceof CRLEChunk);
+    Assert.assertFalse(cc.hasFloat());
+    Assert.assertEquals(1234567890123L, cc.at8(0));
+    check(vals, cc);
+    check(vals, IcedUtils.deepCopy(cc));
+
+    // Not writable in place; writes inflate to a NewChunk
+    Assert.assertFalse(cc.set_impl(999, 3.5));
+
+    nc = cc.extractRows(new NewChunk(null, 0), 0, vals.length - 1);
+    Assert.assertEquals(vals.length - 1, nc._len);
+    for (int i = 0; i < vals.length - 1; ++i)
+      Assert.assertEquals(vals[i], nc.atd(i), 0);
+  }
+
+  @Test
+  public void test_mixed_encodings() {
+    // One value, stored as 1234567890120e0 and 123456789012e1 by turns: one run
+    double[] vals = new double[1000];
+    NewChunk nc = new NewChunk(null, 0);
+    for (int i = 0; i < vals.length; ++i) {
+      if (i < 600) {
+        vals[i] = 1234567890120L;
+        if ((i & 1) == 0) nc.addNum(1234567890120L, 0); else nc.addNum(123456789012L, 1);
+      } else {
+        vals[i] = i < 800 ? -50 : 7;
+        if ((i & 1) == 0) nc.addNum(vals[i] == 7 ? 7 : -50, 0); else nc.addNum(vals[i] == 7 ? 7 : -5, vals[i] == 7 ? 0 : 1);
+      }
+    }
+    Chunk cc = nc.compress();
+    Assert.assertTrue(cc instanceof CRLEChunk);
+    check(vals, cc);
+    check(vals, IcedUtils.deepCopy(cc));
+  }
+
+  @Test
+  public void test_doubles() {
+    double[] vals = new double[2000];
+    for (int i = 0; i < vals.length; ++i) vals[i] = i < 1000 ? Math.PI : i < 1500 ? Double.NaN : Math.E * (i / 100);
+    NewChunk nc = new NewChunk(null, 0);
+    for (double v : vals) nc.addNum(v);
+    Chunk cc = nc.compress();
+    Assert.assertTrue(cc instanceof CRLEChunk);
+    Assert.assertTrue(cc.hasFloat());
+    check(vals, cc);
+    Chunk cc2 = IcedUtils.deepCopy(cc);
+    check(vals, cc2);
+    Assert.assertTrue(cc2.extractRows(new NewChunk(null, 0), new int[]{0, 1200, 1999}).isNA(1));
+  }
+
+  @Test
+  public void test_short_chunks_stay_plain() {
+    NewChunk nc = new NewChunk(null, 0);
+    for (int i = 0; i < NewChunk.MIN_ENCODED_LEN - 1; ++i) nc.addNum(1234567890123L, 0);
+    Assert.assertFalse(nc.compress() instanceof CRLEChunk);
+  }
+}
@@ -0,0 +1,80 @@
+package water.fvec;
+
+import org.junit.Assert;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.TestUtil;
+
+import java.util.Random;
+
+public class ChunkBulkDecodeTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  private static Chunk make(double[] vals) {
+    NewChunk nc = new NewChunk(null, 0);
+    for (double v : vals)
+      if (Double.isNaN(v)) nc.addNA();
+      else if ((long) v == v) nc.addNum((long) v, 0);
+      else nc.addNum(v);
+    return nc.compress();
+  }
+
+  // Bulk decode of a sub-range must agree with atd/at8/isNA row by row
+  private static void check(Chunk c, Class<? extends Chunk> clz) {
+    Assert.assertEquals(clz, c.getClass());
+    int from = 7, to = c._len - 3, n = to - from;
+    double[] ds = new double[n];
+    long[] ls = new long[n];
+    long[] nas = Chunk.naBitmap(n);
+    nas[0] = -1; // Must be cleared
+    int nNAs = c.getDoubles(ds, nas, from, to);
+    int cnt = 0;
+    for (int k = 0; k < n; ++k) {
+      boolean na = c.isNA(from + k);
+      Assert.assertEquals(na, Chunk.isNA(nas, k));
+      if (na) { cnt++; Assert.assertTrue(Double.isNaN(ds[k])); }
+      else Assert.assertEquals(c.atd(from + k), ds[k], 0);
+    }
+    Assert.assertEquals(cnt, nNAs);
+    Assert.assertEquals(nNAs, c.getDoubles(ds, null, from, to));
+    if (!c.hasFloat()) {
+      nas[0] = -1;
+      Assert.assertEquals(nNAs, c.getLongs(ls, nas, from, to));
+      for (int k = 0; k < n; ++k) {
+        Assert.assertEquals(c.isNA(from + k), Chunk.isNA(nas, k));
+        Assert.assertEquals(c.isNA(from + k) ? 0 : c.at8(from + k), ls[k]);
+      }
+    }
+  }
+
+  @Test public void testEncodings() {
+    Random r = new Random(4321);
+    int len = 1000;
+    double[] c1 = new double[len], c2 = new double[len], c4 = new double[len], c8 = new double[len],
+        c8d = new double[len], cbp = new double[len], crle = new double[len], cdict = new double[len],
+        c1s = new double[len], c0l = new double[len];
+    for (int i = 0; i < len; ++i) {
+      boolean na = i % 37 == 5;
+      c1[i] = na ? Double.NaN : r.nextInt(200);
+      c2[i] = na ? Double.NaN : r.nextInt(60000) - 30000;
+      c4[i] = na ? Double.NaN : r.nextInt(Integer.MAX_VALUE - 1) - 1000;
+      c8[i] = na ? Double.NaN : r.nextLong() >> 11;
+      c8d[i] = na ? Double.NaN : r.nextDouble();
+      cbp[i] = na ? Double.NaN : r.nextInt(2000);
+      crle[i] = i < 500 ? Double.NaN : (i / 100) * 1000000007L;
+      cdict[i] = na ? Double.NaN : 1500000000123L + 7919L * r.nextInt(50);
+      c1s[i] = na ? Double.NaN : r.nextInt(200) / 10.0;
+      c0l[i] = 17;
+    }
+    check(make(c1), C1Chunk.class);
+    check(make(c2), C2Chunk.class);
+    check(make(c4), C4Chunk.class);
+    check(make(c8), C8Chunk.class);
+    check(make(c8d), C8DChunk.class);
+    check(make(cbp), CBPChunk.class);
+    check(make(crle), CRLEChunk.class);
+    check(make(cdict), CDictChunk.class);
+    check(make(c1s), C1SChunk.class);
+    check(make(c0l), C0LChunk.class);
+  }
+}
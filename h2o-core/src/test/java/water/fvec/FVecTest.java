@@ -90,10 +90,10 @@ public class FVecTest extends TestUtil {
       Chunk c=null;
       int i;
       for(i=0; i < chks.length; i++) {
-        if( chks[i].getClass()==water.fvec.C2Chunk.class )
+        if( chks[i].getClass()==water.fvec.C2Chunk.class || chks[i].getClass()==water.fvec.CBPChunk.class )
         { c=chks[i]; break; }
       }
-      Assert.assertNotNull("Expect to find a C2Chunk", c);
+      Assert.assertNotNull("Expect to find a C2Chunk or CBPChunk", c);
       assertTrue(c._vec.writable());
 
       double d=_mins[i];
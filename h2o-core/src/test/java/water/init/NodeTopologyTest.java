@@ -0,0 +1,56 @@
+package water.init;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.util.Arrays;
+import java.util.List;
+
+import water.util.StringUtils;
+
+/**
+ * Test grouping of nodes by topology.
+ */
+public class NodeTopologyTest {
+  @After
+  public void tearDown() { NodeTopology.clear(); }
+
+  private static void add(String lines) {
+    List<NetworkInit.FlatFileEntry> list = NetworkInit.parseFlatFile(new ByteArrayInputStream(StringUtils.bytesOf(lines)));
+    NodeTopology.add(list);
+  }
+
+  @Test
+  public void testParseGroups() {
+    List<NetworkInit.FlatFileEntry> list = NetworkInit.parseFlatFile(new ByteArrayInputStream(StringUtils.bytesOf(
+        "10.0.0.1:54321 rackA\n# comment\n10.0.0.2\trackB\n/10.0.0.3:54325\n10.0.0.4\n")));
+    Assert.assertEquals(4, list.size());
+    Assert.assertEquals("rackA", list.get(0).group);
+    Assert.assertFalse(list.get(0).anyPort);
+    Assert.assertEquals("rackB", list.get(1).group);
+    Assert.assertTrue(list.get(1).anyPort);
+    Assert.assertNull(list.get(2).group);
+    Assert.assertEquals(54325, list.get(2).port);
+    Assert.assertNull(list.get(3).group);
+  }
+
+  @Test
+  public void testOrder() {
+    String[] cloud = {"10.0.0.1:54321", "10.0.0.2:54321", "10.0.0.3:54321", "10.0.0.4:54321", "10.0.0.4:54323"};
+    // No topology, cloud order
+    Assert.assertNull(NodeTopology.order(cloud));
+    add("10.0.0.1:54321 r2\n10.0.0.2 r1\n10.0.0.3:54321 r2\n10.0.0.4 r1\n");
+    Assert.assertEquals("[1, 3, 4, 0, 2]", Arrays.toString(NodeTopology.order(cloud)));
+    // Node entries beat host entries
+    add("10.0.0.4:54323 r0\n");
+    Assert.assertEquals("[4, 1, 3, 0, 2]", Arrays.toString(NodeTopology.order(cloud)));
+  }
+
+  @Test
+  public void testOrderKeepsCloudOrder() {
+    add("10.0.0.1 r1\n10.0.0.2 r1\n10.0.0.3 r2\n");
+    Assert.assertNull(NodeTopology.order(new String[]{"10.0.0.1:54321", "10.0.0.2:54321", "10.0.0.3:54321"}));
+  }
+}
@@ -0,0 +1,110 @@
+package water.parser;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import static org.junit.Assert.*;
+
+/**
+ * Test suite for the parser's categorical hash set
+ */
+public class CategoricalTest {
+
+  @Test
+  public void testAddAndLookup() {
+    Categorical cat = new Categorical();
+    assertEquals(1, cat.addKey(new BufferedString("a")));
+    assertEquals(2, cat.addKey(new BufferedString("")));
+    assertEquals(3, cat.addKey(new BufferedString("abc")));
+    assertEquals(1, cat.addKey(new BufferedString("a")));
+    assertEquals(2, cat.addKey(new BufferedString("")));
+    assertEquals(3, cat.size());
+    assertEquals(3, cat.maxId());
+    assertEquals(3, cat.getTokenId(new BufferedString("abc")));
+    assertEquals(0, cat.getTokenId(new BufferedString("ab")));
+    assertTrue(cat.containsKey(new BufferedString("")));
+    assertFalse(cat.containsKey(new BufferedString("b")));
+  }
+
+  @Test
+  public void testLookupInBufferWindow() {
+    Categorical cat = new Categorical();
+    byte[] line = "x,red,green,red".getBytes();
+    BufferedString bs = new BufferedString();
+    assertEquals(1, cat.addKey(bs.set(line, 2, 3)));
+    assertEquals(2, cat.addKey(bs.set(line, 6, 5)));
+    assertEquals(1, cat.addKey(bs.set(line, 12, 3)));
+    BufferedString[] dom = cat.getColumnDomain();
+    Arrays.sort(dom);
+    assertArrayEquals(new String[]{"green", "red"}, BufferedString.toString(dom));
+  }
+
+  @Test
+  public void testGrowth() {
+    Categorical cat = new Categorical();
+    int n = 100000;
+    for (int i = 0; i < n; i++)
+      assertEquals(i + 1, cat.addKey(new BufferedString("level" + i)));
+    for (int i = 0; i < n; i++)
+      assertEquals(i + 1, cat.getTokenId(new BufferedString("level" + i)));
+    assertEquals(n, cat.size());
+    assertEquals(n, cat.getColumnDomain().length);
+  }
+
+  @Test
+  public void testConcurrentAdds() throws InterruptedException {
+    final Categorical cat = new Categorical();
+    final int n = 20000, nthreads = 4;
+    final AtomicReferenceArray<Integer> ids = new AtomicReferenceArray<>(n);
+    final Throwable[] failed = new Throwable[1];
+    Thread[] ts = new Thread[nthreads];
+    for (int t = 0; t < nthreads; t++) {
+      final int off = t * 997;
+      ts[t] = new Thread() {
+        @Override public void run() {
+          try {
+            BufferedString bs = new BufferedString();
+            for (int i = 0; i < n; i++) {
+              int k = (i + off) % n;
+              int id = cat.addKey(bs.set(("key" + k).getBytes()));
+              if (!ids.compareAndSet(k, null, id) && ids.get(k) != id)
+                throw new AssertionError("Key " + k + " got ids " + ids.get(k) + " and " + id);
+            }
+          } catch (Throwable e) { failed[0] = e; }
+        }
+      };
+      ts[t].start();
+    }
+    for (Thread t : ts) t.join();
+    assertNull(failed[0]);
+    assertEquals(n, cat.size());
+    assertEquals(n, cat.maxId());
+    Set<Integer> distinct = new HashSet<>();
+    for (int k = 0; k < n; k++) {
+      int id = ids.get(k);
+      assertTrue("ids are dense: " + id, 1 <= id && id <= n);
+      assertEquals(id, cat.getTokenId(new BufferedString("key" + k)));
+      distinct.add(id);
+    }
+    assertEquals(n, distinct.size());
+    assertEquals(n, cat.getColumnDomain().length);
+  }
+
+  @Test
+  public void testConvertToUTF8KeepsIds() {
+    Categorical cat = new Categorical();
+    int a = cat.addKey(new BufferedString("plain"));
+    int b = cat.addKey(new BufferedString(new byte[]{'x', (byte) 0xFF, 'y'}, 0, 3));
+    cat.convertToUTF8(1);
+    assertEquals(a, cat.getTokenId(new BufferedString("plain")));
+    assertEquals(0, cat.getTokenId(new BufferedString(new byte[]{'x', (byte) 0xFF, 'y'}, 0, 3)));
+    assertEquals(2, cat.size());
+    BufferedString[] dom = cat.getColumnDomain();
+    Arrays.sort(dom);
+    assertEquals(b, cat.getTokenId(dom[1]));
+  }
+}
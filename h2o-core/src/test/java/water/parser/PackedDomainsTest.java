@@ -89,10 +89,29 @@ public class PackedDomainsTest {
     assertArrayEquals(allWords, unpackToStrings(merge(first, merge(second, third))));
   }
 
+  @Test
+  public void testMergeAll() throws Exception {
+    assertArrayEquals(allWords, unpackToStrings(mergeAll(new byte[][] {first, second, third})));
+    assertArrayEquals(allWords, unpackToStrings(mergeAll(new byte[][] {null, third, empty, second, null, first})));
+    assertArrayEquals(second, mergeAll(new byte[][] {null, second, null}));
+    assertNull(mergeAll(new byte[][] {null, null}));
+    assertNull(mergeAll(new byte[0][]));
+  }
+
   @Test
   public void testMergeIdempotent() throws Exception {
     assertArrayEquals(first, merge(first, first));
     assertArrayEquals(second, merge(second, second));
     assertArrayEquals(third, merge(third, third));
   }
-}
\ No newline at end of file
+
+  @Test
+  public void testGlobalIndices() throws Exception {
+    final byte[] all = merge(third, merge(first, second));
+    assertArrayEquals(new int[] {0, 1, 2}, globalIndices(first, all));
+    assertArrayEquals(new int[] {3, 5, 6, 8, 9}, globalIndices(second, all));
+    assertArrayEquals(new int[] {0, 4, 7, 8, 10}, globalIndices(third, all));
+    assertArrayEquals(new int[0], globalIndices(empty, all));
+    assertArrayEquals(new int[] {-1, 2, -1}, globalIndices(pack("a", "neo", "xz"), second));
+  }
+}
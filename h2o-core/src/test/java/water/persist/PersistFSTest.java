@@ -0,0 +1,124 @@
+package water.persist;
+
+import org.junit.BeforeClass;
+import org.junit.Test;
+import water.AutoBuffer;
+import water.H2O;
+import water.Key;
+import water.TestUtil;
+import water.TypeMap;
+import water.Value;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class PersistFSTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(1); }
+
+  private static Value makeValue(Key k, Random r, int len) {
+    byte[] b = new byte[len];
+    for (int i = 0; i < len; i++) b[i] = (byte) (r.nextInt(8) == 0 ? r.nextInt() : i / 64);
+    return new Value(k, len, b, TypeMap.PRIM_B, Value.ICE);
+  }
+
+  @Test public void testBatchedStoreLoad() throws IOException {
+    PersistManager pm = H2O.getPM();
+    SpillCodec old = pm.getSpillCodec(Value.ICE);
+    Random r = new Random(42);
+    try {
+      for (SpillCodec c : new SpillCodec[]{SpillCodec.NONE, SpillCodec.LZ4, SpillCodec.DEFLATE}) {
+        pm.setSpillCodec(Value.ICE, c);
+        Value[] vs = new Value[50];
+        byte[][] expected = new byte[vs.length][];
+        for (int i = 0; i < vs.length; i++) {
+          vs[i] = makeValue(Key.make(), r, i == 0 ? 0 : r.nextInt(100000));
+          expected[i] = vs[i].memOrLoad().clone();
+        }
+        pm.store(Value.ICE, vs);
+        for (int i = 0; i < vs.length; i++) {
+          vs[i].setDsk();
+          assertArrayEquals(expected[i], pm.load(Value.ICE, vs[i]));
+        }
+        for (Value v : vs) pm.delete(Value.ICE, v);
+      }
+    } finally {
+      pm.setSpillCodec(Value.ICE, old);
+    }
+  }
+
+  @Test public void testMappedLoad() throws IOException {
+    PersistManager pm = H2O.getPM();
+    PersistFS ice = (PersistFS) pm.getIce();
+    boolean old = ice._mmap;
+    SpillCodec oldCodec = pm.getSpillCodec(Value.ICE);
+    Random r = new Random(3);
+    try {
+      ice._mmap = true;
+      pm.setSpillCodec(Value.ICE, SpillCodec.NONE);
+      ice._log.sealActive();    // A segment of our own
+      Value[] vs = new Value[20];
+      byte[][] expected = new byte[vs.length][];
+      for (int i = 0; i < vs.length; i++) {
+        vs[i] = makeValue(Key.make(), r, 1 + r.nextInt(50000));
+        expected[i] = vs[i].memOrLoad().clone();
+        pm.store(Value.ICE, vs[i]);
+        vs[i].setDsk();
+        // The active segment still grows: read, not mapped
+        assertArrayEquals(expected[i], pm.load(Value.ICE, vs[i]));
+        assertFalse(ice.writeDirect(vs[i], new AutoBuffer()));
+      }
+      ice._log.sealActive();
+      // Twice: every mapped page-in is checksummed
+      for (int k = 0; k < 2; k++)
+        for (int i = 0; i < vs.length; i++) {
+          assertArrayEquals(expected[i], pm.load(Value.ICE, vs[i]));
+          AutoBuffer ab = new AutoBuffer();
+          assertTrue(ice.writeDirect(vs[i], ab));
+          assertArrayEquals(expected[i], ab.flipForReading().getA1());
+        }
+      // Corrupt a record on disk; the mapping sees it, and so does every load
+      SpillLog.Loc loc = ice._log.get(vs[0]);
+      try (RandomAccessFile raf = new RandomAccessFile(loc._seg._file, "rw")) {
+        long pos = loc._pos + PersistFS.SPILL_HDR;
+        raf.seek(pos);
+        int x = raf.read();
+        raf.seek(pos);
+        raf.write(x ^ 0xFF);
+      }
+      for (int k = 0; k < 2; k++) {
+        try { pm.load(Value.ICE, vs[0]); fail("checksum mismatch expected"); } catch (IOException expectedIOE) { }
+        try { ice.writeDirect(vs[0], new AutoBuffer()); fail("checksum mismatch expected"); } catch (IOException expectedIOE) { }
+      }
+      assertArrayEquals(expected[1], pm.load(Value.ICE, vs[1]));
+      // A reader keeps the emptied segment, and its mapping, until it is done
+      assertTrue(loc._seg.pin());
+      for (Value v : vs) pm.delete(Value.ICE, v);
+      assertTrue(loc._seg._file.exists());
+      loc._seg.unpin();
+      assertFalse(loc._seg._file.exists());
+      assertFalse(loc._seg.pin());
+    } finally {
+      ice._mmap = old;
+      pm.setSpillCodec(Value.ICE, oldCodec);
+    }
+  }
+
+  @Test public void testRespillSameKey() throws IOException {
+    PersistManager pm = H2O.getPM();
+    Random r = new Random(7);
+    Key k = Key.make();
+    Value v1 = makeValue(k, r, 1000);
+    Value v2 = makeValue(k, r, 2000);
+    byte[] b2 = v2.memOrLoad().clone();
+    pm.store(Value.ICE, v1);
+    pm.store(Value.ICE, v2);
+    v2.setDsk();
+    // Deleting the stale Value must not drop the newer spill of the same Key
+    pm.delete(Value.ICE, v1);
+    assertArrayEquals(b2, pm.load(Value.ICE, v2));
+    pm.delete(Value.ICE, v2);
+  }
+}
@@ -0,0 +1,92 @@
+package water.persist;
+
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Random;
+
+import static org.junit.Assert.*;
+
+public class SpillCodecTest {
+
+  private static final SpillCodec[] CODECS = {SpillCodec.NONE, SpillCodec.LZ4, SpillCodec.DEFLATE};
+
+  private static byte[] roundTrip(SpillCodec c, byte[] raw) throws IOException {
+    byte[] packed = new byte[c.maxPackedLength(raw.length)];
+    int len = c.pack(raw, raw.length, packed);
+    assertTrue(len <= packed.length);
+    byte[] res = new byte[raw.length];
+    c.unpack(packed, 0, len, res, raw.length);
+    assertArrayEquals(c + " failed on " + raw.length + " bytes", raw, res);
+    return Arrays.copyOf(packed, len);
+  }
+
+  @Test
+  public void testRoundTrip() throws IOException {
+    Random r = new Random(0xCAFE);
+    for (SpillCodec c : CODECS) {
+      for (int n = 0; n < 64; n++) {      // Tiny inputs, below the LZ4 match limits
+        byte[] b = new byte[n];
+        r.nextBytes(b);
+        roundTrip(c, b);
+      }
+      byte[] rnd = new byte[100000];      // Incompressible
+      r.nextBytes(rnd);
+      roundTrip(c, rnd);
+      byte[] runs = new byte[100000];     // Long runs, overlapping LZ4 matches
+      for (int i = 0; i < runs.length; i++) runs[i] = (byte) (i / 1000);
+      roundTrip(c, runs);
+      byte[] sparse = new byte[1 << 20];  // Mostly zeros, like a sparse chunk
+      for (int i = 0; i < sparse.length; i += 97) sparse[i] = (byte) r.nextInt();
+      roundTrip(c, sparse);
+    }
+  }
+
+  @Test
+  public void testCompresses() throws IOException {
+    byte[] b = new byte[1 << 16];
+    for (int i = 0; i < b.length; i++) b[i] = (byte) (i % 13 == 0 ? i : 0);
+    assertTrue(roundTrip(SpillCodec.LZ4, b).length < b.length / 4);
+    assertTrue(roundTrip(SpillCodec.DEFLATE, b).length < b.length / 4);
+  }
+
+  @Test
+  public void testCorruptInput() throws IOException {
+    byte[] b = new byte[10000];
+    for (int i = 0; i < b.length; i++) b[i] = (byte) (i % 31);
+    for (SpillCodec c : new SpillCodec[]{SpillCodec.LZ4, SpillCodec.DEFLATE}) {
+      byte[] packed = roundTrip(c, b);
+      try {
+        // Truncated input must not silently produce the wrong length
+        c.unpack(packed, 0, packed.length / 2, new byte[b.length], b.length);
+        fail(c + " accepted truncated input");
+      } catch (IOException expected) {
+      }
+    }
+  }
+
+  @Test
+  public void testReuse() throws IOException {
+    // The per-thread scratch carries over between calls: a long input fills
+    // the LZ4 hash table, a short one after it must not match into stale slots
+    Random r = new Random(0xBEEF);
+    byte[] big = new byte[1 << 16];
+    for (int i = 0; i < big.length; i++) big[i] = (byte) (i % 251);
+    for (SpillCodec c : CODECS) {
+      for (int k = 0; k < 10; k++) {
+        roundTrip(c, big);
+        byte[] small = new byte[20 + r.nextInt(200)];
+        for (int i = 0; i < small.length; i++) small[i] = (byte) (i % 5);
+        roundTrip(c, small);
+      }
+    }
+  }
+
+  @Test
+  public void testForName() throws IOException {
+    assertSame(SpillCodec.LZ4, SpillCodec.forName("LZ4"));
+    assertSame(SpillCodec.DEFLATE, SpillCodec.forName(" deflate"));
+    for (SpillCodec c : CODECS) assertSame(c, SpillCodec.forId(c._id));
+  }
+}
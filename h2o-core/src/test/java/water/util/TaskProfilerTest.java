@@ -0,0 +1,85 @@
+package water.util;
+
+import static org.junit.Assert.*;
+import org.junit.*;
+
+import water.H2O;
+import water.MRTask;
+import water.TestUtil;
+import water.fvec.Chunk;
+import water.fvec.Vec;
+
+public class TaskProfilerTest extends TestUtil {
+  @BeforeClass() public static void setup() { stall_till_cloudsize(3); }
+  public TaskProfilerTest() { super(3); }
+
+  private static class Sum extends MRTask<Sum> {
+    long _sum;
+    @Override public void map(Chunk c) { for (int i = 0; i < c._len; ++i) _sum += c.at8(i); }
+    @Override public void reduce(Sum s) { _sum += s._sum; }
+  }
+
+  private static TaskProfiler.TaskProfile find(TaskProfiler.TaskProfile[] ps) {
+    for (TaskProfiler.TaskProfile p : ps)
+      if (p._task.equals(Sum.class.getName())) return p;
+    return null;
+  }
+
+  @Test public void testBucket() {
+    assertEquals(0, TaskProfiler.bucket(0));
+    assertEquals(1, TaskProfiler.bucket(1));
+    assertEquals(2, TaskProfiler.bucket(3));
+    assertEquals(3, TaskProfiler.bucket(4));
+    assertEquals(TaskProfiler.NBUCKETS-1, TaskProfiler.bucket(Long.MAX_VALUE));
+  }
+
+  @Test public void testStripes() throws InterruptedException {
+    // Threads updating their own stripes add up to the same counts
+    final TaskProfiler p = TaskProfiler.forClass(TaskProfilerTest.class);
+    Thread[] ts = new Thread[2*TaskProfiler.NSTRIPES+1];
+    for (int t = 0; t < ts.length; ++t) {
+      ts[t] = new Thread() {
+        @Override public void run() {
+          for (int i = 0; i < 1000; ++i) { p.map(i, 10); p.reduce(2000); }
+        }
+      };
+      ts[t].start();
+    }
+    for (Thread t : ts) t.join();
+    TaskProfiler.TaskProfile res = null;
+    for (TaskProfiler.TaskProfile tp : TaskProfiler.snapshot())
+      if (tp._task.equals(TaskProfilerTest.class.getName())) res = tp;
+    assertNotNull(res);
+    assertEquals(ts.length*1000, res.chunks());
+    assertEquals(ts.length*10000, res.bytesRead());
+    assertEquals(ts.length*(999*1000/2), res.mapNanos());
+    assertEquals(ts.length*1000, res.reduceHistUs()[TaskProfiler.bucket(2)]);
+    long hist = 0;
+    for (long c : res.mapHistUs()) hist += c;
+    assertEquals(res.chunks(), hist);
+  }
+
+  @Test public void testTaskProfiler() {
+    Assume.assumeTrue(TaskProfiler.ENABLED);
+    Vec vec = Vec.makeCon(1, 1 << 12, 4, true);
+    try {
+      TaskProfiler.TaskProfile before = find(TaskProfiler.sum(TaskProfiler.collect()));
+      assertEquals(vec.length(), new Sum().doAll(vec)._sum);
+      TaskProfiler.TaskProfile[][] nodes = TaskProfiler.collect();
+      assertEquals(H2O.CLOUD.size(), nodes.length);
+      TaskProfiler.TaskProfile after = find(TaskProfiler.sum(nodes));
+      assertNotNull(after);
+      long chunks = after.chunks() - (before == null ? 0 : before.chunks());
+      assertEquals(vec.nChunks(), chunks);
+      assertTrue(after.bytesRead() > 0);
+      long hist = 0;
+      for (long c : after.mapHistUs()) hist += c;
+      assertEquals(after.chunks(), hist);
+      // One local run per node
+      assertEquals(H2O.CLOUD.size(), after.tasks() - (before == null ? 0 : before.tasks()));
+      assertEquals(H2O.CLOUD.size() - 1, after.rpcs() - (before == null ? 0 : before.rpcs()));
+    } finally {
+      vec.remove();
+    }
+  }
+}